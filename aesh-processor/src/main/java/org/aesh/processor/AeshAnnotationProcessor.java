@@ -65,7 +65,8 @@ import org.aesh.command.CommandDefinition;
 })
 @SupportedOptions({
         AeshAnnotationProcessor.OPT_PROJECT,
-        AeshAnnotationProcessor.OPT_DISABLE_NATIVE_IMAGE
+        AeshAnnotationProcessor.OPT_DISABLE_NATIVE_IMAGE,
+        AeshAnnotationProcessor.OPT_COMPLETION_DATABASE
 })
 @SupportedSourceVersion(SourceVersion.RELEASE_8)
 public class AeshAnnotationProcessor extends AbstractProcessor {
@@ -74,6 +75,8 @@ public class AeshAnnotationProcessor extends AbstractProcessor {
     static final String OPT_PROJECT = "aeshNativeImageProject";
     /** Processor option: set to "true" to skip native-image config generation. */
     static final String OPT_DISABLE_NATIVE_IMAGE = "aeshNativeImageDisable";
+    /** Processor option: set to "true" to write the completion database of the root commands. */
+    static final String OPT_COMPLETION_DATABASE = "aeshCompletionDatabase";
 
     private Filer filer;
     private Messager messager;
@@ -85,6 +88,8 @@ public class AeshAnnotationProcessor extends AbstractProcessor {
     private boolean registryGenerated;
     /** Private fields needing reflection config, grouped by declaring class name. */
     private final Map<String, Set<String>> reflectConfigEntries = new LinkedHashMap<>();
+    /** Qualified names of the commands, for the completion databases. */
+    private final Set<String> completionCommands = new LinkedHashSet<>();
 
     @Override
     public synchronized void init(ProcessingEnvironment processingEnv) {
@@ -103,6 +108,8 @@ public class AeshAnnotationProcessor extends AbstractProcessor {
                 writeServiceFile();
                 writeNativeImageConfigs();
             }
+            if ("true".equals(processingEnv.getOptions().get(OPT_COMPLETION_DATABASE)))
+                writeCompletionDatabases();
             return false;
         }
 
@@ -118,6 +125,7 @@ public class AeshAnnotationProcessor extends AbstractProcessor {
             if (!validate(commandElement)) {
                 continue;
             }
+            completionCommands.add(commandElement.getQualifiedName().toString());
             try {
                 generateProvider(commandElement);
             } catch (IOException e) {
@@ -329,6 +337,40 @@ public class AeshAnnotationProcessor extends AbstractProcessor {
         collectPrivateFieldsForReflectConfig(fields);
     }
 
+    /**
+     * Write the {@link org.aesh.util.completer.CompletionDatabase} of each command that is
+     * not a subcommand, printed by {@code --aesh-completion-db}.
+     */
+    private void writeCompletionDatabases() {
+        Set<String> subcommands = new LinkedHashSet<>();
+        for (String command : completionCommands)
+            subcommands.addAll(CodeGenerator.getGroupCommandClassNames(elementUtils.getTypeElement(command), elementUtils));
+        CompletionDatabaseGenerator generator = new CompletionDatabaseGenerator(elementUtils, typeUtils);
+        for (String command : completionCommands) {
+            if (subcommands.contains(command))
+                continue;
+            TypeElement element = elementUtils.getTypeElement(command);
+            org.aesh.util.completer.CompletionDatabase database = generator.generate(element);
+            if (database == null) {
+                messager.printMessage(Diagnostic.Kind.NOTE,
+                        "No completion database for " + command + ", its subcommands are added at runtime");
+                continue;
+            }
+            String name = CodeGenerator.getAnnotationValue(element, "name", elementUtils);
+            try {
+                javax.tools.FileObject resource = filer.createResource(javax.tools.StandardLocation.CLASS_OUTPUT, "",
+                        org.aesh.util.completer.CompletionDatabase.resourceName(name), element);
+                try (Writer writer = new java.io.OutputStreamWriter(resource.openOutputStream(),
+                        java.nio.charset.StandardCharsets.UTF_8)) {
+                    database.write(writer);
+                }
+            } catch (IOException e) {
+                messager.printMessage(Diagnostic.Kind.ERROR,
+                        "Failed to write completion database: " + e.getMessage(), element);
+            }
+        }
+    }
+
     @SuppressWarnings("unchecked")
     private boolean hasGroupCommands(TypeElement element) {
         for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
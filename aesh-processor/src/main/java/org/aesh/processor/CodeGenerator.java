@@ -51,7 +51,7 @@ final class CodeGenerator {
     private static final String NULL_COMMAND_VALIDATOR = "org.aesh.command.impl.validator.NullCommandValidator";
     private static final String NULL_RESULT_HANDLER = "org.aesh.command.impl.result.NullResultHandler";
     private static final String NULL_COMMAND_ACTIVATOR = "org.aesh.command.impl.activator.NullCommandActivator";
-    private static final String NULL_OPTION_COMPLETER = "org.aesh.command.impl.completer.NullOptionCompleter";
+    static final String NULL_OPTION_COMPLETER = "org.aesh.command.impl.completer.NullOptionCompleter";
     private static final String NULL_CONVERTER = "org.aesh.command.impl.converter.NullConverter";
     private static final String NULL_VALIDATOR = "org.aesh.command.impl.validator.NullValidator";
     private static final String NULL_ACTIVATOR = "org.aesh.command.impl.activator.NullActivator";
@@ -91,7 +91,7 @@ final class CodeGenerator {
      * Returns null if the type is not an enum or constants cannot be resolved.
      * Used to auto-populate allowedValues at compile time (#591).
      */
-    private static String[] getEnumConstantNames(TypeMirror fieldType, Types typeUtils) {
+    static String[] getEnumConstantNames(TypeMirror fieldType, Types typeUtils) {
         if (fieldType.getKind() != TypeKind.DECLARED)
             return null;
         javax.lang.model.element.Element element = typeUtils.asElement(fieldType);
@@ -110,7 +110,7 @@ final class CodeGenerator {
     /**
      * Check if a field has a custom converter (not the default NullConverter).
      */
-    private static boolean hasCustomConverter(VariableElement field, Elements elementUtils) {
+    static boolean hasCustomConverter(VariableElement field, Elements elementUtils) {
         String className = getFieldAnnotationClassValue(field, "converter", elementUtils);
         return className != null && !className.equals(NULL_CONVERTER);
     }
@@ -332,7 +332,7 @@ final class CodeGenerator {
     }
 
     @SuppressWarnings("unchecked")
-    private static List<String> getGroupCommandClassNames(TypeElement element, Elements elementUtils) {
+    static List<String> getGroupCommandClassNames(TypeElement element, Elements elementUtils) {
         List<String> classNames = new java.util.ArrayList<>();
         for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
             String annotationType = ((TypeElement) mirror.getAnnotationType().asElement())
@@ -448,6 +448,10 @@ final class CodeGenerator {
                     .append(commandFallback.name()).append(");\n\n");
         }
 
+        if ("PROTOTYPE".equals(getAnnotationValue(commandElement, "scope", elementUtils))) {
+            sb.append("        processedCommand.setScope(org.aesh.command.CommandScope.PROTOTYPE);\n\n");
+        }
+
         // Set command-level helpGroup if present
         String cmdHelpGroup = getAnnotationValue(commandElement, "helpGroup", elementUtils);
         if (cmdHelpGroup != null && !cmdHelpGroup.isEmpty()) {
@@ -1220,6 +1224,17 @@ final class CodeGenerator {
     private static void emitCompleteFallbackSetter(StringBuilder sb, String var,
             org.aesh.command.option.CompletionFallback value, TypeMirror effectiveType, Types typeUtils,
             org.aesh.command.option.CompletionFallback commandFallback) {
+        sb.append("            ").append(var).append(".setCompleteFallback(org.aesh.command.option.CompletionFallback.")
+                .append(resolveCompleteFallback(value, effectiveType, typeUtils, commandFallback).name()).append(");\n");
+    }
+
+    /**
+     * Resolve a DEFAULT fallback with the command-level default (if set) or the
+     * effective type.
+     */
+    static org.aesh.command.option.CompletionFallback resolveCompleteFallback(
+            org.aesh.command.option.CompletionFallback value, TypeMirror effectiveType, Types typeUtils,
+            org.aesh.command.option.CompletionFallback commandFallback) {
         org.aesh.command.option.CompletionFallback resolved = value;
         if (resolved == org.aesh.command.option.CompletionFallback.DEFAULT
                 && commandFallback != org.aesh.command.option.CompletionFallback.DEFAULT) {
@@ -1249,8 +1264,7 @@ final class CodeGenerator {
                 resolved = org.aesh.command.option.CompletionFallback.NONE;
             }
         }
-        sb.append("            ").append(var).append(".setCompleteFallback(org.aesh.command.option.CompletionFallback.")
-                .append(resolved.name()).append(");\n");
+        return resolved;
     }
 
     private static void emitAliasesSetter(StringBuilder sb, String var, String[] aliases) {
@@ -1517,7 +1531,7 @@ final class CodeGenerator {
      * Extract the Class value of a named annotation attribute from the field's
      * option annotation. Returns the fully-qualified class name, or null if not found.
      */
-    private static String getFieldAnnotationClassValue(VariableElement field, String attributeName,
+    static String getFieldAnnotationClassValue(VariableElement field, String attributeName,
             Elements elementUtils) {
         // Check which annotation is on this field and extract from it
         String[] annotationTypes = {
@@ -1579,7 +1593,7 @@ final class CodeGenerator {
      * Read a string or boolean annotation value via annotation mirrors.
      * Safe from MirroredTypesException.
      */
-    private static String getAnnotationValue(TypeElement element, String attributeName, Elements elementUtils) {
+    static String getAnnotationValue(TypeElement element, String attributeName, Elements elementUtils) {
         for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
             String mirrorType = ((TypeElement) mirror.getAnnotationType().asElement())
                     .getQualifiedName().toString();
@@ -1667,14 +1681,14 @@ final class CodeGenerator {
 
     // --- Type utility methods ---
 
-    private static boolean isOptionalType(TypeMirror type) {
+    static boolean isOptionalType(TypeMirror type) {
         return type.toString().startsWith("java.util.Optional");
     }
 
     /**
      * Unwrap Optional&lt;T&gt; to get T from a field's type mirror.
      */
-    private static TypeMirror unwrapOptionalTypeMirror(TypeMirror type) {
+    static TypeMirror unwrapOptionalTypeMirror(TypeMirror type) {
         if (type instanceof DeclaredType) {
             DeclaredType declaredType = (DeclaredType) type;
             List<? extends TypeMirror> typeArgs = declaredType.getTypeArguments();
@@ -1685,14 +1699,14 @@ final class CodeGenerator {
         return type;
     }
 
-    private static boolean isBooleanType(TypeMirror type, Types typeUtils) {
+    static boolean isBooleanType(TypeMirror type, Types typeUtils) {
         if (type.getKind() == TypeKind.BOOLEAN)
             return true;
         String name = type.toString();
         return name.equals("java.lang.Boolean");
     }
 
-    private static boolean isFileOrResourceType(TypeMirror type, Types typeUtils) {
+    static boolean isFileOrResourceType(TypeMirror type, Types typeUtils) {
         String name = type.toString();
         return name.equals("java.io.File") || name.equals("java.nio.file.Path")
                 || name.equals("org.aesh.io.Resource");
@@ -1724,7 +1738,7 @@ final class CodeGenerator {
     /**
      * Get the TypeMirror of a generic type argument. Returns null if not resolvable.
      */
-    private static TypeMirror getGenericTypeArgumentMirror(TypeMirror type, int index) {
+    static TypeMirror getGenericTypeArgumentMirror(TypeMirror type, int index) {
         if (type instanceof DeclaredType) {
             DeclaredType declaredType = (DeclaredType) type;
             List<? extends TypeMirror> typeArgs = declaredType.getTypeArguments();
@@ -0,0 +1,264 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.processor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+
+import org.aesh.command.option.Argument;
+import org.aesh.command.option.Arguments;
+import org.aesh.command.option.CompletionFallback;
+import org.aesh.command.option.Mixin;
+import org.aesh.command.option.Option;
+import org.aesh.command.option.OptionList;
+import org.aesh.util.completer.CompletionDatabase;
+
+/**
+ * Builds the {@link CompletionDatabase} of a root command from its annotations, the
+ * same database {@code --aesh-completion-db} builds at runtime.
+ *
+ * @author Aesh team
+ */
+final class CompletionDatabaseGenerator {
+
+    private static final String GROUP_COMMAND = "org.aesh.command.GroupCommand";
+
+    private final Elements elementUtils;
+    private final Types typeUtils;
+
+    CompletionDatabaseGenerator(Elements elementUtils, Types typeUtils) {
+        this.elementUtils = elementUtils;
+        this.typeUtils = typeUtils;
+    }
+
+    /**
+     * @return the database, or null if a command of the tree adds its subcommands at
+     *         runtime by implementing {@code GroupCommand}
+     */
+    CompletionDatabase generate(TypeElement rootCommand) {
+        CompletionDatabase database = new CompletionDatabase();
+        return addCommand(database, rootCommand, "", new ArrayList<>()) ? database : null;
+    }
+
+    private boolean addCommand(CompletionDatabase database, TypeElement command, String path,
+            List<OptionEntry> inheritedOptions) {
+        if (implementsGroupCommand(command))
+            return false;
+        CompletionFallback commandFallback = CompletionFallback.DEFAULT;
+        String fallbackName = CodeGenerator.getAnnotationValue(command, "completeFallback", elementUtils);
+        if (fallbackName != null && !fallbackName.isEmpty()) {
+            try {
+                commandFallback = CompletionFallback.valueOf(fallbackName);
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+
+        List<OptionEntry> options = new ArrayList<>();
+        if ("true".equals(CodeGenerator.getAnnotationValue(command, "generateHelp", elementUtils)))
+            options.add(new OptionEntry("help", "h", new String[0], false, "Display this help and exit"));
+        String version = CodeGenerator.getAnnotationValue(command, "version", elementUtils);
+        if (version != null && !version.isEmpty())
+            options.add(new OptionEntry("version", "v", new String[0], false,
+                    "Displays version information of the command"));
+        Positional positional = new Positional();
+        addFields(command, options, positional, commandFallback);
+
+        Set<String> names = new HashSet<>();
+        for (OptionEntry option : options)
+            names.add(option.name);
+        List<OptionEntry> allOptions = new ArrayList<>(options);
+        for (OptionEntry option : inheritedOptions)
+            if (names.add(option.name))
+                allOptions.add(option);
+        for (OptionEntry option : allOptions)
+            option.addTo(database, path);
+
+        if (positional.fallback != null) {
+            if (positional.customCompleter)
+                database.addArgumentValue(path, CompletionDatabase.JVM);
+            database.setFallback(path, positional.fallback);
+        } else {
+            database.setFallback(path, CompletionFallback.FILES);
+        }
+
+        List<String> groupCommands = CodeGenerator.getGroupCommandClassNames(command, elementUtils);
+        if (!groupCommands.isEmpty()) {
+            List<OptionEntry> childInherited = new ArrayList<>(inheritedOptions);
+            for (OptionEntry option : options)
+                if (option.inherited)
+                    childInherited.add(option);
+            for (String className : groupCommands) {
+                TypeElement child = elementUtils.getTypeElement(className);
+                if (child == null)
+                    return false;
+                String name = CodeGenerator.getAnnotationValue(child, "name", elementUtils);
+                database.addCommand(path, name, description(
+                        CodeGenerator.getAnnotationValue(child, "description", elementUtils)));
+                if (!addCommand(database, child, CompletionDatabase.path(path, name), childInherited))
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    private void addFields(TypeElement type, List<OptionEntry> options, Positional positional,
+            CompletionFallback commandFallback) {
+        for (Element enclosed : type.getEnclosedElements()) {
+            if (enclosed.getKind() == ElementKind.FIELD)
+                addField((VariableElement) enclosed, options, positional, commandFallback);
+        }
+        TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() == TypeKind.DECLARED)
+            addFields((TypeElement) typeUtils.asElement(superclass), options, positional, commandFallback);
+    }
+
+    private void addField(VariableElement field, List<OptionEntry> options, Positional positional,
+            CompletionFallback commandFallback) {
+        TypeMirror type = field.asType();
+        if (CodeGenerator.isOptionalType(type))
+            type = CodeGenerator.unwrapOptionalTypeMirror(type);
+        String fieldName = field.getSimpleName().toString();
+        Option o = field.getAnnotation(Option.class);
+        OptionList ol = field.getAnnotation(OptionList.class);
+        Argument arg = field.getAnnotation(Argument.class);
+        Arguments args = field.getAnnotation(Arguments.class);
+        if (o != null) {
+            OptionEntry option = new OptionEntry(o.name().isEmpty() ? fieldName : o.name(), shortName(o.shortName()),
+                    o.aliases(), o.hasValue(), o.description());
+            option.inherited = o.inherited();
+            if (o.negatable())
+                option.negatedName = o.negationPrefix() + option.name;
+            if (o.hasValue()) {
+                String[] allowedValues = o.allowedValues();
+                if (allowedValues.length == 0 && !CodeGenerator.hasCustomConverter(field, elementUtils)) {
+                    String[] enumConstants = CodeGenerator.getEnumConstantNames(type, typeUtils);
+                    if (enumConstants != null)
+                        allowedValues = enumConstants;
+                }
+                if (hasCustomCompleter(field))
+                    option.values.add(CompletionDatabase.JVM);
+                else if (allowedValues.length > 0)
+                    option.values.addAll(Arrays.asList(allowedValues));
+                else if (CodeGenerator.isBooleanType(type, typeUtils))
+                    option.values.addAll(Arrays.asList("true", "false"));
+                else if (CodeGenerator.isFileOrResourceType(type, typeUtils))
+                    option.values.add(CompletionDatabase.FILE);
+            }
+            options.add(option);
+        } else if (ol != null) {
+            OptionEntry option = new OptionEntry(ol.name().isEmpty() ? fieldName : ol.name(),
+                    shortName(ol.shortName()), ol.aliases(), true, ol.description());
+            option.inherited = ol.inherited();
+            if (hasCustomCompleter(field))
+                option.values.add(CompletionDatabase.JVM);
+            else
+                option.values.addAll(Arrays.asList(ol.allowedValues()));
+            options.add(option);
+        } else if (arg != null) {
+            // like ProcessedCommand, an @Argument comes before @Arguments
+            if (!positional.argument) {
+                positional.argument = true;
+                positional.customCompleter = hasCustomCompleter(field);
+                positional.fallback = CodeGenerator.resolveCompleteFallback(arg.completeFallback(), type, typeUtils,
+                        commandFallback);
+            }
+        } else if (args != null) {
+            if (positional.fallback == null) {
+                TypeMirror elementType = CodeGenerator.getGenericTypeArgumentMirror(type, 0);
+                positional.customCompleter = hasCustomCompleter(field);
+                positional.fallback = CodeGenerator.resolveCompleteFallback(args.completeFallback(),
+                        elementType != null ? elementType : type, typeUtils, commandFallback);
+            }
+        } else if (field.getAnnotation(Mixin.class) != null && type instanceof DeclaredType) {
+            addFields((TypeElement) ((DeclaredType) type).asElement(), options, positional, commandFallback);
+        }
+    }
+
+    private boolean hasCustomCompleter(VariableElement field) {
+        String className = CodeGenerator.getFieldAnnotationClassValue(field, "completer", elementUtils);
+        return className != null && !className.equals(CodeGenerator.NULL_OPTION_COMPLETER);
+    }
+
+    private boolean implementsGroupCommand(TypeElement command) {
+        TypeElement groupCommand = elementUtils.getTypeElement(GROUP_COMMAND);
+        return groupCommand != null
+                && typeUtils.isAssignable(typeUtils.erasure(command.asType()), typeUtils.erasure(groupCommand.asType()));
+    }
+
+    private static String shortName(char shortName) {
+        return shortName != '\u0000' ? String.valueOf(shortName) : null;
+    }
+
+    /**
+     * Descriptions with variables are resolved at runtime, they are left out.
+     */
+    private static String description(String description) {
+        return description == null || description.contains("${") ? "" : description;
+    }
+
+    /** The completion of the first positional of a command. */
+    private static final class Positional {
+        CompletionFallback fallback;
+        boolean customCompleter;
+        boolean argument;
+    }
+
+    private static final class OptionEntry {
+        final String name;
+        final String shortName;
+        final String[] aliases;
+        final boolean hasValue;
+        final String description;
+        final List<String> values = new ArrayList<>();
+        String negatedName;
+        boolean inherited;
+
+        OptionEntry(String name, String shortName, String[] aliases, boolean hasValue, String description) {
+            this.name = name;
+            this.shortName = shortName;
+            this.aliases = aliases;
+            this.hasValue = hasValue;
+            this.description = description(description);
+        }
+
+        void addTo(CompletionDatabase database, String path) {
+            database.addOption(path, "--" + name, name, hasValue, description);
+            for (String alias : aliases)
+                database.addOption(path, "--" + alias, name, hasValue, description);
+            if (shortName != null)
+                database.addOption(path, "-" + shortName, name, hasValue, description);
+            if (negatedName != null)
+                database.addOption(path, "--" + negatedName, name, false, description);
+            for (String value : values)
+                database.addOptionValue(path, name, value);
+        }
+    }
+}
@@ -44,12 +44,14 @@ import javax.tools.StandardLocation;
 import javax.tools.ToolProvider;
 
 import org.aesh.command.Command;
+import org.aesh.command.CommandScope;
 import org.aesh.command.impl.container.AeshCommandContainerBuilder;
 import org.aesh.command.impl.internal.GeneratedProcessedOption;
 import org.aesh.command.impl.internal.ProcessedCommand;
 import org.aesh.command.impl.internal.ProcessedOption;
 import org.aesh.command.metadata.CommandMetadataProvider;
 import org.aesh.command.metadata.MetadataRegistry;
+import org.aesh.util.completer.CompletionDatabase;
 import org.junit.Test;
 
 /**
@@ -817,6 +819,44 @@ public class ProcessorTest {
         assertEquals("helpGroup should match reflection path", reflectionPC.helpGroup(), generatedPC.helpGroup());
     }
 
+    // --- Test: @CommandDefinition with scope ---
+
+    private static final String PROTOTYPE_SOURCE = "package test;\n" +
+            "\n" +
+            "import org.aesh.command.Command;\n" +
+            "import org.aesh.command.CommandDefinition;\n" +
+            "import org.aesh.command.CommandResult;\n" +
+            "import org.aesh.command.CommandScope;\n" +
+            "import org.aesh.command.invocation.CommandInvocation;\n" +
+            "import org.aesh.command.option.Option;\n" +
+            "\n" +
+            "@CommandDefinition(name = \"proto\", description = \"Prototype command\", scope = CommandScope.PROTOTYPE)\n" +
+            "public class PrototypeCommand implements Command<CommandInvocation> {\n" +
+            "    @Option\n" +
+            "    String value;\n" +
+            "\n" +
+            "    @Override\n" +
+            "    public CommandResult execute(CommandInvocation commandInvocation) {\n" +
+            "        return CommandResult.SUCCESS;\n" +
+            "    }\n" +
+            "}\n";
+
+    @Test
+    public void testCommandScope() throws Exception {
+        CompilationResult result = compileWithProcessor(
+                new InMemorySource("test.PrototypeCommand", PROTOTYPE_SOURCE));
+        assertTrue("Compilation should succeed: " + result.diagnostics, result.success);
+
+        Class<?> commandClass = result.classLoader.loadClass("test.PrototypeCommand");
+        Class<?> metadataClass = result.classLoader.loadClass("test.PrototypeCommand_AeshMetadata");
+
+        CommandMetadataProvider provider = (CommandMetadataProvider) metadataClass.newInstance();
+        ProcessedCommand generatedPC = provider.buildProcessedCommand(provider.newInstance());
+        assertEquals(CommandScope.PROTOTYPE, generatedPC.scope());
+
+        assertEquivalence(commandClass, metadataClass);
+    }
+
     // --- Test: @CommandDefinition with helpSectionProvider (#416) ---
 
     private static final String HELP_PROVIDER_SOURCE = "package test;\n" +
@@ -3192,6 +3232,7 @@ public class ProcessorTest {
                 reflectionPC.helpUrl() != null ? reflectionPC.helpUrl() : "",
                 generatedPC.helpUrl() != null ? generatedPC.helpUrl() : "");
         assertEquals("helpGroup", reflectionPC.helpGroup(), generatedPC.helpGroup());
+        assertEquals("scope", reflectionPC.scope(), generatedPC.scope());
 
         // Compare command-level callbacks
         assertCallbackEquivalence("command validator", "command",
@@ -3349,6 +3390,11 @@ public class ProcessorTest {
     // --- In-memory compilation infrastructure ---
 
     private CompilationResult compileWithProcessor(InMemorySource... sources) throws IOException {
+        return compileWithProcessor(Collections.emptyList(), sources);
+    }
+
+    private CompilationResult compileWithProcessor(List<String> processorOptions, InMemorySource... sources)
+            throws IOException {
         JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
         DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
 
@@ -3367,10 +3413,11 @@ public class ProcessorTest {
             }
             fileManager.setLocation(StandardLocation.CLASS_PATH, cpFiles);
 
+            List<String> options = new java.util.ArrayList<>(
+                    Arrays.asList("-proc:only", "-processor", AeshAnnotationProcessor.class.getName()));
+            options.addAll(processorOptions);
             JavaCompiler.CompilationTask task = compiler.getTask(
-                    null, fileManager, diagnostics,
-                    Arrays.asList("-proc:only", "-processor", AeshAnnotationProcessor.class.getName()),
-                    null, Arrays.asList(sources));
+                    null, fileManager, diagnostics, options, null, Arrays.asList(sources));
 
             boolean procSuccess = task.call();
 
@@ -3819,4 +3866,72 @@ public class ProcessorTest {
                     e.getMessage().contains("Allowed values") || e.getMessage().contains("allowed"));
         }
     }
+
+    // --- Completion database ---
+    private static final String COMPLETION_APP_SOURCE = "package test;\n" +
+            "import java.io.File;\nimport java.util.List;\n" +
+            "import org.aesh.command.Command;\nimport org.aesh.command.CommandDefinition;\nimport org.aesh.command.CommandResult;\n"
+            +
+            "import org.aesh.command.completer.CompleterInvocation;\nimport org.aesh.command.completer.OptionCompleter;\n" +
+            "import org.aesh.command.invocation.CommandInvocation;\n" +
+            "import org.aesh.command.option.Arguments;\nimport org.aesh.command.option.CompletionFallback;\n" +
+            "import org.aesh.command.option.Option;\nimport org.aesh.command.option.OptionList;\n" +
+            "@CommandDefinition(name = \"app\", description = \"The app\", generateHelp = true,\n" +
+            "        groupCommands = { CompletionApp.Build.class, CompletionApp.Run.class })\n" +
+            "public class CompletionApp implements Command<CommandInvocation> {\n" +
+            "    @Option(hasValue = false, inherited = true, description = \"Verbose\")\n" +
+            "    public boolean verbose;\n" +
+            "    public CommandResult execute(CommandInvocation ci) { return CommandResult.SUCCESS; }\n" +
+            "    public enum Target { DEBUG, RELEASE }\n" +
+            "    public static class HostCompleter implements OptionCompleter<CompleterInvocation> {\n" +
+            "        public void complete(CompleterInvocation ci) { ci.addCompleterValue(\"localhost\"); }\n" +
+            "    }\n" +
+            "    @CommandDefinition(name = \"build\", description = \"Build it\", version = \"1.0\")\n" +
+            "    public static class Build implements Command<CommandInvocation> {\n" +
+            "        @Option(description = \"Target\") public Target target;\n" +
+            "        @Option(shortName = 'o', aliases = { \"out\" }, description = \"Output\") public File output;\n" +
+            "        @Option(hasValue = false, negatable = true, description = \"Use the cache\") public boolean cache;\n" +
+            "        @Option(description = \"Strict\") public Boolean strict;\n" +
+            "        @OptionList(allowedValues = { \"a\", \"b\" }) public List<String> modules;\n" +
+            "        public CommandResult execute(CommandInvocation ci) { return CommandResult.SUCCESS; }\n" +
+            "    }\n" +
+            "    @CommandDefinition(name = \"run\", description = \"Run it\")\n" +
+            "    public static class Run implements Command<CommandInvocation> {\n" +
+            "        @Option(completer = HostCompleter.class, description = \"Host\") public String host;\n" +
+            "        @Option(description = \"Port\") public int port;\n" +
+            "        @Arguments(completeFallback = CompletionFallback.DIRECTORIES) public List<String> dirs;\n" +
+            "        public CommandResult execute(CommandInvocation ci) { return CommandResult.SUCCESS; }\n" +
+            "    }\n" +
+            "}\n";
+
+    @Test
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public void testCompletionDatabase() throws Exception {
+        CompilationResult result = compileWithProcessor(
+                Collections.singletonList("-A" + AeshAnnotationProcessor.OPT_COMPLETION_DATABASE + "=true"),
+                new InMemorySource("test.CompletionApp", COMPLETION_APP_SOURCE));
+        assertTrue("Compilation should succeed: " + result.diagnostics, result.success);
+        Path database = result.outputDir.resolve(CompletionDatabase.resourceName("app"));
+        assertTrue("Should write the database of the root command", Files.exists(database));
+        assertFalse("Should not write databases for subcommands",
+                Files.exists(result.outputDir.resolve(CompletionDatabase.resourceName("build"))));
+
+        // same database as the one built at runtime by --aesh-completion-db
+        Class<?> cmdClass = result.classLoader.loadClass("test.CompletionApp");
+        org.aesh.command.container.CommandContainer container = new AeshCommandContainerBuilder().create(cmdClass);
+        String expected = CompletionDatabase.of(container.getParser()).toString();
+        String generated = new String(Files.readAllBytes(database), StandardCharsets.UTF_8);
+        assertEquals(expected, generated);
+        assertTrue(generated.contains("build\t=\tdebug\ttarget\t\n"));
+        assertTrue(generated.contains("run\t=\t" + CompletionDatabase.JVM + "\thost\t\n"));
+        assertTrue(generated.contains("run\to\t--verbose\tverbose\tVerbose\n"));
+    }
+
+    @Test
+    public void testCompletionDatabaseDisabledByDefault() throws Exception {
+        CompilationResult result = compileWithProcessor(
+                new InMemorySource("test.CompletionApp", COMPLETION_APP_SOURCE));
+        assertTrue("Compilation should succeed: " + result.diagnostics, result.success);
+        assertFalse(Files.exists(result.outputDir.resolve(CompletionDatabase.resourceName("app"))));
+    }
 }
@@ -20,6 +20,10 @@
 package org.aesh;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 
 import org.aesh.command.AeshCommandRuntimeBuilder;
@@ -42,6 +46,7 @@ import org.aesh.command.shell.Shell;
 import org.aesh.command.validator.CommandValidatorException;
 import org.aesh.command.validator.OptionValidatorException;
 import org.aesh.complete.AeshCompleteOperation;
+import org.aesh.util.completer.CompletionDatabase;
 import org.aesh.util.completer.ShellCompletionGenerator;
 import org.aesh.util.completer.ShellCompletionGenerator.ShellType;
 
@@ -57,6 +62,9 @@ public class AeshRuntimeRunner {
     private ShellType dynamicCompletionShellType;
     private String completionProgramName;
     private boolean dynamicComplete;
+    private boolean completionDaemon;
+    private boolean offlineCompletion;
+    private long completionDaemonIdleTimeoutMillis = org.aesh.util.completer.CompletionDaemon.DEFAULT_IDLE_TIMEOUT_MILLIS;
     private CommandNotFoundHandler commandNotFoundHandler;
     private Shell shell;
     private org.aesh.command.invocation.CommandInvocationProvider commandInvocationProvider;
@@ -125,6 +133,45 @@ public class AeshRuntimeRunner {
         return this;
     }
 
+    /**
+     * Generate dynamic completion scripts asking a completion daemon first, started by
+     * the script with {@code --aesh-complete-daemon}. The daemon keeps the command
+     * registry in memory so a TAB does not start a JVM.
+     * Also enabled by {@code --aesh-completion [shell] --daemon}.
+     *
+     * @see org.aesh.util.completer.CompletionDaemon
+     * @since 3.17
+     */
+    public AeshRuntimeRunner completionDaemon(boolean completionDaemon) {
+        this.completionDaemon = completionDaemon;
+        return this;
+    }
+
+    /**
+     * Generate dynamic completion scripts answering from a completion database with awk,
+     * written with {@code --aesh-completion-db}. The program is only called for the
+     * values of custom completers.
+     * Also enabled by {@code --aesh-completion [shell] --offline}.
+     *
+     * @see CompletionDatabase
+     * @since 3.17
+     */
+    public AeshRuntimeRunner offlineCompletion(boolean offlineCompletion) {
+        this.offlineCompletion = offlineCompletion;
+        return this;
+    }
+
+    /**
+     * Set the time the completion daemon waits for a request before exiting,
+     * 15 minutes by default.
+     *
+     * @since 3.17
+     */
+    public AeshRuntimeRunner completionDaemonIdleTimeout(long timeout, java.util.concurrent.TimeUnit unit) {
+        this.completionDaemonIdleTimeoutMillis = unit.toMillis(timeout);
+        return this;
+    }
+
     /**
      * Set a registry-level DefaultValueProvider that applies to all commands
      * that don't declare their own per-command provider via the annotation.
@@ -213,8 +260,12 @@ public class AeshRuntimeRunner {
         if (args != null && args.length > 0) {
             if ("--aesh-complete".equals(args[0]))
                 return handleBuiltinComplete(commandRegistry);
+            if ("--aesh-complete-daemon".equals(args[0]))
+                return handleBuiltinCompleteDaemon(commandRegistry);
             if ("--aesh-completion".equals(args[0]))
                 return handleBuiltinCompletion(commandRegistry);
+            if ("--aesh-completion-db".equals(args[0]))
+                return handleBuiltinCompletionDatabase(commandRegistry);
             if ("--aesh-completion-install".equals(args[0]))
                 return handleBuiltinCompletionInstall(commandRegistry);
             if ("--aesh-doc".equals(args[0]))
@@ -324,8 +375,8 @@ public class AeshRuntimeRunner {
                     .getCommand(commandName, "");
 
             String programName = completionProgramName != null ? completionProgramName : commandName;
-            String script = ShellCompletionGenerator.forShell(dynamicCompletionShellType)
-                    .generateDynamic(container.getParser(), programName);
+            String script = generateDynamicScript(dynamicCompletionShellType, container.getParser(), programName,
+                    completionDaemon, offlineCompletion);
             System.out.print(script);
             return CommandResult.SUCCESS;
         } catch (CommandNotFoundException e) {
@@ -339,53 +390,7 @@ public class AeshRuntimeRunner {
         try {
             CommandRuntime<CommandInvocation> rt = AeshCommandRuntimeBuilder.builder()
                     .commandRegistry(commandRegistry).build();
-
-            String commandName = (String) commandRegistry.getAllCommandNames().iterator().next();
-            String partialLine = args != null ? String.join(" ", args) : "";
-            String buffer = partialLine.isEmpty() ? commandName + " " : commandName + " " + partialLine;
-
-            AeshCompleteOperation completeOperation = new AeshCompleteOperation(buffer, buffer.length());
-            rt.complete(completeOperation);
-
-            // Build a map of subcommand/option names to descriptions for richer output
-            java.util.Map<String, String> descriptions = buildCompletionDescriptions(commandRegistry, commandName);
-
-            // The completion engine already determines the correct candidate set
-            // based on parser state — options, subcommands, or argument values.
-            // No post-filtering needed (#539).
-            java.util.List<org.aesh.terminal.formatting.TerminalString> candidates = completeOperation
-                    .getCompletionCandidates();
-
-            // Sort candidates alphabetically for consistent shell completion (#497)
-            candidates.sort((a, b) -> a.getCharacters().trim().compareToIgnoreCase(b.getCharacters().trim()));
-
-            for (org.aesh.terminal.formatting.TerminalString candidate : candidates) {
-                String value = candidate.getCharacters();
-                String desc = descriptions.get(value.trim());
-                if (desc != null && !desc.isEmpty()) {
-                    System.out.println(value + "\t" + desc);
-                } else {
-                    System.out.println(value);
-                }
-            }
-
-            // Emit file/dir sentinel when the cursor is at a position where a
-            // positional argument could be typed (not in the middle of an option
-            // name/value). Shell scripts merge file completion with other candidates
-            // (options, subcommands) from the output above (#539).
-            boolean typingOption = partialLine.endsWith("-") || partialLine.endsWith("=")
-                    || (partialLine.length() > 0 && !partialLine.endsWith(" ")
-                            && partialLine.substring(partialLine.lastIndexOf(' ') + 1).startsWith("-"));
-            if (!typingOption) {
-                org.aesh.command.option.CompletionFallback fallback = resolvePositionalFallback(
-                        commandRegistry, commandName);
-                if (fallback == org.aesh.command.option.CompletionFallback.FILES) {
-                    System.out.println("__aesh_file__");
-                } else if (fallback == org.aesh.command.option.CompletionFallback.DIRECTORIES) {
-                    System.out.println("__aesh_dir__");
-                }
-            }
-
+            writeDynamicCompletion(commandRegistry, rt, args, System.out);
             return CommandResult.SUCCESS;
         } catch (Exception e) {
             System.err.println("Completion error: " + e.getMessage());
@@ -393,9 +398,63 @@ public class AeshRuntimeRunner {
         }
     }
 
+    /**
+     * Write the completion candidates of the args, one per line with their description
+     * after a tab, followed by the file or directory sentinel.
+     */
+    @SuppressWarnings("unchecked")
+    private static void writeDynamicCompletion(CommandRegistry commandRegistry, CommandRuntime<CommandInvocation> rt,
+            String[] args, java.io.PrintStream out) throws Exception {
+        String commandName = (String) commandRegistry.getAllCommandNames().iterator().next();
+        String partialLine = args != null ? String.join(" ", args) : "";
+        String buffer = partialLine.isEmpty() ? commandName + " " : commandName + " " + partialLine;
+
+        AeshCompleteOperation completeOperation = new AeshCompleteOperation(buffer, buffer.length());
+        rt.complete(completeOperation);
+
+        // Build a map of subcommand/option names to descriptions for richer output
+        java.util.Map<String, String> descriptions = buildCompletionDescriptions(commandRegistry, commandName, args);
+
+        // The completion engine already determines the correct candidate set
+        // based on parser state — options, subcommands, or argument values.
+        // No post-filtering needed (#539).
+        java.util.List<org.aesh.terminal.formatting.TerminalString> candidates = completeOperation
+                .getCompletionCandidates();
+
+        // Sort candidates alphabetically for consistent shell completion (#497)
+        candidates.sort((a, b) -> a.getCharacters().trim().compareToIgnoreCase(b.getCharacters().trim()));
+
+        for (org.aesh.terminal.formatting.TerminalString candidate : candidates) {
+            String value = candidate.getCharacters();
+            String desc = descriptions.get(value.trim());
+            if (desc != null && !desc.isEmpty()) {
+                out.println(value + "\t" + desc);
+            } else {
+                out.println(value);
+            }
+        }
+
+        // Emit file/dir sentinel when the cursor is at a position where a
+        // positional argument could be typed (not in the middle of an option
+        // name/value). Shell scripts merge file completion with other candidates
+        // (options, subcommands) from the output above (#539).
+        boolean typingOption = partialLine.endsWith("-") || partialLine.endsWith("=")
+                || (partialLine.length() > 0 && !partialLine.endsWith(" ")
+                        && partialLine.substring(partialLine.lastIndexOf(' ') + 1).startsWith("-"));
+        if (!typingOption) {
+            org.aesh.command.option.CompletionFallback fallback = resolvePositionalFallback(
+                    commandRegistry, commandName, args);
+            if (fallback == org.aesh.command.option.CompletionFallback.FILES) {
+                out.println("__aesh_file__");
+            } else if (fallback == org.aesh.command.option.CompletionFallback.DIRECTORIES) {
+                out.println("__aesh_dir__");
+            }
+        }
+    }
+
     @SuppressWarnings("unchecked")
-    private java.util.Map<String, String> buildCompletionDescriptions(CommandRegistry commandRegistry,
-            String commandName) {
+    private static java.util.Map<String, String> buildCompletionDescriptions(CommandRegistry commandRegistry,
+            String commandName, String[] args) {
         java.util.Map<String, String> descriptions = new java.util.HashMap<>();
         try {
             CommandContainer<CommandInvocation> container = commandRegistry.getCommand(commandName, "");
@@ -553,8 +612,8 @@ public class AeshRuntimeRunner {
      * Walks the parser tree to find the scoped command, then checks its argument/arguments.
      */
     @SuppressWarnings("unchecked")
-    private org.aesh.command.option.CompletionFallback resolvePositionalFallback(
-            CommandRegistry commandRegistry, String commandName) {
+    private static org.aesh.command.option.CompletionFallback resolvePositionalFallback(
+            CommandRegistry commandRegistry, String commandName, String[] args) {
         try {
             CommandContainer<CommandInvocation> container = (CommandContainer<CommandInvocation>) commandRegistry
                     .getCommand(commandName, "");
@@ -599,6 +658,58 @@ public class AeshRuntimeRunner {
         return performDynamicCompletion(commandRegistry);
     }
 
+    /**
+     * Handles --aesh-complete-daemon: started in the background by the completion scripts
+     * generated with {@link #completionDaemon(boolean)}, answers their completion requests
+     * from a runtime built once. Exits when idle or when the jar of the program changes.
+     */
+    @SuppressWarnings("unchecked")
+    private CommandResult handleBuiltinCompleteDaemon(CommandRegistry commandRegistry) {
+        try {
+            String commandName = (String) commandRegistry.getAllCommandNames().iterator().next();
+            String programName = completionProgramName != null ? completionProgramName : commandName;
+            CommandContainer<CommandInvocation> container = (CommandContainer<CommandInvocation>) commandRegistry
+                    .getCommand(commandName, "");
+            // each request sets the working directory of the shell asking for completion
+            org.aesh.console.AeshContext context = aeshContext != null
+                    ? aeshContext
+                    : new org.aesh.console.DefaultAeshContext();
+            CommandRuntime<CommandInvocation> rt = AeshCommandRuntimeBuilder.builder()
+                    .commandRegistry(commandRegistry)
+                    .aeshContext(context)
+                    .build();
+            org.aesh.util.completer.CompletionDaemon daemon = new org.aesh.util.completer.CompletionDaemon(programName,
+                    (words, workingDirectory, out) -> {
+                        java.io.File cwd = new java.io.File(workingDirectory);
+                        if (cwd.isDirectory())
+                            context.setCurrentWorkingDirectory(new org.aesh.io.FileResource(cwd));
+                        writeDynamicCompletion(commandRegistry, rt, words, out);
+                    },
+                    org.aesh.util.completer.CompletionDaemon.defaultStateDirectory(),
+                    completionDaemonIdleTimeoutMillis,
+                    codeLocation(container.getParser().getProcessedCommand().getCommand().getClass()));
+            daemon.run();
+            return CommandResult.SUCCESS;
+        } catch (Exception e) {
+            System.err.println("Completion daemon failed: " + e.getMessage());
+            return CommandResult.FAILURE;
+        }
+    }
+
+    /**
+     * @return the jar or class directory of the class, null if it is not a file
+     */
+    private static java.nio.file.Path codeLocation(Class<?> type) {
+        try {
+            java.security.CodeSource codeSource = type.getProtectionDomain().getCodeSource();
+            if (codeSource == null || codeSource.getLocation() == null)
+                return null;
+            return java.nio.file.Paths.get(codeSource.getLocation().toURI());
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
     /**
      * Handles --aesh-completion [shell] [--static]: generates a completion script to stdout.
      * <p>
@@ -611,6 +722,8 @@ public class AeshRuntimeRunner {
      * <li>{@code --aesh-completion bash} — dynamic script for bash</li>
      * <li>{@code --aesh-completion --static} — static script, auto-detect shell</li>
      * <li>{@code --aesh-completion --static zsh} — static script for zsh</li>
+     * <li>{@code --aesh-completion bash --daemon} — dynamic script using a completion daemon</li>
+     * <li>{@code --aesh-completion bash --offline} — dynamic script using a completion database</li>
      * </ul>
      */
     @SuppressWarnings("unchecked")
@@ -622,6 +735,10 @@ public class AeshRuntimeRunner {
         for (int i = 1; i < args.length; i++) {
             if ("--static".equals(args[i])) {
                 staticMode = true;
+            } else if ("--daemon".equals(args[i])) {
+                completionDaemon = true;
+            } else if ("--offline".equals(args[i])) {
+                offlineCompletion = true;
             } else {
                 try {
                     shellType = ShellType.valueOf(args[i].toUpperCase());
@@ -663,13 +780,47 @@ public class AeshRuntimeRunner {
             String name = completionProgramName != null ? completionProgramName : commandName;
             CommandContainer<CommandInvocation> container = (CommandContainer<CommandInvocation>) commandRegistry
                     .getCommand(commandName, "");
-            return doInstallCompletion(container.getParser(), name) ? CommandResult.SUCCESS : CommandResult.FAILURE;
+            return doInstallCompletion(container.getParser(), name, completionDaemon, offlineCompletion)
+                    ? CommandResult.SUCCESS
+                    : CommandResult.FAILURE;
         } catch (Exception e) {
             System.err.println("Failed to install completion: " + e.getMessage());
             return CommandResult.FAILURE;
         }
     }
 
+    /**
+     * Handles --aesh-completion-db: prints the completion database read by the scripts
+     * generated with {@link #offlineCompletion(boolean)}. The database written by the
+     * annotation processor is printed when the command has one.
+     */
+    @SuppressWarnings("unchecked")
+    private CommandResult handleBuiltinCompletionDatabase(CommandRegistry commandRegistry) {
+        try {
+            String commandName = (String) commandRegistry.getAllCommandNames().iterator().next();
+            CommandContainer<CommandInvocation> container = (CommandContainer<CommandInvocation>) commandRegistry
+                    .getCommand(commandName, "");
+            InputStream resource = container.getParser().getCommand().getClass().getClassLoader()
+                    .getResourceAsStream(CompletionDatabase.resourceName(commandName));
+            if (resource != null) {
+                try (InputStream in = resource) {
+                    byte[] buffer = new byte[8192];
+                    int read;
+                    while ((read = in.read(buffer)) != -1)
+                        System.out.write(buffer, 0, read);
+                }
+                System.out.flush();
+            } else {
+                Writer writer = new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+                CompletionDatabase.of(container.getParser()).write(writer);
+            }
+            return CommandResult.SUCCESS;
+        } catch (Exception e) {
+            System.err.println("Completion database error: " + e.getMessage());
+            return CommandResult.FAILURE;
+        }
+    }
+
     /**
      * Handles --aesh-doc [asciidoc|markdown]: generates documentation to stdout.
      * <p>
@@ -768,7 +919,8 @@ public class AeshRuntimeRunner {
      *
      * @return true if installation succeeded or was cancelled, false on error
      */
-    private static boolean doInstallCompletion(CommandLineParser<?> parser, String programName) throws Exception {
+    private static boolean doInstallCompletion(CommandLineParser<?> parser, String programName,
+            boolean completionDaemon, boolean offlineCompletion) throws Exception {
         ShellType shellType = detectShell();
         if (shellType == null) {
             System.err.println("Could not detect shell type. Use --aesh-completion bash|zsh|fish|pwsh instead.");
@@ -781,8 +933,7 @@ public class AeshRuntimeRunner {
             return false;
         }
 
-        String script = ShellCompletionGenerator.forShell(shellType)
-                .generateDynamic(parser, programName);
+        String script = generateDynamicScript(shellType, parser, programName, completionDaemon, offlineCompletion);
 
         // Confirm with user
         String action = installPath.exists() ? "Overwrite" : "Write";
@@ -809,6 +960,14 @@ public class AeshRuntimeRunner {
         return true;
     }
 
+    private static String generateDynamicScript(ShellType shellType, CommandLineParser<?> parser, String programName,
+            boolean completionDaemon, boolean offlineCompletion) {
+        ShellCompletionGenerator generator = ShellCompletionGenerator.forShell(shellType);
+        return offlineCompletion
+                ? generator.generateOffline(parser, programName, null, completionDaemon)
+                : generator.generateDynamic(parser, programName, completionDaemon);
+    }
+
     private static String readUserResponse() throws java.io.IOException {
         java.io.Console console = System.console();
         if (console != null) {
@@ -828,7 +987,7 @@ public class AeshRuntimeRunner {
             String commandName = registry.getAllCommandNames().iterator().next();
             String name = programName != null ? programName : commandName;
             CommandContainer<CommandInvocation> container = registry.getCommand(commandName, "");
-            doInstallCompletion(container.getParser(), name);
+            doInstallCompletion(container.getParser(), name, false, false);
         } catch (Exception e) {
             System.err.println("Failed to install completion: " + e.getMessage());
         }
@@ -24,14 +24,17 @@ import java.util.EnumSet;
 
 import org.aesh.command.activator.CommandActivatorProvider;
 import org.aesh.command.activator.OptionActivatorProvider;
+import org.aesh.command.completer.CompleterExecutor;
 import org.aesh.command.completer.CompleterInvocationProvider;
 import org.aesh.command.converter.ConverterInvocationProvider;
 import org.aesh.command.impl.AeshCommandRuntime;
 import org.aesh.command.impl.invocation.DefaultCommandInvocationBuilder;
+import org.aesh.command.impl.operator.PipeOperator;
 import org.aesh.command.impl.registry.MutableCommandRegistryImpl;
 import org.aesh.command.invocation.CommandInvocation;
 import org.aesh.command.invocation.CommandInvocationBuilder;
 import org.aesh.command.invocation.CommandInvocationProvider;
+import org.aesh.command.job.JobManager;
 import org.aesh.command.operator.OperatorType;
 import org.aesh.command.registry.CommandRegistry;
 import org.aesh.command.settings.Settings;
@@ -65,6 +68,13 @@ public class AeshCommandRuntimeBuilder<CI extends CommandInvocation> {
     private DefaultValueProvider defaultValueProvider;
     private boolean parseBrackets;
     private EnumSet<OperatorType> operators;
+    private PipeStageExecutor pipeStageExecutor;
+    private boolean virtualThreads;
+    private int pipeBufferSize = PipeOperator.DEFAULT_BUFFER_SIZE;
+    private PipeFlushPolicy pipeFlushPolicy = PipeFlushPolicy.EVERY_WRITE;
+    private boolean pipeFusion = true;
+    private CompleterExecutor completerExecutor;
+    private JobManager jobManager;
 
     private AeshCommandRuntimeBuilder() {
     }
@@ -83,6 +93,83 @@ public class AeshCommandRuntimeBuilder<CI extends CommandInvocation> {
         return this;
     }
 
+    /**
+     * Set the executor running the upstream stages of pipelines.
+     * A runtime creates its own executor if none is set.
+     *
+     * @since 3.17
+     */
+    public AeshCommandRuntimeBuilder<CI> pipeStageExecutor(PipeStageExecutor pipeStageExecutor) {
+        this.pipeStageExecutor = pipeStageExecutor;
+        return this;
+    }
+
+    /**
+     * Run pipe stages on virtual threads when the JVM supports them (Java 21+).
+     * Ignored if a pipe stage executor is set.
+     *
+     * @since 3.17
+     */
+    public AeshCommandRuntimeBuilder<CI> virtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+        return this;
+    }
+
+    /**
+     * Set the capacity in bytes of the buffer between two pipeline stages.
+     *
+     * @since 3.17
+     */
+    public AeshCommandRuntimeBuilder<CI> pipeBufferSize(int pipeBufferSize) {
+        if (pipeBufferSize < 1)
+            throw new IllegalArgumentException("The pipe buffer size must be positive, was " + pipeBufferSize);
+        this.pipeBufferSize = pipeBufferSize;
+        return this;
+    }
+
+    /**
+     * Set when the output written into a pipe is passed on to the next stage.
+     *
+     * @since 3.17
+     */
+    public AeshCommandRuntimeBuilder<CI> pipeFlushPolicy(PipeFlushPolicy pipeFlushPolicy) {
+        this.pipeFlushPolicy = pipeFlushPolicy;
+        return this;
+    }
+
+    /**
+     * Run consecutive {@link StreamingCommand} stages of a pipeline on the thread of
+     * the stage before them, enabled by default.
+     *
+     * @since 3.17
+     */
+    public AeshCommandRuntimeBuilder<CI> pipeFusion(boolean pipeFusion) {
+        this.pipeFusion = pipeFusion;
+        return this;
+    }
+
+    /**
+     * Run option completers on the given executor, with a deadline for each completion
+     * request. Completers run on the thread asking for completion if none is set.
+     *
+     * @since 3.17
+     */
+    public AeshCommandRuntimeBuilder<CI> completerExecutor(CompleterExecutor completerExecutor) {
+        this.completerExecutor = completerExecutor;
+        return this;
+    }
+
+    /**
+     * Run command lines ending with {@code &} as background jobs of the given manager.
+     * Without a job manager they run in the foreground.
+     *
+     * @since 3.17
+     */
+    public AeshCommandRuntimeBuilder<CI> jobManager(JobManager jobManager) {
+        this.jobManager = jobManager;
+        return this;
+    }
+
     public AeshCommandRuntimeBuilder<CI> commandRegistry(CommandRegistry<CI> registry) {
         this.registry = registry;
         return this;
@@ -165,6 +252,12 @@ public class AeshCommandRuntimeBuilder<CI extends CommandInvocation> {
         this.registry = (CommandRegistry<CI>) settings.commandRegistry();
         this.ctx = settings.aeshContext();
         this.operators = settings.operatorParserEnabled() ? EnumSet.allOf(OperatorType.class) : null;
+        this.pipeStageExecutor = settings.pipeStageExecutor();
+        this.virtualThreads = settings.virtualThreads();
+        this.pipeBufferSize = settings.pipeBufferSize();
+        this.pipeFlushPolicy = settings.pipeFlushPolicy();
+        this.pipeFusion = settings.pipeFusion();
+        this.completerExecutor = settings.completerExecutor();
         return this;
     }
 
@@ -196,9 +289,14 @@ public class AeshCommandRuntimeBuilder<CI extends CommandInvocation> {
             operators = NO_OPERATORS;
         }
 
+        if (pipeStageExecutor == null) {
+            pipeStageExecutor = virtualThreads ? PipeStageExecutor.ofVirtualThreads() : new PipeStageExecutor();
+        }
+
         return new AeshCommandRuntime<>(ctx, registry, commandInvocationProvider,
                 commandNotFoundHandler, completerInvocationProvider, converterInvocationProvider,
                 validatorInvocationProvider, optionActivatorProvider, commandActivatorProvider,
-                commandInvocationBuilder, parseBrackets, operators);
+                commandInvocationBuilder, parseBrackets, operators, pipeStageExecutor, pipeBufferSize, pipeFlushPolicy,
+                pipeFusion, jobManager, completerExecutor);
     }
 }
@@ -180,6 +180,16 @@ public @interface CommandDefinition {
      */
     org.aesh.command.option.CompletionFallback completeFallback() default org.aesh.command.option.CompletionFallback.DEFAULT;
 
+    /**
+     * How many instances of the command are used to execute it.
+     * With {@link CommandScope#PROTOTYPE} every execution populates its own instance,
+     * the command can safely run several times at once, eg: {@code foo | foo}.
+     *
+     * @return the scope of the command
+     * @since 3.17
+     */
+    CommandScope scope() default CommandScope.SINGLETON;
+
     /**
      * Specify subcommands for this command, making it a group command.
      * When non-empty, the command acts as a group command container.
@@ -23,6 +23,7 @@ import java.io.IOException;
 
 import org.aesh.command.invocation.CommandInvocation;
 import org.aesh.command.invocation.CommandInvocationBuilder;
+import org.aesh.command.invocation.CommandInvocationConfiguration;
 import org.aesh.command.invocation.InvocationProviders;
 import org.aesh.command.parser.CommandLineParserException;
 import org.aesh.command.registry.CommandRegistry;
@@ -184,6 +185,30 @@ public interface CommandRuntime<CI extends CommandInvocation> {
         return executeCommand(sb.toString());
     }
 
+    /**
+     * Build an executor that may run at the same time as other executors of the command,
+     * with its own output. Only a {@link CommandScope#PROTOTYPE} command can be built, each
+     * execution runs on an instance of its own, the registered instance of a
+     * {@link CommandScope#SINGLETON} command can not be shared.
+     *
+     * @param commandName the command to build
+     * @param args the pre-tokenized arguments (may be null or empty)
+     * @param configuration the context, output and input of the command
+     * @return The executor.
+     * @throws CommandLineParserException if the command can not run concurrently
+     * @since 3.17
+     */
+    default Executor<CI> buildConcurrentExecutor(String commandName, String[] args,
+            CommandInvocationConfiguration configuration) throws CommandNotFoundException,
+            CommandLineParserException,
+            OptionValidatorException,
+            CommandValidatorException,
+            IOException {
+        // Default fallback: the configuration is ignored, the command writes to the output of the runtime.
+        // Implementations should override to give each execution its own output.
+        return buildExecutor(commandName, args);
+    }
+
     CommandInvocationBuilder<CI> commandInvocationBuilder();
 
     InvocationProviders invocationProviders();
@@ -0,0 +1,43 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.command;
+
+/**
+ * How many instances of a command are used to execute it.
+ *
+ * @author Aesh team
+ * @since 3.17
+ */
+public enum CommandScope {
+    /**
+     * One instance is populated and executed for every execution of the command.
+     * Executions running at the same time, like {@code foo | foo} or background jobs,
+     * share the fields of that instance.
+     */
+    SINGLETON,
+    /**
+     * Every execution gets its own instance, taken from a bounded pool of idle instances
+     * or created when the pool is empty, and returned to the pool when it finishes.
+     * The instances run a copy of the registered definition of the command, they are created
+     * by the factory given to {@code ProcessedCommandBuilder.commandFactory}, by the generated
+     * metadata or by the no-arg constructor of the command class.
+     */
+    PROTOTYPE
+}
@@ -55,4 +55,13 @@ public interface Execution<T extends CommandInvocation> {
     void setResult(CommandResult result);
 
     void clearQueuedLine();
+
+    /**
+     * @return true if this execution is run by the next execution of its pipeline,
+     *         on the same thread, instead of on a thread of its own
+     * @since 3.17
+     */
+    default boolean isFused() {
+        return false;
+    }
 }
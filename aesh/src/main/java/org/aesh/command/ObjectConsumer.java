@@ -0,0 +1,35 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.command;
+
+/**
+ * Implemented by a command reading Java objects from the previous command of a pipeline
+ * with {@link org.aesh.command.invocation.CommandInvocation#readObjects()}.
+ * <p>
+ * When the previous command is an {@link ObjectProducer}, the objects it writes are
+ * read as they are. Otherwise the lines of text it prints are read as strings.
+ * <p>
+ * For a group command, the group command class declares it.
+ *
+ * @author Aesh team
+ * @since 3.17
+ */
+public interface ObjectConsumer {
+}
@@ -0,0 +1,36 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.command;
+
+/**
+ * Implemented by a command writing Java objects to the next command of a pipeline
+ * with {@link org.aesh.command.invocation.CommandInvocation#writeObject(Object)}.
+ * <p>
+ * When the next command is an {@link ObjectConsumer}, the objects are passed by
+ * reference through a bounded queue, without being converted to text. Otherwise
+ * each object is printed as a line of text.
+ * <p>
+ * For a group command, the group command class declares it.
+ *
+ * @author Aesh team
+ * @since 3.17
+ */
+public interface ObjectProducer {
+}
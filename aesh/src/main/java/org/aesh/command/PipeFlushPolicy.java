@@ -0,0 +1,41 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.command;
+
+/**
+ * When the output a command writes into a pipe is passed on to the next stage.
+ *
+ * @author Aesh team
+ * @since 3.17
+ */
+public enum PipeFlushPolicy {
+    /**
+     * After every write, the next stage sees the output as soon as it is written.
+     */
+    EVERY_WRITE,
+    /**
+     * After every write ending a line, partial lines are kept until the line is complete.
+     */
+    LINE,
+    /**
+     * When the write buffer is full or the command finishes, for the best throughput.
+     */
+    BUFFER_FULL
+}
@@ -0,0 +1,265 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.command;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.aesh.util.VirtualThreads;
+
+/**
+ * Runs the upstream stages of pipelines ({@code cmd1 | cmd2 | cmd3}) on a shared
+ * set of named daemon threads.
+ * <p>
+ * One executor is shared by all the pipelines of a runtime or console, idle threads
+ * are reused by the next pipeline and released after the keep alive time. The number
+ * of pooled threads is bounded by {@code maxThreads}.
+ * <p>
+ * The stages of a pipeline read from each other, they must all run at the same time.
+ * A stage queued behind the stages of the same pipeline would never start, its
+ * readers waiting for its output and its writers for its input: the pipeline would
+ * deadlock. So a stage is never queued, when all the pooled threads are busy it runs
+ * on a new thread that is not kept, counted by {@link #overflowStages()}. Up to
+ * {@code maxOverflowThreads} such threads run at the same time, above it a stage is
+ * rejected rather than queued.
+ * <p>
+ * An executor created by {@link #ofVirtualThreads()} runs each stage on a new virtual
+ * thread instead, when the JVM supports virtual threads.
+ * <p>
+ * Set with {@link AeshCommandRuntimeBuilder#pipeStageExecutor(PipeStageExecutor)} or
+ * {@link org.aesh.command.settings.SettingsBuilder#pipeStageExecutor(PipeStageExecutor)}.
+ *
+ * @author Aesh team
+ * @since 3.17
+ */
+public class PipeStageExecutor {
+
+    public static final int DEFAULT_MAX_THREADS = Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+    public static final int DEFAULT_MAX_OVERFLOW_THREADS = 256;
+    public static final long DEFAULT_KEEP_ALIVE_SECONDS = 60;
+
+    private final String threadNamePrefix;
+    private final ThreadPoolExecutor pool;
+    private final boolean virtualThreads;
+    private final int maxOverflowThreads;
+    private final AtomicInteger threadCount = new AtomicInteger();
+    private final AtomicInteger overflowThreads = new AtomicInteger();
+    private final AtomicInteger activeStages = new AtomicInteger();
+    private final AtomicLong completedStages = new AtomicLong();
+    private final AtomicLong overflowStages = new AtomicLong();
+
+    public PipeStageExecutor() {
+        this("aesh-pipe", DEFAULT_MAX_THREADS, DEFAULT_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @param threadNamePrefix prefix of the thread names, followed by a number
+     * @param maxThreads maximum number of pooled threads
+     * @param keepAlive time an idle thread is kept
+     * @param unit unit of keepAlive
+     */
+    public PipeStageExecutor(String threadNamePrefix, int maxThreads, long keepAlive, TimeUnit unit) {
+        this(threadNamePrefix, maxThreads, DEFAULT_MAX_OVERFLOW_THREADS, keepAlive, unit);
+    }
+
+    /**
+     * @param threadNamePrefix prefix of the thread names, followed by a number
+     * @param maxThreads maximum number of pooled threads
+     * @param maxOverflowThreads maximum number of threads started when all the pooled threads are busy
+     * @param keepAlive time an idle thread is kept
+     * @param unit unit of keepAlive
+     */
+    public PipeStageExecutor(String threadNamePrefix, int maxThreads, int maxOverflowThreads, long keepAlive,
+            TimeUnit unit) {
+        this(threadNamePrefix, maxThreads, maxOverflowThreads, keepAlive, unit, false);
+    }
+
+    private PipeStageExecutor(String threadNamePrefix, int maxThreads, int maxOverflowThreads, long keepAlive,
+            TimeUnit unit, boolean virtualThreads) {
+        if (maxThreads < 1)
+            throw new IllegalArgumentException("maxThreads must be at least 1, was " + maxThreads);
+        if (maxOverflowThreads < 0)
+            throw new IllegalArgumentException("maxOverflowThreads can not be negative, was " + maxOverflowThreads);
+        this.threadNamePrefix = threadNamePrefix;
+        this.virtualThreads = virtualThreads;
+        this.maxOverflowThreads = maxOverflowThreads;
+        ThreadFactory threadFactory = r -> newThread(r, threadNamePrefix + "-" + threadCount.incrementAndGet());
+        pool = new ThreadPoolExecutor(0, maxThreads, keepAlive, unit, new SynchronousQueue<>(), threadFactory,
+                (r, executor) -> runOnOverflowThread(r));
+    }
+
+    /**
+     * Create an executor running each stage on a new virtual thread. Virtual threads
+     * are cheap to create and are not pooled. If the JVM does not support virtual
+     * threads, Java 21 being required, the default executor is returned.
+     *
+     * @return the executor
+     */
+    public static PipeStageExecutor ofVirtualThreads() {
+        return new PipeStageExecutor("aesh-pipe", DEFAULT_MAX_THREADS, DEFAULT_MAX_OVERFLOW_THREADS,
+                DEFAULT_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, VirtualThreads.isSupported());
+    }
+
+    /**
+     * Start a pipeline stage.
+     * Cancelling the returned future with {@code cancel(true)} interrupts the stage.
+     *
+     * @param stage the stage
+     * @return the future of the stage
+     * @throws RejectedExecutionException if the executor is shut down, or if all the pooled
+     *         and overflow threads are busy
+     */
+    public Future<?> submit(Runnable stage) {
+        if (pool.isShutdown())
+            throw new RejectedExecutionException("The pipe stage executor is shut down");
+        StageTask task = new StageTask(stage);
+        try {
+            if (virtualThreads)
+                VirtualThreads.newVirtualThread(task, threadNamePrefix + "-" + threadCount.incrementAndGet()).start();
+            else
+                pool.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.cancel(false);
+            throw e;
+        }
+        return task;
+    }
+
+    /**
+     * @return the number of stages running
+     */
+    public int activeStages() {
+        return activeStages.get();
+    }
+
+    /**
+     * @return the number of stages finished
+     */
+    public long completedStages() {
+        return completedStages.get();
+    }
+
+    /**
+     * @return the number of stages run outside the pool because all the pooled threads were busy
+     */
+    public long overflowStages() {
+        return overflowStages.get();
+    }
+
+    /**
+     * @return the number of overflow threads running
+     */
+    public int overflowThreads() {
+        return overflowThreads.get();
+    }
+
+    /**
+     * @return the maximum number of overflow threads
+     */
+    public int maxOverflowThreads() {
+        return maxOverflowThreads;
+    }
+
+    /**
+     * @return true if the stages run on virtual threads
+     */
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * @return the number of threads in the pool, busy or idle
+     */
+    public int poolSize() {
+        return pool.getPoolSize();
+    }
+
+    /**
+     * @return the maximum number of pooled threads
+     */
+    public int maxThreads() {
+        return pool.getMaximumPoolSize();
+    }
+
+    /**
+     * Stop accepting stages and release the idle threads, running stages are not interrupted.
+     * The threads are daemon threads, an executor that is not shut down does not keep the JVM alive.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    public boolean isShutdown() {
+        return pool.isShutdown();
+    }
+
+    private void runOnOverflowThread(Runnable task) {
+        if (pool.isShutdown())
+            throw new RejectedExecutionException("The pipe stage executor is shut down");
+        if (overflowThreads.incrementAndGet() > maxOverflowThreads) {
+            overflowThreads.decrementAndGet();
+            throw new RejectedExecutionException("Too many pipe stages running, " + pool.getMaximumPoolSize()
+                    + " pooled and " + maxOverflowThreads + " overflow threads are busy");
+        }
+        overflowStages.incrementAndGet();
+        Runnable overflow = () -> {
+            try {
+                task.run();
+            } finally {
+                overflowThreads.decrementAndGet();
+            }
+        };
+        newThread(overflow, threadNamePrefix + "-overflow-" + threadCount.incrementAndGet()).start();
+    }
+
+    private final class StageTask extends FutureTask<Void> {
+
+        StageTask(Runnable stage) {
+            super(stage, null);
+        }
+
+        @Override
+        public void run() {
+            // cancelled before it started
+            if (isDone())
+                return;
+            activeStages.incrementAndGet();
+            try {
+                super.run();
+            } finally {
+                activeStages.decrementAndGet();
+                completedStages.incrementAndGet();
+            }
+        }
+    }
+
+    private static Thread newThread(Runnable r, String name) {
+        Thread thread = new Thread(r, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
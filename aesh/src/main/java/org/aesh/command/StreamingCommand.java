@@ -0,0 +1,105 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.command;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+
+import org.aesh.command.invocation.CommandInvocation;
+
+/**
+ * A command processing its input one line at a time, like a filter in a pipeline.
+ * <p>
+ * When a streaming command follows another command in a pipeline
+ * ({@code cmd1 | filter1 | filter2}), the stages are fused: they run on the thread of
+ * the first command, and each line it prints is passed to {@link #processLine} with
+ * a method call instead of going through a pipe and another thread. The output the
+ * command prints with its invocation goes on to the next stage the same way.
+ * <p>
+ * Otherwise, or when fusion is disabled with
+ * {@link AeshCommandRuntimeBuilder#pipeFusion(boolean)}, {@link #execute} reads the
+ * lines of the standard input and passes them to {@link #processLine}.
+ * <p>
+ * A command needing only the first lines, like {@code head}, returns true from
+ * {@link #isInputDone()} once it has them. When the command fails or is done, the
+ * rest of the input is discarded and the previous stage is stopped like a command
+ * writing into a closed pipe.
+ * <p>
+ * Group commands are not fused.
+ *
+ * @author Aesh team
+ * @since 3.17
+ */
+public interface StreamingCommand<T extends CommandInvocation> extends Command<T> {
+
+    /**
+     * Process one line of the input, without its line separator.
+     *
+     * @param line the line
+     * @param commandInvocation invocation
+     * @throws CommandException to fail the command, the rest of the input is discarded
+     */
+    void processLine(String line, T commandInvocation) throws CommandException;
+
+    /**
+     * Checked after each line.
+     *
+     * @return true once the command needs no more input, the rest is then discarded
+     */
+    default boolean isInputDone() {
+        return false;
+    }
+
+    /**
+     * Called after the last line of the input.
+     *
+     * @param commandInvocation invocation
+     * @throws CommandException to fail the command
+     */
+    default void complete(T commandInvocation) throws CommandException {
+    }
+
+    /**
+     * Read the standard input line by line, when the command is not fused with the
+     * previous stage.
+     */
+    @Override
+    default CommandResult execute(T commandInvocation) throws CommandException, InterruptedException {
+        InputStream stdin = commandInvocation.getStdin();
+        if (stdin != null) {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(stdin))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (Thread.currentThread().isInterrupted())
+                        throw new InterruptedException();
+                    processLine(line, commandInvocation);
+                    if (isInputDone())
+                        break;
+                }
+            } catch (IOException e) {
+                throw new CommandException(e);
+            }
+        }
+        complete(commandInvocation);
+        return CommandResult.SUCCESS;
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.command.completer;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache the values of an {@link OptionCompleter} in a {@link CompletionCache}.
+ * Each option using the completer, with {@code @Option(completer = ...)} or any other
+ * option annotation, gets its own cache.
+ * <p>
+ * The completer must only return values starting with
+ * {@link CompleterInvocation#getGivenCompleteValue()}, for a longer value the cached
+ * values of a shorter one are filtered instead of running the completer again.
+ * It must also return every matching value: a completer that caps the number of its
+ * values, or returns only some of them, would lose the values left out when they are
+ * filtered, do not cache it, or set an offset so its values are not filtered.
+ *
+ * <pre>
+ * &#064;CachedCompletions(ttl = 30)
+ * public class ResourceCompleter implements OptionCompleter&lt;CompleterInvocation&gt; {
+ *     ...
+ * }
+ * </pre>
+ *
+ * @author Aesh team
+ * @since 3.17
+ */
+@Retention(RUNTIME)
+@Target(TYPE)
+public @interface CachedCompletions {
+
+    /**
+     * Time the values are kept.
+     */
+    long ttl() default 60;
+
+    TimeUnit unit() default TimeUnit.SECONDS;
+
+    /**
+     * Maximum number of cached completions, the least recently used are evicted first.
+     */
+    int maxEntries() default CompletionCache.DEFAULT_MAX_ENTRIES;
+}
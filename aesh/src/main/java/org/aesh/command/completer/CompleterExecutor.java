@@ -0,0 +1,328 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.command.completer;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs option completers on a small pool of named daemon threads, with a deadline
+ * for each completion request.
+ * <p>
+ * The thread asking for completion, usually the one reading the terminal input,
+ * waits for the completer at most for the timeout. When the completer does not
+ * finish in time it is cancelled: its thread is interrupted and
+ * {@link CompleterInvocation#isCancelled()} returns true. A completer returning
+ * true from {@link OptionCompleter#supportsPartialResults()} is given a short grace
+ * period to return, the values it has added so far are then used. Otherwise the
+ * request gets no values.
+ * <p>
+ * Every request is numbered by a generation counter. Starting a request cancels the
+ * completer of the previous one if it is still running, and the values of a completer
+ * finishing after its deadline or after a newer request started are dropped, counted
+ * by {@link #staleCompletions()}.
+ * <p>
+ * A request is never queued behind a completer that is still running, for instance
+ * a cancelled completer ignoring the interrupt: when all the pooled threads are busy
+ * the completer runs on a new thread that is not kept, counted by
+ * {@link #overflowCompletions()}.
+ * <p>
+ * Set with {@link org.aesh.command.settings.SettingsBuilder#completerExecutor(CompleterExecutor)} or
+ * {@link org.aesh.command.AeshCommandRuntimeBuilder#completerExecutor(CompleterExecutor)}.
+ * Without an executor completers run on the thread asking for completion.
+ *
+ * @author Aesh team
+ * @since 3.17
+ */
+public class CompleterExecutor {
+
+    public static final int DEFAULT_THREADS = 2;
+    public static final long DEFAULT_TIMEOUT_MILLIS = 500;
+    public static final long PARTIAL_RESULTS_GRACE_MILLIS = 50;
+
+    /**
+     * What a completion request got from its completer.
+     */
+    public enum Result {
+        /** The completer returned all its values. */
+        COMPLETE,
+        /** The completer timed out, the values it added before returning can be used. */
+        PARTIAL,
+        /** The completer timed out or the request was superseded, its values must not be used. */
+        DROPPED;
+
+        /**
+         * @return true if the values of the invocation can be used
+         */
+        public boolean isUsable() {
+            return this != DROPPED;
+        }
+    }
+
+    private static final ThreadLocal<Completion> RUNNING = new ThreadLocal<>();
+
+    private final String threadNamePrefix;
+    private final ThreadPoolExecutor pool;
+    private final long timeoutNanos;
+    private final AtomicInteger threadCount = new AtomicInteger();
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong timedOutCompletions = new AtomicLong();
+    private final AtomicLong partialCompletions = new AtomicLong();
+    private final AtomicLong staleCompletions = new AtomicLong();
+    private final AtomicLong overflowCompletions = new AtomicLong();
+    private final AtomicReference<Completion> current = new AtomicReference<>();
+
+    public CompleterExecutor() {
+        this(DEFAULT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param timeout time a completion request waits for its completer
+     * @param unit unit of timeout
+     */
+    public CompleterExecutor(long timeout, TimeUnit unit) {
+        this("aesh-completer", DEFAULT_THREADS, timeout, unit);
+    }
+
+    /**
+     * @param threadNamePrefix prefix of the thread names, followed by a number
+     * @param threads maximum number of pooled threads, idle threads are released after a minute
+     * @param timeout time a completion request waits for its completer
+     * @param unit unit of timeout
+     */
+    public CompleterExecutor(String threadNamePrefix, int threads, long timeout, TimeUnit unit) {
+        if (threads < 1)
+            throw new IllegalArgumentException("threads must be at least 1, was " + threads);
+        if (timeout <= 0)
+            throw new IllegalArgumentException("timeout must be positive, was " + timeout);
+        this.threadNamePrefix = threadNamePrefix;
+        this.timeoutNanos = unit.toNanos(timeout);
+        pool = new ThreadPoolExecutor(0, threads, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), this::newThread,
+                (r, executor) -> runOnOverflowThread(r, executor));
+    }
+
+    private Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, threadNamePrefix + "-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private void runOnOverflowThread(Runnable r, ThreadPoolExecutor executor) {
+        if (executor.isShutdown())
+            throw new RejectedExecutionException("The completer executor is shut down");
+        overflowCompletions.incrementAndGet();
+        newThread(r).start();
+    }
+
+    /**
+     * Run a completer for a new completion request and wait for it, at most for the timeout.
+     * If the executor is shut down the completer runs on the calling thread.
+     *
+     * @param completer the completer
+     * @param invocation the invocation given to the completer
+     * @return {@link Result#COMPLETE} or {@link Result#PARTIAL} if the values of the invocation
+     *         can be used, {@link Result#DROPPED} if the request timed out or was superseded
+     *         by a newer request
+     * @throws RuntimeException thrown by the completer
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public Result complete(OptionCompleter completer, CompleterInvocation invocation) {
+        Completion completion = new Completion(completer, invocation, generation.incrementAndGet());
+        // each request cancels the one it replaced, even when requests start at the same time
+        Completion previous = current.getAndSet(completion);
+        if (previous != null)
+            previous.cancel();
+        try {
+            pool.execute(completion);
+        } catch (RejectedExecutionException e) {
+            completion.run();
+        }
+
+        Result result = Result.COMPLETE;
+        try {
+            if (!completion.done.await(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                completion.cancel();
+                timedOutCompletions.incrementAndGet();
+                if (!completer.supportsPartialResults()
+                        || !completion.done.await(PARTIAL_RESULTS_GRACE_MILLIS, TimeUnit.MILLISECONDS)) {
+                    completion.abandon();
+                    return Result.DROPPED;
+                }
+                partialCompletions.incrementAndGet();
+                result = Result.PARTIAL;
+            }
+        } catch (InterruptedException e) {
+            completion.cancel();
+            completion.abandon();
+            Thread.currentThread().interrupt();
+            return Result.DROPPED;
+        }
+
+        if (generation.get() != completion.generation) {
+            staleCompletions.incrementAndGet();
+            return Result.DROPPED;
+        }
+        if (completion.failure instanceof RuntimeException)
+            throw (RuntimeException) completion.failure;
+        if (completion.failure instanceof Error)
+            throw (Error) completion.failure;
+        return result;
+    }
+
+    /**
+     * @return true if the completer running on the current thread was cancelled
+     */
+    static boolean isCurrentCompletionCancelled() {
+        Completion completion = RUNNING.get();
+        if (completion == null)
+            return false;
+        synchronized (completion) {
+            return completion.cancelled;
+        }
+    }
+
+    /**
+     * @return the timeout of a completion request in milliseconds
+     */
+    public long timeoutMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(timeoutNanos);
+    }
+
+    /**
+     * @return the number of completion requests started
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * @return the number of completers that did not finish before the timeout
+     */
+    public long timedOutCompletions() {
+        return timedOutCompletions.get();
+    }
+
+    /**
+     * @return the number of timed out completers whose partial values were used
+     */
+    public long partialCompletions() {
+        return partialCompletions.get();
+    }
+
+    /**
+     * @return the number of completers whose values were dropped because they finished
+     *         after their deadline or after a newer request started
+     */
+    public long staleCompletions() {
+        return staleCompletions.get();
+    }
+
+    /**
+     * @return the number of completers run on a thread that is not kept because all the
+     *         pooled threads were busy
+     */
+    public long overflowCompletions() {
+        return overflowCompletions.get();
+    }
+
+    /**
+     * Stop accepting completers and release the idle threads, running completers are not interrupted.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    public boolean isShutdown() {
+        return pool.isShutdown();
+    }
+
+    private final class Completion implements Runnable {
+        private final OptionCompleter<CompleterInvocation> completer;
+        private final CompleterInvocation invocation;
+        private final long generation;
+        private final CountDownLatch done = new CountDownLatch(1);
+        private Thread worker;
+        private boolean started;
+        private boolean cancelled;
+        private boolean abandoned;
+        private volatile Throwable failure;
+
+        Completion(OptionCompleter<CompleterInvocation> completer, CompleterInvocation invocation, long generation) {
+            this.completer = completer;
+            this.invocation = invocation;
+            this.generation = generation;
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                if (cancelled) {
+                    done.countDown();
+                    return;
+                }
+                worker = Thread.currentThread();
+                started = true;
+            }
+            Completion outer = RUNNING.get();
+            RUNNING.set(this);
+            try {
+                completer.complete(invocation);
+            } catch (Throwable t) {
+                failure = t;
+            } finally {
+                if (outer != null)
+                    RUNNING.set(outer);
+                else
+                    RUNNING.remove();
+                synchronized (this) {
+                    worker = null;
+                    // do not leave a pooled thread interrupted by cancel()
+                    if (cancelled)
+                        Thread.interrupted();
+                    if (abandoned)
+                        staleCompletions.incrementAndGet();
+                }
+                done.countDown();
+            }
+        }
+
+        synchronized void cancel() {
+            cancelled = true;
+            if (worker != null && worker != Thread.currentThread())
+                worker.interrupt();
+        }
+
+        /**
+         * The request stopped waiting, the values of the completer will not be used.
+         */
+        synchronized void abandon() {
+            if (worker != null)
+                abandoned = true;
+            else if (started)
+                staleCompletions.incrementAndGet();
+        }
+    }
+}
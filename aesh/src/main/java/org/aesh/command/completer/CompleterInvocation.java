@@ -72,4 +72,17 @@ public interface CompleterInvocation {
     boolean isIgnoreStartsWith();
 
     AeshContext getAeshContext();
+
+    /**
+     * A completer run by a {@link CompleterExecutor} is cancelled when it does not
+     * finish before the deadline of its request, or when a newer request starts.
+     * Long running completers should check this regularly and return, the values
+     * added so far are used if {@link OptionCompleter#supportsPartialResults()}.
+     *
+     * @return true if the completion request was cancelled
+     * @since 3.17
+     */
+    default boolean isCancelled() {
+        return CompleterExecutor.isCurrentCompletionCancelled();
+    }
 }
@@ -0,0 +1,228 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.command.completer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.aesh.terminal.formatting.TerminalString;
+
+/**
+ * A size bounded, least recently used cache of the values of an option completer.
+ * <p>
+ * The values are kept for a key, naming the command, the option and what the values
+ * depend on, and for the value that was completed. When a value is completed again
+ * after more characters were typed, the cached values of the shortest value it starts
+ * with are filtered, as long as the completer returned values starting with the
+ * completed value and did not change the offset. Filtering is only correct if the
+ * completer returned every matching value, see {@link CachedCompletions}. The values
+ * of a completer that timed out are not cached.
+ * <p>
+ * Set on an option with {@link CachedCompletions} on the completer class or with
+ * {@link org.aesh.command.impl.internal.ProcessedOptionBuilder#completionCache(CompletionCache)}.
+ *
+ * @author Aesh team
+ * @since 3.17
+ */
+public class CompletionCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 64;
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final Map<String, CachedValues> entries;
+    private long hits;
+    private long narrowedHits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * @param ttl time the values are kept
+     * @param unit unit of ttl
+     * @param maxEntries maximum number of cached completions
+     */
+    public CompletionCache(long ttl, TimeUnit unit, int maxEntries) {
+        if (ttl <= 0)
+            throw new IllegalArgumentException("ttl must be positive, was " + ttl);
+        if (maxEntries < 1)
+            throw new IllegalArgumentException("maxEntries must be at least 1, was " + maxEntries);
+        this.ttlNanos = unit.toNanos(ttl);
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<String, CachedValues>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedValues> eldest) {
+                if (size() > CompletionCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public static CompletionCache of(CachedCompletions cachedCompletions) {
+        return new CompletionCache(cachedCompletions.ttl(), cachedCompletions.unit(), cachedCompletions.maxEntries());
+    }
+
+    /**
+     * Add the cached values completing the given value to the invocation.
+     *
+     * @param key what the values depend on
+     * @param value the value to complete
+     * @param invocation the invocation receiving the values
+     * @return true if cached values were found, false if the completer must be run
+     */
+    public synchronized boolean get(String key, String value, CompleterInvocation invocation) {
+        long now = System.nanoTime();
+        for (int end = value.length(); end >= 0; end--) {
+            String cacheKey = cacheKey(key, value.substring(0, end));
+            CachedValues entry = entries.get(cacheKey);
+            if (entry == null)
+                continue;
+            if (now - entry.created >= ttlNanos) {
+                entries.remove(cacheKey);
+                continue;
+            }
+            if (end == value.length()) {
+                hits++;
+                entry.copyTo(invocation);
+                return true;
+            }
+            if (entry.narrowable()) {
+                hits++;
+                narrowedHits++;
+                CachedValues narrowed = entry.narrow(value);
+                entries.put(cacheKey(key, value), narrowed);
+                narrowed.copyTo(invocation);
+                return true;
+            }
+        }
+        misses++;
+        return false;
+    }
+
+    /**
+     * Cache the values a completer added to the invocation.
+     *
+     * @param key what the values depend on
+     * @param value the completed value
+     * @param invocation the invocation given to the completer
+     */
+    public synchronized void put(String key, String value, CompleterInvocation invocation) {
+        entries.put(cacheKey(key, value), new CachedValues(invocation, System.nanoTime()));
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the number of completions answered from the cache, narrowed or not
+     */
+    public synchronized long hits() {
+        return hits;
+    }
+
+    /**
+     * @return the number of completions answered by filtering the values of a shorter value
+     */
+    public synchronized long narrowedHits() {
+        return narrowedHits;
+    }
+
+    /**
+     * @return the number of completions that ran the completer
+     */
+    public synchronized long misses() {
+        return misses;
+    }
+
+    /**
+     * @return the number of completions evicted to keep the cache under its maximum size
+     */
+    public synchronized long evictions() {
+        return evictions;
+    }
+
+    private static String cacheKey(String key, String value) {
+        return key + '\u0000' + value;
+    }
+
+    private static final class CachedValues {
+        private final List<TerminalString> values;
+        private final boolean appendSpace;
+        private final boolean ignoreOffset;
+        private final int offset;
+        private final boolean ignoreStartsWith;
+        private final long created;
+
+        CachedValues(CompleterInvocation invocation, long created) {
+            this(copy(invocation.getCompleterValues(), null), invocation.isAppendSpace(),
+                    invocation.doIgnoreOffset(), invocation.getOffset(), invocation.isIgnoreStartsWith(), created);
+        }
+
+        private CachedValues(List<TerminalString> values, boolean appendSpace, boolean ignoreOffset, int offset,
+                boolean ignoreStartsWith, long created) {
+            this.values = values;
+            this.appendSpace = appendSpace;
+            this.ignoreOffset = ignoreOffset;
+            this.offset = offset;
+            this.ignoreStartsWith = ignoreStartsWith;
+            this.created = created;
+        }
+
+        boolean narrowable() {
+            return offset < 0 && !ignoreStartsWith;
+        }
+
+        CachedValues narrow(String prefix) {
+            return new CachedValues(copy(values, prefix), appendSpace, ignoreOffset, offset, ignoreStartsWith, created);
+        }
+
+        void copyTo(CompleterInvocation invocation) {
+            for (TerminalString value : copy(values, null))
+                invocation.addCompleterValueTerminalString(value);
+            invocation.setAppendSpace(appendSpace);
+            invocation.setIgnoreOffset(ignoreOffset);
+            invocation.setOffset(offset);
+            invocation.setIgnoreStartsWith(ignoreStartsWith);
+        }
+
+        // the completion engine changes the candidates it is given, the cache keeps its own copies
+        private static List<TerminalString> copy(List<TerminalString> values, String prefix) {
+            List<TerminalString> copy = new ArrayList<>(values.size());
+            for (TerminalString value : values) {
+                if (prefix == null || value.getCharacters().startsWith(prefix)) {
+                    TerminalString clone = value.cloneRenderingAttributes(value.getCharacters());
+                    clone.setHyperlinkUrl(value.getHyperlinkUrl());
+                    copy.add(clone);
+                }
+            }
+            return copy;
+        }
+    }
+}
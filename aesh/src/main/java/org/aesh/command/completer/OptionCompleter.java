@@ -32,4 +32,17 @@ public interface OptionCompleter<T extends CompleterInvocation> {
      * The current value to be completed is completerInvocation.getGivenCompleteValue()
      */
     void complete(T completerInvocation);
+
+    /**
+     * When run by a {@link CompleterExecutor}, a completer supporting partial results
+     * adds its values as it finds them and returns soon after
+     * {@link CompleterInvocation#isCancelled()} becomes true. The values added until
+     * then are used, instead of none.
+     *
+     * @return true if the values added before a cancellation can be used
+     * @since 3.17
+     */
+    default boolean supportsPartialResults() {
+        return false;
+    }
 }
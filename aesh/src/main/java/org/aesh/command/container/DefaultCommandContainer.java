@@ -97,7 +97,7 @@ public abstract class DefaultCommandContainer<CI extends CommandInvocation> impl
         if (getParser().parsedCommand() == null) {
             throw new CommandLineParserException("Command and/or sub-command is not valid!");
         }
-        // Use doPopulate to populate the whole command tree and propagate
+        // Use doPopulate to populate the commands on the parsed path and propagate
         // inherited options from parent to child commands
         getParser().doPopulate(getParser().getProcessedCommand(), invocationProviders,
                 aeshContext, CommandLineParser.Mode.VALIDATE);
@@ -24,23 +24,25 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import org.aesh.command.Command;
 import org.aesh.command.CommandException;
 import org.aesh.command.CommandNotFoundException;
 import org.aesh.command.CommandNotFoundHandler;
 import org.aesh.command.CommandResolver;
 import org.aesh.command.CommandResult;
 import org.aesh.command.CommandRuntime;
+import org.aesh.command.CommandScope;
 import org.aesh.command.Execution;
 import org.aesh.command.Executor;
+import org.aesh.command.PipeFlushPolicy;
+import org.aesh.command.PipeStageExecutor;
 import org.aesh.command.activator.CommandActivatorProvider;
 import org.aesh.command.activator.OptionActivatorProvider;
+import org.aesh.command.completer.CompleterExecutor;
 import org.aesh.command.completer.CompleterInvocation;
 import org.aesh.command.completer.CompleterInvocationProvider;
 import org.aesh.command.container.CommandContainer;
@@ -49,6 +51,7 @@ import org.aesh.command.impl.completer.CompleterData;
 import org.aesh.command.impl.completer.FileOptionCompleter;
 import org.aesh.command.impl.internal.ProcessedOption;
 import org.aesh.command.impl.invocation.AeshInvocationProviders;
+import org.aesh.command.impl.operator.BackgroundOperator;
 import org.aesh.command.impl.operator.PipeOperator;
 import org.aesh.command.impl.parser.AeshCommandLineCompletionParser;
 import org.aesh.command.impl.parser.AeshCommandLineParser;
@@ -58,6 +61,8 @@ import org.aesh.command.invocation.CommandInvocationBuilder;
 import org.aesh.command.invocation.CommandInvocationConfiguration;
 import org.aesh.command.invocation.CommandInvocationProvider;
 import org.aesh.command.invocation.InvocationProviders;
+import org.aesh.command.job.JobManager;
+import org.aesh.command.operator.OperatorMatcher;
 import org.aesh.command.operator.OperatorType;
 import org.aesh.command.parser.CommandLineParserException;
 import org.aesh.command.registry.CommandRegistry;
@@ -66,6 +71,7 @@ import org.aesh.command.validator.OptionValidatorException;
 import org.aesh.command.validator.ValidatorInvocationProvider;
 import org.aesh.complete.AeshCompleteOperation;
 import org.aesh.console.AeshContext;
+import org.aesh.parser.IncrementalLineParser;
 import org.aesh.parser.LineParser;
 import org.aesh.parser.ParsedLine;
 import org.aesh.parser.ParsedWord;
@@ -92,6 +98,13 @@ public class AeshCommandRuntime<CI extends CommandInvocation>
 
     private final boolean parseBrackets;
     private final EnumSet<OperatorType> operators;
+    private final OperatorMatcher operatorMatcher;
+    private final PipeStageExecutor pipeStageExecutor;
+    private final int pipeBufferSize;
+    private final PipeFlushPolicy pipeFlushPolicy;
+    private final boolean pipeFusion;
+    private final JobManager jobManager;
+    private final CommandContainerPool<CI> containerPool = new CommandContainerPool<>(CommandContainerPool.DEFAULT_MAX_IDLE);
 
     public AeshCommandRuntime(AeshContext ctx,
             CommandRegistry<CI> registry,
@@ -104,7 +117,13 @@ public class AeshCommandRuntime<CI extends CommandInvocation>
             CommandActivatorProvider commandActivatorProvider,
             CommandInvocationBuilder<CI> commandInvocationBuilder,
             boolean parseBrackets,
-            EnumSet<OperatorType> operators) {
+            EnumSet<OperatorType> operators,
+            PipeStageExecutor pipeStageExecutor,
+            int pipeBufferSize,
+            PipeFlushPolicy pipeFlushPolicy,
+            boolean pipeFusion,
+            JobManager jobManager,
+            CompleterExecutor completerExecutor) {
         this.ctx = ctx;
         this.registry = registry;
         commandResolver = new AeshCommandResolver<>(registry);
@@ -112,11 +131,33 @@ public class AeshCommandRuntime<CI extends CommandInvocation>
         this.commandNotFoundHandler = commandNotFoundHandler;
         this.commandInvocationBuilder = commandInvocationBuilder;
         this.invocationProviders = new AeshInvocationProviders(converterInvocationProvider, completerInvocationProvider,
-                validatorInvocationProvider, optionActivatorProvider, commandActivatorProvider);
+                validatorInvocationProvider, optionActivatorProvider, commandActivatorProvider, completerExecutor);
         processAfterInit();
         registry.addRegistrationListener(this);
         this.parseBrackets = parseBrackets;
         this.operators = operators;
+        this.operatorMatcher = OperatorMatcher.compile(operators);
+        this.pipeStageExecutor = pipeStageExecutor != null ? pipeStageExecutor : new PipeStageExecutor();
+        this.pipeBufferSize = pipeBufferSize;
+        this.pipeFlushPolicy = pipeFlushPolicy;
+        this.pipeFusion = pipeFusion;
+        this.jobManager = jobManager;
+    }
+
+    int pipeBufferSize() {
+        return pipeBufferSize;
+    }
+
+    PipeFlushPolicy pipeFlushPolicy() {
+        return pipeFlushPolicy;
+    }
+
+    boolean pipeFusion() {
+        return pipeFusion;
+    }
+
+    JobManager jobManager() {
+        return jobManager;
     }
 
     @Override
@@ -180,8 +221,56 @@ public class AeshCommandRuntime<CI extends CommandInvocation>
         return runExecutor(buildExecutorFromArgs(commandName, args));
     }
 
-    private Executor<CI> buildExecutorFromArgs(String commandName, String[] args)
+    @Override
+    public Executor<CI> buildConcurrentExecutor(String commandName, String[] args,
+            CommandInvocationConfiguration configuration)
             throws CommandNotFoundException, CommandLineParserException, IOException {
+        ParsedLine parsedLine = parsedLineFromArgs(commandName, args);
+        CommandContainer<CI> container = resolveCommandContainer(parsedLine);
+        // the instance of a singleton command can not be shared by executions running at the same time
+        if (container.getParser().getProcessedCommand().scope() != CommandScope.PROTOTYPE)
+            throw new CommandLineParserException("The command " + commandName
+                    + " can not run concurrently, declare it with scope = CommandScope.PROTOTYPE");
+        return new Executor<>(Collections.singletonList(
+                Executions.buildExecution(acquireCommandContainer(container), parsedLine, configuration, this)));
+    }
+
+    /**
+     * @return an idle container of the command of the given container from the pool, or a new one
+     */
+    private CommandContainer<CI> acquireCommandContainer(CommandContainer<CI> registered)
+            throws CommandNotFoundException, CommandLineParserException {
+        CommandContainer<CI> container = containerPool.poll(registered);
+        return container != null ? container : newCommandContainer(registered);
+    }
+
+    void releaseCommandContainer(CommandContainer<CI> container) {
+        if (container instanceof PrototypeCommandContainer)
+            containerPool.release((PrototypeCommandContainer<CI>) container);
+    }
+
+    /**
+     * Create a container with a copy of the parser of the given container and a new instance
+     * of the command, the registered instance is left untouched.
+     */
+    private CommandContainer<CI> newCommandContainer(CommandContainer<CI> registered)
+            throws CommandNotFoundException, CommandLineParserException {
+        CommandLineParser<CI> parser = registered.getParser();
+        if (!(parser instanceof AeshCommandLineParser))
+            throw new CommandLineParserException("The command " + parser.getProcessedCommand().name()
+                    + " can not be copied");
+        AeshCommandLineParser<CI> copy;
+        try {
+            copy = ((AeshCommandLineParser<CI>) parser).copy();
+        } catch (RuntimeException e) {
+            throw new CommandLineParserException("Could not create a new instance of "
+                    + parser.getProcessedCommand().getCommand().getClass().getName() + ": " + e.getMessage());
+        }
+        updateInvocationProviders(copy, parser.getProcessedCommand().name());
+        return new PrototypeCommandContainer<>(registered, copy);
+    }
+
+    private static ParsedLine parsedLineFromArgs(String commandName, String[] args) {
         // Build a display string for error messages
         StringBuilder displayLine = new StringBuilder(commandName);
         if (args != null) {
@@ -200,8 +289,14 @@ public class AeshCommandRuntime<CI extends CommandInvocation>
                 offset += arg.length() + 1;
             }
         }
-        ParsedLine parsedLine = new ParsedLine(displayLine.toString(), words,
+        return new ParsedLine(displayLine.toString(), words,
                 -1, -1, -1, ParserStatus.OK, "", OperatorType.NONE);
+    }
+
+    private Executor<CI> buildExecutorFromArgs(String commandName, String[] args)
+            throws CommandNotFoundException, CommandLineParserException, IOException {
+        ParsedLine parsedLine = parsedLineFromArgs(commandName, args);
+        String displayLine = parsedLine.line();
 
         try {
             List<Execution<CI>> executions = Executions.buildExecution(
@@ -211,7 +306,7 @@ public class AeshCommandRuntime<CI extends CommandInvocation>
             throw e;
         } catch (CommandNotFoundException cmd) {
             if (commandNotFoundHandler != null) {
-                commandNotFoundHandler.handleCommandNotFound(displayLine.toString(),
+                commandNotFoundHandler.handleCommandNotFound(displayLine,
                         msg -> commandInvocationBuilder.build(this, null, null).getShell().writeln(msg),
                         cmd.getCommandName(), registry.getAllCommandNames());
             }
@@ -237,6 +332,17 @@ public class AeshCommandRuntime<CI extends CommandInvocation>
                 pipeChain.add(next);
                 exec = next;
             }
+            if (jobManager != null && exec.getExecutable() instanceof BackgroundOperator) {
+                // cmd & -- run the chain as a job, the results tell the executor to go on
+                BackgroundOperator<CI> background = (BackgroundOperator<CI>) exec.getExecutable();
+                List<Execution> chain = pipeChain;
+                jobManager.submit(background.getCommandLine(), background.getOutput(),
+                        () -> chain.size() == 1 ? executeSingle(chain.get(0)) : executePipeChain(chain));
+                for (Execution execution : pipeChain)
+                    execution.setResult(CommandResult.SUCCESS);
+                result = CommandResult.SUCCESS;
+                continue;
+            }
             // Clear preliminary results — actual execution will set them
             for (int i = 0; i < pipeChain.size() - 1; i++) {
                 pipeChain.get(i).setResult(null);
@@ -290,8 +396,9 @@ public class AeshCommandRuntime<CI extends CommandInvocation>
     /**
      * Execute a pipe chain concurrently.
      * <p>
-     * All stages except the last are submitted to a thread pool. The last stage
-     * runs on the calling thread. The result of the last stage in the pipeline
+     * All stages except the last are submitted to the shared {@link PipeStageExecutor}. The last stage
+     * runs on the calling thread. A stage fused with the {@link org.aesh.command.StreamingCommand}
+     * after it is not submitted, it runs on the thread of that command. The result of the last stage in the pipeline
      * is returned (matching Unix pipe semantics where the exit code is from the
      * last command).
      * <p>
@@ -303,29 +410,25 @@ public class AeshCommandRuntime<CI extends CommandInvocation>
     @SuppressWarnings("unchecked")
     private CommandResult executePipeChain(List<Execution> chain) throws CommandException,
             CommandValidatorException, CommandLineParserException, InterruptedException {
-        // Run all stages except the last in background threads
-        ExecutorService threadPool = Executors.newFixedThreadPool(chain.size() - 1, r -> {
-            Thread t = new Thread(r, "aesh-pipe-" + System.nanoTime());
-            t.setDaemon(true);
-            return t;
-        });
-
         List<Future<?>> futures = new ArrayList<>(chain.size() - 1);
         try {
-            // Submit upstream stages to thread pool
+            // Run all stages except the last in background threads
             for (int i = 0; i < chain.size() - 1; i++) {
                 Execution stage = chain.get(i);
-                futures.add(threadPool.submit(() -> {
-                    try {
-                        stage.execute();
-                    } catch (Exception e) {
-                        // Upstream failures are logged but not propagated — the
-                        // pipeline result comes from the last stage (Unix semantics).
-                        // Pipe broken / IOException from downstream closing early
-                        // is expected (SIGPIPE-like behavior).
-                        stage.setResult(CommandResult.FAILURE);
-                    }
-                }));
+                // fused stages are run by the next stage, on its thread
+                if (stage.isFused())
+                    continue;
+                try {
+                    futures.add(pipeStageExecutor.submit(() -> {
+                        try {
+                            stage.execute();
+                        } catch (Exception e) {
+                            upstreamFailed(stage, e);
+                        }
+                    }));
+                } catch (RejectedExecutionException e) {
+                    throw new CommandException(e.getMessage(), e);
+                }
             }
 
             // Run the last stage on the calling thread
@@ -345,10 +448,25 @@ public class AeshCommandRuntime<CI extends CommandInvocation>
 
             return result;
         } finally {
-            threadPool.shutdownNow();
+            // interrupt the stages still running if the last stage failed, the executor is shared
+            for (Future<?> future : futures)
+                future.cancel(true);
         }
     }
 
+    /**
+     * Record the failure of a pipe stage that is not the last one, run on a thread of its
+     * own or fused with the next stage. Upstream failures are logged but not propagated,
+     * the pipeline result comes from the last stage (Unix semantics). A stage stopped by
+     * writing into a pipe whose reader is closed, the next stage having finished early,
+     * is expected (SIGPIPE-like behavior) and not logged.
+     */
+    static void upstreamFailed(Execution<?> stage, Exception e) {
+        stage.setResult(CommandResult.FAILURE);
+        if (!PipeOperator.isPipeClosed(e))
+            LOGGER.log(Level.FINE, "Upstream pipe stage failed", e);
+    }
+
     @Override
     public CommandResult executeCommand(String... lines) throws CommandNotFoundException, CommandLineParserException,
             OptionValidatorException, CommandValidatorException, CommandException, InterruptedException, IOException {
@@ -374,7 +492,11 @@ public class AeshCommandRuntime<CI extends CommandInvocation>
     }
 
     private void updateCommand(String commandName) throws CommandNotFoundException {
-        CommandLineParser<CI> parser = registry.getCommand(commandName, "").getParser();
+        updateInvocationProviders(registry.getCommand(commandName, "").getParser(), commandName);
+    }
+
+    private void updateInvocationProviders(CommandLineParser<CI> parser, String commandName)
+            throws CommandNotFoundException {
         parser.getProcessedCommand().updateInvocationProviders(invocationProviders);
         if (parser instanceof AeshCommandLineParser) {
             AeshCommandLineParser<CI> aeshParser = (AeshCommandLineParser<CI>) parser;
@@ -397,7 +519,9 @@ public class AeshCommandRuntime<CI extends CommandInvocation>
     public Executor<CI> buildExecutor(String line) throws CommandNotFoundException,
             CommandLineParserException, IOException {
         LOGGER.fine("Command: " + line);
-        List<ParsedLine> lines = new LineParser().parseLine(line, -1, parseBrackets, operators);
+        List<ParsedLine> lines = new LineParser()
+                .operatorMatcher(operatorMatcher)
+                .parseLine(line, -1, parseBrackets, operators);
         List<Execution<CI>> executions = Executions.buildExecution(lines, this);
         return new Executor<>(executions);
     }
@@ -407,16 +531,28 @@ public class AeshCommandRuntime<CI extends CommandInvocation>
                 .enhanceCommandInvocation(commandInvocationBuilder.build(this, config, commandContainer));
     }
 
-    CommandContainer<CI> findCommandContainer(ParsedLine aeshLine) throws CommandNotFoundException {
+    /**
+     * Find the container running the given line and queue the line on it.
+     * A {@link CommandScope#PROTOTYPE} command gets a container of its own from the pool.
+     */
+    CommandContainer<CI> findCommandContainer(ParsedLine aeshLine)
+            throws CommandNotFoundException, CommandLineParserException {
         if (aeshLine.words().isEmpty()) {
             return null;
         }
+        CommandContainer<CI> container = resolveCommandContainer(aeshLine);
+        if (container.getParser().getProcessedCommand().scope() == CommandScope.PROTOTYPE)
+            container = acquireCommandContainer(container);
+        container.addLine(aeshLine);
+        return container;
+    }
+
+    private CommandContainer<CI> resolveCommandContainer(ParsedLine aeshLine) throws CommandNotFoundException {
         final String name = aeshLine.firstWord().word();
         CommandContainer<CI> container = commandResolver.resolveCommand(name, aeshLine.line());
         if (container == null) {
             throw new CommandNotFoundException("No command handler for '" + name + "'.", name);
         }
-        container.addLine(aeshLine);
         return container;
     }
 
@@ -431,13 +567,22 @@ public class AeshCommandRuntime<CI extends CommandInvocation>
 
     @Override
     public void registrationAction(String commandName, CommandRegistry.REGISTRATION_ACTION action) {
+        registrationActions(Collections.singletonList(commandName), action);
+    }
+
+    @Override
+    public void registrationActions(List<String> commandNames, CommandRegistry.REGISTRATION_ACTION action) {
         if (action == CommandRegistry.REGISTRATION_ACTION.ADDED) {
-            try {
-                updateCommand(commandName);
-            } catch (Exception e) {
-                LOGGER.log(Level.FINER, "Exception while iterating commands.", e);
+            for (String commandName : commandNames) {
+                try {
+                    updateCommand(commandName);
+                } catch (Exception e) {
+                    LOGGER.log(Level.FINER, "Exception while iterating commands.", e);
+                }
             }
         }
+        // an idle container may hold an instance of the command that was replaced
+        containerPool.clear();
     }
 
     @Override
@@ -450,12 +595,13 @@ public class AeshCommandRuntime<CI extends CommandInvocation>
     }
 
     private void completeWithOperators(AeshCompleteOperation completeOperation) {
-        List<ParsedLine> lines = new LineParser()
-                .input(completeOperation.getBuffer())
-                .cursor(completeOperation.getCursor())
-                .parseBrackets(true)
-                .operators(operators)
-                .parseWithOperators();
+        IncrementalLineParser lineParser = completeOperation.getLineParser();
+        List<ParsedLine> lines = lineParser != null
+                ? lineParser.parseLine(completeOperation.getBuffer(), completeOperation.getCursor(), true,
+                        operatorMatcher, operators)
+                : new LineParser()
+                        .operatorMatcher(operatorMatcher)
+                        .parseLine(completeOperation.getBuffer(), completeOperation.getCursor(), true, operators);
 
         if (!lines.isEmpty()) {
             for (int i = 0; i < lines.size(); i++) {
@@ -494,11 +640,10 @@ public class AeshCommandRuntime<CI extends CommandInvocation>
     }
 
     private void simpleComplete(AeshCompleteOperation completeOperation) {
-        ParsedLine parsedLine = new LineParser()
-                .input(completeOperation.getBuffer())
-                .cursor(completeOperation.getCursor())
-                .parseBrackets(true)
-                .parse();
+        IncrementalLineParser lineParser = completeOperation.getLineParser();
+        ParsedLine parsedLine = lineParser != null
+                ? lineParser.parseLine(completeOperation.getBuffer(), completeOperation.getCursor(), true)
+                : new LineParser().parseLine(completeOperation.getBuffer(), completeOperation.getCursor(), true);
 
         doSimpleComplete(completeOperation, parsedLine);
     }
@@ -0,0 +1,74 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.command.impl;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.aesh.command.container.CommandContainer;
+import org.aesh.command.invocation.CommandInvocation;
+
+/**
+ * The idle containers of the {@link org.aesh.command.CommandScope#PROTOTYPE} commands,
+ * each container holding its own command instance.
+ * <p>
+ * Containers copied from the same registered container are interchangeable, at most {@code maxIdle}
+ * of them are kept for each registered container, the others are left to the garbage collector.
+ *
+ * @author Aesh team
+ */
+class CommandContainerPool<CI extends CommandInvocation> {
+
+    static final int DEFAULT_MAX_IDLE = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+    private final int maxIdle;
+    // keyed by identity, registered containers of different commands may be equal
+    private final Map<CommandContainer<CI>, BlockingQueue<PrototypeCommandContainer<CI>>> idle = Collections
+            .synchronizedMap(new IdentityHashMap<>());
+
+    CommandContainerPool(int maxIdle) {
+        this.maxIdle = maxIdle;
+    }
+
+    /**
+     * @return an idle container copied from the given registered container, or null if there is none
+     */
+    PrototypeCommandContainer<CI> poll(CommandContainer<CI> registered) {
+        return idle.computeIfAbsent(registered, c -> new ArrayBlockingQueue<>(maxIdle)).poll();
+    }
+
+    /**
+     * Give back a container, its queued lines are dropped. The container is dropped too if the
+     * pool was cleared since it was taken, its registered container may not be registered anymore.
+     */
+    void release(PrototypeCommandContainer<CI> container) {
+        container.emptyLine();
+        BlockingQueue<PrototypeCommandContainer<CI>> queue = idle.get(container.registered());
+        if (queue != null)
+            queue.offer(container);
+    }
+
+    void clear() {
+        idle.clear();
+    }
+}
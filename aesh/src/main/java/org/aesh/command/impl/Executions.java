@@ -24,6 +24,7 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 import org.aesh.command.Command;
@@ -31,9 +32,13 @@ import org.aesh.command.CommandException;
 import org.aesh.command.CommandLifecycle;
 import org.aesh.command.CommandNotFoundException;
 import org.aesh.command.CommandResult;
+import org.aesh.command.CommandScope;
 import org.aesh.command.DocFormat;
 import org.aesh.command.Executable;
 import org.aesh.command.Execution;
+import org.aesh.command.ObjectConsumer;
+import org.aesh.command.ObjectProducer;
+import org.aesh.command.StreamingCommand;
 import org.aesh.command.container.CommandContainer;
 import org.aesh.command.impl.completer.CompleterData;
 import org.aesh.command.impl.context.CommandContext;
@@ -42,12 +47,14 @@ import org.aesh.command.impl.internal.ParsedCommand;
 import org.aesh.command.impl.internal.ProcessedCommand;
 import org.aesh.command.impl.internal.ProcessedOption;
 import org.aesh.command.impl.operator.AndOperator;
+import org.aesh.command.impl.operator.BackgroundOperator;
 import org.aesh.command.impl.operator.ConfigurationOperator;
 import org.aesh.command.impl.operator.DataProvider;
 import org.aesh.command.impl.operator.EndOperator;
 import org.aesh.command.impl.operator.ExecutableOperator;
 import org.aesh.command.impl.operator.InputDelegate;
 import org.aesh.command.impl.operator.InputRedirectionOperator;
+import org.aesh.command.impl.operator.ObjectPipe;
 import org.aesh.command.impl.operator.Operator;
 import org.aesh.command.impl.operator.OrOperator;
 import org.aesh.command.impl.operator.OutputRedirectionOperator;
@@ -82,8 +89,13 @@ class Executions {
         private final CommandInvocationConfiguration invocationConfiguration;
         private final AeshCommandRuntime<T> runtime;
         private final CommandContainer<T> commandContainer;
+        // the container was taken from the pool of the runtime and is given back after execute
+        private final boolean pooled;
         private CommandResult result;
         private boolean populated;
+        // the previous stage of the pipeline, run by this execution
+        private ExecutionImpl<T> fusedUpstream;
+        private boolean fused;
 
         ExecutionImpl(ExecutableOperator<T> executable,
                 AeshCommandRuntime<T> runtime,
@@ -93,6 +105,7 @@ class Executions {
             this.runtime = runtime;
             this.invocationConfiguration = invocationConfiguration;
             this.commandContainer = commandContainer;
+            this.pooled = commandContainer.getParser().getProcessedCommand().scope() == CommandScope.PROTOTYPE;
             this.cmd = commandContainer.getParser().getProcessedCommand();
         }
 
@@ -159,6 +172,16 @@ class Executions {
         @Override
         public CommandResult execute() throws CommandException, InterruptedException, CommandValidatorException,
                 CommandLineParserException, OptionValidatorException {
+            try {
+                return doExecute();
+            } finally {
+                if (pooled)
+                    runtime.releaseCommandContainer(commandContainer);
+            }
+        }
+
+        private CommandResult doExecute() throws CommandException, InterruptedException, CommandValidatorException,
+                CommandLineParserException, OptionValidatorException {
             //first we need to parse and populate the command line
             populateCommand();
 
@@ -246,6 +269,9 @@ class Executions {
                     result = CommandResult.SUCCESS;
                 }
 
+                else if (fusedUpstream != null)
+                    result = executeFused(getCommandInvocation());
+
                 //else we execute as normal
                 else
                     result = executable.execute(getCommandInvocation());
@@ -281,10 +307,56 @@ class Executions {
                 if (invocationConfiguration.getInputRedirection() != null) {
                     invocationConfiguration.getInputRedirection().close();
                 }
+                // the previous command must not block writing objects nobody reads
+                if (invocationConfiguration.getObjectInput() instanceof ObjectPipe) {
+                    ((ObjectPipe) invocationConfiguration.getObjectInput()).closeReader();
+                }
             }
             return result;
         }
 
+        /**
+         * Run the previous stage of the pipeline on this thread, passing each line it
+         * writes to the streaming command.
+         */
+        private CommandResult executeFused(T invocation) throws CommandException, InterruptedException {
+            StreamingCommand<T> command = (StreamingCommand<T>) cmd.getCommand();
+            AtomicReference<Exception> failure = new AtomicReference<>();
+            // after a failure or once the command is done, the previous stage writes into a closed pipe
+            ((PipeOperator) fusedUpstream.getExecutable()).fuse(line -> {
+                try {
+                    command.processLine(line, invocation);
+                    return !command.isInputDone();
+                } catch (CommandException | RuntimeException e) {
+                    failure.set(e);
+                    return false;
+                }
+            });
+            try {
+                fusedUpstream.execute();
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                AeshCommandRuntime.upstreamFailed(fusedUpstream, e);
+            }
+            if (failure.get() instanceof CommandException)
+                throw (CommandException) failure.get();
+            if (failure.get() != null)
+                throw (RuntimeException) failure.get();
+            command.complete(invocation);
+            return CommandResult.SUCCESS;
+        }
+
+        void fuseWith(ExecutionImpl<T> upstream) {
+            this.fusedUpstream = upstream;
+            upstream.fused = true;
+        }
+
+        @Override
+        public boolean isFused() {
+            return fused;
+        }
+
         /**
          * Returns the CommandResult or null if not executed.
          *
@@ -317,6 +389,10 @@ class Executions {
             throws CommandNotFoundException, CommandLineParserException, IOException {
         State state = State.NEED_COMMAND;
         CommandContainer<CI> processedCommand = null;
+        CommandContainer<CI> producer = null;
+        ExecutionImpl<CI> upstream = null;
+        // the command line of the pipeline being built, shown by the jobs command
+        StringBuilder pipelineLine = new StringBuilder();
         boolean newParsedLine;
         ConfigurationOperator config = null;
         DataProvider dataProvider = null;
@@ -331,6 +407,10 @@ class Executions {
                 switch (state) {
                     case NEED_COMMAND: {
                         processedCommand = runtime.findCommandContainer(pl);
+                        if (dataProvider instanceof PipeOperator
+                                && isObjectPipe(producer, processedCommand)) {
+                            ((PipeOperator) dataProvider).enableObjectPipe();
+                        }
                         state = State.NEED_OPERATOR;
                         break;
                     }
@@ -344,7 +424,8 @@ class Executions {
                     }
                     case NEED_OPERATOR: {
                         OperatorType ot = pl.operator();
-                        Operator op = buildOperator(pl.operator(), runtime.getAeshContext());
+                        pipelineLine.append(pl.line().trim());
+                        Operator op = buildOperator(pl.operator(), runtime);
                         if (ot.isConfiguration()) {
                             if (config != null) { // input provider prior to an output consumer.
                                 if (config.getConfiguration().getInputRedirection() == null) {
@@ -355,6 +436,7 @@ class Executions {
                             config = (ConfigurationOperator) op;
                         }
                         if (ot.isConfiguration() && ot.hasArgument()) {
+                            pipelineLine.append(' ').append(ot.value()).append(' ');
                             state = State.NEED_ARGUMENT;
                         } else {
                             // The operator must be an executor one
@@ -371,12 +453,27 @@ class Executions {
                                             config.getConfiguration().getOutputRedirection(),
                                             inDelegate == null ? config.getConfiguration().getInputRedirection() : inDelegate,
                                             dataProvider);
-                            Execution<CI> execution = new ExecutionImpl<>(exec, runtime,
+                            if (exec instanceof BackgroundOperator) {
+                                BackgroundOperator<CI> background = (BackgroundOperator<CI>) exec;
+                                background.setCommandLine(pipelineLine.toString());
+                                // the output of a job is kept for the fg command, unless redirected
+                                if (config == null && runtime.jobManager() != null)
+                                    invocationConfiguration = new CommandInvocationConfiguration(runtime.getAeshContext(),
+                                            background.createOutputDelegate(), dataProvider);
+                            }
+                            ExecutionImpl<CI> execution = new ExecutionImpl<>(exec, runtime,
                                     invocationConfiguration, processedCommand);
+                            if (canFuse(runtime, dataProvider, processedCommand))
+                                execution.fuseWith(upstream);
                             if (exec instanceof DataProvider) {
                                 dataProvider = (DataProvider) exec;
+                                producer = processedCommand;
+                                upstream = execution;
+                                pipelineLine.append(' ').append(ot.value()).append(' ');
                             } else {
                                 dataProvider = null;
+                                upstream = null;
+                                pipelineLine.setLength(0);
                             }
                             executions.add(execution);
                             config = null;
@@ -391,21 +488,50 @@ class Executions {
         }
         if (state == State.NEED_OPERATOR) {
             // The implicit execution operator is missing.
-            ExecutableOperator exec = (ExecutableOperator) buildOperator(OperatorType.NONE,
-                    runtime.getAeshContext());
+            ExecutableOperator exec = (ExecutableOperator) buildOperator(OperatorType.NONE, runtime);
             invocationConfiguration = config == null
                     ? new CommandInvocationConfiguration(runtime.getAeshContext(), dataProvider)
                     : config.getConfiguration();
-            Execution<CI> execution = new ExecutionImpl<CI>(exec, runtime, invocationConfiguration, processedCommand);
+            ExecutionImpl<CI> execution = new ExecutionImpl<CI>(exec, runtime, invocationConfiguration, processedCommand);
+            if (config == null && canFuse(runtime, dataProvider, processedCommand))
+                execution.fuseWith(upstream);
             executions.add(execution);
         }
         return executions;
     }
 
-    private static Operator buildOperator(OperatorType op, AeshContext context) {
+    /**
+     * Build the execution of a single command run by the given container, with its own
+     * input and output. The line is parsed when the execution runs, the container must not
+     * be used by another execution.
+     */
+    static <CI extends CommandInvocation> Execution<CI> buildExecution(CommandContainer<CI> container,
+            ParsedLine line, CommandInvocationConfiguration invocationConfiguration, AeshCommandRuntime<CI> runtime) {
+        ExecutableOperator exec = (ExecutableOperator) buildOperator(OperatorType.NONE, runtime);
+        container.addLine(line);
+        return new ExecutionImpl<CI>(exec, runtime, invocationConfiguration, container);
+    }
+
+    private static boolean canFuse(AeshCommandRuntime<?> runtime, DataProvider dataProvider,
+            CommandContainer<?> consumer) {
+        return runtime.pipeFusion()
+                && dataProvider instanceof PipeOperator
+                && dataProvider.getObjects() == null
+                && !consumer.getParser().isGroupCommand()
+                && consumer.getParser().getProcessedCommand().getCommand() instanceof StreamingCommand;
+    }
+
+    private static boolean isObjectPipe(CommandContainer<?> producer, CommandContainer<?> consumer) {
+        return producer != null
+                && producer.getParser().getProcessedCommand().getCommand() instanceof ObjectProducer
+                && consumer.getParser().getProcessedCommand().getCommand() instanceof ObjectConsumer;
+    }
+
+    private static Operator buildOperator(OperatorType op, AeshCommandRuntime<?> runtime) {
         if (op == null) {
             return null;
         }
+        AeshContext context = runtime.getAeshContext();
         switch (op) {
             case NONE:
             case END: {
@@ -418,11 +544,14 @@ class Executions {
                 return new OutputRedirectionOperator(context, true);
             }
             case PIPE: {
-                return new PipeOperator(context);
+                return new PipeOperator(context, runtime.pipeBufferSize(), runtime.pipeFlushPolicy());
             }
             case REDIRECT_IN: {
                 return new InputRedirectionOperator(context);
             }
+            case AMP: {
+                return new BackgroundOperator();
+            }
             case AND: {
                 return new AndOperator();
             }
@@ -0,0 +1,68 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.command.impl;
+
+import org.aesh.command.container.CommandContainer;
+import org.aesh.command.container.DefaultCommandContainer;
+import org.aesh.command.impl.parser.CommandLineParser;
+import org.aesh.command.invocation.CommandInvocation;
+
+/**
+ * A container of a {@link org.aesh.command.CommandScope#PROTOTYPE} command, running a copy
+ * of the parser of the registered container with a new instance of the command.
+ *
+ * @author Aesh team
+ */
+class PrototypeCommandContainer<CI extends CommandInvocation> extends DefaultCommandContainer<CI> {
+
+    private final CommandContainer<CI> registered;
+    private final CommandLineParser<CI> parser;
+
+    PrototypeCommandContainer(CommandContainer<CI> registered, CommandLineParser<CI> parser) {
+        this.registered = registered;
+        this.parser = parser;
+    }
+
+    /**
+     * @return the registered container this one was copied from
+     */
+    CommandContainer<CI> registered() {
+        return registered;
+    }
+
+    @Override
+    public CommandLineParser<CI> getParser() {
+        return parser;
+    }
+
+    @Override
+    public boolean haveBuildError() {
+        return false;
+    }
+
+    @Override
+    public String getBuildErrorMessage() {
+        return null;
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -21,6 +21,7 @@ package org.aesh.command.impl.completer;
 
 import org.aesh.complete.AeshCompleteOperation;
 import org.aesh.console.AeshContext;
+import org.aesh.parser.IncrementalLineParser;
 import org.aesh.readline.completion.impl.CompletionHandler;
 
 /**
@@ -29,6 +30,8 @@ import org.aesh.readline.completion.impl.CompletionHandler;
 public class AeshCompletionHandler extends CompletionHandler<AeshCompleteOperation> {
 
     private final AeshContext aeshContext;
+    // the completions of a console run one at a time, the buffer is tokenized again from the last edit
+    private final IncrementalLineParser lineParser = new IncrementalLineParser();
 
     public AeshCompletionHandler(AeshContext aeshContext) {
         this.aeshContext = aeshContext;
@@ -36,7 +39,9 @@ public class AeshCompletionHandler extends CompletionHandler<AeshCompleteOperati
 
     @Override
     public AeshCompleteOperation createCompleteOperation(String buffer, int cursor) {
-        return new AeshCompleteOperation(aeshContext, buffer, cursor);
+        AeshCompleteOperation completeOperation = new AeshCompleteOperation(aeshContext, buffer, cursor);
+        completeOperation.setLineParser(lineParser);
+        return completeOperation;
     }
 
 }
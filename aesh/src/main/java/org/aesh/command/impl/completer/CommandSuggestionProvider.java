@@ -1,7 +1,6 @@
 package org.aesh.command.impl.completer;
 
 import java.util.List;
-import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -60,18 +59,18 @@ public class CommandSuggestionProvider<CI extends CommandInvocation> implements
     }
 
     private String suggestCommand(String prefix, String originalBuffer) {
-        Set<String> allNames = registry.getAllCommandNames();
         String match = null;
-        for (String name : allNames) {
-            if (name.startsWith(prefix) && !name.equals(prefix)) {
-                if (!isCommandActivated(name)) {
+        for (CommandContainer<CI> container : registry.findCommandsStartingWith(prefix)) {
+            ProcessedCommand<?, ?> command = container.getParser().getProcessedCommand();
+            if (!command.name().equals(prefix)) {
+                if (!isCommandActivated(command)) {
                     continue;
                 }
                 if (match != null) {
                     // Ambiguous - more than one match
                     return null;
                 }
-                match = name;
+                match = command.name();
             }
         }
         if (match != null) {
@@ -165,10 +164,9 @@ public class CommandSuggestionProvider<CI extends CommandInvocation> implements
         return null;
     }
 
-    private boolean isCommandActivated(String name) {
+    private boolean isCommandActivated(ProcessedCommand<?, ?> command) {
         try {
-            CommandContainer<CI> container = registry.getCommand(name, name);
-            return container.getParser().getProcessedCommand().isActivated(null);
+            return command.isActivated();
         } catch (Exception e) {
             return true; // default to activated if we can't check
         }
@@ -24,6 +24,7 @@ import java.util.List;
 
 import org.aesh.command.completer.CompleterInvocation;
 import org.aesh.command.completer.OptionCompleter;
+import org.aesh.impl.util.DirectoryListingCache;
 import org.aesh.impl.util.FileLister;
 import org.aesh.io.Resource;
 import org.aesh.io.filter.AllResourceFilter;
@@ -37,23 +38,38 @@ import org.aesh.io.filter.ResourceFilter;
 public class FileOptionCompleter implements OptionCompleter<CompleterInvocation> {
 
     private final ResourceFilter filter;
+    private final DirectoryListingCache listingCache;
+    private final int maxCandidates;
 
     public FileOptionCompleter() {
         this(new AllResourceFilter());
     }
 
     public FileOptionCompleter(ResourceFilter filter) {
+        this(filter, DirectoryListingCache.getDefault(), FileLister.DEFAULT_MAX_CANDIDATES);
+    }
+
+    /**
+     * @param filter the resource filter
+     * @param listingCache the cache of the directory listings, or null to read the directory every time
+     * @param maxCandidates the maximum number of candidates
+     * @since 3.17
+     */
+    public FileOptionCompleter(ResourceFilter filter, DirectoryListingCache listingCache, int maxCandidates) {
         if (filter == null) {
             throw new IllegalArgumentException("A valid filter must be informed");
         }
         this.filter = filter;
+        this.listingCache = listingCache;
+        this.maxCandidates = maxCandidates;
     }
 
     @Override
     public void complete(CompleterInvocation completerInvocation) {
         List<String> candidates = new ArrayList<>();
         int cursor = new FileLister(completerInvocation.getGivenCompleteValue(),
-                completerInvocation.getAeshContext().getCurrentWorkingDirectory()).findMatchingDirectories(candidates);
+                completerInvocation.getAeshContext().getCurrentWorkingDirectory(), listingCache, maxCandidates)
+                .findMatchingDirectories(candidates);
         boolean appendSpace = false;
         if (candidates.size() == 1) {
             if (completerInvocation.getGivenCompleteValue().endsWith(candidates.get(0))) {
@@ -25,6 +25,7 @@ import org.aesh.command.container.CommandContainer;
 import org.aesh.command.impl.parser.CommandLineParser;
 import org.aesh.command.invocation.CommandInvocation;
 import org.aesh.command.registry.CommandRegistry;
+import org.aesh.parser.IncrementalLineParser;
 import org.aesh.readline.suggestion.SuggestionProvider;
 import org.aesh.terminal.utils.LoggerUtil;
 
@@ -52,6 +53,8 @@ public class TailTipSuggestionProvider<CI extends CommandInvocation> implements
     // Cache to avoid re-parsing when the buffer hasn't changed
     private String lastBuffer;
     private String lastTip;
+    // tokenizes again only the end of the buffer that changed since the previous suggestion
+    private final IncrementalLineParser lineParser = new IncrementalLineParser();
 
     public TailTipSuggestionProvider(CommandRegistry<CI> registry) {
         this.registry = registry;
@@ -96,7 +99,8 @@ public class TailTipSuggestionProvider<CI extends CommandInvocation> implements
             // Parse the full buffer via the root parser in COMPLETION mode.
             // The parser handles subcommand routing internally.
             try {
-                parser.parse(trimmed, CommandLineParser.Mode.COMPLETION);
+                parser.parse(lineParser.parseLine(trimmed, trimmed.length(), true).iterator(),
+                        CommandLineParser.Mode.COMPLETION);
 
                 // Get the deepest parsed command (subcommand if applicable)
                 CommandLineParser<CI> parsedParser = parser.parsedCommand();
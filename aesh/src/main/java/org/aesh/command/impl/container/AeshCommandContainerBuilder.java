@@ -161,6 +161,7 @@ public class AeshCommandContainerBuilder<CI extends CommandInvocation> implement
                     .defaultValueProvider(command.defaultValueProvider())
                     .version(command.version())
                     .helpUrl(command.helpUrl())
+                    .scope(command.scope())
                     .create();
 
             processedCommand.setCompleteFallback(command.completeFallback());
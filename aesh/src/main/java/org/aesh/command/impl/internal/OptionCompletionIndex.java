@@ -0,0 +1,209 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.command.impl.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.aesh.terminal.formatting.TerminalString;
+
+/**
+ * The names, aliases and negated names of the options of a command, sorted to find
+ * the names starting with a given prefix with a binary search.
+ *
+ * Each name keeps its position in the display order of the options so the
+ * completion candidates are listed in the same order as the options, and its
+ * candidates are rendered once when the index is built.
+ *
+ * Instances are immutable and can be shared between threads.
+ *
+ * @author Aesh team
+ */
+final class OptionCompletionIndex {
+
+    enum Kind {
+        NAME,
+        ALIAS,
+        NEGATED
+    }
+
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+
+    // sorted by name, then by display order
+    private final Entry[] sorted;
+    // display order
+    private final Entry[] ordered;
+    private final Map<ProcessedOption, Entry> nameEntries = new IdentityHashMap<>();
+
+    OptionCompletionIndex(List<ProcessedOption> displayOptions) {
+        List<Entry> entries = new ArrayList<>(displayOptions.size());
+        for (ProcessedOption option : displayOptions) {
+            if (option.name() == null)
+                continue;
+            Entry nameEntry = new Entry(option, option.name(), Kind.NAME, entries.size());
+            entries.add(nameEntry);
+            nameEntries.put(option, nameEntry);
+            for (String alias : option.getAliases())
+                entries.add(new Entry(option, alias, Kind.ALIAS, entries.size()));
+            if (option.isNegatable() && option.getNegatedName() != null)
+                entries.add(new Entry(option, option.getNegatedName(), Kind.NEGATED, entries.size()));
+        }
+        ordered = entries.toArray(NO_ENTRIES);
+        sorted = ordered.clone();
+        Arrays.sort(sorted, (l, r) -> {
+            int result = l.name.compareTo(r.name);
+            return result != 0 ? result : l.compareOrder(r);
+        });
+    }
+
+    /**
+     * @return all the names, in display order
+     */
+    List<Entry> all() {
+        return Arrays.asList(ordered);
+    }
+
+    /**
+     * @param option option
+     * @return the entry of the long name of the option, or null
+     */
+    Entry nameEntry(ProcessedOption option) {
+        return nameEntries.get(option);
+    }
+
+    /**
+     * Find the names starting with the given prefix, the entries are returned in display order.
+     *
+     * @param prefix prefix
+     * @return the matching entries
+     */
+    List<Entry> startingWith(String prefix) {
+        if (prefix.isEmpty())
+            return all();
+        int from = lowerBound(prefix);
+        int to = from;
+        int high = sorted.length;
+        // the names starting with the prefix follow each other, find the first one that does not
+        while (to < high) {
+            int mid = (to + high) >>> 1;
+            if (sorted[mid].name.startsWith(prefix))
+                to = mid + 1;
+            else
+                high = mid;
+        }
+        if (from == to)
+            return Collections.emptyList();
+        List<Entry> matches = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++)
+            matches.add(sorted[i]);
+        if (matches.size() > 1)
+            matches.sort(Entry::compareOrder);
+        return matches;
+    }
+
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid].name.compareTo(prefix) < 0)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * One name of an option with its candidates rendered as plain text.
+     */
+    static final class Entry {
+        final ProcessedOption option;
+        final String name;
+        final Kind kind;
+        private final int order;
+        private final TerminalString withDashes;
+        private final TerminalString rendered;
+        private final TerminalString bare;
+
+        private Entry(ProcessedOption option, String name, Kind kind, int order) {
+            this.option = option;
+            this.name = name;
+            this.kind = kind;
+            this.order = order;
+            withDashes = new TerminalString("--" + name, true);
+            // negated names are always given with dashes
+            if (option.acceptNameWithoutDashes() && kind != Kind.NEGATED) {
+                bare = new TerminalString(name, true);
+                rendered = bare;
+            } else {
+                bare = null;
+                rendered = withDashes;
+            }
+        }
+
+        /**
+         * @return a negative number if this name is listed before the other name
+         */
+        int compareOrder(Entry other) {
+            return Integer.compare(order, other.order);
+        }
+
+        /**
+         * @return the name with dashes
+         */
+        TerminalString withDashes() {
+            return shared(withDashes);
+        }
+
+        /**
+         * @return the name without dashes, only for options accepting their name without dashes
+         */
+        TerminalString bare() {
+            return shared(bare);
+        }
+
+        /**
+         * @return the name as it is rendered by the option
+         */
+        TerminalString rendered() {
+            if (!option.isRenderedAsPlainText()) {
+                if (kind == Kind.NAME)
+                    return option.getRenderedNameWithDashes();
+                else if (kind == Kind.ALIAS)
+                    return option.getRenderedAliasNameWithDashes(name);
+                else
+                    return option.getRenderedNegatedNameWithDashes();
+            }
+            return shared(rendered);
+        }
+
+        // the spaces of a single candidate are escaped in place, those candidates are not shared
+        private static TerminalString shared(TerminalString candidate) {
+            if (candidate != null && candidate.containSpaces())
+                return new TerminalString(candidate.getCharacters(), true);
+            return candidate;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.command.impl.internal;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * The option names of a command compiled into a table indexed by the short name
+ * and a trie over the long names, aliases and negated names.
+ *
+ * Short names are found with one table lookup and long names in time linear to
+ * the length of the word, independent of the number of options. The trie also finds
+ * the longest name or alias a word starts with, used for {@code --name=value}.
+ *
+ * Instances are immutable once built and can be shared between threads.
+ *
+ * @author Aesh team
+ */
+final class OptionIndex {
+
+    private static final int TABLE_SIZE = 128;
+
+    private final ProcessedOption[] shortNames = new ProcessedOption[TABLE_SIZE];
+    // short names outside the table, rare enough for a linear scan
+    private char[] otherShortChars = new char[0];
+    private ProcessedOption[] otherShortNames = new ProcessedOption[0];
+    private final Node root = new Node();
+
+    OptionIndex(List<ProcessedOption> options) {
+        for (ProcessedOption opt : options) {
+            if (opt.name() != null && !opt.name().isEmpty()) {
+                root.add(opt.name()).longOption = opt;
+                for (String alias : opt.getAliases())
+                    root.add(alias).longOption = opt;
+            }
+            if (opt.name() != null) {
+                addPrefix(opt.name(), opt);
+                for (String alias : opt.getAliases())
+                    addPrefix(alias, opt);
+            }
+            if (opt.shortName() != null && !opt.shortName().isEmpty())
+                addShortName(opt.shortName().charAt(0), opt);
+            if (opt.isNegatable() && opt.getNegatedName() != null)
+                root.add(opt.getNegatedName()).negatedOption = opt;
+            if (opt.acceptNameWithoutDashes() && opt.name() != null) {
+                root.add(opt.name()).bareOption = opt;
+                for (String alias : opt.getAliases())
+                    root.add(alias).bareOption = opt;
+            }
+        }
+    }
+
+    /**
+     * @param name short name, a single char
+     * @return the option with the given short name, or null
+     */
+    ProcessedOption shortOption(String name) {
+        return name.length() == 1 ? shortOption(name.charAt(0)) : null;
+    }
+
+    /**
+     * @param c short name
+     * @return the option with the given short name, or null
+     */
+    ProcessedOption shortOption(char c) {
+        if (c < TABLE_SIZE)
+            return shortNames[c];
+        for (int i = 0; i < otherShortChars.length; i++)
+            if (otherShortChars[i] == c)
+                return otherShortNames[i];
+        return null;
+    }
+
+    /**
+     * @param name long name or alias
+     * @return the option with the given name, or null
+     */
+    ProcessedOption longOption(String name) {
+        Node node = root.find(name);
+        return node != null ? node.longOption : null;
+    }
+
+    /**
+     * @param name negated name
+     * @return the negatable option with the given negated name, or null
+     */
+    ProcessedOption negatedOption(String name) {
+        Node node = root.find(name);
+        return node != null ? node.negatedOption : null;
+    }
+
+    /**
+     * @param name long name or alias given without dashes
+     * @return the option accepting the name without dashes, or null
+     */
+    ProcessedOption bareOption(String name) {
+        Node node = root.find(name);
+        return node != null ? node.bareOption : null;
+    }
+
+    /**
+     * Find the option with the longest name or alias the word starts with,
+     * eg the option named foo-bar and not the one named foo for foo-bar=1.
+     * The first declared option is used if several options have the same name.
+     *
+     * @param word word, eg name=value
+     * @return the matching option, or null
+     */
+    ProcessedOption longestPrefixOption(String word) {
+        return longestPrefixOption(word, null);
+    }
+
+    /**
+     * Find the option with the longest name or alias the word starts with among
+     * the options accepted by the filter, eg the activated ones.
+     *
+     * @param word word, eg name=value
+     * @param filter the options to consider, null for all
+     * @return the matching option, or null
+     */
+    ProcessedOption longestPrefixOption(String word, Predicate<ProcessedOption> filter) {
+        Node node = root;
+        ProcessedOption match = accept(root.prefixOption, filter);
+        for (int i = 0; i < word.length(); i++) {
+            node = node.child(word.charAt(i));
+            if (node == null)
+                break;
+            ProcessedOption candidate = accept(node.prefixOption, filter);
+            if (candidate != null)
+                match = candidate;
+        }
+        return match;
+    }
+
+    private static ProcessedOption accept(ProcessedOption opt, Predicate<ProcessedOption> filter) {
+        return opt != null && (filter == null || filter.test(opt)) ? opt : null;
+    }
+
+    private void addPrefix(String name, ProcessedOption opt) {
+        Node node = root.add(name);
+        if (node.prefixOption == null)
+            node.prefixOption = opt;
+    }
+
+    private void addShortName(char c, ProcessedOption opt) {
+        if (c < TABLE_SIZE) {
+            shortNames[c] = opt;
+            return;
+        }
+        for (int i = 0; i < otherShortChars.length; i++) {
+            if (otherShortChars[i] == c) {
+                otherShortNames[i] = opt;
+                return;
+            }
+        }
+        otherShortChars = Arrays.copyOf(otherShortChars, otherShortChars.length + 1);
+        otherShortNames = Arrays.copyOf(otherShortNames, otherShortNames.length + 1);
+        otherShortChars[otherShortChars.length - 1] = c;
+        otherShortNames[otherShortNames.length - 1] = opt;
+    }
+
+    private static final class Node {
+        // sorted, searched with a binary search
+        private char[] chars = new char[0];
+        private Node[] children = new Node[0];
+        // exact matches of a long name or alias, negated name and bare name
+        private ProcessedOption longOption;
+        private ProcessedOption negatedOption;
+        private ProcessedOption bareOption;
+        // the first option with this name or alias, including empty names
+        private ProcessedOption prefixOption;
+
+        Node child(char c) {
+            int index = Arrays.binarySearch(chars, c);
+            return index >= 0 ? children[index] : null;
+        }
+
+        Node find(String name) {
+            Node node = this;
+            for (int i = 0; i < name.length() && node != null; i++)
+                node = node.child(name.charAt(i));
+            return node;
+        }
+
+        Node add(String name) {
+            Node node = this;
+            for (int i = 0; i < name.length(); i++)
+                node = node.addChild(name.charAt(i));
+            return node;
+        }
+
+        private Node addChild(char c) {
+            int index = Arrays.binarySearch(chars, c);
+            if (index >= 0)
+                return children[index];
+            int insert = -index - 1;
+            char[] newChars = new char[chars.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(chars, 0, newChars, 0, insert);
+            System.arraycopy(children, 0, newChildren, 0, insert);
+            System.arraycopy(chars, insert, newChars, insert + 1, chars.length - insert);
+            System.arraycopy(children, insert, newChildren, insert + 1, children.length - insert);
+            Node child = new Node();
+            newChars[insert] = c;
+            newChildren[insert] = child;
+            chars = newChars;
+            children = newChildren;
+            return child;
+        }
+    }
+}
@@ -22,14 +22,18 @@ package org.aesh.command.impl.internal;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.aesh.command.Command;
+import org.aesh.command.CommandScope;
 import org.aesh.command.DefaultValueProvider;
 import org.aesh.command.DocFormat;
 import org.aesh.command.HelpSectionProvider;
@@ -38,6 +42,8 @@ import org.aesh.command.impl.parser.CompleteStatus;
 import org.aesh.command.impl.populator.AeshCommandPopulator;
 import org.aesh.command.invocation.CommandInvocation;
 import org.aesh.command.invocation.InvocationProviders;
+import org.aesh.command.metadata.CommandMetadataProvider;
+import org.aesh.command.metadata.MetadataProviderRegistry;
 import org.aesh.command.parser.CommandLineParserException;
 import org.aesh.command.parser.OptionParserException;
 import org.aesh.command.populator.CommandPopulator;
@@ -48,6 +54,7 @@ import org.aesh.terminal.formatting.TerminalString;
 import org.aesh.terminal.utils.ANSI;
 import org.aesh.terminal.utils.Config;
 import org.aesh.terminal.utils.Parser;
+import org.aesh.util.ReflectionUtil;
 
 /**
  * @author Aesh team
@@ -97,6 +104,8 @@ public class ProcessedCommand<C extends Command<CI>, CI extends CommandInvocatio
     private String version;
     private String helpUrl;
     private String helpGroup = "";
+    private CommandScope scope = CommandScope.SINGLETON;
+    private Supplier<C> commandFactory;
     private Class<? extends HelpSectionProvider> helpSectionProviderClass;
     private HelpSectionProvider helpSectionProvider;
 
@@ -110,16 +119,15 @@ public class ProcessedCommand<C extends Command<CI>, CI extends CommandInvocatio
     private CompleteStatus completeStatus;
     private java.util.function.BiConsumer<Object, Object> parentCommandInjector;
     private int optionDeclarationCounter;
-    private List<ProcessedOption> cachedPositionalOrder;
+    private volatile List<ProcessedOption> cachedPositionalOrder;
     private boolean hasInheritedOptions;
     private boolean dirty;
     private ParsedCommand cachedParsedCommand;
 
-    // Lazy-built lookup maps for O(1) option search (built on first lookup, invalidated on add)
-    private Map<String, ProcessedOption> longNameMap;
-    private Map<String, ProcessedOption> shortNameMap;
-    private Map<String, ProcessedOption> negatedNameMap;
-    private Map<String, ProcessedOption> bareNameMap;
+    // Lazy-built option name index (built on first lookup, invalidated on add)
+    private volatile OptionIndex optionIndex;
+    // Lazy-built index of the option names used for completion
+    private volatile OptionCompletionIndex completionIndex;
 
     public ProcessedCommand(String name, List<String> aliases, C command,
             String description, CommandValidator<C, CI> validator,
@@ -259,6 +267,17 @@ public class ProcessedCommand<C extends Command<CI>, CI extends CommandInvocatio
         return activator == null || activator.isActivated(parsedCommand);
     }
 
+    /**
+     * Check the activator with a ParsedCommand shared by all the checks of this command,
+     * a command without activator is activated without allocating anything.
+     *
+     * @return true if the command is activated
+     * @since 3.17
+     */
+    public boolean isActivated() {
+        return activator == null || activator.isActivated(parsedCommand());
+    }
+
     public List<String> getAliases() {
         return aliases;
     }
@@ -270,8 +289,7 @@ public class ProcessedCommand<C extends Command<CI>, CI extends CommandInvocatio
         opt.setParent(this);
         if (opt.isInherited())
             this.hasInheritedOptions = true;
-        if (longNameMap != null)
-            invalidateLookupMaps();
+        invalidateLookupMaps();
         if (command != null)
             opt.captureInitialValue(command);
     }
@@ -288,8 +306,7 @@ public class ProcessedCommand<C extends Command<CI>, CI extends CommandInvocatio
         opt.setParent(this);
         if (opt.isInherited())
             this.hasInheritedOptions = true;
-        if (longNameMap != null)
-            invalidateLookupMaps();
+        invalidateLookupMaps();
         if (command != null)
             opt.captureInitialValue(command);
     }
@@ -408,43 +425,39 @@ public class ProcessedCommand<C extends Command<CI>, CI extends CommandInvocatio
         return cachedParsedCommand;
     }
 
-    private void buildLookupMaps() {
-        List<ProcessedOption> opts = getOptions();
-        Map<String, ProcessedOption> lm = new HashMap<>(opts.size() * 2);
-        Map<String, ProcessedOption> sm = new HashMap<>(opts.size());
-        Map<String, ProcessedOption> nm = new HashMap<>();
-        Map<String, ProcessedOption> bm = new HashMap<>();
-        for (ProcessedOption opt : opts) {
-            if (opt.name() != null && !opt.name().isEmpty()) {
-                lm.put(opt.name(), opt);
-                for (String alias : opt.getAliases()) {
-                    lm.put(alias, opt);
-                }
-            }
-            if (opt.shortName() != null && !opt.shortName().isEmpty()) {
-                sm.put(opt.shortName(), opt);
-            }
-            if (opt.isNegatable() && opt.getNegatedName() != null) {
-                nm.put(opt.getNegatedName(), opt);
-            }
-            if (opt.acceptNameWithoutDashes() && opt.name() != null) {
-                bm.put(opt.name(), opt);
-                for (String alias : opt.getAliases()) {
-                    bm.put(alias, opt);
-                }
-            }
-        }
-        longNameMap = lm;
-        shortNameMap = sm;
-        negatedNameMap = nm;
-        bareNameMap = bm;
+    private OptionIndex buildLookupMaps() {
+        OptionIndex index = new OptionIndex(getOptions());
+        optionIndex = index;
+        return index;
+    }
+
+    private OptionIndex optionIndex() {
+        OptionIndex index = optionIndex;
+        return index != null ? index : buildLookupMaps();
     }
 
     private void invalidateLookupMaps() {
-        longNameMap = null;
-        shortNameMap = null;
-        negatedNameMap = null;
-        bareNameMap = null;
+        optionIndex = null;
+        completionIndex = null;
+    }
+
+    private OptionCompletionIndex completionIndex() {
+        if (hasDynamicOptions())
+            return new OptionCompletionIndex(getDisplayOptions());
+        OptionCompletionIndex index = completionIndex;
+        if (index == null) {
+            index = new OptionCompletionIndex(getDisplayOptions());
+            completionIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * @return true if the options can change between lookups, the option indexes
+     *         are then only built from the options added to the command
+     */
+    protected boolean hasDynamicOptions() {
+        return false;
     }
 
     public DefaultValueProvider getDefaultValueProvider() {
@@ -483,6 +496,78 @@ public class ProcessedCommand<C extends Command<CI>, CI extends CommandInvocatio
         this.helpGroup = helpGroup != null ? helpGroup : "";
     }
 
+    /**
+     * @return how many instances of the command are used to execute it
+     */
+    public CommandScope scope() {
+        return scope;
+    }
+
+    public void setScope(CommandScope scope) {
+        this.scope = scope != null ? scope : CommandScope.SINGLETON;
+    }
+
+    /**
+     * @param commandFactory creates the new instances of a {@link CommandScope#PROTOTYPE} command,
+     *        when not set the generated metadata or the no-arg constructor of the command class is used
+     * @since 3.17
+     */
+    public void setCommandFactory(Supplier<C> commandFactory) {
+        this.commandFactory = commandFactory;
+    }
+
+    /**
+     * @return a new instance of the command, the registered instance is left untouched
+     * @since 3.17
+     */
+    @SuppressWarnings("unchecked")
+    public C newCommandInstance() {
+        if (commandFactory != null)
+            return commandFactory.get();
+        Class<C> type = (Class<C>) command.getClass();
+        CommandMetadataProvider<C> provider = MetadataProviderRegistry.getProvider(type);
+        return provider != null ? provider.newInstance() : ReflectionUtil.newInstance(type);
+    }
+
+    /**
+     * Copy this definition for another instance of the command, the options are copied
+     * without their parsed values so the copy can be parsed and populated on its own.
+     *
+     * @param command the instance populated and executed by the copy
+     * @return the copy
+     * @throws CommandLineParserException if the definition can not be copied
+     * @since 3.17
+     */
+    @SuppressWarnings("unchecked")
+    public ProcessedCommand<C, CI> copy(C command) throws CommandLineParserException {
+        if (getClass() != ProcessedCommand.class)
+            throw new CommandLineParserException("The definition of " + name + " can not be copied");
+        CommandPopulator<Object, CI> copyPopulator = populator instanceof AeshCommandPopulator
+                ? new AeshCommandPopulator<>(command)
+                : populator;
+        ProcessedCommand<C, CI> copy = new ProcessedCommand<>(name, aliases, command, description, validator,
+                resultHandler, false, disableParsing, null, null, Collections.emptyList(), null,
+                copyPopulator, activator, helpUrl, stopAtFirstPositional, defaultValueProvider, sortOptions);
+        copy.generateHelp = generateHelp;
+        copy.version = version;
+        copy.completeFallback = completeFallback;
+        copy.helpGroup = helpGroup;
+        copy.scope = scope;
+        copy.commandFactory = commandFactory;
+        copy.helpSectionProviderClass = helpSectionProviderClass;
+        copy.helpSectionProvider = helpSectionProvider;
+        copy.parentCommandInjector = parentCommandInjector;
+        copy.ensureOptionCapacity(options.size());
+        // the generated help and version options are in the list already, keep their order
+        for (ProcessedOption option : options)
+            copy.addOptionDirect(option.copy());
+        if (arguments != null)
+            copy.setArguments(arguments.copy());
+        for (ProcessedOption argumentOption : argumentOptions)
+            copy.addArgument(argumentOption.copy());
+        return copy;
+    }
+
     public Class<? extends HelpSectionProvider> getHelpSectionProviderClass() {
         return helpSectionProviderClass;
     }
@@ -545,18 +630,14 @@ public class ProcessedCommand<C extends Command<CI>, CI extends CommandInvocatio
     }
 
     public ProcessedOption findOption(String name) {
-        if (shortNameMap == null)
-            buildLookupMaps();
-        ProcessedOption opt = shortNameMap.get(name);
+        ProcessedOption opt = optionIndex().shortOption(name);
         if (opt != null && opt.isActivated(parsedCommand()))
             return opt;
         return null;
     }
 
     public ProcessedOption findOptionNoActivatorCheck(String name) {
-        if (shortNameMap == null)
-            buildLookupMaps();
-        return shortNameMap.get(name);
+        return optionIndex().shortOption(name);
     }
 
     /**
@@ -566,6 +647,21 @@ public class ProcessedCommand<C extends Command<CI>, CI extends CommandInvocatio
      * @return matching option
      */
     public ProcessedOption searchAllOptions(String input) {
+        return searchAllOptions(input, ProcessedOption::setLongNameUsed, ProcessedCommand::setNegatedByUser);
+    }
+
+    /**
+     * Same as {@link #searchAllOptions(String)}, but reports how the option was given
+     * instead of storing it in the option.
+     *
+     * @param input the word of the command line
+     * @param longNameUsed called with the option found and if its long name was used
+     * @param negated called with the option found if its negated name was used
+     * @return the option, or null
+     * @since 3.17
+     */
+    public ProcessedOption searchAllOptions(String input, BiConsumer<ProcessedOption, Boolean> longNameUsed,
+            Consumer<ProcessedOption> negated) {
         int len = input.length();
         if (len > 1 && input.charAt(0) == DASH) {
             if (input.charAt(1) == DASH) {
@@ -576,13 +672,15 @@ public class ProcessedCommand<C extends Command<CI>, CI extends CommandInvocatio
                     currentOption = startWithLongOptionNoActivatorCheck(optionName);
                 // Check for negated options (e.g., --no-verbose)
                 if (currentOption == null) {
-                    currentOption = findNegatedOptionNoActivatorCheck(optionName);
+                    currentOption = lookupNegatedOption(optionName);
+                    if (currentOption != null)
+                        negated.accept(currentOption);
                 }
                 if (currentOption != null)
-                    currentOption.setLongNameUsed(true);
+                    longNameUsed.accept(currentOption, true);
                 //need to handle spaces in option names
                 else if (Parser.containsNonEscapedSpace(input)) {
-                    return searchAllOptions(Parser.switchSpacesToEscapedSpacesInWord(input));
+                    return searchAllOptions(Parser.switchSpacesToEscapedSpacesInWord(input), longNameUsed, negated);
                 }
 
                 return currentOption;
@@ -594,7 +692,7 @@ public class ProcessedCommand<C extends Command<CI>, CI extends CommandInvocatio
                     currentOption = startWithOption(shortName);
 
                 if (currentOption != null)
-                    currentOption.setLongNameUsed(false);
+                    longNameUsed.accept(currentOption, false);
 
                 return currentOption;
             }
@@ -607,25 +705,25 @@ public class ProcessedCommand<C extends Command<CI>, CI extends CommandInvocatio
                     currentOption = findBareLongOption(input.substring(0, eqIdx));
             }
             if (currentOption != null) {
-                currentOption.setLongNameUsed(true);
+                longNameUsed.accept(currentOption, true);
             }
             return currentOption;
         }
     }
 
+    private static void setNegatedByUser(ProcessedOption option) {
+        option.setNegatedByUser(true);
+    }
+
     public ProcessedOption findLongOption(String name) {
-        if (longNameMap == null)
-            buildLookupMaps();
-        ProcessedOption opt = longNameMap.get(name);
+        ProcessedOption opt = optionIndex().longOption(name);
         if (opt != null && opt.isActivated(parsedCommand()))
             return opt;
         return null;
     }
 
     public ProcessedOption findLongOptionNoActivatorCheck(String name) {
-        if (longNameMap == null)
-            buildLookupMaps();
-        return longNameMap.get(name);
+        return optionIndex().longOption(name);
     }
 
     /**
@@ -636,9 +734,7 @@ public class ProcessedCommand<C extends Command<CI>, CI extends CommandInvocatio
      * @return the matching option, or null if not found
      */
     public ProcessedOption findNegatedOption(String name) {
-        if (negatedNameMap == null)
-            buildLookupMaps();
-        ProcessedOption opt = negatedNameMap.get(name);
+        ProcessedOption opt = optionIndex().negatedOption(name);
         if (opt != null && opt.isActivated(parsedCommand())) {
             opt.setNegatedByUser(true);
             return opt;
@@ -653,9 +749,7 @@ public class ProcessedCommand<C extends Command<CI>, CI extends CommandInvocatio
      * @return the matching option, or null if not found
      */
     public ProcessedOption findNegatedOptionNoActivatorCheck(String name) {
-        if (negatedNameMap == null)
-            buildLookupMaps();
-        ProcessedOption opt = negatedNameMap.get(name);
+        ProcessedOption opt = lookupNegatedOption(name);
         if (opt != null) {
             opt.setNegatedByUser(true);
             return opt;
@@ -663,28 +757,26 @@ public class ProcessedCommand<C extends Command<CI>, CI extends CommandInvocatio
         return null;
     }
 
+    /**
+     * Find an option by its negated name without checking activator and
+     * without marking the option as negated.
+     *
+     * @param name the negated name to search for
+     * @return the matching option, or null if not found
+     */
+    public ProcessedOption lookupNegatedOption(String name) {
+        return optionIndex().negatedOption(name);
+    }
+
     public ProcessedOption findBareLongOption(String name) {
-        if (bareNameMap == null)
-            buildLookupMaps();
-        return bareNameMap.get(name);
+        return optionIndex().bareOption(name);
     }
 
     public List<TerminalString> findPossibleBareLongNamesWithDash(String name) {
-        List<ProcessedOption> opts = getDisplayOptions();
-        List<TerminalString> names = new ArrayList<>(opts.size());
-        for (ProcessedOption o : opts) {
-            if (o.name() != null && o.acceptNameWithoutDashes()
-                    && o.getValues().size() == 0
-                    && o.isActivated(parsedCommand())) {
-                if (o.name().startsWith(name)) {
-                    names.add(new TerminalString("--" + o.name(), true));
-                }
-                for (String alias : o.getAliases()) {
-                    if (alias.startsWith(name)) {
-                        names.add(new TerminalString("--" + alias, true));
-                    }
-                }
-            }
+        List<TerminalString> names = new ArrayList<>();
+        for (OptionCompletionIndex.Entry entry : completionIndex().startingWith(name)) {
+            if (entry.kind != OptionCompletionIndex.Kind.NEGATED && isBareCandidate(entry.option))
+                names.add(entry.withDashes());
         }
         return names;
     }
@@ -694,73 +786,59 @@ public class ProcessedCommand<C extends Command<CI>, CI extends CommandInvocatio
      * Used for completion when the user types a bare prefix (e.g., "st" → "staging").
      */
     public List<TerminalString> findPossibleBareLongNames(String name) {
-        List<ProcessedOption> opts = getDisplayOptions();
-        List<TerminalString> names = new ArrayList<>(opts.size());
-        for (ProcessedOption o : opts) {
-            if (o.name() != null && o.acceptNameWithoutDashes()
-                    && o.getValues().size() == 0
-                    && o.isActivated(parsedCommand())) {
-                if (o.name().startsWith(name)) {
-                    names.add(new TerminalString(o.name(), true));
-                }
-                for (String alias : o.getAliases()) {
-                    if (alias.startsWith(name)) {
-                        names.add(new TerminalString(alias, true));
-                    }
-                }
-            }
+        List<TerminalString> names = new ArrayList<>();
+        for (OptionCompletionIndex.Entry entry : completionIndex().startingWith(name)) {
+            if (entry.kind != OptionCompletionIndex.Kind.NEGATED && isBareCandidate(entry.option))
+                names.add(entry.bare());
         }
         return names;
     }
 
-    public ProcessedOption startWithOption(String name) {
-        for (ProcessedOption option : getOptions())
-            if (option.shortName() != null && name.startsWith(option.shortName()) &&
-                    option.isActivated(parsedCommand()))
-                return option;
-
-        return null;
+    private boolean isBareCandidate(ProcessedOption option) {
+        return option.acceptNameWithoutDashes() && option.getValues().size() == 0
+                && option.isActivated(parsedCommand());
     }
 
-    public ProcessedOption startWithLongOption(String name) {
-        for (ProcessedOption option : getOptions())
-            if ((name.startsWith(option.name()) || startsWithAlias(option, name)) &&
-                    option.isActivated(parsedCommand()))
-                return option;
-
+    public ProcessedOption startWithOption(String name) {
+        ProcessedOption option = startWithOptionNoActivatorCheck(name);
+        if (option != null && option.isActivated(parsedCommand()))
+            return option;
         return null;
     }
 
-    public ProcessedOption startWithLongOptionNoActivatorCheck(String name) {
-        ProcessedOption longestMatch = null;
-        int longestLen = -1;
-        for (ProcessedOption option : getOptions()) {
-            int matchLen = startsWithNameOrAlias(option, name);
-            if (matchLen > longestLen) {
-                longestMatch = option;
-                longestLen = matchLen;
-            }
-        }
-        return longestMatch;
+    /**
+     * Find the option with the short name the given word starts with, eg -Dkey=value.
+     *
+     * @param name word without the dash
+     * @return the matching option, or null
+     */
+    public ProcessedOption startWithOptionNoActivatorCheck(String name) {
+        return name.isEmpty() ? null : optionIndex().shortOption(name.charAt(0));
     }
 
-    private static boolean startsWithAlias(ProcessedOption option, String name) {
-        for (String alias : option.getAliases()) {
-            if (name.startsWith(alias))
-                return true;
-        }
-        return false;
+    /**
+     * Find the activated option with the longest name or alias the given word
+     * starts with, eg --name=value.
+     *
+     * @param name word without the dashes
+     * @return the matching option, or null
+     * @see #startWithLongOptionNoActivatorCheck(String)
+     */
+    public ProcessedOption startWithLongOption(String name) {
+        return optionIndex().longestPrefixOption(name, option -> option.isActivated(parsedCommand()));
     }
 
-    private static int startsWithNameOrAlias(ProcessedOption option, String name) {
-        int longest = -1;
-        if (name.startsWith(option.name()))
-            longest = option.name().length();
-        for (String alias : option.getAliases()) {
-            if (name.startsWith(alias) && alias.length() > longest)
-                longest = alias.length();
-        }
-        return longest;
+    /**
+     * Find the option with the longest name or alias the given word starts with,
+     * eg --name=value. For --foo-bar=1 an option named foo-bar is used rather than
+     * one named foo. The first declared option is used if several options have the
+     * same name.
+     *
+     * @param name word without the dashes
+     * @return the matching option, or null
+     */
+    public ProcessedOption startWithLongOptionNoActivatorCheck(String name) {
+        return optionIndex().longestPrefixOption(name);
     }
 
     public void clear() {
@@ -927,62 +1005,64 @@ public class ProcessedCommand<C extends Command<CI>, CI extends CommandInvocatio
      * and is enabled. For negatable options, also includes the negated form.
      */
     public List<TerminalString> getOptionLongNamesWithDash() {
-        List<ProcessedOption> opts = getDisplayOptions();
-        List<TerminalString> names = new ArrayList<>(opts.size());
-        for (ProcessedOption o : opts) {
-            if (o.getVisibility() == org.aesh.command.option.OptionVisibility.HIDDEN)
-                continue;
-            if (o.getValues().size() == 0 &&
-                    o.isActivated(parsedCommand()) &&
-                    !isExcludedBySetOption(o)) {
-                names.add(o.getRenderedNameWithDashes());
-                names.addAll(o.getRenderedAliasNamesWithDashes());
-                // Also add the negated form for negatable options
-                TerminalString negated = o.getRenderedNegatedNameWithDashes();
-                if (negated != null) {
-                    names.add(negated);
-                }
+        List<TerminalString> names = new ArrayList<>();
+        ProcessedOption last = null;
+        boolean candidate = false;
+        for (OptionCompletionIndex.Entry entry : completionIndex().all()) {
+            // the names of an option follow each other, check the option once
+            if (entry.option != last) {
+                last = entry.option;
+                candidate = entry.option.getVisibility() != org.aesh.command.option.OptionVisibility.HIDDEN
+                        && isCandidate(entry.option) && !isExcludedBySetOption(entry.option);
             }
+            if (candidate)
+                names.add(entry.rendered());
         }
-
         return names;
     }
 
     public List<TerminalString> findPossibleLongNamesWithDash(String name) {
-        List<ProcessedOption> opts = getDisplayOptions();
-        List<TerminalString> names = new ArrayList<>(opts.size());
-        for (ProcessedOption o : opts) {
-            if (o.getVisibility() == org.aesh.command.option.OptionVisibility.HIDDEN)
+        List<TerminalString> names = new ArrayList<>();
+        for (OptionCompletionIndex.Entry entry : findPossibleLongNameEntries(name)) {
+            if (entry.option.getVisibility() == org.aesh.command.option.OptionVisibility.HIDDEN
+                    || isExcludedBySetOption(entry.option))
                 continue;
-            if (isExcludedBySetOption(o))
-                continue;
-            if (((o.shortName() != null && o.shortName().equals(name) &&
-                    !o.isLongNameUsed() && o.getValues().size() == 0) ||
-                    (o.name().startsWith(name) && o.getValues().size() == 0)) &&
-                    o.isActivated(parsedCommand()))
-                // Always use -- prefix here: user explicitly typed "--"
-                names.add(new TerminalString("--" + o.name(), true));
-            // Check aliases
-            if (o.getValues().size() == 0 && o.isActivated(parsedCommand())) {
-                for (String alias : o.getAliases()) {
-                    if (alias.startsWith(name)) {
-                        names.add(new TerminalString("--" + alias, true));
-                    }
-                }
-            }
-            // Also check negated option names for negatable options
-            if (o.isNegatable() && o.getNegatedName() != null &&
-                    o.getNegatedName().startsWith(name) && o.getValues().size() == 0 &&
-                    o.isActivated(parsedCommand())) {
-                TerminalString negated = o.getRenderedNegatedNameWithDashes();
-                if (negated != null) {
-                    names.add(negated);
-                }
-            }
+            // Always use -- prefix here: user explicitly typed "--"
+            names.add(entry.kind == OptionCompletionIndex.Kind.NEGATED ? entry.rendered() : entry.withDashes());
         }
         return names;
     }
 
+    /**
+     * The names, aliases and negated names starting with the given name, in display order.
+     * An option without a value is also found by its short name.
+     */
+    private List<OptionCompletionIndex.Entry> findPossibleLongNameEntries(String name) {
+        OptionCompletionIndex index = completionIndex();
+        List<OptionCompletionIndex.Entry> entries = index.startingWith(name);
+        List<OptionCompletionIndex.Entry> candidates = new ArrayList<>(entries.size() + 1);
+        OptionCompletionIndex.Entry shortNameEntry = null;
+        ProcessedOption shortOption = findOptionNoActivatorCheck(name);
+        if (shortOption != null && !shortOption.isLongNameUsed() && isCandidate(shortOption)
+                && !shortOption.name().startsWith(name))
+            shortNameEntry = index.nameEntry(shortOption);
+        for (OptionCompletionIndex.Entry entry : entries) {
+            if (shortNameEntry != null && shortNameEntry.compareOrder(entry) < 0) {
+                candidates.add(shortNameEntry);
+                shortNameEntry = null;
+            }
+            if (isCandidate(entry.option))
+                candidates.add(entry);
+        }
+        if (shortNameEntry != null)
+            candidates.add(shortNameEntry);
+        return candidates;
+    }
+
+    private boolean isCandidate(ProcessedOption option) {
+        return option.getValues().size() == 0 && option.isActivated(parsedCommand());
+    }
+
     private boolean isExcludedBySetOption(ProcessedOption option) {
         if (option.getExclusiveWith().isEmpty())
             return false;
@@ -997,27 +1077,9 @@ public class ProcessedCommand<C extends Command<CI>, CI extends CommandInvocatio
     public List<String> findPossibleLongNames(String name) {
         if (name.startsWith("--"))
             name = name.substring(2);
-        List<ProcessedOption> opts = getDisplayOptions();
-        List<String> names = new ArrayList<>(opts.size());
-        for (ProcessedOption o : opts) {
-            if (((o.shortName() != null && o.shortName().equals(name) &&
-                    !o.isLongNameUsed() && o.getValues().size() == 0) ||
-                    (o.name().startsWith(name) && o.getValues().size() == 0)) &&
-                    o.isActivated(parsedCommand()))
-                names.add(o.name());
-            // Check aliases
-            if (o.getValues().size() == 0 && o.isActivated(parsedCommand())) {
-                for (String alias : o.getAliases()) {
-                    if (alias.startsWith(name))
-                        names.add(alias);
-                }
-            }
-            // Also check negated option names for negatable options
-            if (o.isNegatable() && o.getNegatedName() != null &&
-                    o.getNegatedName().startsWith(name) && o.getValues().size() == 0 &&
-                    o.isActivated(parsedCommand()))
-                names.add(o.getNegatedName());
-        }
+        List<String> names = new ArrayList<>();
+        for (OptionCompletionIndex.Entry entry : findPossibleLongNameEntries(name))
+            names.add(entry.name);
         return names;
     }
 
@@ -1576,19 +1638,38 @@ public class ProcessedCommand<C extends Command<CI>, CI extends CommandInvocatio
     }
 
     public int getPositionalValueCount() {
+        return getPositionalValueCount(ProcessedOption::getValues);
+    }
+
+    /**
+     * @param values the parsed values of an option
+     * @return the number of positional values parsed
+     * @since 3.17
+     */
+    public int getPositionalValueCount(Function<ProcessedOption, List<String>> values) {
         int count = 0;
         for (ProcessedOption argOpt : argumentOptions)
-            count += argOpt.getValues().size();
+            count += values.apply(argOpt).size();
         if (arguments != null)
-            count += arguments.getValues().size();
+            count += values.apply(arguments).size();
         return count;
     }
 
     public ProcessedOption getPositionalForIndex(int index) {
+        return getPositionalForIndex(index, ProcessedOption::getValues);
+    }
+
+    /**
+     * @param index index of the positional value
+     * @param values the parsed values of an option
+     * @return the positional option taking the value at the given index, or null
+     * @since 3.17
+     */
+    public ProcessedOption getPositionalForIndex(int index, Function<ProcessedOption, List<String>> values) {
         // Backward compatibility: commands that only define @Arguments historically
         // accepted all positional values starting from index 0.
         if (argumentOptions.isEmpty() && arguments != null
-                && !arguments.isArityFull()
+                && !isArityFull(arguments, values)
                 && (!arguments.hasIndexRange()
                         || (arguments.getIndexRange().getMin() == 1
                                 && arguments.getIndexRange().getMax() == Integer.MAX_VALUE))) {
@@ -1605,7 +1686,7 @@ public class ProcessedCommand<C extends Command<CI>, CI extends CommandInvocatio
             }
 
             if (containsIndex) {
-                if (!positional.isArityFull())
+                if (!isArityFull(positional, values))
                     return positional;
                 if (match == null)
                     match = positional;
@@ -1617,7 +1698,20 @@ public class ProcessedCommand<C extends Command<CI>, CI extends CommandInvocatio
     }
 
     public ProcessedOption getPositionalForNextValue() {
-        return getPositionalForIndex(getPositionalValueCount());
+        return getPositionalForNextValue(ProcessedOption::getValues);
+    }
+
+    /**
+     * @param values the parsed values of an option
+     * @return the positional option taking the next value, or null
+     * @since 3.17
+     */
+    public ProcessedOption getPositionalForNextValue(Function<ProcessedOption, List<String>> values) {
+        return getPositionalForIndex(getPositionalValueCount(values), values);
+    }
+
+    private static boolean isArityFull(ProcessedOption positional, Function<ProcessedOption, List<String>> values) {
+        return positional.getArity() != null && values.apply(positional).size() >= positional.getArity().getMax();
     }
 
     public String positionalRangeSummary() {
@@ -22,8 +22,10 @@ package org.aesh.command.impl.internal;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Supplier;
 
 import org.aesh.command.Command;
+import org.aesh.command.CommandScope;
 import org.aesh.command.DefaultValueProvider;
 import org.aesh.command.activator.CommandActivator;
 import org.aesh.command.impl.activator.NullCommandActivator;
@@ -63,6 +65,8 @@ public class ProcessedCommandBuilder<C extends Command<CI>, CI extends CommandIn
     private String helpUrl;
     private boolean sortOptions;
     private int optionCapacity = -1;
+    private CommandScope scope = CommandScope.SINGLETON;
+    private Supplier<C> commandFactory;
 
     private ProcessedCommandBuilder() {
         options = new ArrayList<>();
@@ -135,6 +139,25 @@ public class ProcessedCommandBuilder<C extends Command<CI>, CI extends CommandIn
         return this;
     }
 
+    /**
+     * @param scope how many instances of the command are used to execute it
+     * @since 3.17
+     */
+    public ProcessedCommandBuilder<C, CI> scope(CommandScope scope) {
+        this.scope = scope;
+        return this;
+    }
+
+    /**
+     * @param commandFactory creates the new instances of a {@link CommandScope#PROTOTYPE} command,
+     *        needed when the command class has no no-arg constructor
+     * @since 3.17
+     */
+    public ProcessedCommandBuilder<C, CI> commandFactory(Supplier<C> commandFactory) {
+        this.commandFactory = commandFactory;
+        return this;
+    }
+
     /**
      * Pre-size the internal options list to the given capacity.
      * Used by generated (annotation-processor) code which knows the exact
@@ -244,6 +267,8 @@ public class ProcessedCommandBuilder<C extends Command<CI>, CI extends CommandIn
                 helpUrl, stopAtFirstPositional, defaultValueProvider, sortOptions);
         if (optionCapacity > 0)
             pc.ensureOptionCapacity(optionCapacity);
+        pc.setScope(scope);
+        pc.setCommandFactory(commandFactory);
         return pc;
     }
 }
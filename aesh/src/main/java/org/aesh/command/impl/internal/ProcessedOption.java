@@ -41,6 +41,7 @@ import java.util.logging.Logger;
 
 import org.aesh.command.DefaultValueProvider;
 import org.aesh.command.activator.OptionActivator;
+import org.aesh.command.completer.CompletionCache;
 import org.aesh.command.completer.OptionCompleter;
 import org.aesh.command.converter.Converter;
 import org.aesh.command.impl.converter.AeshConverterInvocation;
@@ -62,7 +63,7 @@ import org.aesh.util.PropertiesLookup;
 /**
  * @author Aesh team
  */
-public class ProcessedOption {
+public class ProcessedOption implements Cloneable {
 
     private static final Logger LOGGER = Logger.getLogger(ProcessedOption.class.getName());
 
@@ -83,6 +84,7 @@ public class ProcessedOption {
     private org.aesh.command.option.Arity arity;
     private org.aesh.command.option.IndexRange indexRange;
     private OptionCompleter completer;
+    private CompletionCache completionCache;
     private Map<String, String> properties;
     private boolean longNameUsed = true;
     private OptionValidator validator;
@@ -848,6 +850,21 @@ public class ProcessedOption {
         return completer;
     }
 
+    /**
+     * @return the cache of the completer values, or null if they are not cached
+     * @since 3.17
+     */
+    public CompletionCache completionCache() {
+        return completionCache;
+    }
+
+    /**
+     * @since 3.17
+     */
+    public void setCompletionCache(CompletionCache completionCache) {
+        this.completionCache = completionCache;
+    }
+
     public OptionValidator validator() {
         return validator;
     }
@@ -866,6 +883,13 @@ public class ProcessedOption {
         return parser;
     }
 
+    /**
+     * @return true if the option is parsed by an OptionParser other than the built-in one
+     */
+    public boolean hasCustomParser() {
+        return parser != null && parser.getClass() != AeshOptionParser.class;
+    }
+
     public void setParser(OptionParser parser) {
         this.parser = parser;
     }
@@ -985,6 +1009,38 @@ public class ProcessedOption {
         return val;
     }
 
+    /**
+     * Copy the definition of this option, without its parsed values and its parent.
+     * Used to give another instance of a command an option state of its own.
+     *
+     * @return the copy
+     * @since 3.17
+     */
+    public ProcessedOption copy() {
+        ProcessedOption copy;
+        try {
+            copy = (ProcessedOption) super.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+        copy.parent = null;
+        copy.values = Collections.emptyList();
+        copy.properties = Collections.emptyMap();
+        copy.longNameUsed = true;
+        copy.endsWithSeparator = false;
+        copy.cursorOption = false;
+        copy.cursorValue = false;
+        copy.negatedByUser = false;
+        // captured again from the instance of the new parent
+        copy.initialValue = null;
+        copy.initialValueCaptured = false;
+        copy.cachedConverterInvocation = null;
+        // the built-in parser keeps the status of the option being parsed
+        if (!hasCustomParser())
+            copy.parser = null;
+        return copy;
+    }
+
     public void clear() {
         if (values instanceof ArrayList)
             values.clear();
@@ -1017,7 +1073,15 @@ public class ProcessedOption {
     }
 
     public String getDisplayName() {
-        if (isLongNameUsed() && name != null) {
+        return getDisplayName(isLongNameUsed());
+    }
+
+    /**
+     * @param longNameUsed if the long name was given on the command line
+     * @return the name as given on the command line
+     */
+    public String getDisplayName(boolean longNameUsed) {
+        if (longNameUsed && name != null) {
             return "--" + name;
         } else if (shortName != null)
             return "-" + shortName;
@@ -1042,18 +1106,27 @@ public class ProcessedOption {
     public List<TerminalString> getRenderedAliasNamesWithDashes() {
         if (aliases.isEmpty())
             return Collections.emptyList();
-        String prefix = acceptNameWithoutDashes ? "" : "--";
         List<TerminalString> result = new ArrayList<>(aliases.size());
-        for (String alias : aliases) {
-            String text = prefix + alias;
-            if (renderer == null || !ansiMode)
-                result.add(new TerminalString(text, true));
-            else
-                result.add(new TerminalString(text, renderer.getColor(), renderer.getTextType()));
-        }
+        for (String alias : aliases)
+            result.add(getRenderedAliasNameWithDashes(alias));
         return result;
     }
 
+    TerminalString getRenderedAliasNameWithDashes(String alias) {
+        String text = (acceptNameWithoutDashes ? "" : "--") + alias;
+        if (renderer == null || !ansiMode)
+            return new TerminalString(text, true);
+        else
+            return new TerminalString(text, renderer.getColor(), renderer.getTextType());
+    }
+
+    /**
+     * @return true if the rendered names are plain text, not formatted by a renderer
+     */
+    boolean isRenderedAsPlainText() {
+        return renderer == null || !ansiMode;
+    }
+
     /**
      * Returns the negated form of the option name with dashes for completion.
      * For example, for option "verbose" with prefix "no-", returns "--no-verbose".
@@ -1540,12 +1613,20 @@ public class ProcessedOption {
     public void applyOptionalFallback() {
         if (!isOptionalValue() || getValue() != null)
             return;
+        String fallback = resolveOptionalFallback();
+        if (fallback != null)
+            addValue(fallback);
+    }
 
+    /**
+     * Resolve the value {@link #applyOptionalFallback()} would add, without adding it.
+     *
+     * @return the fallback value, or null if there is none
+     */
+    public String resolveOptionalFallback() {
         // Priority 1: Annotation fallbackValue resolved from env/sys var (#521)
-        if (variableFallbackResolved && hasFallbackValue()) {
-            addValue(getFallbackValue());
-            return;
-        }
+        if (variableFallbackResolved && hasFallbackValue())
+            return getFallbackValue();
 
         // Priority 2: Provider fallback (dynamic, from config)
         DefaultValueProvider dvp = parent() != null
@@ -1554,22 +1635,20 @@ public class ProcessedOption {
         if (dvp != null) {
             try {
                 String providerFallback = dvp.fallbackValue(this);
-                if (providerFallback != null) {
-                    addValue(providerFallback);
-                    return;
-                }
+                if (providerFallback != null)
+                    return providerFallback;
             } catch (Exception e) {
                 LOGGER.log(Level.WARNING, "DefaultValueProvider.fallbackValue() failed for --" + name(), e);
             }
         }
 
         // Priority 3: Annotation fallbackValue (static/fallback portion)
-        if (hasFallbackValue()) {
-            addValue(getFallbackValue());
-        } else if (hasDefaultValue()) {
-            // Priority 4: Annotation defaultValue (legacy fallback for optionalValue)
-            addValue(getDefaultValues().get(0));
-        }
+        if (hasFallbackValue())
+            return getFallbackValue();
+        // Priority 4: Annotation defaultValue (legacy fallback for optionalValue)
+        if (hasDefaultValue())
+            return getDefaultValues().get(0);
+        return null;
     }
 
     public boolean isTypeAssignableByResourcesOrFile() {
@@ -25,6 +25,8 @@ import java.util.List;
 import java.util.function.BiConsumer;
 
 import org.aesh.command.activator.OptionActivator;
+import org.aesh.command.completer.CachedCompletions;
+import org.aesh.command.completer.CompletionCache;
 import org.aesh.command.completer.OptionCompleter;
 import org.aesh.command.converter.Converter;
 import org.aesh.command.impl.completer.BooleanOptionCompleter;
@@ -66,6 +68,7 @@ public class ProcessedOptionBuilder {
     private String arity;
     private String index;
     private OptionCompleter completer;
+    private CompletionCache completionCache;
     private List<String> defaultValues;
     private OptionValidator validator;
     private OptionActivator activator;
@@ -248,6 +251,17 @@ public class ProcessedOptionBuilder {
         return this;
     }
 
+    /**
+     * Cache the values of the completer. By default they are cached if the completer
+     * class is annotated with {@link CachedCompletions}.
+     *
+     * @since 3.17
+     */
+    public ProcessedOptionBuilder completionCache(CompletionCache completionCache) {
+        this.completionCache = completionCache;
+        return this;
+    }
+
     private OptionCompleter initCompleter(Class<? extends OptionCompleter> completerClass) {
 
         if (completerClass != null && !completerClass.equals(NullOptionCompleter.class)) {
@@ -537,6 +551,13 @@ public class ProcessedOptionBuilder {
                 converter,
                 completer, validator, activator, renderer, parser, overrideRequired, negatable, negationPrefix, inherited,
                 descriptionUrl, isUrl, optionalValue);
+        if (completionCache == null && completer != null) {
+            CachedCompletions cachedCompletions = completer.getClass().getAnnotation(CachedCompletions.class);
+            if (cachedCompletions != null)
+                completionCache = CompletionCache.of(cachedCompletions);
+        }
+        if (completionCache != null)
+            option.setCompletionCache(completionCache);
         if (fieldAccessor != null)
             option.setFieldAccessor(fieldAccessor);
         if (fieldSetter != null)
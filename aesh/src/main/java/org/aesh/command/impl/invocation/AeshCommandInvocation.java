@@ -150,6 +150,16 @@ public final class AeshCommandInvocation implements CommandInvocation {
         return runtime.buildExecutor(line);
     }
 
+    @Override
+    public Executor<AeshCommandInvocation> buildConcurrentExecutor(String commandName, String[] args,
+            CommandInvocationConfiguration configuration) throws CommandNotFoundException,
+            CommandLineParserException,
+            OptionValidatorException,
+            CommandValidatorException,
+            IOException {
+        return runtime.buildConcurrentExecutor(commandName, args, configuration);
+    }
+
     @Override
     public void print(String msg, boolean page) {
         shell.write(msg, page);
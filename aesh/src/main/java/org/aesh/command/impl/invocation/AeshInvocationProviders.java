@@ -22,6 +22,7 @@ package org.aesh.command.impl.invocation;
 
 import org.aesh.command.activator.CommandActivatorProvider;
 import org.aesh.command.activator.OptionActivatorProvider;
+import org.aesh.command.completer.CompleterExecutor;
 import org.aesh.command.completer.CompleterInvocationProvider;
 import org.aesh.command.converter.ConverterInvocationProvider;
 import org.aesh.command.invocation.InvocationProviders;
@@ -49,6 +50,7 @@ public class AeshInvocationProviders implements InvocationProviders {
     private final ValidatorInvocationProvider validatorInvocationProvider;
     private final OptionActivatorProvider optionActivatorProvider;
     private final CommandActivatorProvider commandActivatorProvider;
+    private final CompleterExecutor completerExecutor;
 
     public AeshInvocationProviders() {
         this(null, null, null, null, null);
@@ -60,6 +62,7 @@ public class AeshInvocationProviders implements InvocationProviders {
         this.validatorInvocationProvider = defaultIfNull(settings.validatorInvocationProvider(), DEFAULT_VALIDATOR);
         this.optionActivatorProvider = defaultIfNull(settings.optionActivatorProvider(), DEFAULT_OPTION_ACTIVATOR);
         this.commandActivatorProvider = defaultIfNull(settings.commandActivatorProvider(), DEFAULT_COMMAND_ACTIVATOR);
+        this.completerExecutor = settings.completerExecutor();
     }
 
     public AeshInvocationProviders(ConverterInvocationProvider converterInvocationProvider,
@@ -67,11 +70,26 @@ public class AeshInvocationProviders implements InvocationProviders {
             ValidatorInvocationProvider validatorInvocationProvider,
             OptionActivatorProvider optionActivatorProvider,
             CommandActivatorProvider commandActivatorProvider) {
+        this(converterInvocationProvider, completerInvocationProvider, validatorInvocationProvider,
+                optionActivatorProvider, commandActivatorProvider, null);
+    }
+
+    /**
+     * @param completerExecutor executor running the option completers, or null to run them on the calling thread
+     * @since 3.17
+     */
+    public AeshInvocationProviders(ConverterInvocationProvider converterInvocationProvider,
+            CompleterInvocationProvider completerInvocationProvider,
+            ValidatorInvocationProvider validatorInvocationProvider,
+            OptionActivatorProvider optionActivatorProvider,
+            CommandActivatorProvider commandActivatorProvider,
+            CompleterExecutor completerExecutor) {
         this.converterInvocationProvider = defaultIfNull(converterInvocationProvider, DEFAULT_CONVERTER);
         this.completerInvocationProvider = defaultIfNull(completerInvocationProvider, DEFAULT_COMPLETER);
         this.validatorInvocationProvider = defaultIfNull(validatorInvocationProvider, DEFAULT_VALIDATOR);
         this.optionActivatorProvider = defaultIfNull(optionActivatorProvider, DEFAULT_OPTION_ACTIVATOR);
         this.commandActivatorProvider = defaultIfNull(commandActivatorProvider, DEFAULT_COMMAND_ACTIVATOR);
+        this.completerExecutor = completerExecutor;
     }
 
     private static <T> T defaultIfNull(T value, T defaultValue) {
@@ -102,4 +120,9 @@ public class AeshInvocationProviders implements InvocationProviders {
     public OptionActivatorProvider getOptionActivatorProvider() {
         return optionActivatorProvider;
     }
+
+    @Override
+    public CompleterExecutor getCompleterExecutor() {
+        return completerExecutor;
+    }
 }
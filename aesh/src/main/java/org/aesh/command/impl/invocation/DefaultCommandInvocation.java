@@ -28,6 +28,7 @@ import org.aesh.command.CommandNotFoundException;
 import org.aesh.command.CommandRuntime;
 import org.aesh.command.Executor;
 import org.aesh.command.container.CommandContainer;
+import org.aesh.command.impl.shell.ShellOutputDelegate;
 import org.aesh.command.invocation.CommandInvocation;
 import org.aesh.command.invocation.CommandInvocationConfiguration;
 import org.aesh.command.parser.CommandLineParserException;
@@ -61,10 +62,13 @@ public class DefaultCommandInvocation implements CommandInvocation {
         this.processor = processor;
         this.config = config;
         this.commandContainer = commandContainer;
-        if (shell != null)
-            this.shell = shell;
+        if (shell == null)
+            shell = new DefaultShell();
+        //if we have output redirection, use output delegate
+        if (config != null && config.getOutputRedirection() != null)
+            this.shell = new ShellOutputDelegate(shell, config.getOutputRedirection());
         else
-            this.shell = new DefaultShell();
+            this.shell = shell;
     }
 
     @Override
@@ -161,6 +165,16 @@ public class DefaultCommandInvocation implements CommandInvocation {
         return processor.buildExecutor(line);
     }
 
+    @Override
+    public Executor<? extends CommandInvocation> buildConcurrentExecutor(String commandName, String[] args,
+            CommandInvocationConfiguration configuration) throws CommandNotFoundException,
+            CommandLineParserException,
+            OptionValidatorException,
+            CommandValidatorException,
+            IOException {
+        return processor.buildConcurrentExecutor(commandName, args, configuration);
+    }
+
     @Override
     public CommandInvocationConfiguration getConfiguration() {
         return config;
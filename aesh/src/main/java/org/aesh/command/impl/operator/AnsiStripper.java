@@ -0,0 +1,154 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.command.impl.operator;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Removes ANSI escape sequences from text written in several parts.
+ * <p>
+ * A state machine replacing {@link org.aesh.terminal.utils.Parser#stripAwayAnsiCodes(String)}
+ * for output streams: the state is kept between calls, so a sequence split across two
+ * writes is removed, and the text between the sequences is written to the output as
+ * slices of the input, without creating new strings.
+ * <p>
+ * The same sequences are removed: CSI ({@code ESC [ ? digits ; letter}), OSC ended by
+ * BEL or {@code ESC \}, and two-character sequences. An escape character not starting
+ * a sequence is kept. Unlike the regular expression, an OSC sequence that is never
+ * ended is removed.
+ *
+ * @author Aesh team
+ */
+final class AnsiStripper {
+
+    private static final char ESC = '\u001B';
+    private static final char BEL = '\u0007';
+
+    private static final int TEXT = 0;
+    private static final int ESCAPE = 1;
+    // after "ESC [", an optional '?' may follow
+    private static final int CSI_START = 2;
+    private static final int CSI = 3;
+    private static final int OSC = 4;
+    // ESC seen in an OSC sequence, '\' ends the sequence
+    private static final int OSC_ESCAPE = 5;
+
+    private int state = TEXT;
+
+    /**
+     * Write the text without its escape sequences.
+     *
+     * @param text the text, may end inside a sequence
+     * @param out the output
+     */
+    void strip(String text, Writer out) throws IOException {
+        int length = text.length();
+        // start of the text not written yet, when in TEXT state
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            switch (state) {
+                case TEXT:
+                    if (c == ESC) {
+                        if (i > start)
+                            out.write(text, start, i - start);
+                        state = ESCAPE;
+                    }
+                    break;
+                case ESCAPE:
+                    if (c == '[')
+                        state = CSI_START;
+                    else if (c == ']')
+                        state = OSC;
+                    else if (isTwoCharacterSequence(c)) {
+                        state = TEXT;
+                        start = i + 1;
+                    } else {
+                        // not a sequence, the escape character is kept and c is read again as text
+                        out.write(ESC);
+                        state = TEXT;
+                        start = i;
+                        i--;
+                    }
+                    break;
+                case CSI_START:
+                    if (c == '?') {
+                        state = CSI;
+                        break;
+                    }
+                    // fall through
+                case CSI:
+                    if ((c >= '0' && c <= '9') || c == ';')
+                        state = CSI;
+                    else if (isLetter(c)) {
+                        state = TEXT;
+                        start = i + 1;
+                    } else {
+                        // the final letter is optional, c is read again as text
+                        state = TEXT;
+                        start = i;
+                        i--;
+                    }
+                    break;
+                case OSC:
+                    if (c == BEL) {
+                        state = TEXT;
+                        start = i + 1;
+                    } else if (c == ESC)
+                        state = OSC_ESCAPE;
+                    break;
+                case OSC_ESCAPE:
+                    if (c == '\\') {
+                        state = TEXT;
+                        start = i + 1;
+                    } else {
+                        // the escape character starts a new sequence
+                        state = ESCAPE;
+                        i--;
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown state " + state);
+            }
+        }
+        if (state == TEXT && start < length)
+            out.write(text, start, length - start);
+    }
+
+    /**
+     * Called at the end of the output, writes an escape character that did not start a sequence.
+     *
+     * @param out the output
+     */
+    void finish(Writer out) throws IOException {
+        if (state == ESCAPE)
+            out.write(ESC);
+        state = TEXT;
+    }
+
+    private static boolean isTwoCharacterSequence(char c) {
+        return (c >= '0' && c <= '9') || c == '=' || c == '>' || c == '<' || isLetter(c);
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+}
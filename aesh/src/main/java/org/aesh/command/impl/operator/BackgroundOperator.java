@@ -0,0 +1,89 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.command.impl.operator;
+
+import java.io.BufferedWriter;
+
+import org.aesh.command.invocation.CommandInvocation;
+import org.aesh.command.job.JobOutput;
+
+/**
+ * Ends a command line run in the background, {@code cmd &}.
+ * <p>
+ * When job control is enabled the command line is run as a job of the
+ * {@link org.aesh.command.job.JobManager}, and the output of its last command is
+ * written to the {@link JobOutput} of the job unless it is redirected. Otherwise
+ * the command line is run in the foreground, like with {@code ;}.
+ *
+ * @author Aesh team
+ * @since 3.17
+ */
+public class BackgroundOperator<T extends CommandInvocation> extends EndOperator<T> {
+
+    private final JobOutput output = new JobOutput();
+    private String commandLine = "";
+
+    /**
+     * Output delegate writing to the job output, ANSI codes are kept
+     * since the output is shown in the terminal by {@code fg}.
+     */
+    private class JobOutputDelegate extends OutputDelegate {
+
+        @Override
+        protected BufferedWriter buildWriter() {
+            return new BufferedWriter(output);
+        }
+
+        @Override
+        public void write(String msg) {
+            output.write(msg, 0, msg.length());
+        }
+
+        @Override
+        public void close() {
+            // closed when the job finishes
+        }
+    }
+
+    /**
+     * @return the output of the job
+     */
+    public JobOutput getOutput() {
+        return output;
+    }
+
+    /**
+     * @return a delegate writing to the output of the job
+     */
+    public OutputDelegate createOutputDelegate() {
+        return new JobOutputDelegate();
+    }
+
+    /**
+     * @return the command line run in the background, without the {@code &}
+     */
+    public String getCommandLine() {
+        return commandLine;
+    }
+
+    public void setCommandLine(String commandLine) {
+        this.commandLine = commandLine;
+    }
+}
@@ -27,4 +27,12 @@ import java.io.BufferedInputStream;
  */
 public interface DataProvider {
     BufferedInputStream getData();
+
+    /**
+     * @return the objects passed by the previous command, or null if it passes text
+     * @since 3.17
+     */
+    default ObjectPipe getObjects() {
+        return null;
+    }
 }
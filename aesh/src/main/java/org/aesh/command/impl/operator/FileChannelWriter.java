@@ -0,0 +1,209 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.command.impl.operator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Writes UTF-8 text to a file through a {@link FileChannel}.
+ * <p>
+ * The characters are encoded straight into a large direct byte buffer, written to the
+ * channel when full, so a large output is written with few system calls and without
+ * copying the bytes into a temporary direct buffer. The direct buffers are taken from
+ * a shared pool and returned to it when the writer is closed.
+ * <p>
+ * Extends {@link BufferedWriter} to be used as the writer of an {@link OutputDelegate},
+ * the buffer of {@link BufferedWriter} is not used.
+ *
+ * @author Aesh team
+ */
+final class FileChannelWriter extends BufferedWriter {
+
+    /** Capacity in bytes of the direct buffer. */
+    static final int BUFFER_SIZE = 256 * 1024;
+    private static final int CHAR_BUFFER_SIZE = 8 * 1024;
+
+    // direct buffers kept for the next redirections
+    private static final BlockingQueue<ByteBuffer> POOL = new ArrayBlockingQueue<>(4);
+
+    private final FileChannel channel;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final char[] chars = new char[CHAR_BUFFER_SIZE];
+    private final CharBuffer charBuffer = CharBuffer.wrap(chars);
+    private ByteBuffer bytes;
+
+    private FileChannelWriter(FileChannel channel) {
+        // the writer is the lock of BufferedWriter, one per instance
+        super(new NoWriter(), 1);
+        this.channel = channel;
+        this.bytes = acquire();
+    }
+
+    /**
+     * @param path the file
+     * @param append true to write at the end of the file, false to truncate it
+     * @return the writer
+     */
+    static FileChannelWriter open(Path path, boolean append) throws IOException {
+        FileChannel channel = append
+                ? FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.APPEND)
+                : FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING);
+        return new FileChannelWriter(channel);
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        synchronized (lock) {
+            ensureOpen();
+            if (!charBuffer.hasRemaining())
+                encode(false);
+            charBuffer.put((char) c);
+        }
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        synchronized (lock) {
+            ensureOpen();
+            while (len > 0) {
+                int n = Math.min(len, charBuffer.remaining());
+                System.arraycopy(cbuf, off, chars, charBuffer.position(), n);
+                advance(n);
+                off += n;
+                len -= n;
+            }
+        }
+    }
+
+    @Override
+    public void write(String s, int off, int len) throws IOException {
+        synchronized (lock) {
+            ensureOpen();
+            while (len > 0) {
+                int n = Math.min(len, charBuffer.remaining());
+                s.getChars(off, off + n, chars, charBuffer.position());
+                advance(n);
+                off += n;
+                len -= n;
+            }
+        }
+    }
+
+    @Override
+    public void newLine() throws IOException {
+        write(System.lineSeparator());
+    }
+
+    @Override
+    public void flush() throws IOException {
+        synchronized (lock) {
+            ensureOpen();
+            encode(false);
+            drain();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            if (bytes == null)
+                return;
+            try {
+                encode(true);
+                while (encoder.flush(bytes).isOverflow())
+                    drain();
+                drain();
+            } finally {
+                POOL.offer(bytes);
+                bytes = null;
+                channel.close();
+            }
+        }
+    }
+
+    private void advance(int n) throws IOException {
+        charBuffer.position(charBuffer.position() + n);
+        if (!charBuffer.hasRemaining())
+            encode(false);
+    }
+
+    // encode the buffered characters, a surrogate at the end is kept for the next call
+    private void encode(boolean endOfInput) throws IOException {
+        charBuffer.flip();
+        while (true) {
+            CoderResult result = encoder.encode(charBuffer, bytes, endOfInput);
+            if (result.isOverflow())
+                drain();
+            else
+                break;
+        }
+        charBuffer.compact();
+    }
+
+    private void drain() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining())
+            channel.write(bytes);
+        bytes.clear();
+    }
+
+    private void ensureOpen() throws IOException {
+        if (bytes == null)
+            throw new IOException("Stream closed");
+    }
+
+    private static ByteBuffer acquire() {
+        ByteBuffer pooled = POOL.poll();
+        return pooled != null ? pooled : ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
+
+    // the writer given to BufferedWriter, never used
+    private static final class NoWriter extends Writer {
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.command.impl.operator;
+
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.aesh.command.invocation.ObjectChannel;
+
+/**
+ * A bounded queue passing objects by reference between two pipeline stages,
+ * used instead of the text stream when an {@link org.aesh.command.ObjectProducer}
+ * is piped into an {@link org.aesh.command.ObjectConsumer}.
+ * <p>
+ * The writer blocks while the queue is full and the reader while it is empty.
+ * An interrupted writer or reader stops like a closed pipe, with the interrupt
+ * flag of the thread set.
+ *
+ * @author Aesh team
+ * @since 3.17
+ */
+public final class ObjectPipe implements ObjectChannel {
+
+    /** Default capacity in objects. */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Object[] items;
+    private int head;
+    private int count;
+    private boolean writerClosed;
+    private boolean readerClosed;
+
+    public ObjectPipe() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ObjectPipe(int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("The object pipe capacity must be positive, was " + capacity);
+        items = new Object[capacity];
+    }
+
+    /**
+     * Pass an object to the reader, blocking while the queue is full.
+     *
+     * @param object the object, not null
+     * @return false if the reader is closed or the thread is interrupted, the object is then dropped
+     */
+    @Override
+    public boolean write(Object object) {
+        Objects.requireNonNull(object, "object");
+        lock.lock();
+        try {
+            while (count == items.length && !readerClosed && !writerClosed) {
+                try {
+                    notFull.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            if (readerClosed || writerClosed)
+                return false;
+            int tail = head + count;
+            if (tail >= items.length)
+                tail -= items.length;
+            items[tail] = object;
+            count++;
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Take the next object, blocking while the queue is empty.
+     *
+     * @return the next object, or null once the writer is closed and the queue is
+     *         drained, or if the reader is closed or the thread is interrupted
+     */
+    @Override
+    public Object read() {
+        lock.lock();
+        try {
+            while (count == 0) {
+                if (writerClosed || readerClosed)
+                    return null;
+                try {
+                    notEmpty.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+            }
+            Object object = items[head];
+            items[head] = null;
+            if (++head == items.length)
+                head = 0;
+            count--;
+            notFull.signal();
+            return object;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the objects until the writer is closed, closing the stream closes the reader
+     */
+    @Override
+    public Stream<Object> stream() {
+        Spliterator<Object> spliterator = new Spliterators.AbstractSpliterator<Object>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super Object> action) {
+                Object object = read();
+                if (object == null)
+                    return false;
+                action.accept(object);
+                return true;
+            }
+        };
+        return StreamSupport.stream(spliterator, false).onClose(this::closeReader);
+    }
+
+    /**
+     * Signal the end of the objects, the queued objects can still be read.
+     */
+    public void closeWriter() {
+        lock.lock();
+        try {
+            writerClosed = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Discard the queued objects, the next writes return false.
+     */
+    public void closeReader() {
+        lock.lock();
+        try {
+            readerClosed = true;
+            for (int i = 0; i < items.length; i++)
+                items[i] = null;
+            count = 0;
+            notFull.signalAll();
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
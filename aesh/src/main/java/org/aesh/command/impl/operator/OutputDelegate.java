@@ -22,8 +22,6 @@ package org.aesh.command.impl.operator;
 import java.io.BufferedWriter;
 import java.io.IOException;
 
-import org.aesh.terminal.utils.Parser;
-
 /**
  *
  * @author Aesh team
@@ -32,20 +30,28 @@ public abstract class OutputDelegate {
 
     protected BufferedWriter writer;
     protected IOException exception;
+    private final AnsiStripper ansiStripper = new AnsiStripper();
 
     protected OutputDelegate() {
     }
 
     protected abstract BufferedWriter buildWriter() throws IOException;
 
+    /**
+     * @return the pipe passing objects to the next command, or null if it only accepts text
+     * @since 3.17
+     */
+    public ObjectPipe getObjectPipe() {
+        return null;
+    }
+
     public void write(String msg) {
         try {
-            msg = Parser.stripAwayAnsiCodes(msg);
             if (writer == null && exception == null) {
                 writer = buildWriter();
             }
             if (writer != null) {
-                writer.append(msg);
+                ansiStripper.strip(msg, writer);
             }
         } catch (IOException e) {
             exception = e;
@@ -54,8 +60,13 @@ public abstract class OutputDelegate {
 
     public void close() throws IOException {
         try {
-            if (writer != null)
-                writer.close();
+            if (writer != null) {
+                try {
+                    ansiStripper.finish(writer);
+                } finally {
+                    writer.close();
+                }
+            }
         } finally {
             if (exception != null)
                 throw exception;
@@ -22,14 +22,15 @@ package org.aesh.command.impl.operator;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.StandardOpenOption;
 
 import org.aesh.command.invocation.CommandInvocationConfiguration;
 import org.aesh.console.AeshContext;
 
 /**
+ * Redirects the output of a command to a file, {@code >} or {@code >>}.
+ * ANSI escape sequences are removed, and the text is written through a
+ * {@link java.nio.channels.FileChannel} with a large direct buffer.
+ *
  * @author Aesh team
  */
 public class OutputRedirectionOperator implements ConfigurationOperator {
@@ -42,11 +43,7 @@ public class OutputRedirectionOperator implements ConfigurationOperator {
 
         @Override
         protected BufferedWriter buildWriter(File f) throws IOException {
-            if (append) {
-                return Files.newBufferedWriter(f.toPath(), StandardCharsets.UTF_8,
-                        StandardOpenOption.APPEND, StandardOpenOption.CREATE);
-            }
-            return Files.newBufferedWriter(f.toPath(), StandardCharsets.UTF_8);
+            return FileChannelWriter.open(f.toPath(), append);
         }
     }
 
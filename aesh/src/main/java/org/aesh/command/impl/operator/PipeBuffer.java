@@ -0,0 +1,240 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.command.impl.operator;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed-size byte ring buffer connecting two pipeline stages.
+ * <p>
+ * The writer blocks while the buffer is full and the reader while it is empty.
+ * Small writes are coalesced in the ring and a read drains as much of the
+ * buffered data as fits in the caller's array. Blocking uses a lock and
+ * conditions rather than monitors, so virtual threads do not pin their carrier.
+ * <p>
+ * The byte array is taken from a shared pool on the first write and returned to
+ * the pool once the writer is closed and the reader has seen EOF or is closed.
+ *
+ * @author Aesh team
+ */
+final class PipeBuffer {
+
+    /** Default capacity in bytes. */
+    static final int DEFAULT_CAPACITY = 64 * 1024;
+
+    // arrays of the default capacity kept for the next pipelines
+    private static final BlockingQueue<byte[]> POOL = new ArrayBlockingQueue<>(16);
+
+    private final int capacity;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private byte[] buffer;
+    private int readPos;
+    private int count;
+    private boolean writerClosed;
+    private boolean readerClosed;
+
+    PipeBuffer(int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("The pipe buffer capacity must be positive, was " + capacity);
+        this.capacity = capacity;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    void write(int b) throws IOException {
+        lock.lock();
+        try {
+            awaitSpace();
+            int writePos = readPos + count;
+            if (writePos >= capacity)
+                writePos -= capacity;
+            buffer[writePos] = (byte) b;
+            count++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void write(byte[] b, int off, int len) throws IOException {
+        lock.lock();
+        try {
+            while (len > 0) {
+                awaitSpace();
+                int writePos = readPos + count;
+                if (writePos >= capacity)
+                    writePos -= capacity;
+                // the free space up to the end of the array, the rest is written on the next turn
+                int n = Math.min(len, Math.min(capacity - count, capacity - writePos));
+                System.arraycopy(b, off, buffer, writePos, n);
+                count += n;
+                off += n;
+                len -= n;
+                notEmpty.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the next byte, or -1 at EOF or if the reading thread is interrupted
+     */
+    int read() {
+        lock.lock();
+        try {
+            if (!awaitData())
+                return -1;
+            int b = buffer[readPos] & 0xFF;
+            consumed(1);
+            return b;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Read the buffered bytes, blocking only while the buffer is empty.
+     *
+     * @return the number of bytes read, or -1 at EOF or if the reading thread is interrupted
+     */
+    int read(byte[] b, int off, int len) {
+        if (len == 0)
+            return 0;
+        lock.lock();
+        try {
+            if (!awaitData())
+                return -1;
+            int n = Math.min(len, count);
+            int first = Math.min(n, capacity - readPos);
+            System.arraycopy(buffer, readPos, b, off, first);
+            if (first < n)
+                System.arraycopy(buffer, 0, b, off + first, n - first);
+            consumed(n);
+            return n;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int available() {
+        lock.lock();
+        try {
+            return readerClosed ? 0 : count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Signal EOF to the reader, the buffered bytes can still be read.
+     */
+    void closeWriter() {
+        lock.lock();
+        try {
+            writerClosed = true;
+            notEmpty.signalAll();
+            releaseIfDone();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Discard the buffered bytes, the next writes fail with "Pipe closed".
+     */
+    void closeReader() {
+        lock.lock();
+        try {
+            readerClosed = true;
+            count = 0;
+            notFull.signalAll();
+            releaseIfDone();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void awaitSpace() throws IOException {
+        while (count == capacity && !readerClosed && !writerClosed) {
+            try {
+                notFull.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Pipe closed");
+            }
+        }
+        if (readerClosed || writerClosed)
+            throw new IOException("Pipe closed");
+        if (buffer == null)
+            buffer = acquire(capacity);
+    }
+
+    private boolean awaitData() {
+        while (count == 0) {
+            if (readerClosed || writerClosed) {
+                releaseIfDone();
+                return false;
+            }
+            try {
+                notEmpty.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return !readerClosed;
+    }
+
+    private void consumed(int n) {
+        readPos += n;
+        if (readPos >= capacity)
+            readPos -= capacity;
+        count -= n;
+        if (count == 0)
+            readPos = 0;
+        notFull.signal();
+    }
+
+    private void releaseIfDone() {
+        if (buffer != null && writerClosed && (readerClosed || count == 0)) {
+            if (buffer.length == DEFAULT_CAPACITY)
+                POOL.offer(buffer);
+            buffer = null;
+        }
+    }
+
+    private static byte[] acquire(int capacity) {
+        if (capacity == DEFAULT_CAPACITY) {
+            byte[] pooled = POOL.poll();
+            if (pooled != null)
+                return pooled;
+        }
+        return new byte[capacity];
+    }
+}
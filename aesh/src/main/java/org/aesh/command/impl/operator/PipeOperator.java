@@ -25,19 +25,32 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
+import java.io.UncheckedIOException;
+import java.util.function.Predicate;
 
+import org.aesh.command.PipeFlushPolicy;
 import org.aesh.command.invocation.CommandInvocationConfiguration;
 import org.aesh.console.AeshContext;
 
 /**
- * Pipe operator that streams data between commands using a bounded blocking queue.
+ * Pipe operator that streams data between commands through a bounded byte ring buffer.
  * <p>
- * Pipeline stages run concurrently. The writer blocks when the queue is full
- * (back-pressure), and the reader blocks when the queue is empty. This provides
+ * Pipeline stages run concurrently. The writer blocks when the buffer is full
+ * (back-pressure), and the reader blocks when the buffer is empty. This provides
  * Unix-like pipe semantics without the thread-identity restrictions of
  * {@link java.io.PipedInputStream}/{@link java.io.PipedOutputStream}.
+ * The buffer blocks on a lock rather than a monitor, so stages running on virtual
+ * threads do not pin their carrier thread while they wait on the pipe.
+ * <p>
+ * Small writes are coalesced in the buffer, and the {@link PipeFlushPolicy} decides
+ * when the output of the command is passed on to the next stage.
+ * <p>
+ * Between an {@link org.aesh.command.ObjectProducer} and an
+ * {@link org.aesh.command.ObjectConsumer}, the objects written by the first command
+ * are passed by reference through an {@link ObjectPipe}.
+ * <p>
+ * A pipe can be {@link #fuse fused}, the lines written into it are then passed
+ * directly to the {@link org.aesh.command.StreamingCommand} reading it.
  * <p>
  * Unlike file redirection, pipe output does not strip ANSI codes -- the receiving
  * command may be color-aware.
@@ -48,25 +61,30 @@ import org.aesh.console.AeshContext;
 public class PipeOperator extends EndOperator implements
         ConfigurationOperator, DataProvider {
 
-    /** Sentinel value placed in the queue to signal EOF. */
-    private static final byte[] EOF = new byte[0];
+    /** Default buffer capacity in bytes. */
+    public static final int DEFAULT_BUFFER_SIZE = PipeBuffer.DEFAULT_CAPACITY;
 
-    /** Queue capacity in number of chunks. Each chunk is up to 8KB. */
-    private static final int QUEUE_CAPACITY = 16;
-
-    private final BlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final PipeBuffer buffer;
+    private final PipeFlushPolicy flushPolicy;
     private final AeshContext context;
     private CommandInvocationConfiguration config;
+    private ObjectPipe objectPipe;
+    private Predicate<String> fusedLines;
 
     /**
-     * Output delegate for pipe -- writes to the blocking queue without
+     * Output delegate for pipe -- writes to the ring buffer without
      * stripping ANSI codes.
      */
     private class PipeOutputDelegate extends OutputDelegate {
 
+        // the end of the last line written, when the pipe is fused
+        private final StringBuilder partialLine = new StringBuilder();
+        // the command reading the fused pipe failed or needs no more input
+        private boolean fusedReaderClosed;
+
         @Override
         protected BufferedWriter buildWriter() throws IOException {
-            return new BufferedWriter(new OutputStreamWriter(new QueueOutputStream()));
+            return new BufferedWriter(new OutputStreamWriter(new BufferOutputStream()));
         }
 
         /**
@@ -75,24 +93,59 @@ public class PipeOperator extends EndOperator implements
          */
         @Override
         public void write(String msg) {
+            if (fusedLines != null) {
+                // stop the writing command, as the buffer does once its reader is closed
+                if (fusedReaderClosed) {
+                    if (exception == null)
+                        exception = new IOException("Pipe closed");
+                    throw new UncheckedIOException(exception);
+                }
+                writeLines(msg);
+                return;
+            }
             try {
                 if (writer == null && exception == null) {
                     writer = buildWriter();
                 }
                 if (writer != null) {
                     writer.append(msg);
-                    writer.flush(); // flush to push data through the pipe promptly
+                    if (flushPolicy == PipeFlushPolicy.EVERY_WRITE
+                            || (flushPolicy == PipeFlushPolicy.LINE && endsLine(msg)))
+                        writer.flush(); // push data through the pipe promptly
                 }
             } catch (IOException e) {
                 exception = e;
             }
         }
 
+        private void writeLines(String msg) {
+            int start = 0;
+            int end;
+            while ((end = msg.indexOf('\n', start)) >= 0) {
+                partialLine.append(msg, start, end);
+                int length = partialLine.length();
+                if (length > 0 && partialLine.charAt(length - 1) == '\r')
+                    partialLine.setLength(length - 1);
+                boolean more = fusedLines.test(partialLine.toString());
+                partialLine.setLength(0);
+                if (!more) {
+                    fusedReaderClosed = true;
+                    return;
+                }
+                start = end + 1;
+            }
+            partialLine.append(msg, start, msg.length());
+        }
+
         @Override
         public void close() throws IOException {
+            if (fusedLines != null && !fusedReaderClosed && partialLine.length() > 0) {
+                fusedLines.test(partialLine.toString());
+                partialLine.setLength(0);
+            }
             try {
                 if (writer != null)
-                    writer.close(); // flushes and sends EOF via QueueOutputStream.close()
+                    writer.close(); // flushes and sends EOF via BufferOutputStream.close()
             } catch (IOException e) {
                 // Suppress pipe-broken errors (downstream finished early)
                 if (!isPipeBroken(e)) {
@@ -100,120 +153,94 @@ public class PipeOperator extends EndOperator implements
                         exception = e;
                 }
             } finally {
+                if (writer == null)
+                    buffer.closeWriter(); // nothing was written, still send EOF
+                if (objectPipe != null)
+                    objectPipe.closeWriter();
                 if (exception != null && !isPipeBroken(exception)) {
                     throw exception;
                 }
             }
         }
 
+        @Override
+        public ObjectPipe getObjectPipe() {
+            return objectPipe;
+        }
+
+        private boolean endsLine(String msg) {
+            return !msg.isEmpty() && msg.charAt(msg.length() - 1) == '\n';
+        }
+
         private boolean isPipeBroken(IOException e) {
-            String msg = e.getMessage();
-            return msg != null && msg.contains("Pipe closed");
+            return isPipeClosed(e);
         }
     }
 
     /**
-     * OutputStream that writes byte chunks into the blocking queue.
-     * Closing sends an EOF sentinel.
+     * OutputStream writing into the ring buffer.
+     * Closing sends EOF.
      */
-    private class QueueOutputStream extends OutputStream {
-        private volatile boolean closed;
+    private class BufferOutputStream extends OutputStream {
 
         @Override
         public void write(int b) throws IOException {
-            write(new byte[] { (byte) b }, 0, 1);
+            buffer.write(b);
         }
 
         @Override
         public void write(byte[] b, int off, int len) throws IOException {
-            if (closed)
-                throw new IOException("Pipe closed");
-            byte[] chunk = new byte[len];
-            System.arraycopy(b, off, chunk, 0, len);
-            try {
-                queue.put(chunk);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw new IOException("Pipe closed");
-            }
+            buffer.write(b, off, len);
         }
 
         @Override
-        public void close() throws IOException {
-            if (!closed) {
-                closed = true;
-                // Use offer instead of put — if the queue is full and we're
-                // interrupted, offer returns false without blocking. Clear
-                // the queue first to make room for the EOF sentinel.
-                if (!queue.offer(EOF)) {
-                    queue.clear();
-                    queue.offer(EOF);
-                }
-            }
+        public void close() {
+            buffer.closeWriter();
         }
     }
 
     /**
-     * InputStream that reads byte chunks from the blocking queue.
-     * Returns -1 (EOF) when the EOF sentinel is received.
+     * InputStream reading from the ring buffer.
+     * Returns -1 (EOF) once the writer is closed and the buffer is drained.
      */
-    private class QueueInputStream extends InputStream {
-        private byte[] currentChunk;
-        private int pos;
-        private volatile boolean eof;
-        private volatile boolean closed;
+    private class BufferInputStream extends InputStream {
 
         @Override
-        public int read() throws IOException {
-            byte[] buf = new byte[1];
-            int n = read(buf, 0, 1);
-            return n == -1 ? -1 : buf[0] & 0xFF;
+        public int read() {
+            return buffer.read();
         }
 
         @Override
-        public int read(byte[] b, int off, int len) throws IOException {
-            if (eof || closed)
-                return -1;
-            while (currentChunk == null || pos >= currentChunk.length) {
-                try {
-                    currentChunk = queue.take();
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    return -1;
-                }
-                if (currentChunk == EOF || closed) {
-                    eof = true;
-                    return -1;
-                }
-                pos = 0;
-            }
-            int available = currentChunk.length - pos;
-            int toRead = Math.min(available, len);
-            System.arraycopy(currentChunk, pos, b, off, toRead);
-            pos += toRead;
-            return toRead;
+        public int read(byte[] b, int off, int len) {
+            return buffer.read(b, off, len);
         }
 
         @Override
         public int available() {
-            if (eof || closed)
-                return 0;
-            int chunkAvail = currentChunk != null ? currentChunk.length - pos : 0;
-            return chunkAvail + (queue.isEmpty() ? 0 : 1);
+            return buffer.available();
         }
 
         @Override
         public void close() {
-            closed = true;
-            // Drain the queue so upstream's put() unblocks
-            queue.clear();
-            // Put EOF so any blocked take() returns
-            queue.offer(EOF);
+            // Discard the buffered data so upstream's write() unblocks
+            buffer.closeReader();
         }
     }
 
     public PipeOperator(AeshContext context) {
+        this(context, DEFAULT_BUFFER_SIZE, PipeFlushPolicy.EVERY_WRITE);
+    }
+
+    /**
+     * @param context the context
+     * @param bufferSize capacity of the buffer between the two stages, in bytes
+     * @param flushPolicy when the output of the command is passed on to the next stage
+     * @since 3.17
+     */
+    public PipeOperator(AeshContext context, int bufferSize, PipeFlushPolicy flushPolicy) {
         this.context = context;
+        this.buffer = new PipeBuffer(bufferSize);
+        this.flushPolicy = flushPolicy;
     }
 
     @Override
@@ -231,6 +258,54 @@ public class PipeOperator extends EndOperator implements
 
     @Override
     public BufferedInputStream getData() {
-        return new BufferedInputStream(new QueueInputStream());
+        return new BufferedInputStream(new BufferInputStream());
+    }
+
+    /**
+     * Pass objects between the two commands in addition to the text stream,
+     * when the first command is an {@link org.aesh.command.ObjectProducer} and
+     * the second one an {@link org.aesh.command.ObjectConsumer}.
+     * Must be called before the commands are executed.
+     *
+     * @since 3.17
+     */
+    public void enableObjectPipe() {
+        if (objectPipe == null)
+            objectPipe = new ObjectPipe();
+    }
+
+    @Override
+    public ObjectPipe getObjects() {
+        return objectPipe;
+    }
+
+    /**
+     * Pass each line written into the pipe to the given consumer, on the thread of the
+     * writing command, instead of through the buffer. Used to fuse the command reading
+     * the pipe with the command writing it, must be called before they are executed.
+     * <p>
+     * Once the consumer returns false, the next write of the writing command throws an
+     * {@link UncheckedIOException} wrapping the "Pipe closed" {@link IOException} of a
+     * pipe whose reader is closed, stopping the command.
+     *
+     * @param lines receives the lines, without their line separator, returns false
+     *        when it takes no more lines
+     * @since 3.17
+     */
+    public void fuse(Predicate<String> lines) {
+        this.fusedLines = lines;
+    }
+
+    /**
+     * @param e an exception thrown by a pipe stage
+     * @return true if the stage was stopped by writing into a pipe whose reader is closed
+     * @since 3.17
+     */
+    public static boolean isPipeClosed(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof IOException && t.getMessage() != null && t.getMessage().contains("Pipe closed"))
+                return true;
+        }
+        return false;
     }
 }
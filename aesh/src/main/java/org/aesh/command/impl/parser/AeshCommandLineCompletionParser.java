@@ -21,7 +21,10 @@ package org.aesh.command.impl.parser;
 
 import java.util.List;
 
+import org.aesh.command.completer.CompleterExecutor;
 import org.aesh.command.completer.CompleterInvocation;
+import org.aesh.command.completer.CompletionCache;
+import org.aesh.command.completer.OptionCompleter;
 import org.aesh.command.impl.completer.CompleterData;
 import org.aesh.command.impl.completer.DefaultValueOptionCompleter;
 import org.aesh.command.impl.internal.OptionType;
@@ -357,7 +360,17 @@ public class AeshCommandLineCompletionParser<CI extends CommandInvocation> imple
             CompleterInvocation completions = invocationProviders.getCompleterProvider().enhanceCompleterInvocation(
                     new CompleterData(completeOperation.getContext(), value, parser.getCommand()));
 
-            currentOption.completer().complete(completions);
+            CompletionCache cache = currentOption.completionCache();
+            String cacheKey = cache != null ? completionCacheKey(currentOption, completeOperation.getContext()) : null;
+            if (cache == null || !cache.get(cacheKey, value, completions)) {
+                CompleterExecutor.Result result = runCompleter(invocationProviders, currentOption.completer(),
+                        completions);
+                if (!result.isUsable())
+                    return false;
+                // the partial values of a completer that timed out are not cached
+                if (cache != null && result == CompleterExecutor.Result.COMPLETE)
+                    cache.put(cacheKey, value, completions);
+            }
             completeOperation.addCompletionCandidatesTerminalString(completions.getCompleterValues());
             verifyCompleteValue(completeOperation, completions, value, selectedWordStatus, currentOption);
         }
@@ -375,6 +388,50 @@ public class AeshCommandLineCompletionParser<CI extends CommandInvocation> imple
         return !completeOperation.getCompletionCandidates().isEmpty();
     }
 
+    /**
+     * The values of a completer may depend on the command path, the values of the other
+     * options and the working directory.
+     */
+    private String completionCacheKey(ProcessedOption currentOption, AeshContext context) {
+        StringBuilder key = new StringBuilder();
+        for (AeshCommandLineParser<CI> p = parser; p != null; p = p.isChild() ? p.getParentParser() : null) {
+            key.append(p.getProcessedCommand().name()).append('\u0000');
+            for (ProcessedOption option : p.getProcessedCommand().getOptions())
+                appendValues(key, option, currentOption);
+            appendValues(key, p.getProcessedCommand().getArgument(), currentOption);
+            appendValues(key, p.getProcessedCommand().getArguments(), currentOption);
+        }
+        key.append(currentOption.name());
+        if (context != null && context.getCurrentWorkingDirectory() != null)
+            key.append('\u0000').append(context.getCurrentWorkingDirectory().getAbsolutePath());
+        return key.toString();
+    }
+
+    private static void appendValues(StringBuilder key, ProcessedOption option, ProcessedOption currentOption) {
+        if (option == null || option == currentOption || option.getValues().isEmpty())
+            return;
+        key.append(option.name()).append('=');
+        for (String value : option.getValues())
+            key.append(value).append('\u0001');
+        key.append('\u0000');
+    }
+
+    /**
+     * Run a completer, on the completer executor of the invocation providers if there is one.
+     *
+     * @return what the completion got from the completer
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static CompleterExecutor.Result runCompleter(InvocationProviders invocationProviders,
+            OptionCompleter completer, CompleterInvocation completions) {
+        CompleterExecutor executor = invocationProviders.getCompleterExecutor();
+        if (executor == null) {
+            completer.complete(completions);
+            return CompleterExecutor.Result.COMPLETE;
+        }
+        return executor.complete(completer, completions);
+    }
+
     public static void verifyCompleteValue(AeshCompleteOperation completeOperation,
             CompleterInvocation completions,
             String value, ParsedWord.Status selectedWordStatus, ProcessedOption currentOption) {
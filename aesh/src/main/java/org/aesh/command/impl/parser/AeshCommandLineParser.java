@@ -23,10 +23,15 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Predicate;
 
 import org.aesh.command.Command;
 import org.aesh.command.CommandLifecycle;
@@ -52,6 +57,7 @@ import org.aesh.command.populator.CommandPopulator;
 import org.aesh.command.validator.OptionValidatorException;
 import org.aesh.complete.AeshCompleteOperation;
 import org.aesh.console.AeshContext;
+import org.aesh.parser.IncrementalLineParser;
 import org.aesh.parser.LineParser;
 import org.aesh.parser.ParsedLine;
 import org.aesh.parser.ParsedLineIterator;
@@ -72,13 +78,23 @@ public class AeshCommandLineParser<CI extends CommandInvocation> implements Comm
 
     private final ProcessedCommand<Command<CI>, CI> processedCommand;
     private List<CommandLineParser<CI>> childParsers;
+    // The child parsers by name and alias, the first child added with a name wins
+    private Map<String, CommandLineParser<CI>> childParsersByName;
     private Map<String, Class<? extends Command>> lazyChildClasses;
+    // Sorted names of the child commands, null until needed and when children are added
+    private volatile List<String> childNames;
     private Function<Class<? extends Command>, CommandContainer<CI>> childResolver;
     private InvocationProviders storedInvocationProviders;
     private boolean isChild = false;
     private ProcessedOption lastParsedOption;
     private boolean parsedCommand = false;
+    // The child the last line was passed on to, null if the line was parsed by this command
+    private CommandLineParser<CI> selectedChild;
+    // The child populated by the last call to doPopulate
+    private CommandLineParser<CI> populatedChild;
     private LineParser lineParser;
+    // Set by the first parseResult call, null until then and when children are added
+    private volatile Boolean parseResultSupported;
     private static final char DASH = '-';
     private AeshCommandLineParser<CI> parent;
 
@@ -108,10 +124,20 @@ public class AeshCommandLineParser<CI extends CommandInvocation> implements Comm
     public void addChildParser(CommandLineParser<CI> commandLineParser) throws CommandLineParserException {
         if (processedCommand.hasArgument() || processedCommand.hasArguments())
             throw new CommandLineParserException("Group commands can not have arguments defined");
-        if (childParsers == null)
+        if (childParsers == null) {
             childParsers = new ArrayList<>();
+            childParsersByName = new HashMap<>();
+        }
+        parseResultSupported = null;
+        childNames = null;
         commandLineParser.setChild(true);
         childParsers.add(commandLineParser);
+        ProcessedCommand<?, ?> child = commandLineParser.getProcessedCommand();
+        childParsersByName.putIfAbsent(child.name(), commandLineParser);
+        if (child.getAliases() != null) {
+            for (String alias : child.getAliases())
+                childParsersByName.putIfAbsent(alias, commandLineParser);
+        }
         if (commandLineParser instanceof AeshCommandLineParser)
             ((AeshCommandLineParser<CI>) commandLineParser).setParent(this);
     }
@@ -120,12 +146,41 @@ public class AeshCommandLineParser<CI extends CommandInvocation> implements Comm
         return childParsers;
     }
 
+    /**
+     * Copy this parser for a new instance of the command, the child commands are copied
+     * the same way and the children not resolved yet stay lazy.
+     *
+     * @return a parser that does not share any command instance or parse state with this one
+     * @throws CommandLineParserException if the command definition can not be copied
+     * @since 3.17
+     */
+    public AeshCommandLineParser<CI> copy() throws CommandLineParserException {
+        AeshCommandLineParser<CI> copy = new AeshCommandLineParser<>(
+                processedCommand.copy(processedCommand.newCommandInstance()));
+        copy.ansiMode = ansiMode;
+        copy.childResolver = childResolver;
+        copy.storedInvocationProviders = storedInvocationProviders;
+        if (childParsers != null) {
+            for (CommandLineParser<CI> child : childParsers) {
+                if (!(child instanceof AeshCommandLineParser))
+                    throw new CommandLineParserException("The sub-command " + child.getProcessedCommand().name()
+                            + " of " + processedCommand.name() + " can not be copied");
+                copy.addChildParser(((AeshCommandLineParser<CI>) child).copy());
+            }
+        }
+        if (lazyChildClasses != null && !lazyChildClasses.isEmpty())
+            copy.lazyChildClasses = new LinkedHashMap<>(lazyChildClasses);
+        return copy;
+    }
+
     @SuppressWarnings("unchecked")
     public void addLazyChild(String name, Class<? extends Command> clazz) throws CommandLineParserException {
         if (processedCommand.hasArgument() || processedCommand.hasArguments())
             throw new CommandLineParserException("Group commands can not have arguments defined");
         if (lazyChildClasses == null)
             lazyChildClasses = new LinkedHashMap<>();
+        parseResultSupported = null;
+        childNames = null;
         lazyChildClasses.put(name, clazz);
     }
 
@@ -249,8 +304,11 @@ public class AeshCommandLineParser<CI extends CommandInvocation> implements Comm
     @Override
     public void complete(AeshCompleteOperation completeOperation, InvocationProviders invocationProviders) {
 
+        IncrementalLineParser incrementalParser = completeOperation.getLineParser();
         complete(completeOperation,
-                new LineParser().parseLine(completeOperation.getBuffer(), completeOperation.getCursor(), true),
+                incrementalParser != null
+                        ? incrementalParser.parseLine(completeOperation.getBuffer(), completeOperation.getCursor(), true)
+                        : new LineParser().parseLine(completeOperation.getBuffer(), completeOperation.getCursor(), true),
                 invocationProviders);
     }
 
@@ -287,14 +345,10 @@ public class AeshCommandLineParser<CI extends CommandInvocation> implements Comm
     public CommandLineParser<CI> getChildParser(String name) {
         if (!isGroupCommand())
             return null;
-        if (childParsers != null) {
-            for (CommandLineParser<CI> clp : childParsers) {
-                if (clp.getProcessedCommand().name().equals(name))
-                    return clp;
-                if (clp.getProcessedCommand().getAliases() != null
-                        && clp.getProcessedCommand().getAliases().contains(name))
-                    return clp;
-            }
+        if (childParsersByName != null) {
+            CommandLineParser<CI> clp = childParsersByName.get(name);
+            if (clp != null)
+                return clp;
         }
         return resolveLazyChild(name);
     }
@@ -340,23 +394,69 @@ public class AeshCommandLineParser<CI extends CommandInvocation> implements Comm
         }
     }
 
+    @Override
+    public void populate(ParseResult result, InvocationProviders invocationProviders, AeshContext aeshContext, Mode mode)
+            throws CommandLineParserException, OptionValidatorException {
+        if (result.parser() != this)
+            throw new IllegalArgumentException("The ParseResult was created by the parser of " + result.name());
+        apply(result);
+        for (Map.Entry<ProcessedOption, ParseResult.OptionValues> entry : result.optionValues().entrySet())
+            entry.getValue().applyTo(entry.getKey());
+        if (mode == Mode.VALIDATE && result.hasDiagnostics()) {
+            for (ParseResult r = result; r != null; r = r.subcommand())
+                if (!r.diagnostics().isEmpty())
+                    throw r.diagnostics().get(0);
+        }
+        doPopulate(processedCommand, invocationProviders, aeshContext, mode);
+    }
+
+    /**
+     * Reset this command and set the parser state of the result, the same state as
+     * after a call to parse. The option values are set by the caller.
+     */
+    private void apply(ParseResult result) {
+        clear();
+        processedCommand.markDirty();
+        Command<CI> cmd = processedCommand.getCommand();
+        if (cmd instanceof CommandLifecycle)
+            ((CommandLifecycle) cmd).beforeParse();
+        for (CommandLineParserException exception : result.diagnostics())
+            processedCommand.addParserException(exception);
+        parsedCommand = result.isSelected();
+        if (result.subcommand() != null) {
+            AeshCommandLineParser<CI> child = (AeshCommandLineParser<CI>) result.subcommand().parser();
+            selectedChild = child;
+            child.apply(result.subcommand());
+        }
+    }
+
     @Override
     public void doPopulate(ProcessedCommand<Command<CI>, CI> processedCommand, InvocationProviders invocationProviders,
             AeshContext aeshContext, Mode mode) throws CommandLineParserException, OptionValidatorException {
         getCommandPopulator().populateObject(processedCommand, invocationProviders, aeshContext, mode);
-        if (isGroupCommand() && childParsers != null) {
-            for (CommandLineParser<CI> parser : childParsers) {
-                // Mark child populators so inherited options skip DefaultValueProvider (#488)
-                CommandPopulator<Object, CI> childPopulator = parser.getCommandPopulator();
-                if (childPopulator instanceof AeshCommandPopulator) {
-                    ((AeshCommandPopulator<?, CI>) childPopulator).setChildCommand(true);
-                }
-                parser.doPopulate(parser.getProcessedCommand(), invocationProviders, aeshContext, mode);
-            }
-            propagateInheritedOptions();
+        // Only the commands on the parsed path are populated, not every child of a group
+        CommandLineParser<CI> child = selectedChild;
+        CommandLineParser<CI> previous = populatedChild;
+        populatedChild = child;
+        // the child populated by the previous line has been cleared, reset its values
+        if (previous != null && previous != child)
+            populateChild(previous, invocationProviders, aeshContext, mode);
+        if (child != null) {
+            populateChild(child, invocationProviders, aeshContext, mode);
+            propagateInheritedOptions(child);
         }
     }
 
+    private void populateChild(CommandLineParser<CI> child, InvocationProviders invocationProviders,
+            AeshContext aeshContext, Mode mode) throws CommandLineParserException, OptionValidatorException {
+        // Mark child populators so inherited options skip DefaultValueProvider (#488)
+        CommandPopulator<Object, CI> childPopulator = child.getCommandPopulator();
+        if (childPopulator instanceof AeshCommandPopulator) {
+            ((AeshCommandPopulator<?, CI>) childPopulator).setChildCommand(true);
+        }
+        child.doPopulate(child.getProcessedCommand(), invocationProviders, aeshContext, mode);
+    }
+
     /**
      * Returns a usage String based on the defined command and options.
      * Useful when printing "help" info etc.
@@ -564,6 +664,13 @@ public class AeshCommandLineParser<CI extends CommandInvocation> implements Comm
         if (mode != Mode.COMPLETION && cmd instanceof CommandLifecycle) {
             ((CommandLifecycle) cmd).beforeParse();
         }
+        parse(iterator, mode, ParseState.STORED);
+    }
+
+    /**
+     * Parse the line, keeping what is parsed in the given state.
+     */
+    void parse(ParsedLineIterator iterator, Mode mode, ParseState state) {
         if (iterator.hasNextWord()) {
             String command = iterator.pollWord();
             if (processedCommand.name().equals(command)
@@ -575,24 +682,10 @@ public class AeshCommandLineParser<CI extends CommandInvocation> implements Comm
                         // eg: group GARBAGE <tab>
                         if (iterator.isNextWordCursorWord() ||
                                 iterator.peekWord().startsWith("--") || iterator.peekWord().startsWith("-"))
-                            doParse(iterator, mode);
+                            doParse(iterator, mode, state);
                         else {
-                            // Collect available child names for "did you mean?" (#562)
-                            java.util.List<String> childNames = new java.util.ArrayList<>();
-                            if (childParsers != null) {
-                                for (CommandLineParser<CI> child : childParsers) {
-                                    childNames.add(child.getProcessedCommand().name());
-                                }
-                            }
-                            if (lazyChildClasses != null) {
-                                for (String name : lazyChildClasses.keySet()) {
-                                    if (!childNames.contains(name))
-                                        childNames.add(name);
-                                }
-                            }
-                            processedCommand
-                                    .addParserException(new SubcommandNotFoundException(
-                                            command, iterator.peekWord(), childNames));
+                            state.addException(this, new SubcommandNotFoundException(
+                                    command, iterator.peekWord(), childNames()));
                             if (mode == Mode.COMPLETION) {
                                 parsedCommand = true;
                                 processedCommand.setCompleteStatus(new CompleteStatus(CompleteStatus.Status.INVALID_INPUT, ""));
@@ -601,18 +694,49 @@ public class AeshCommandLineParser<CI extends CommandInvocation> implements Comm
                     }
                     //we have a group command
                     else {
-                        //remove the child name
-                        clp.parse(iterator, mode);
+                        state.parseChild(this, clp, iterator, mode);
                     }
                 } else
-                    doParse(iterator, mode);
+                    doParse(iterator, mode, state);
             }
         } else if (iterator.parserError() != null)
-            processedCommand.addParserException(new CommandLineParserException(iterator.parserError()));
+            state.addException(this, new CommandLineParserException(iterator.parserError()));
+    }
+
+    void setParsed(boolean parsed) {
+        parsedCommand = parsed;
+    }
+
+    void setSelectedChild(CommandLineParser<CI> child) {
+        selectedChild = child;
+    }
+
+    void setLastParsedOption(ProcessedOption option) {
+        lastParsedOption = option;
+    }
+
+    /**
+     * @return the sorted names of the child commands, for "did you mean?" (#562)
+     */
+    List<String> childNames() {
+        List<String> names = childNames;
+        if (names == null) {
+            Set<String> sorted = new TreeSet<>();
+            if (childParsers != null) {
+                for (CommandLineParser<CI> child : childParsers) {
+                    sorted.add(child.getProcessedCommand().name());
+                }
+            }
+            if (lazyChildClasses != null)
+                sorted.addAll(lazyChildClasses.keySet());
+            names = Collections.unmodifiableList(new ArrayList<>(sorted));
+            childNames = names;
+        }
+        return names;
     }
 
-    private void doParse(ParsedLineIterator iter, Mode mode) {
-        parsedCommand = true;
+    private void doParse(ParsedLineIterator iter, Mode mode, ParseState state) {
+        state.parsed(this);
         if (mode == Mode.COMPLETION)
             doParseCompletion(iter);
         else {
@@ -621,18 +745,19 @@ public class AeshCommandLineParser<CI extends CommandInvocation> implements Comm
                 while (iter.hasNextWord()) {
                     ParsedWord word = iter.peekParsedWord();
                     if (argumentMarker || processedCommand.disableParsing()) {
-                        setArgStatus(word.word());
+                        setArgStatus(word.word(), state);
                         iter.pollParsedWord();
                     } else {
-                        lastParsedOption = processedCommand.searchAllOptions(word.word());
-                        if (lastParsedOption == null && parent != null) {
-                            lastParsedOption = searchParentInheritedOption(word.word());
+                        ProcessedOption option = state.search(processedCommand, word.word());
+                        if (option == null && parent != null) {
+                            option = searchParentInheritedOption(word.word(), state);
                         }
-                        if (lastParsedOption != null) {
-                            lastParsedOption.parser().parse(iter, lastParsedOption);
+                        state.lastParsedOption(this, option);
+                        if (option != null) {
+                            state.parseOption(iter, option);
                             // Apply fallback chain if the parser left no value (#511).
                             // Idempotent: skips if the parser already set a value.
-                            lastParsedOption.applyOptionalFallback();
+                            state.applyOptionalFallback(option);
                         } else {
                             //if we have a -- and its not at the end of the line it is used as a
                             //marker to signal that all the values after it are arguments, so we will ignore this
@@ -649,7 +774,7 @@ public class AeshCommandLineParser<CI extends CommandInvocation> implements Comm
                                             || word.word().length() == 2) {
                                         // invalid short names and long names should be rejected.
                                         if (!(processedCommand.getCommand() instanceof MapCommand)) {
-                                            processedCommand.addParserException(
+                                            state.addException(this,
                                                     new OptionParserException("The option " + word.word()
                                                             + " is unknown."));
                                         } else {
@@ -670,17 +795,16 @@ public class AeshCommandLineParser<CI extends CommandInvocation> implements Comm
                                     if (clp != null) {
                                         // Do NOT poll the word - child's parse() expects the
                                         // command name to still be in the iterator.
-                                        // Reset parsedCommand so parsedCommand() returns the child, not us.
-                                        parsedCommand = false;
-                                        clp.parse(iter, mode);
+                                        // parseChild resets parsedCommand so parsedCommand() returns the child, not us.
+                                        state.parseChild(this, clp, iter, mode);
                                         return;
                                     } else {
-                                        setArgStatus(word.word());
+                                        setArgStatus(word.word(), state);
                                         if (processedCommand.stopAtFirstPositional())
                                             argumentMarker = true;
                                     }
                                 } else {
-                                    setArgStatus(word.word());
+                                    setArgStatus(word.word(), state);
                                     if (processedCommand.stopAtFirstPositional())
                                         argumentMarker = true;
                                 }
@@ -690,7 +814,7 @@ public class AeshCommandLineParser<CI extends CommandInvocation> implements Comm
                     }
                 }
             } catch (OptionParserException ope) {
-                processedCommand.addParserException(ope);
+                state.addException(this, ope);
             }
             if (mode == Mode.STRICT) {
                 ProcessedCommand copy = processedCommand;
@@ -700,45 +824,59 @@ public class AeshCommandLineParser<CI extends CommandInvocation> implements Comm
                         return;
                     }
                 }
-                RequiredOptionException re = checkForMissingRequiredOptions(processedCommand);
-                if (re != null)
-                    processedCommand.addParserException(re);
             }
-            if (mode == Mode.STRICT || mode == Mode.VALIDATE) {
-                MutuallyExclusiveOptionException me = checkForMutuallyExclusiveOptions(processedCommand);
-                if (me != null)
-                    processedCommand.addParserException(me);
-                // Check arity min constraints on arguments (skip if overrideRequired is active)
-                if (!processedCommand.hasOptionWithOverrideRequired()) {
-                    RequiredOptionException arityEx = null;
-                    for (ProcessedOption argOpt : processedCommand.getArgumentOptions()) {
-                        arityEx = checkArityMin(argOpt);
-                        if (arityEx != null) {
-                            processedCommand.addParserException(arityEx);
-                            break;
-                        }
+            validate(processedCommand, mode, state::values, state::isLongNameUsed,
+                    exception -> state.addException(this, exception));
+        }
+    }
+
+    /**
+     * Check the required, mutually exclusive and arity rules of a parsed command.
+     * The parsed state of the options is read with the given functions, so the same checks
+     * are used when it is stored outside of the options, see {@link ParseResultState}.
+     */
+    static void validate(ProcessedCommand<?, ?> command, Mode mode,
+            Function<ProcessedOption, List<String>> values, Predicate<ProcessedOption> longNameUsed,
+            Consumer<CommandLineParserException> exceptions) {
+        if (mode == Mode.STRICT) {
+            RequiredOptionException re = checkForMissingRequiredOptions(command, values, longNameUsed);
+            if (re != null)
+                exceptions.accept(re);
+        }
+        if (mode == Mode.STRICT || mode == Mode.VALIDATE) {
+            MutuallyExclusiveOptionException me = checkForMutuallyExclusiveOptions(command, values);
+            if (me != null)
+                exceptions.accept(me);
+            // Check arity min constraints on arguments (skip if overrideRequired is active)
+            if (!hasOptionWithOverrideRequired(command, values)) {
+                RequiredOptionException arityEx = null;
+                for (ProcessedOption argOpt : command.getArgumentOptions()) {
+                    arityEx = checkArityMin(argOpt, values);
+                    if (arityEx != null) {
+                        exceptions.accept(arityEx);
+                        break;
                     }
-                    arityEx = checkArityMin(processedCommand.getArguments());
-                    if (arityEx != null)
-                        processedCommand.addParserException(arityEx);
                 }
+                arityEx = checkArityMin(command.getArguments(), values);
+                if (arityEx != null)
+                    exceptions.accept(arityEx);
             }
         }
     }
 
-    private void setArgStatus(String word) {
-        ProcessedOption positional = processedCommand.getPositionalForNextValue();
+    private void setArgStatus(String word, ParseState state) {
+        ProcessedOption positional = state.positionalForNextValue(processedCommand);
         if (positional != null) {
-            if (positional.isArityFull()) {
-                processedCommand.addParserException(
+            if (state.isArityFull(positional)) {
+                state.addException(this,
                         new OptionParserException(
                                 "Too many arguments. Maximum is " + positional.getArity().getMax() + "."));
             } else {
-                positional.addValue(word);
+                state.addValue(positional, word);
             }
         } else {
-            int missingIndex = processedCommand.getPositionalValueCount();
-            processedCommand.addParserException(
+            int missingIndex = state.positionalValueCount(processedCommand);
+            state.addException(this,
                     new OptionParserException(
                             "Unexpected positional value '" + word + "' at index " + missingIndex
                                     + ". Declared positional indexes: " + processedCommand.positionalRangeSummary() + "."));
@@ -785,7 +923,7 @@ public class AeshCommandLineParser<CI extends CommandInvocation> implements Comm
                     } else {
                         lastParsedOption = processedCommand.searchAllOptions(word.word());
                         if (lastParsedOption == null && parent != null) {
-                            lastParsedOption = searchParentInheritedOption(word.word());
+                            lastParsedOption = searchParentInheritedOption(word.word(), ParseState.STORED);
                         }
                         if (lastParsedOption != null) {
                             //if current word is cursor word, we need to check if the current option name
@@ -835,6 +973,7 @@ public class AeshCommandLineParser<CI extends CommandInvocation> implements Comm
                                 if (clp != null && !iter.isNextWordCursorWord()) {
                                     // Fully matched subcommand, delegate to it
                                     parsedCommand = false;
+                                    selectedChild = clp;
                                     clp.parse(iter, Mode.COMPLETION);
                                     return;
                                 }
@@ -897,27 +1036,39 @@ public class AeshCommandLineParser<CI extends CommandInvocation> implements Comm
         }
     }
 
-    private RequiredOptionException checkForMissingRequiredOptions(ProcessedCommand<? extends Command<CI>, CI> command) {
+    private static RequiredOptionException checkForMissingRequiredOptions(ProcessedCommand<?, ?> command,
+            Function<ProcessedOption, List<String>> values, Predicate<ProcessedOption> longNameUsed) {
         for (ProcessedOption o : command.getOptions()) {
-            if (doCheckForMissingRequiredOption(o))
-                return new RequiredOptionException("Option: " + o.getDisplayName() + " is required for this command.");
+            if (doCheckForMissingRequiredOption(command, o, values))
+                return new RequiredOptionException("Option: " + o.getDisplayName(longNameUsed.test(o))
+                        + " is required for this command.");
         }
         for (ProcessedOption argOpt : command.getArgumentOptions()) {
-            if (doCheckForMissingRequiredOption(argOpt))
+            if (doCheckForMissingRequiredOption(command, argOpt, values))
                 return generateRequiredExceptionFor(argOpt, false);
         }
         if (command.getArguments() != null) {
-            if (doCheckForMissingRequiredOption(command.getArguments()))
+            if (doCheckForMissingRequiredOption(command, command.getArguments(), values))
                 return generateRequiredExceptionFor(command.getArguments(), true);
         }
 
         return null;
     }
 
-    private RequiredOptionException checkArityMin(ProcessedOption arg) {
+    private static boolean hasOptionWithOverrideRequired(ProcessedCommand<?, ?> command,
+            Function<ProcessedOption, List<String>> values) {
+        for (ProcessedOption option : command.getOptions()) {
+            if (firstValue(option, values) != null && option.doOverrideRequired())
+                return true;
+        }
+        return false;
+    }
+
+    private static RequiredOptionException checkArityMin(ProcessedOption arg,
+            Function<ProcessedOption, List<String>> values) {
         if (arg == null || arg.getArity() == null)
             return null;
-        int count = arg.getValues().size();
+        int count = values.apply(arg).size();
         int min = arg.getArity().getMin();
         if (count < min) {
             String label = arg.getDisplayLabel();
@@ -928,7 +1079,7 @@ public class AeshCommandLineParser<CI extends CommandInvocation> implements Comm
         return null;
     }
 
-    private RequiredOptionException generateRequiredExceptionFor(ProcessedOption argument, boolean plural) {
+    private static RequiredOptionException generateRequiredExceptionFor(ProcessedOption argument, boolean plural) {
         final String description = argument.description();
         String msg;
         if (description != null && !description.isEmpty()) {
@@ -940,11 +1091,12 @@ public class AeshCommandLineParser<CI extends CommandInvocation> implements Comm
         return new RequiredOptionException(msg);
     }
 
-    private boolean doCheckForMissingRequiredOption(ProcessedOption o) {
-        if (o.isRequired() && o.getValue() == null) {
+    private static boolean doCheckForMissingRequiredOption(ProcessedCommand<?, ?> command, ProcessedOption o,
+            Function<ProcessedOption, List<String>> values) {
+        if (o.isRequired() && firstValue(o, values) == null) {
             boolean found = false;
-            for (ProcessedOption po : processedCommand.getOptions()) {
-                if (po.getValue() != null && po.doOverrideRequired()) {
+            for (ProcessedOption po : command.getOptions()) {
+                if (firstValue(po, values) != null && po.doOverrideRequired()) {
                     found = true;
                     break;
                 }
@@ -955,14 +1107,14 @@ public class AeshCommandLineParser<CI extends CommandInvocation> implements Comm
         return false;
     }
 
-    private MutuallyExclusiveOptionException checkForMutuallyExclusiveOptions(
-            ProcessedCommand<? extends Command<CI>, CI> command) {
+    private static MutuallyExclusiveOptionException checkForMutuallyExclusiveOptions(
+            ProcessedCommand<?, ?> command, Function<ProcessedOption, List<String>> values) {
         for (ProcessedOption o : command.getOptions()) {
-            if (o.getExclusiveWith().isEmpty() || o.getValue() == null)
+            if (o.getExclusiveWith().isEmpty() || firstValue(o, values) == null)
                 continue;
             for (String exclusiveName : o.getExclusiveWith()) {
                 ProcessedOption other = command.findLongOptionNoActivatorCheck(exclusiveName);
-                if (other != null && other.getValue() != null) {
+                if (other != null && firstValue(other, values) != null) {
                     return new MutuallyExclusiveOptionException(
                             "Options --" + o.name() + " and --" + other.name() + " are mutually exclusive.");
                 }
@@ -971,6 +1123,11 @@ public class AeshCommandLineParser<CI extends CommandInvocation> implements Comm
         return null;
     }
 
+    private static String firstValue(ProcessedOption option, Function<ProcessedOption, List<String>> values) {
+        List<String> optionValues = values.apply(option);
+        return optionValues.isEmpty() ? null : optionValues.get(0);
+    }
+
     @Override
     public ProcessedOption lastParsedOption() {
         return lastParsedOption;
@@ -993,6 +1150,43 @@ public class AeshCommandLineParser<CI extends CommandInvocation> implements Comm
         parse(lineParser.parseLine(line, line.length(), true).iterator(), mode);
     }
 
+    @Override
+    public ParseResult parseResult(String line, Mode mode) {
+        if (mode == Mode.COMPLETION)
+            throw new IllegalArgumentException("Completion is only supported by parse(String, Mode)");
+        if (!prepareParseResult())
+            return CommandLineParser.super.parseResult(line, mode);
+        ParsedLine parsedLine = new LineParser().parseLine(line, line.length(), true);
+        return new ParseResultState().parse(this, line, parsedLine.iterator(), mode);
+    }
+
+    @Override
+    public boolean supportsParseResult() {
+        return prepareParseResult();
+    }
+
+    /**
+     * Resolve the lazily added children, so the command tree does not change when it is
+     * parsed by several threads, and check that every command of the tree can be parsed
+     * without storing the values in its options.
+     */
+    private synchronized boolean prepareParseResult() {
+        Boolean supported = parseResultSupported;
+        if (supported == null) {
+            resolveAllLazyChildren();
+            boolean all = ParseResultState.supports(processedCommand);
+            if (childParsers != null) {
+                for (CommandLineParser<CI> child : childParsers) {
+                    all &= child instanceof AeshCommandLineParser
+                            && ((AeshCommandLineParser<CI>) child).prepareParseResult();
+                }
+            }
+            supported = all;
+            parseResultSupported = supported;
+        }
+        return supported;
+    }
+
     @Override
     public void clear() {
         //if this is the parsed command, clear it
@@ -1010,6 +1204,7 @@ public class AeshCommandLineParser<CI extends CommandInvocation> implements Comm
             if (parsed != null)
                 parsed.clear();
         }
+        selectedChild = null;
     }
 
     @Override
@@ -1045,10 +1240,10 @@ public class AeshCommandLineParser<CI extends CommandInvocation> implements Comm
     /**
      * Search parent parsers for an inherited option matching the given input.
      */
-    private ProcessedOption searchParentInheritedOption(String word) {
+    private ProcessedOption searchParentInheritedOption(String word, ParseState state) {
         AeshCommandLineParser<CI> p = parent;
         while (p != null) {
-            ProcessedOption option = p.getProcessedCommand().searchAllOptions(word);
+            ProcessedOption option = state.search(p.getProcessedCommand(), word);
             if (option != null && option.isInherited())
                 return option;
             p = p.parent;
@@ -1088,11 +1283,11 @@ public class AeshCommandLineParser<CI extends CommandInvocation> implements Comm
     }
 
     /**
-     * After populating parent and children, propagate inherited option values
-     * from this (parent) command into parsed child commands that have matching fields.
+     * After populating parent and child, propagate inherited option values
+     * from this (parent) command into the parsed child command if it has matching fields.
      */
-    private void propagateInheritedOptions() {
-        if (!processedCommand.hasInheritedOptions())
+    private void propagateInheritedOptions(CommandLineParser<CI> child) {
+        if (!processedCommand.hasInheritedOptions() || child.parsedCommand() == null)
             return;
         for (ProcessedOption parentOpt : processedCommand.getOptions()) {
             if (!parentOpt.isInherited())
@@ -1100,33 +1295,29 @@ public class AeshCommandLineParser<CI extends CommandInvocation> implements Comm
             Object value = parentOpt.getFieldValue(getCommand());
             if (value == null)
                 continue;
-            for (CommandLineParser<CI> child : getChildParsers()) {
-                if (child.parsedCommand() == null)
+            Command<CI> childCmd = child.getCommand();
+            ProcessedOption childOpt = child.getProcessedCommand().findLongOptionNoActivatorCheck(parentOpt.name());
+            if (childOpt != null) {
+                if (childOpt.getValues() != null && !childOpt.getValues().isEmpty())
                     continue;
-                Command<CI> childCmd = child.getCommand();
-                ProcessedOption childOpt = child.getProcessedCommand().findLongOptionNoActivatorCheck(parentOpt.name());
-                if (childOpt != null) {
-                    if (childOpt.getValues() != null && !childOpt.getValues().isEmpty())
+                childOpt.setFieldValue(childCmd, value);
+            } else if (parentOpt.getFieldAccessor() != null) {
+                // Generated path: use the parent's accessor on the child instance.
+                // Only works when the child extends the parent (field is in the superclass).
+                if (getCommand().getClass().isAssignableFrom(childCmd.getClass())) {
+                    parentOpt.getFieldAccessor().set(childCmd, value);
+                }
+            } else {
+                // Reflection fallback: walk class hierarchy looking for the field
+                try {
+                    Field childField = findField(childCmd.getClass(), parentOpt.getFieldName());
+                    if (childField == null)
                         continue;
-                    childOpt.setFieldValue(childCmd, value);
-                } else if (parentOpt.getFieldAccessor() != null) {
-                    // Generated path: use the parent's accessor on the child instance.
-                    // Only works when the child extends the parent (field is in the superclass).
-                    if (getCommand().getClass().isAssignableFrom(childCmd.getClass())) {
-                        parentOpt.getFieldAccessor().set(childCmd, value);
-                    }
-                } else {
-                    // Reflection fallback: walk class hierarchy looking for the field
-                    try {
-                        Field childField = findField(childCmd.getClass(), parentOpt.getFieldName());
-                        if (childField == null)
-                            continue;
-                        if (!Modifier.isPublic(childField.getModifiers()))
-                            childField.setAccessible(true);
-                        childField.set(childCmd, value);
-                    } catch (Exception e) {
-                        // inherited value propagation is best-effort
-                    }
+                    if (!Modifier.isPublic(childField.getModifiers()))
+                        childField.setAccessible(true);
+                    childField.set(childCmd, value);
+                } catch (Exception e) {
+                    // inherited value propagation is best-effort
                 }
             }
         }
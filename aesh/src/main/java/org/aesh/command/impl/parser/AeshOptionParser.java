@@ -35,8 +35,20 @@ public class AeshOptionParser implements OptionParser {
 
     private static final String EQUALS = "=";
     private static final char DASH = '-';
+    private final ParseState state;
     private Status status;
 
+    public AeshOptionParser() {
+        this(ParseState.STORED);
+    }
+
+    /**
+     * @param state where the parsed values are kept
+     */
+    AeshOptionParser(ParseState state) {
+        this.state = state;
+    }
+
     @Override
     public void parse(ParsedLineIterator parsedLineIterator, ProcessedOption option) throws OptionParserException {
         if (option.isProperty()) {
@@ -45,7 +57,7 @@ public class AeshOptionParser implements OptionParser {
             preProcessOption(option, parsedLineIterator);
             // When fallbackValue is set, the option only accepts values via = syntax.
             // A bare --option should NOT consume the next word — it uses the fallback.
-            if (option.hasFallbackValue() && option.getValue() == null) {
+            if (option.hasFallbackValue() && state.value(option) == null) {
                 applyOptionalFallback(option);
                 return;
             }
@@ -60,7 +72,7 @@ public class AeshOptionParser implements OptionParser {
                 ProcessedOption nextOption = (status == Status.ACTIVE
                         && option.hasMultipleValues() && option.getValueSeparator() != ' ')
                                 ? null
-                                : option.parent().searchAllOptions(word);
+                                : state.search(option.parent(), word);
                 if (nextOption == null) {
                     doParse(parsedLineIterator, option);
                     if (status == null && !option.hasValue()) {
@@ -77,14 +89,14 @@ public class AeshOptionParser implements OptionParser {
                 }
                 //we have something like: --foo --bar eg, two options after another
                 else {
-                    if (option.hasValue() && option.getValue() == null && !option.isOptionalValue()) {
+                    if (option.hasValue() && state.value(option) == null && !option.isOptionalValue()) {
                         throw new OptionParserException("Option " + option.name() + " was specified, but no value was given.");
                     }
                     applyOptionalFallback(option);
                     return;
                 }
             }
-            if (option.hasValue() && option.getValue() == null && !option.isOptionalValue())
+            if (option.hasValue() && state.value(option) == null && !option.isOptionalValue())
                 throw new OptionParserException("Option " + option.name() + " was specified, but no value was given.");
             applyOptionalFallback(option);
         }
@@ -102,13 +114,13 @@ public class AeshOptionParser implements OptionParser {
         String word = iterator.peekWord();
         if (word.indexOf(" ") < word.indexOf("="))
             word = Parser.switchSpacesToEscapedSpacesInWord(word);
-        if (option.isLongNameUsed()) {
+        if (state.isLongNameUsed(option)) {
             String optionPart = (word.length() > 1 && word.charAt(0) == DASH && word.charAt(1) == DASH)
                     ? word.substring(2)
                     : word;
             // Determine which name was actually used: primary, alias, or negated
             String nameToMatch;
-            if (option.isNegatedByUser() && option.getNegatedName() != null) {
+            if (state.isNegated(option) && option.getNegatedName() != null) {
                 nameToMatch = option.getNegatedName();
             } else {
                 nameToMatch = resolveMatchedName(option, optionPart);
@@ -117,7 +129,7 @@ public class AeshOptionParser implements OptionParser {
                 processOption(option, optionPart, nameToMatch);
             else if (option.getOptionType() == OptionType.BOOLEAN) {
                 // For negatable options, use "false" if specified in negated form
-                option.addValue(option.isNegatedByUser() ? "false" : "true");
+                state.addValue(option, state.isNegated(option) ? "false" : "true");
                 status = Status.NULL;
             } else
                 status = Status.OPTION_FOUND;
@@ -126,7 +138,7 @@ public class AeshOptionParser implements OptionParser {
             if (word.length() > 2)
                 processOption(option, word.substring(1), option.shortName());
             else if (option.getOptionType() == OptionType.BOOLEAN) {
-                option.addValue("true");
+                state.addValue(option, "true");
                 //commandLine.addOption(option);
                 status = Status.NULL;
             } else
@@ -143,7 +155,7 @@ public class AeshOptionParser implements OptionParser {
             }
         }
         if (iterator.isNextWordCursorWord())
-            option.setCursorOption(true);
+            state.setCursorOption(option);
         //we've parsed the current word, lets pop it
         iterator.pollParsedWord();
     }
@@ -155,22 +167,22 @@ public class AeshOptionParser implements OptionParser {
         } else if (!rest.contains(EQUALS)) {
             // Either we have two or more boolean options in a group
             // or the value is appended without the EQUALS
-            if (rest.length() > 0 && !option.isLongNameUsed()) {
-                option.setLongNameUsed(false);
+            if (rest.length() > 0 && !state.isLongNameUsed(option)) {
+                state.setLongNameUsed(option, false);
                 if (option.hasValue()) {
                     doAddValueToOption(option, rest);
                     return;
                 } else {
                     // we add the first option
-                    option.addValue("true");
+                    state.addValue(option, "true");
                 }
 
                 for (char shortName : rest.toCharArray()) {
                     ProcessedOption currOption = option.parent().findOption(String.valueOf(shortName));
                     if (currOption != null) {
                         if (!currOption.hasValue()) {
-                            currOption.setLongNameUsed(false);
-                            currOption.addValue("true");
+                            state.setLongNameUsed(currOption, false);
+                            state.addValue(currOption, "true");
                             //commandLine.addOption(currOption);
                         } else
                             throw new OptionParserException("Option: -" + shortName +
@@ -190,7 +202,7 @@ public class AeshOptionParser implements OptionParser {
     private void addValueToOption(ProcessedOption currOption, ParsedLineIterator iterator) {
         //we know that the next word is a value and if its the cursor word, we set it...
         if (iterator.isNextWordCursorWord())
-            currOption.setCursorValue(true);
+            state.setCursorValue(currOption);
         //we know that the option will accept a value, so we can poll the value
         doAddValueToOption(currOption, iterator.pollWord());
         //lets try to parse the rest of the optionList if there are more
@@ -206,18 +218,18 @@ public class AeshOptionParser implements OptionParser {
         if (currOption.hasMultipleValues()) {
             if (word.contains(String.valueOf(currOption.getValueSeparator()))) {
                 for (String value : word.split(Pattern.quote(String.valueOf(currOption.getValueSeparator())))) {
-                    currOption.addValue(value.trim());
+                    state.addValue(currOption, value.trim());
                 }
                 if (word.endsWith(String.valueOf(currOption.getValueSeparator())))
-                    currOption.setEndsWithSeparator(true);
+                    state.setEndsWithSeparator(currOption);
                 //commandLine.addOption(currOption);
                 status = Status.NULL;
             } else {
-                currOption.addValue(word);
+                state.addValue(currOption, word);
                 //active = currOption;
             }
         } else {
-            currOption.addValue(word);
+            state.addValue(currOption, word);
             //commandLine.addOption(currOption);
             status = Status.NULL;
         }
@@ -228,34 +240,35 @@ public class AeshOptionParser implements OptionParser {
             // Handle =value syntax: -R=-Xmx4G or --runtime-option=-Xmx4G
             if (rest.indexOf(currOption.getValueSeparator()) > -1) {
                 for (String value : rest.substring(1).split(Pattern.quote(String.valueOf(currOption.getValueSeparator())))) {
-                    currOption.addValue(value.trim());
+                    state.addValue(currOption, value.trim());
                 }
                 if (rest.endsWith(String.valueOf(currOption.getValueSeparator())))
-                    currOption.setEndsWithSeparator(true);
+                    state.setEndsWithSeparator(currOption);
             } else
-                currOption.addValue(rest.substring(1));
+                state.addValue(currOption, rest.substring(1));
             status = Status.NULL;
-        } else if (rest.length() > 0 && !currOption.isLongNameUsed()) {
+        } else if (rest.length() > 0 && !state.isLongNameUsed(currOption)) {
             // Handle attached value without = for short options: -R-Xmx4G (#541)
             // Matches the behavior of non-LIST options in processOption() lines 142-146
             if (rest.indexOf(currOption.getValueSeparator()) > -1) {
                 for (String value : rest.split(Pattern.quote(String.valueOf(currOption.getValueSeparator())))) {
-                    currOption.addValue(value.trim());
+                    state.addValue(currOption, value.trim());
                 }
                 if (rest.endsWith(String.valueOf(currOption.getValueSeparator())))
-                    currOption.setEndsWithSeparator(true);
+                    state.setEndsWithSeparator(currOption);
             } else {
-                currOption.addValue(rest);
+                state.addValue(currOption, rest);
             }
             status = Status.NULL;
         }
     }
 
     private void processProperty(ParsedLineIterator iterator, ProcessedOption currOption) throws OptionParserException {
-        String word = currOption.isLongNameUsed() ? iterator.pollWord().substring(2) : iterator.pollWord().substring(1);
-        String name = currOption.isLongNameUsed() ? currOption.name() : currOption.shortName();
+        String word = state.isLongNameUsed(currOption) ? iterator.pollWord().substring(2) : iterator.pollWord().substring(1);
+        String name = state.isLongNameUsed(currOption) ? currOption.name() : currOption.shortName();
         if (word.length() < (1 + name.length()))
-            throw new OptionParserException("Option " + currOption.getDisplayName() + ", must be part of a property");
+            throw new OptionParserException(
+                    "Option " + currOption.getDisplayName(state.isLongNameUsed(currOption)) + ", must be part of a property");
 
         // Skip separator '=' between option name and property key (#496).
         // Supports both --manifestFoo=Bar (aesh) and --manifest=Foo=Bar (picocli) syntaxes.
@@ -268,21 +281,23 @@ public class AeshOptionParser implements OptionParser {
         if (!rest.contains(EQUALS)) {
             if (rest.isEmpty()) {
                 throw new OptionParserException(
-                        "Option " + currOption.getDisplayName() + ", must be part of a property");
+                        "Option " + currOption.getDisplayName(state.isLongNameUsed(currOption))
+                                + ", must be part of a property");
             }
             if (currOption.hasDefaultValue()) {
-                currOption.addProperty(rest, currOption.getDefaultValues().get(0));
+                state.addProperty(currOption, rest, currOption.getDefaultValues().get(0));
             } else {
                 throw new OptionParserException(
-                        "Option " + currOption.getDisplayName() + ", must be part of a property");
+                        "Option " + currOption.getDisplayName(state.isLongNameUsed(currOption))
+                                + ", must be part of a property");
             }
         } else {
             String propertyName = rest.substring(0, rest.indexOf(EQUALS));
             String value = rest.substring(rest.indexOf(EQUALS) + 1);
             if (value.isEmpty() && currOption.hasDefaultValue())
-                currOption.addProperty(propertyName, currOption.getDefaultValues().get(0));
+                state.addProperty(currOption, propertyName, currOption.getDefaultValues().get(0));
             else {
-                currOption.addProperty(propertyName, value);
+                state.addProperty(currOption, propertyName, value);
             }
         }
         status = Status.NULL;
@@ -299,10 +314,10 @@ public class AeshOptionParser implements OptionParser {
 
     /**
      * Apply the fallback value when an optionalValue option is specified bare.
-     * Delegates to {@link ProcessedOption#applyOptionalFallback()}.
+     * Same as {@link ProcessedOption#applyOptionalFallback()}.
      */
-    private static void applyOptionalFallback(ProcessedOption option) {
-        option.applyOptionalFallback();
+    private void applyOptionalFallback(ProcessedOption option) {
+        state.applyOptionalFallback(option);
     }
 
     private enum Status {
@@ -128,6 +128,63 @@ public interface CommandLineParser<CI extends CommandInvocation> {
 
     void parse(ParsedLineIterator iterator, Mode mode);
 
+    /**
+     * Parse a command line in STRICT mode without storing the values in the
+     * ProcessedCommand and its options.
+     *
+     * @param line input
+     * @return the parsed values and any errors
+     * @see #parseResult(String, Mode)
+     */
+    default ParseResult parseResult(String line) {
+        return parseResult(line, Mode.STRICT);
+    }
+
+    /**
+     * Parse a command line with the same rules as {@link #parse(String, Mode)}, but without
+     * storing the values in the ProcessedCommand and its options. The same command can be
+     * parsed by several threads at once.
+     *
+     * Commands with custom option parsers, option activators or dynamic options need the
+     * values stored in their options while they are parsed, they are not supported,
+     * see {@link #supportsParseResult()}. The default implementation supports no command.
+     *
+     * @param line input
+     * @param mode parser mode, COMPLETION is not supported
+     * @return the parsed values and any errors
+     * @throws UnsupportedOperationException if the command can not be parsed without storing the values
+     */
+    default ParseResult parseResult(String line, Mode mode) {
+        throw new UnsupportedOperationException(
+                "parseResult is not supported by " + getProcessedCommand().name() + ", use parse(String, Mode)");
+    }
+
+    /**
+     * @return true if the command of this parser and its subcommands can be parsed with
+     *         {@link #parseResult(String, Mode)}
+     */
+    default boolean supportsParseResult() {
+        return false;
+    }
+
+    /**
+     * Inject the values of a ParseResult created by this parser into the command
+     * and its subcommands, the same as {@link #populateObject} does after parsing.
+     * In VALIDATE mode the first error of the result is thrown.
+     *
+     * @param result parsed values
+     * @param invocationProviders providers
+     * @param aeshContext context
+     * @param mode validate
+     * @throws CommandLineParserException parser exception
+     * @throws OptionValidatorException validator exception
+     */
+    default void populate(ParseResult result, InvocationProviders invocationProviders,
+            AeshContext aeshContext, Mode mode) throws CommandLineParserException, OptionValidatorException {
+        throw new UnsupportedOperationException(
+                "populate is not supported by " + getProcessedCommand().name() + ", use populateObject");
+    }
+
     void clear();
 
     boolean isGroupCommand();
@@ -0,0 +1,260 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.command.impl.parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.aesh.command.impl.internal.ProcessedCommand;
+import org.aesh.command.impl.internal.ProcessedOption;
+import org.aesh.command.parser.CommandLineParserException;
+
+/**
+ * The immutable result of {@link CommandLineParser#parseResult(String, CommandLineParser.Mode)}.
+ *
+ * Unlike {@link CommandLineParser#parse(String)} the parsed values are not stored in the
+ * ProcessedCommand and its options, they are only used as the schema of the command line.
+ * Several threads can create results from the same parser at the same time, the values are
+ * injected into the command with
+ * {@link CommandLineParser#populate(ParseResult, org.aesh.command.invocation.InvocationProviders,
+ * org.aesh.console.AeshContext, CommandLineParser.Mode)}.
+ *
+ * A result describes one command of the line, the result of the selected subcommand
+ * is returned by {@link #subcommand()}.
+ *
+ * @author Aesh team
+ */
+public final class ParseResult {
+
+    private final CommandLineParser<?> parser;
+    private final String line;
+    // shared by all the results of a line, inherited options are parsed into the parent's options
+    private final Map<ProcessedOption, OptionValues> values;
+    private final List<CommandLineParserException> diagnostics;
+    private final boolean selected;
+    private final ParseResult subcommand;
+
+    ParseResult(CommandLineParser<?> parser, String line, Map<ProcessedOption, OptionValues> values,
+            List<CommandLineParserException> diagnostics, boolean selected, ParseResult subcommand) {
+        this.parser = parser;
+        this.line = line;
+        this.values = values;
+        this.diagnostics = diagnostics.isEmpty() ? Collections.emptyList()
+                : Collections.unmodifiableList(new ArrayList<>(diagnostics));
+        this.selected = selected;
+        this.subcommand = subcommand;
+    }
+
+    /**
+     * @return name of the command
+     */
+    public String name() {
+        return parser.getProcessedCommand().name();
+    }
+
+    /**
+     * @return the result of the subcommand given on the line, or null
+     */
+    public ParseResult subcommand() {
+        return subcommand;
+    }
+
+    /**
+     * @return the result of the last subcommand given on the line, or this
+     */
+    public ParseResult selectedCommand() {
+        ParseResult result = this;
+        while (result.subcommand != null)
+            result = result.subcommand;
+        return result;
+    }
+
+    /**
+     * @return the names of this command and the subcommands given on the line
+     */
+    public List<String> commandPath() {
+        List<String> path = new ArrayList<>(2);
+        for (ParseResult result = this; result != null; result = result.subcommand)
+            path.add(result.name());
+        return path;
+    }
+
+    /**
+     * @param name long or short name of an option
+     * @return true if the option was given a value
+     */
+    public boolean hasOption(String name) {
+        return !values(name).isEmpty() || !properties(name).isEmpty();
+    }
+
+    /**
+     * @param name long or short name of an option
+     * @return the first value of the option, or null
+     */
+    public String value(String name) {
+        List<String> optionValues = values(name);
+        return optionValues.isEmpty() ? null : optionValues.get(0);
+    }
+
+    /**
+     * @param name long or short name of an option
+     * @return the values of the option
+     */
+    public List<String> values(String name) {
+        OptionValues optionValues = optionValues(name);
+        return optionValues != null ? optionValues.values() : Collections.emptyList();
+    }
+
+    /**
+     * @param name long or short name of a property option
+     * @return the properties given to the option
+     */
+    public Map<String, String> properties(String name) {
+        OptionValues optionValues = optionValues(name);
+        return optionValues != null ? optionValues.properties() : Collections.emptyMap();
+    }
+
+    /**
+     * @param name long or short name of a negatable option
+     * @return true if the option was given in its negated form
+     */
+    public boolean isNegated(String name) {
+        OptionValues optionValues = optionValues(name);
+        return optionValues != null && optionValues.negated;
+    }
+
+    /**
+     * @return the positional values, in the order of their indexes
+     */
+    public List<String> positionals() {
+        List<String> positionals = new ArrayList<>();
+        for (ProcessedOption positional : command().getPositionalOptionsInDisplayOrder()) {
+            OptionValues optionValues = values.get(positional);
+            if (optionValues != null)
+                positionals.addAll(optionValues.values);
+        }
+        return positionals;
+    }
+
+    /**
+     * @return the errors found when parsing this command
+     */
+    public List<CommandLineParserException> diagnostics() {
+        return diagnostics;
+    }
+
+    /**
+     * @return true if any errors were found when parsing this command or its subcommands
+     */
+    public boolean hasDiagnostics() {
+        for (ParseResult result = this; result != null; result = result.subcommand)
+            if (!result.diagnostics.isEmpty())
+                return true;
+        return false;
+    }
+
+    /**
+     * @return the line this result was parsed from
+     */
+    public String line() {
+        return line;
+    }
+
+    CommandLineParser<?> parser() {
+        return parser;
+    }
+
+    /**
+     * @return true if the options and arguments of the line were parsed by this command,
+     *         false if they were passed on to a subcommand or the subcommand was not found
+     */
+    boolean isSelected() {
+        return selected;
+    }
+
+    Map<ProcessedOption, OptionValues> optionValues() {
+        return values;
+    }
+
+    private ProcessedCommand<?, ?> command() {
+        return parser.getProcessedCommand();
+    }
+
+    private OptionValues optionValues(String name) {
+        ProcessedOption option = command().findLongOptionNoActivatorCheck(name);
+        if (option == null)
+            option = command().findOptionNoActivatorCheck(name);
+        return option != null ? values.get(option) : null;
+    }
+
+    @Override
+    public String toString() {
+        return "ParseResult{" +
+                "commandPath=" + commandPath() +
+                ", diagnostics=" + diagnostics +
+                ", subcommand=" + subcommand +
+                '}';
+    }
+
+    /**
+     * The values a line gave an option, only modified while the line is parsed.
+     */
+    static final class OptionValues {
+        private final List<String> values = new ArrayList<>(1);
+        private Map<String, String> properties = Collections.emptyMap();
+        boolean longNameUsed = true;
+        boolean negated;
+        boolean endsWithSeparator;
+
+        void addValue(String value) {
+            values.add(value);
+        }
+
+        void addProperty(String name, String value) {
+            if (properties.isEmpty())
+                properties = new LinkedHashMap<>();
+            properties.put(name, value);
+        }
+
+        List<String> values() {
+            return Collections.unmodifiableList(values);
+        }
+
+        Map<String, String> properties() {
+            return Collections.unmodifiableMap(properties);
+        }
+
+        String value() {
+            return values.isEmpty() ? null : values.get(0);
+        }
+
+        void applyTo(ProcessedOption option) {
+            option.addValues(values);
+            for (Map.Entry<String, String> property : properties.entrySet())
+                option.addProperty(property.getKey(), property.getValue());
+            option.setLongNameUsed(longNameUsed);
+            option.setNegatedByUser(negated);
+            option.setEndsWithSeparator(endsWithSeparator);
+        }
+    }
+}
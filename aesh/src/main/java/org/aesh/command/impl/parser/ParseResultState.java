@@ -0,0 +1,219 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.command.impl.parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.aesh.command.impl.activator.NullActivator;
+import org.aesh.command.impl.internal.ProcessedCommand;
+import org.aesh.command.impl.internal.ProcessedOption;
+import org.aesh.command.invocation.CommandInvocation;
+import org.aesh.command.map.MapProcessedCommand;
+import org.aesh.command.parser.CommandLineParserException;
+import org.aesh.command.parser.OptionParserException;
+import org.aesh.parser.ParsedLineIterator;
+
+/**
+ * Keeps what a single {@link CommandLineParser#parseResult(String, CommandLineParser.Mode)}
+ * call parsed, the ProcessedCommand, its options and the parsers are only read.
+ * A new instance is used for every line.
+ *
+ * @author Aesh team
+ */
+final class ParseResultState extends ParseState {
+
+    private final Map<ProcessedOption, ParseResult.OptionValues> values = new IdentityHashMap<>();
+    // the commands of the line, the last one parses the rest of it
+    private final List<Level> levels = new ArrayList<>(2);
+    private final AeshOptionParser optionParser = new AeshOptionParser(this);
+    private final Function<ProcessedOption, List<String>> valuesOf = this::values;
+    private final BiConsumer<ProcessedOption, Boolean> longNameUsed = this::setLongNameUsed;
+    private final Consumer<ProcessedOption> negated = option -> state(option).negated = true;
+
+    /**
+     * @return false if the command parses its options with a custom OptionParser, uses option
+     *         activators or has dynamic options, all of them expect the values in the options
+     */
+    static boolean supports(ProcessedCommand<?, ?> command) {
+        if (command instanceof MapProcessedCommand)
+            return false;
+        for (ProcessedOption option : command.getOptions()) {
+            if (option.hasCustomParser())
+                return false;
+            if (option.activator() != null && !(option.activator() instanceof NullActivator))
+                return false;
+        }
+        return true;
+    }
+
+    <CI extends CommandInvocation> ParseResult parse(AeshCommandLineParser<CI> parser, String line,
+            ParsedLineIterator iterator, CommandLineParser.Mode mode) {
+        levels.add(new Level(parser));
+        parser.parse(iterator, mode, this);
+        ParseResult result = null;
+        for (int i = levels.size() - 1; i >= 0; i--) {
+            Level level = levels.get(i);
+            result = new ParseResult(level.parser, line, values, level.diagnostics, level.parsed, result);
+        }
+        return result;
+    }
+
+    @Override
+    ProcessedOption search(ProcessedCommand<?, ?> command, String word) {
+        return command.searchAllOptions(word, longNameUsed, negated);
+    }
+
+    @Override
+    void parseOption(ParsedLineIterator iterator, ProcessedOption option) throws OptionParserException {
+        optionParser.parse(iterator, option);
+    }
+
+    @Override
+    List<String> values(ProcessedOption option) {
+        ParseResult.OptionValues state = values.get(option);
+        return state != null ? state.values() : Collections.emptyList();
+    }
+
+    @Override
+    String value(ProcessedOption option) {
+        ParseResult.OptionValues state = values.get(option);
+        return state != null ? state.value() : null;
+    }
+
+    @Override
+    void addValue(ProcessedOption option, String value) {
+        state(option).addValue(value);
+    }
+
+    @Override
+    void addProperty(ProcessedOption option, String name, String value) {
+        state(option).addProperty(name, value);
+    }
+
+    @Override
+    boolean isLongNameUsed(ProcessedOption option) {
+        ParseResult.OptionValues state = values.get(option);
+        return state == null || state.longNameUsed;
+    }
+
+    @Override
+    void setLongNameUsed(ProcessedOption option, boolean longNameUsed) {
+        state(option).longNameUsed = longNameUsed;
+    }
+
+    @Override
+    boolean isNegated(ProcessedOption option) {
+        ParseResult.OptionValues state = values.get(option);
+        return state != null && state.negated;
+    }
+
+    @Override
+    void setEndsWithSeparator(ProcessedOption option) {
+        state(option).endsWithSeparator = true;
+    }
+
+    @Override
+    void setCursorOption(ProcessedOption option) {
+    }
+
+    @Override
+    void setCursorValue(ProcessedOption option) {
+    }
+
+    /**
+     * Same as {@link ProcessedOption#applyOptionalFallback()}.
+     */
+    @Override
+    void applyOptionalFallback(ProcessedOption option) {
+        if (!option.isOptionalValue() || value(option) != null)
+            return;
+        String fallback = option.resolveOptionalFallback();
+        if (fallback != null)
+            addValue(option, fallback);
+    }
+
+    @Override
+    ProcessedOption positionalForNextValue(ProcessedCommand<?, ?> command) {
+        return command.getPositionalForNextValue(valuesOf);
+    }
+
+    @Override
+    int positionalValueCount(ProcessedCommand<?, ?> command) {
+        return command.getPositionalValueCount(valuesOf);
+    }
+
+    @Override
+    void addException(AeshCommandLineParser<?> parser, CommandLineParserException exception) {
+        level(parser).diagnostics.add(exception);
+    }
+
+    @Override
+    void parsed(AeshCommandLineParser<?> parser) {
+        level(parser).parsed = true;
+    }
+
+    @Override
+    void lastParsedOption(AeshCommandLineParser<?> parser, ProcessedOption option) {
+    }
+
+    @Override
+    <CI extends CommandInvocation> void parseChild(AeshCommandLineParser<CI> parser, CommandLineParser<CI> child,
+            ParsedLineIterator iterator, CommandLineParser.Mode mode) {
+        // only trees of AeshCommandLineParsers are parsed without storing the values
+        AeshCommandLineParser<CI> childParser = (AeshCommandLineParser<CI>) child;
+        level(parser).parsed = false;
+        levels.add(new Level(childParser));
+        childParser.parse(iterator, mode, this);
+    }
+
+    private ParseResult.OptionValues state(ProcessedOption option) {
+        ParseResult.OptionValues state = values.get(option);
+        if (state == null) {
+            state = new ParseResult.OptionValues();
+            values.put(option, state);
+        }
+        return state;
+    }
+
+    private Level level(AeshCommandLineParser<?> parser) {
+        for (int i = levels.size() - 1; i >= 0; i--) {
+            if (levels.get(i).parser == parser)
+                return levels.get(i);
+        }
+        throw new IllegalStateException(parser.getProcessedCommand().name() + " is not parsed by this line");
+    }
+
+    private static final class Level {
+        private final AeshCommandLineParser<?> parser;
+        private final List<CommandLineParserException> diagnostics = new ArrayList<>(0);
+        private boolean parsed;
+
+        private Level(AeshCommandLineParser<?> parser) {
+            this.parser = parser;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.command.impl.parser;
+
+import java.util.List;
+
+import org.aesh.command.impl.internal.ProcessedCommand;
+import org.aesh.command.impl.internal.ProcessedOption;
+import org.aesh.command.invocation.CommandInvocation;
+import org.aesh.command.parser.CommandLineParserException;
+import org.aesh.command.parser.OptionParserException;
+import org.aesh.parser.ParsedLineIterator;
+
+/**
+ * Where {@link AeshCommandLineParser} and {@link AeshOptionParser} keep what they parsed.
+ * <p>
+ * {@link #STORED} keeps it in the ProcessedCommand, its options and the parsers, as
+ * {@link CommandLineParser#parse(ParsedLineIterator, CommandLineParser.Mode)} does.
+ * {@link ParseResultState} keeps it for a single
+ * {@link CommandLineParser#parseResult(String, CommandLineParser.Mode)} call.
+ *
+ * @author Aesh team
+ */
+class ParseState {
+
+    static final ParseState STORED = new ParseState();
+
+    /**
+     * @return the option given by the word, how its name was given is recorded
+     */
+    ProcessedOption search(ProcessedCommand<?, ?> command, String word) {
+        return command.searchAllOptions(word);
+    }
+
+    /**
+     * Parse the values of an option found by {@link #search}.
+     */
+    void parseOption(ParsedLineIterator iterator, ProcessedOption option) throws OptionParserException {
+        option.parser().parse(iterator, option);
+    }
+
+    List<String> values(ProcessedOption option) {
+        return option.getValues();
+    }
+
+    String value(ProcessedOption option) {
+        return option.getValue();
+    }
+
+    void addValue(ProcessedOption option, String value) {
+        option.addValue(value);
+    }
+
+    void addProperty(ProcessedOption option, String name, String value) {
+        option.addProperty(name, value);
+    }
+
+    boolean isLongNameUsed(ProcessedOption option) {
+        return option.isLongNameUsed();
+    }
+
+    void setLongNameUsed(ProcessedOption option, boolean longNameUsed) {
+        option.setLongNameUsed(longNameUsed);
+    }
+
+    boolean isNegated(ProcessedOption option) {
+        return option.isNegatedByUser();
+    }
+
+    void setEndsWithSeparator(ProcessedOption option) {
+        option.setEndsWithSeparator(true);
+    }
+
+    void setCursorOption(ProcessedOption option) {
+        option.setCursorOption(true);
+    }
+
+    void setCursorValue(ProcessedOption option) {
+        option.setCursorValue(true);
+    }
+
+    void applyOptionalFallback(ProcessedOption option) {
+        option.applyOptionalFallback();
+    }
+
+    boolean isArityFull(ProcessedOption positional) {
+        return positional.getArity() != null && values(positional).size() >= positional.getArity().getMax();
+    }
+
+    ProcessedOption positionalForNextValue(ProcessedCommand<?, ?> command) {
+        return command.getPositionalForNextValue();
+    }
+
+    int positionalValueCount(ProcessedCommand<?, ?> command) {
+        return command.getPositionalValueCount();
+    }
+
+    void addException(AeshCommandLineParser<?> parser, CommandLineParserException exception) {
+        parser.getProcessedCommand().addParserException(exception);
+    }
+
+    /**
+     * The options and arguments of the line are parsed by the given parser.
+     */
+    void parsed(AeshCommandLineParser<?> parser) {
+        parser.setParsed(true);
+    }
+
+    void lastParsedOption(AeshCommandLineParser<?> parser, ProcessedOption option) {
+        parser.setLastParsedOption(option);
+    }
+
+    /**
+     * The rest of the line is parsed by a subcommand of the given parser.
+     */
+    <CI extends CommandInvocation> void parseChild(AeshCommandLineParser<CI> parser,
+            CommandLineParser<CI> child, ParsedLineIterator iterator, CommandLineParser.Mode mode) {
+        parser.setParsed(false);
+        parser.setSelectedChild(child);
+        child.parse(iterator, mode);
+    }
+}
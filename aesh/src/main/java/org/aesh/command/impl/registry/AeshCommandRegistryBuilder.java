@@ -20,6 +20,8 @@
 
 package org.aesh.command.impl.registry;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.aesh.command.Command;
@@ -34,12 +36,15 @@ import org.aesh.command.registry.CommandRegistry;
 import org.aesh.command.registry.CommandRegistryException;
 
 /**
+ * Builds a registry, the commands are registered together by {@link #create()}.
+ *
  * @author Aesh team
  */
 @SuppressWarnings("unchecked")
 public class AeshCommandRegistryBuilder<CI extends CommandInvocation> {
 
     private final MutableCommandRegistryImpl<CI> commandRegistry;
+    private final List<CommandContainer<CI>> containers = new ArrayList<>();
 
     public static <T extends CommandInvocation> AeshCommandRegistryBuilder<T> builder() {
         return new AeshCommandRegistryBuilder<>();
@@ -64,46 +69,51 @@ public class AeshCommandRegistryBuilder<CI extends CommandInvocation> {
     }
 
     public AeshCommandRegistryBuilder<CI> command(Class<? extends Command> command) throws CommandRegistryException {
-        commandRegistry.addCommand((Class<Command>) command);
+        containers.add(commandRegistry.createContainer(command));
         return this;
     }
 
+    /**
+     * Long lists of commands are created in parallel, see {@link MutableCommandRegistryImpl#addAll(List)}.
+     */
     public AeshCommandRegistryBuilder<CI> commands(Class<? extends Command>... commands) throws CommandRegistryException {
-        for (Class<? extends Command> c : commands) {
-            commandRegistry.addCommand((Class<Command>) c);
-        }
-        return this;
+        return commands(Arrays.asList(commands));
     }
 
+    /**
+     * Long lists of commands are created in parallel, see {@link MutableCommandRegistryImpl#addAll(List)}.
+     */
     public AeshCommandRegistryBuilder<CI> commands(List<Class<? extends Command>> commands) throws CommandRegistryException {
-        for (Class<? extends Command> c : commands) {
-            commandRegistry.addCommand(c);
-        }
+        containers.addAll(commandRegistry.createContainers(commands));
         return this;
     }
 
     public AeshCommandRegistryBuilder<CI> command(ProcessedCommand<Command<CI>, CI> processedCommand) {
-        commandRegistry.addCommand(new AeshCommandContainer<>(processedCommand));
+        containers.add(new AeshCommandContainer<>(processedCommand));
         return this;
     }
 
     public AeshCommandRegistryBuilder<CI> command(CommandContainer commandContainer) {
-        commandRegistry.addCommand(commandContainer);
+        containers.add(commandContainer);
         return this;
     }
 
     public AeshCommandRegistryBuilder<CI> command(CommandLineParser<CI> parser) {
-        commandRegistry.addCommand(new AeshCommandContainer<>(parser));
+        containers.add(new AeshCommandContainer<>(parser));
         return this;
     }
 
     public AeshCommandRegistryBuilder<CI> command(Command command) throws CommandRegistryException {
-        commandRegistry.addCommand(command);
+        containers.add(commandRegistry.createContainer(command));
         return this;
     }
 
+    /**
+     * Register all the commands in one change of the registry, in the order they were given.
+     */
     public CommandRegistry<CI> create() {
-        commandRegistry.applyDefaultValueProvider();
+        commandRegistry.addAllCommandContainers(containers);
+        containers.clear();
         return commandRegistry;
     }
 
@@ -0,0 +1,80 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.command.impl.registry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.aesh.command.container.CommandContainer;
+import org.aesh.command.invocation.CommandInvocation;
+
+/**
+ * The names of the registered commands, sorted to find the names starting with a
+ * given prefix with a binary search.
+ *
+ * Instances are immutable and can be shared between threads.
+ *
+ * @author Aesh team
+ */
+final class CommandNameIndex<CI extends CommandInvocation> {
+
+    private final String[] names;
+    private final List<CommandContainer<CI>> containers;
+
+    CommandNameIndex(Map<String, CommandContainer<CI>> commands) {
+        names = commands.keySet().toArray(new String[0]);
+        Arrays.sort(names);
+        List<CommandContainer<CI>> sorted = new ArrayList<>(names.length);
+        for (String name : names)
+            sorted.add(commands.get(name));
+        containers = Collections.unmodifiableList(sorted);
+    }
+
+    /**
+     * @param prefix prefix
+     * @return the containers of the commands whose name starts with the prefix, sorted by name
+     */
+    List<CommandContainer<CI>> startingWith(String prefix) {
+        if (prefix.isEmpty())
+            return containers;
+        int from = lowerBound(prefix);
+        int to = from;
+        // the names starting with the prefix follow each other
+        while (to < names.length && names[to].startsWith(prefix))
+            to++;
+        return containers.subList(from, to);
+    }
+
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = names.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (names[mid].compareTo(prefix) < 0)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+}
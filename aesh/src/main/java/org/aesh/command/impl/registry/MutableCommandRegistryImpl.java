@@ -26,6 +26,9 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
 
 import org.aesh.command.Command;
 import org.aesh.command.CommandNotFoundException;
@@ -33,7 +36,6 @@ import org.aesh.command.DefaultValueProvider;
 import org.aesh.command.container.CommandContainer;
 import org.aesh.command.container.CommandContainerBuilder;
 import org.aesh.command.impl.container.AeshCommandContainerBuilder;
-import org.aesh.command.impl.internal.ParsedCommand;
 import org.aesh.command.impl.internal.ProcessedCommand;
 import org.aesh.command.impl.parser.CommandLineParser;
 import org.aesh.command.invocation.CommandInvocation;
@@ -44,17 +46,26 @@ import org.aesh.parser.ParsedLine;
 import org.aesh.readline.completion.CompleteOperation;
 
 /**
+ * A registry that can be changed while other threads complete and execute commands.
+ * <p>
+ * The commands and aliases are kept in an immutable snapshot. Readers use the current
+ * snapshot without locking, writers copy it, apply their changes and swap it atomically,
+ * retrying when another writer swapped it first. The listeners are notified once per
+ * change, after the swap, with all the commands added or removed by the change.
+ *
  * @author Aesh team
  */
 public class MutableCommandRegistryImpl<CI extends CommandInvocation> implements MutableCommandRegistry<CI> {
 
-    private final Map<String, CommandContainer<CI>> registry = new HashMap<>();
-    private final Map<String, CommandContainer<CI>> aliases = new HashMap<>();
+    // below this many commands, creating the containers in parallel costs more than it saves
+    private static final int PARALLEL_CREATION_THRESHOLD = 64;
+
+    private final AtomicReference<Snapshot<CI>> snapshot = new AtomicReference<>(new Snapshot<>());
 
     private CommandContainerBuilder<CI> containerBuilder;
     private DefaultValueProvider defaultValueProvider;
 
-    private final List<CommandRegistrationListener> listeners = new ArrayList<>();
+    private final List<CommandRegistrationListener> listeners = new CopyOnWriteArrayList<>();
 
     public void setCommandContainerBuilder(CommandContainerBuilder<CI> containerBuilder) {
         this.containerBuilder = containerBuilder;
@@ -70,13 +81,16 @@ public class MutableCommandRegistryImpl<CI extends CommandInvocation> implements
 
     @Override
     public CommandContainer<CI> getCommand(String name, String line) throws CommandNotFoundException {
-        if (registry.containsKey(name))
-            return registry.get(name);
+        Map<String, CommandContainer<CI>> commands = snapshot.get().commands;
+        CommandContainer<CI> container = commands.get(name);
+        if (container != null)
+            return container;
         //group command
         else if (name.contains(" ")) {
             String[] names = name.split(" ");
-            if (registry.containsKey(names[0])) {
-                return registry.get(names[0]);
+            container = commands.get(names[0]);
+            if (container != null) {
+                return container;
             }
             throw new CommandNotFoundException("Command: " + names[0] + " was not found.", names[0]);
         } else
@@ -96,16 +110,15 @@ public class MutableCommandRegistryImpl<CI extends CommandInvocation> implements
     public void completeCommandName(CompleteOperation co, ParsedLine parsedLine) {
         if (parsedLine.words().isEmpty()) {
             //add all
-            for (CommandContainer<CI> command : registry.values()) {
+            for (CommandContainer<CI> command : findCommandsStartingWith("")) {
                 ProcessedCommand<? extends Command<CI>, CI> com = command.getParser().getProcessedCommand();
-                if (com.isActivated(new ParsedCommand(com)))
+                if (com.isActivated())
                     co.addCompletionCandidate(com.name());
             }
         } else {
-            for (CommandContainer<CI> command : registry.values()) {
+            for (CommandContainer<CI> command : findCommandsStartingWith(parsedLine.selectedWord().word())) {
                 ProcessedCommand<? extends Command<CI>, CI> com = command.getParser().getProcessedCommand();
-                if (com.name().startsWith(parsedLine.selectedWord().word()) &&
-                        com.isActivated(new ParsedCommand(com))) {
+                if (com.isActivated()) {
                     co.addCompletionCandidate(com.name());
                     co.setOffset(co.getCursor() - parsedLine.selectedWord().word().length());
                     if (parsedLine.selectedIndex() < parsedLine.size() - 1)
@@ -115,79 +128,170 @@ public class MutableCommandRegistryImpl<CI extends CommandInvocation> implements
         }
     }
 
+    /**
+     * The names are kept sorted for the current snapshot, only the matching commands are visited.
+     */
+    @Override
+    public List<CommandContainer<CI>> findCommandsStartingWith(String prefix) {
+        return snapshot.get().nameIndex().startingWith(prefix);
+    }
+
+    /**
+     * @return the names of the commands registered when called, later changes are not visible
+     */
     @Override
     public Set<String> getAllCommandNames() {
-        return registry.keySet();
+        return snapshot.get().names;
     }
 
     @Override
     public void addCommand(CommandContainer<CI> container) {
-        putIntoRegistry(container);
+        putIntoRegistry(Collections.singletonList(container));
     }
 
     @Override
     public void addCommand(Command command) throws CommandRegistryException {
-        try {
-            putIntoRegistry(getBuilder().create(command));
-        } catch (CommandLineParserException e) {
-            throw new CommandRegistryException(e.getMessage(), e.getCause());
-        }
+        addCommand(createContainer(command));
     }
 
     @Override
     public void addCommand(Class<? extends Command> command) throws CommandRegistryException {
-        try {
-            putIntoRegistry(getBuilder().create(command));
-        } catch (CommandLineParserException e) {
-            throw new CommandRegistryException(e.getMessage(), e.getCause());
-        }
+        addCommand(createContainer(command));
     }
 
     @Override
     public void addAllCommands(List<Command> commands) throws CommandRegistryException {
         if (commands != null) {
+            List<CommandContainer<CI>> containers = new ArrayList<>(commands.size());
             for (Command command : commands)
-                addCommand(command);
+                containers.add(createContainer(command));
+            putIntoRegistry(containers);
         }
     }
 
     @Override
     public void addAllCommandContainers(List<CommandContainer<CI>> commands) {
-        if (commands != null) {
-            for (CommandContainer<CI> command : commands)
-                addCommand(command);
+        if (commands != null)
+            putIntoRegistry(commands);
+    }
+
+    /**
+     * The containers are created before any command is registered, if one can not be
+     * created none are registered. The listeners are notified once with all the added
+     * commands. With the default container builder, long lists are created in parallel.
+     */
+    @Override
+    public void addAll(List<Class<? extends Command>> commands) throws CommandRegistryException {
+        if (commands != null)
+            putIntoRegistry(createContainers(commands));
+    }
+
+    CommandContainer<CI> createContainer(Command command) throws CommandRegistryException {
+        try {
+            return getBuilder().create(command);
+        } catch (CommandLineParserException e) {
+            throw new CommandRegistryException(e.getMessage(), e.getCause());
         }
     }
 
+    CommandContainer<CI> createContainer(Class<? extends Command> command) throws CommandRegistryException {
+        try {
+            return getBuilder().create(command);
+        } catch (CommandLineParserException e) {
+            throw new CommandRegistryException(e.getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Create the containers of the given classes, in list order. The default container
+     * builder keeps no state per command, long lists are created on all the cores.
+     * If several commands fail, the failure of the first one in the list is thrown.
+     */
+    @SuppressWarnings("unchecked")
+    List<CommandContainer<CI>> createContainers(List<Class<? extends Command>> commands)
+            throws CommandRegistryException {
+        CommandContainerBuilder<CI> builder = getBuilder();
+        List<CommandContainer<CI>> containers = new ArrayList<>(commands.size());
+        if (commands.size() < PARALLEL_CREATION_THRESHOLD || !(builder instanceof AeshCommandContainerBuilder)) {
+            for (Class<? extends Command> command : commands)
+                containers.add(createContainer(command));
+            return containers;
+        }
+        // each slot holds the container or the exception thrown while creating it
+        Object[] created = new Object[commands.size()];
+        IntStream.range(0, created.length).parallel().forEach(i -> {
+            try {
+                created[i] = builder.create(commands.get(i));
+            } catch (CommandLineParserException | RuntimeException e) {
+                created[i] = e;
+            }
+        });
+        for (Object container : created) {
+            if (container instanceof CommandLineParserException)
+                throw new CommandRegistryException(((CommandLineParserException) container).getMessage(),
+                        ((CommandLineParserException) container).getCause());
+            if (container instanceof RuntimeException)
+                throw (RuntimeException) container;
+            containers.add((CommandContainer<CI>) container);
+        }
+        return containers;
+    }
+
     @Override
     public boolean contains(String commandName) {
-        return registry.containsKey(commandName) || aliases.containsKey(commandName);
+        Snapshot<CI> current = snapshot.get();
+        return current.commands.containsKey(commandName) || current.aliases.containsKey(commandName);
 
     }
 
-    private void putIntoRegistry(CommandContainer<CI> commandContainer) {
-        if (!commandContainer.haveBuildError()
-                && !contains(commandContainer.getParser().getProcessedCommand())) {
-            registry.put(commandContainer.getParser().getProcessedCommand().name(),
-                    commandContainer);
-            ProcessedCommand<? extends Command<CI>, CI> command = commandContainer.getParser().getProcessedCommand();
-            for (String alias : command.getAliases()) {
-                aliases.put(alias, commandContainer);
+    /**
+     * Add the containers without a build error whose name and aliases are not taken,
+     * in one swap of the snapshot. The registry-level DefaultValueProvider is set on
+     * the added commands before the swap.
+     */
+    private void putIntoRegistry(List<CommandContainer<CI>> containers) {
+        List<String> added = new ArrayList<>(containers.size());
+        List<CommandContainer<CI>> addedContainers = new ArrayList<>(containers.size());
+        Snapshot<CI> current;
+        Snapshot<CI> next;
+        do {
+            added.clear();
+            addedContainers.clear();
+            current = snapshot.get();
+            Map<String, CommandContainer<CI>> commands = new HashMap<>(current.commands);
+            Map<String, CommandContainer<CI>> aliases = new HashMap<>(current.aliases);
+            for (CommandContainer<CI> commandContainer : containers) {
+                ProcessedCommand<? extends Command<CI>, CI> command = commandContainer.getParser().getProcessedCommand();
+                if (!commandContainer.haveBuildError() && !contains(commands, aliases, command)) {
+                    commands.put(command.name(), commandContainer);
+                    for (String alias : command.getAliases()) {
+                        aliases.put(alias, commandContainer);
+                    }
+                    added.add(command.name());
+                    addedContainers.add(commandContainer);
+                }
             }
-            emit(commandContainer.getParser().getProcessedCommand().name(),
-                    REGISTRATION_ACTION.ADDED);
-        }
+            if (added.isEmpty())
+                return;
+            if (defaultValueProvider != null) {
+                for (CommandContainer<CI> commandContainer : addedContainers)
+                    injectDefaultValueProvider(commandContainer.getParser());
+            }
+            next = new Snapshot<>(commands, aliases);
+        } while (!snapshot.compareAndSet(current, next));
+        emit(added, REGISTRATION_ACTION.ADDED);
     }
 
     /**
      * Apply the registry-level DefaultValueProvider to all registered commands
-     * that don't have their own per-command provider. Called after all commands
-     * have been registered and the provider has been set.
+     * that don't have their own per-command provider. Commands registered after the
+     * provider has been set get it when they are registered, this is only needed when
+     * the provider is set after the commands.
      */
     public void applyDefaultValueProvider() {
         if (defaultValueProvider == null)
             return;
-        for (CommandContainer<CI> container : registry.values()) {
+        for (CommandContainer<CI> container : snapshot.get().commands.values()) {
             injectDefaultValueProvider(container.getParser());
         }
     }
@@ -205,7 +309,8 @@ public class MutableCommandRegistryImpl<CI extends CommandInvocation> implements
         }
     }
 
-    private boolean contains(ProcessedCommand<? extends Command<CI>, CI> command) {
+    private static boolean contains(Map<String, ?> registry, Map<String, ?> aliases,
+            ProcessedCommand<?, ?> command) {
         if (registry.containsKey(command.name())) {
             return true;
         }
@@ -219,14 +324,22 @@ public class MutableCommandRegistryImpl<CI extends CommandInvocation> implements
 
     @Override
     public void removeCommand(String name) {
-        if (registry.containsKey(name)) {
-            CommandContainer<CI> container = registry.remove(name);
+        Snapshot<CI> current;
+        Snapshot<CI> next;
+        do {
+            current = snapshot.get();
+            if (!current.commands.containsKey(name))
+                return;
+            Map<String, CommandContainer<CI>> commands = new HashMap<>(current.commands);
+            Map<String, CommandContainer<CI>> aliases = new HashMap<>(current.aliases);
+            CommandContainer<CI> container = commands.remove(name);
             ProcessedCommand<? extends Command<CI>, CI> command = container.getParser().getProcessedCommand();
             for (String alias : command.getAliases()) {
                 aliases.remove(alias);
             }
-            emit(name, REGISTRATION_ACTION.REMOVED);
-        }
+            next = new Snapshot<>(commands, aliases);
+        } while (!snapshot.compareAndSet(current, next));
+        emit(Collections.singletonList(name), REGISTRATION_ACTION.REMOVED);
     }
 
     private CommandContainerBuilder<CI> getBuilder() {
@@ -237,16 +350,18 @@ public class MutableCommandRegistryImpl<CI extends CommandInvocation> implements
 
     @Override
     public CommandContainer<CI> getCommandByAlias(String alias) throws CommandNotFoundException {
-        if (aliases.containsKey(alias)) {
-            return aliases.get(alias);
+        CommandContainer<CI> container = snapshot.get().aliases.get(alias);
+        if (container != null) {
+            return container;
         } else {
             throw new CommandNotFoundException("Command: named " + alias + " was not found.", alias);
         }
     }
 
-    private void emit(String name, REGISTRATION_ACTION action) {
+    private void emit(List<String> names, REGISTRATION_ACTION action) {
+        List<String> batch = Collections.unmodifiableList(names);
         for (CommandRegistrationListener listener : listeners) {
-            listener.registrationAction(name, action);
+            listener.registrationActions(batch, action);
         }
     }
 
@@ -260,4 +375,30 @@ public class MutableCommandRegistryImpl<CI extends CommandInvocation> implements
         listeners.remove(listener);
     }
 
+    private static final class Snapshot<CI extends CommandInvocation> {
+        private final Map<String, CommandContainer<CI>> commands;
+        private final Map<String, CommandContainer<CI>> aliases;
+        private final Set<String> names;
+        // built on first use, writers swapping snapshots do not pay for it
+        private volatile CommandNameIndex<CI> nameIndex;
+
+        Snapshot() {
+            this(Collections.emptyMap(), Collections.emptyMap());
+        }
+
+        Snapshot(Map<String, CommandContainer<CI>> commands, Map<String, CommandContainer<CI>> aliases) {
+            this.commands = commands;
+            this.aliases = aliases;
+            names = Collections.unmodifiableSet(commands.keySet());
+        }
+
+        CommandNameIndex<CI> nameIndex() {
+            CommandNameIndex<CI> index = nameIndex;
+            if (index == null) {
+                index = new CommandNameIndex<>(commands);
+                nameIndex = index;
+            }
+            return index;
+        }
+    }
 }
@@ -20,8 +20,13 @@ package org.aesh.command.internal;
 import org.aesh.command.alias.AliasCommand;
 import org.aesh.command.alias.UnAliasCommand;
 import org.aesh.command.export.ExportCommand;
+import org.aesh.command.job.FgCommand;
+import org.aesh.command.job.JobsCommand;
+import org.aesh.command.job.KillCommand;
+import org.aesh.command.job.WaitCommand;
 import org.aesh.command.metadata.CommandMetadataProvider;
 import org.aesh.command.metadata.MetadataRegistry;
+import org.aesh.command.parallel.ParallelCommand;
 
 /**
  * Hand-written metadata registry for aesh's internal commands.
@@ -45,6 +50,16 @@ public final class InternalCommandMetadataRegistry implements MetadataRegistry {
                 return new UnAliasCommand.Metadata();
             case "org.aesh.command.export.ExportCommand":
                 return new ExportCommand.Metadata();
+            case "org.aesh.command.job.FgCommand":
+                return new FgCommand.Metadata();
+            case "org.aesh.command.job.JobsCommand":
+                return new JobsCommand.Metadata();
+            case "org.aesh.command.job.KillCommand":
+                return new KillCommand.Metadata();
+            case "org.aesh.command.job.WaitCommand":
+                return new WaitCommand.Metadata();
+            case "org.aesh.command.parallel.ParallelCommand":
+                return new ParallelCommand.Metadata();
             default:
                 return null;
         }
@@ -20,8 +20,11 @@
 
 package org.aesh.command.invocation;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import org.aesh.command.Command;
 import org.aesh.command.CommandException;
@@ -32,6 +35,7 @@ import org.aesh.command.parser.CommandLineParserException;
 import org.aesh.command.shell.Shell;
 import org.aesh.command.validator.CommandValidatorException;
 import org.aesh.command.validator.OptionValidatorException;
+import org.aesh.parser.LineParser;
 import org.aesh.readline.prompt.Prompt;
 import org.aesh.terminal.KeyAction;
 
@@ -137,6 +141,34 @@ public interface CommandInvocation {
             CommandValidatorException,
             IOException;
 
+    /**
+     * Build an executor that may run at the same time as other executions of the command,
+     * with its own output.
+     *
+     * @param commandName the command to build
+     * @param args the pre-tokenized arguments
+     * @param configuration the context, output and input of the command
+     * @see org.aesh.command.CommandRuntime#buildConcurrentExecutor(String, String[], CommandInvocationConfiguration)
+     * @since 3.17
+     */
+    default Executor<? extends CommandInvocation> buildConcurrentExecutor(String commandName, String[] args,
+            CommandInvocationConfiguration configuration) throws CommandNotFoundException,
+            CommandLineParserException,
+            OptionValidatorException,
+            CommandValidatorException,
+            IOException {
+        // Default fallback: reconstruct a command string and delegate, the configuration is ignored.
+        // Implementations should override to give each execution its own output.
+        // The arguments are quoted, an argument is never split or read as an operator.
+        StringBuilder sb = new StringBuilder(LineParser.quote(commandName));
+        if (args != null) {
+            for (String arg : args) {
+                sb.append(' ').append(LineParser.quote(arg));
+            }
+        }
+        return buildExecutor(sb.toString());
+    }
+
     /**
      * Print a message on console
      *
@@ -353,4 +385,58 @@ public interface CommandInvocation {
         return config.hasPipedData() || config.hasInputRedirection();
     }
 
+    // ========== Object Pipe Methods ==========
+
+    /**
+     * Write an object to the next command of a pipeline.
+     * <p>
+     * When this command is an {@link org.aesh.command.ObjectProducer} piped into an
+     * {@link org.aesh.command.ObjectConsumer}, the object is passed by reference,
+     * blocking while the next command is behind. Otherwise {@code String.valueOf(object)}
+     * is printed as a line.
+     *
+     * @param object the object, not null
+     * @return false if the next command stopped reading objects
+     * @since 3.17
+     */
+    default boolean writeObject(Object object) {
+        CommandInvocationConfiguration config = getConfiguration();
+        ObjectChannel pipe = config == null ? null : config.getObjectOutput();
+        if (pipe != null)
+            return pipe.write(object);
+        println(String.valueOf(object));
+        return true;
+    }
+
+    /**
+     * @return true if the previous command of a pipeline passes objects by reference
+     * @since 3.17
+     */
+    default boolean hasObjectInput() {
+        CommandInvocationConfiguration config = getConfiguration();
+        return config != null && config.getObjectInput() != null;
+    }
+
+    /**
+     * Read the objects written by the previous command of a pipeline.
+     * <p>
+     * When this command is an {@link org.aesh.command.ObjectConsumer} and the previous
+     * command an {@link org.aesh.command.ObjectProducer}, the stream has the objects
+     * it wrote. Otherwise the stream has the lines of the standard input as strings,
+     * and is empty without standard input.
+     *
+     * @return the objects
+     * @since 3.17
+     */
+    default Stream<Object> readObjects() {
+        CommandInvocationConfiguration config = getConfiguration();
+        ObjectChannel pipe = config == null ? null : config.getObjectInput();
+        if (pipe != null)
+            return pipe.stream();
+        java.io.InputStream stdin = getStdin();
+        if (stdin == null)
+            return Stream.empty();
+        return new BufferedReader(new InputStreamReader(stdin)).lines().map(line -> (Object) line);
+    }
+
 }
@@ -96,4 +96,20 @@ public class CommandInvocationConfiguration {
     public boolean hasPipedData() {
         return dataProvider != null;
     }
+
+    /**
+     * @return the pipe passing objects to the next command, or null
+     * @since 3.17
+     */
+    public ObjectChannel getObjectOutput() {
+        return outputDelegate == null ? null : outputDelegate.getObjectPipe();
+    }
+
+    /**
+     * @return the pipe passing objects from the previous command, or null
+     * @since 3.17
+     */
+    public ObjectChannel getObjectInput() {
+        return dataProvider == null ? null : dataProvider.getObjects();
+    }
 }
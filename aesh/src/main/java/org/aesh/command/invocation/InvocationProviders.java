@@ -22,6 +22,7 @@ package org.aesh.command.invocation;
 
 import org.aesh.command.activator.CommandActivatorProvider;
 import org.aesh.command.activator.OptionActivatorProvider;
+import org.aesh.command.completer.CompleterExecutor;
 import org.aesh.command.completer.CompleterInvocationProvider;
 import org.aesh.command.converter.ConverterInvocationProvider;
 import org.aesh.command.validator.ValidatorInvocationProvider;
@@ -40,4 +41,12 @@ public interface InvocationProviders {
     OptionActivatorProvider getOptionActivatorProvider();
 
     CommandActivatorProvider getCommandActivatorProvider();
+
+    /**
+     * @return the executor running option completers, or null to run them on the calling thread
+     * @since 3.17
+     */
+    default CompleterExecutor getCompleterExecutor() {
+        return null;
+    }
 }
@@ -0,0 +1,60 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.command.invocation;
+
+import java.util.stream.Stream;
+
+/**
+ * One end of the queue passing objects by reference between an
+ * {@link org.aesh.command.ObjectProducer} and the {@link org.aesh.command.ObjectConsumer}
+ * it is piped into, see {@link CommandInvocationConfiguration#getObjectOutput()} and
+ * {@link CommandInvocationConfiguration#getObjectInput()}.
+ * <p>
+ * Commands usually go through {@link CommandInvocation#writeObject(Object)} and
+ * {@link CommandInvocation#readObjects()} instead.
+ *
+ * @author Aesh team
+ * @since 3.17
+ */
+public interface ObjectChannel {
+
+    /**
+     * Pass an object to the next command, blocking while it is behind.
+     *
+     * @param object the object, not null
+     * @return false if the next command stopped reading or the thread is interrupted,
+     *         the object is then dropped
+     */
+    boolean write(Object object);
+
+    /**
+     * Take the next object written by the previous command, blocking until there is one.
+     *
+     * @return the next object, or null once the previous command is done and all its
+     *         objects are read, or if the thread is interrupted
+     */
+    Object read();
+
+    /**
+     * @return the objects written by the previous command, closing the stream tells it
+     *         to stop writing
+     */
+    Stream<Object> stream();
+}
@@ -0,0 +1,133 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.command.job;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.aesh.command.Command;
+import org.aesh.command.CommandDefinition;
+import org.aesh.command.CommandException;
+import org.aesh.command.CommandResult;
+import org.aesh.command.impl.internal.ProcessedCommand;
+import org.aesh.command.invocation.CommandInvocation;
+import org.aesh.command.metadata.CommandMetadataProvider;
+import org.aesh.command.parser.CommandLineParserException;
+
+/**
+ * Brings a job to the foreground: prints its command line and its output as it is written,
+ * until it finishes. Without argument, the last job is used. Interrupting {@code fg} kills the job.
+ * <p>
+ * The job is removed from the job table once it finished.
+ *
+ * @author Aesh team
+ * @since 3.17
+ */
+@CommandDefinition(name = "fg", description = "wait for a background job, showing its output")
+public class FgCommand extends JobControlCommand {
+
+    /**
+     * Create the command without a job manager, it fails with a message, job control
+     * being disabled.
+     */
+    public FgCommand() {
+        super(null);
+    }
+
+    public FgCommand(JobManager manager) {
+        super(manager);
+    }
+
+    @Override
+    public CommandResult execute(CommandInvocation commandInvocation) throws CommandException, InterruptedException {
+        if (!isEnabled(commandInvocation, "fg"))
+            return CommandResult.FAILURE;
+        Job job;
+        if (hasArguments()) {
+            List<Job> jobs = argumentJobs(commandInvocation, "fg");
+            if (jobs == null)
+                return CommandResult.FAILURE;
+            job = jobs.get(0);
+        } else {
+            job = manager().current();
+            if (job == null) {
+                commandInvocation.println("fg: no current job");
+                return CommandResult.FAILURE;
+            }
+        }
+        commandInvocation.println(job.commandLine());
+        if (job.output().discardedChars() > 0)
+            commandInvocation.println("fg: " + job.output().discardedChars() + " characters of output were discarded");
+        try {
+            while (true) {
+                String output = job.output().take(100, TimeUnit.MILLISECONDS);
+                if (!output.isEmpty())
+                    commandInvocation.print(output);
+                else if (job.isFinished())
+                    break;
+            }
+        } catch (InterruptedException e) {
+            job.kill();
+            throw e;
+        }
+        // the job may have written its last output after the previous take
+        String output = job.output().take();
+        if (!output.isEmpty())
+            commandInvocation.print(output);
+        manager().remove(job);
+        switch (job.status()) {
+            case FAILED:
+                commandInvocation.println("fg: " + job.failure());
+                return CommandResult.FAILURE;
+            case KILLED:
+                return CommandResult.INTERRUPTED;
+            default:
+                return job.result() != null ? job.result() : CommandResult.SUCCESS;
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public static final class Metadata implements CommandMetadataProvider<FgCommand> {
+
+        public Class<FgCommand> commandType() {
+            return FgCommand.class;
+        }
+
+        public FgCommand newInstance() {
+            return new FgCommand();
+        }
+
+        public boolean isGroupCommand() {
+            return false;
+        }
+
+        public Class<? extends Command>[] groupCommandClasses() {
+            return new Class[0];
+        }
+
+        public String commandName() {
+            return "fg";
+        }
+
+        public ProcessedCommand buildProcessedCommand(FgCommand instance) throws CommandLineParserException {
+            return JobControlCommand.buildProcessedCommand(instance, "fg", "wait for a background job, showing its output");
+        }
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.command.job;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.aesh.command.CommandResult;
+
+/**
+ * A command line run in the background with {@code &}.
+ *
+ * @author Aesh team
+ * @since 3.17
+ */
+public final class Job {
+
+    public enum Status {
+        /** Waiting for a thread, all the job threads are busy. */
+        QUEUED("Queued"),
+        RUNNING("Running"),
+        /** Finished, see {@link Job#result()}. */
+        DONE("Done"),
+        /** Finished with an exception, see {@link Job#failure()}. */
+        FAILED("Failed"),
+        KILLED("Killed");
+
+        private final String label;
+
+        Status(String label) {
+            this.label = label;
+        }
+
+        public String label() {
+            return label;
+        }
+
+        public boolean isFinished() {
+            return this == DONE || this == FAILED || this == KILLED;
+        }
+    }
+
+    private final int id;
+    private final String commandLine;
+    private final JobOutput output;
+    private final CountDownLatch finished = new CountDownLatch(1);
+    private volatile Status status = Status.QUEUED;
+    // set by kill on a running job, the job stays RUNNING until its thread has stopped
+    private volatile boolean killRequested;
+    private volatile CommandResult result;
+    private volatile Throwable failure;
+    private volatile long startTime;
+    private volatile long endTime;
+    private volatile Future<?> future;
+
+    Job(int id, String commandLine, JobOutput output) {
+        this.id = id;
+        this.commandLine = commandLine;
+        this.output = output;
+    }
+
+    /**
+     * @return the job number, {@code %1} for the first job
+     */
+    public int id() {
+        return id;
+    }
+
+    public String commandLine() {
+        return commandLine;
+    }
+
+    public JobOutput output() {
+        return output;
+    }
+
+    public Status status() {
+        return status;
+    }
+
+    /**
+     * @return the result of the command, or null if the job is not done
+     */
+    public CommandResult result() {
+        return result;
+    }
+
+    /**
+     * @return the exception that ended the job, or null
+     */
+    public Throwable failure() {
+        return failure;
+    }
+
+    public boolean isFinished() {
+        return status.isFinished();
+    }
+
+    /**
+     * @return true if the job finished with {@link CommandResult#SUCCESS}
+     */
+    public boolean isSuccess() {
+        return status == Status.DONE && result != null && result.isSuccess();
+    }
+
+    /**
+     * @return the running time of the job in milliseconds, up to now if it is still running
+     */
+    public long durationMs() {
+        if (startTime == 0)
+            return 0;
+        return (endTime != 0 ? endTime : System.currentTimeMillis()) - startTime;
+    }
+
+    /**
+     * Wait for the job to finish.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void await() throws InterruptedException {
+        finished.await();
+    }
+
+    /**
+     * Wait for the job to finish.
+     *
+     * @return true if the job finished in time
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        return finished.await(timeout, unit);
+    }
+
+    /**
+     * Stop the job, interrupting its thread. A queued job is killed at once, a running
+     * job is {@link Status#RUNNING} until its thread has stopped and then {@link Status#KILLED}.
+     *
+     * @return false if the job was already finished
+     */
+    public boolean kill() {
+        boolean queued;
+        synchronized (this) {
+            if (status.isFinished())
+                return false;
+            queued = status == Status.QUEUED;
+            if (queued)
+                status = Status.KILLED;
+            else
+                killRequested = true;
+        }
+        Future<?> f = future;
+        if (f != null)
+            f.cancel(true);
+        // a queued job never runs, a running one is finished when its thread sees the interrupt
+        if (queued) {
+            finish(null, null);
+            release();
+        }
+        return true;
+    }
+
+    void setFuture(Future<?> future) {
+        this.future = future;
+    }
+
+    synchronized boolean start() {
+        if (status != Status.QUEUED)
+            return false;
+        startTime = System.currentTimeMillis();
+        status = Status.RUNNING;
+        return true;
+    }
+
+    /**
+     * Record the end of the job, {@link #await()} returns only after {@link #release()}.
+     */
+    void finish(CommandResult result, Throwable failure) {
+        synchronized (this) {
+            this.result = result;
+            this.failure = failure;
+            if (killRequested)
+                status = Status.KILLED;
+            else if (status != Status.KILLED)
+                status = failure != null ? Status.FAILED : Status.DONE;
+            endTime = System.currentTimeMillis();
+        }
+        output.close();
+    }
+
+    /**
+     * Wake up the threads waiting for the job, once it is finished and reported.
+     */
+    void release() {
+        finished.countDown();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[%d]  %-8s  %s", id, status.label(), commandLine);
+    }
+}
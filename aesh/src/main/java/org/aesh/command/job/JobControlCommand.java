@@ -0,0 +1,148 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.command.job;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.aesh.command.Command;
+import org.aesh.command.completer.CompleterInvocation;
+import org.aesh.command.completer.OptionCompleter;
+import org.aesh.command.impl.internal.FieldAccessor;
+import org.aesh.command.impl.internal.OptionType;
+import org.aesh.command.impl.internal.ProcessedCommand;
+import org.aesh.command.impl.internal.ProcessedCommandBuilder;
+import org.aesh.command.impl.internal.ProcessedOption;
+import org.aesh.command.invocation.CommandInvocation;
+import org.aesh.command.option.Arguments;
+import org.aesh.command.parser.CommandLineParserException;
+import org.aesh.converter.CLConverterManager;
+
+/**
+ * Base of the built-in job control commands, taking job numbers as arguments.
+ *
+ * @author Aesh team
+ * @since 3.17
+ */
+public abstract class JobControlCommand implements Command<CommandInvocation> {
+
+    @Arguments(completer = JobCompleter.class)
+    protected List<String> arguments;
+
+    private final JobManager manager;
+
+    protected JobControlCommand(JobManager manager) {
+        this.manager = manager;
+    }
+
+    /**
+     * @return the job manager, or null if job control is disabled
+     */
+    public JobManager manager() {
+        return manager;
+    }
+
+    /**
+     * @return false, after printing an error, if the command has no job manager
+     */
+    protected boolean isEnabled(CommandInvocation invocation, String name) {
+        if (manager != null)
+            return true;
+        invocation.println(name + ": job control is not enabled");
+        return false;
+    }
+
+    /**
+     * @return the jobs given as arguments, an error is printed for each unknown job
+     *         and null is returned if there was one
+     */
+    protected List<Job> argumentJobs(CommandInvocation invocation, String name) {
+        List<Job> jobs = new ArrayList<>(arguments.size());
+        boolean unknown = false;
+        for (String argument : arguments) {
+            Job job = manager.find(argument);
+            if (job == null) {
+                invocation.println(name + ": " + argument + ": no such job");
+                unknown = true;
+            } else
+                jobs.add(job);
+        }
+        return unknown ? null : jobs;
+    }
+
+    protected boolean hasArguments() {
+        return arguments != null && !arguments.isEmpty();
+    }
+
+    private static final FieldAccessor ARGS_ACCESSOR = new FieldAccessor() {
+        @SuppressWarnings("unchecked")
+        public void set(Object inst, Object val) {
+            ((JobControlCommand) inst).arguments = (List<String>) val;
+        }
+
+        public Object get(Object inst) {
+            return ((JobControlCommand) inst).arguments;
+        }
+    };
+
+    /**
+     * Build the processed command of a job control command, used by the metadata providers.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    static ProcessedCommand buildProcessedCommand(JobControlCommand instance, String name, String description)
+            throws CommandLineParserException {
+        ProcessedOption argsOpt = ProcessedOption.createDirect(
+                null, "arguments", "",
+                String.class, "arguments", OptionType.ARGUMENTS,
+                CLConverterManager.getInstance().getConverter(String.class),
+                ARGS_ACCESSOR);
+        argsOpt.setFieldResetter(inst -> ((JobControlCommand) inst).arguments = null);
+        argsOpt.setCompleter(new JobCompleter());
+
+        ProcessedCommand pc = ((ProcessedCommandBuilder) ProcessedCommandBuilder.builder())
+                .name(name)
+                .description(description)
+                .command(instance)
+                .generateHelp(false)
+                .disableParsing(false)
+                .create();
+
+        pc.setArguments(argsOpt);
+        return pc;
+    }
+
+    public static class JobCompleter implements OptionCompleter<CompleterInvocation> {
+
+        @Override
+        public void complete(CompleterInvocation completerInvocation) {
+            if (completerInvocation.getCommand() instanceof JobControlCommand) {
+                JobManager manager = ((JobControlCommand) completerInvocation.getCommand()).manager();
+                if (manager == null)
+                    return;
+                String given = completerInvocation.getGivenCompleteValue();
+                for (Job job : manager.jobs()) {
+                    String value = "%" + job.id();
+                    if (given == null || value.startsWith(given))
+                        completerInvocation.addCompleterValue(value);
+                }
+            }
+        }
+    }
+}
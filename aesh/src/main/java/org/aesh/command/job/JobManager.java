@@ -0,0 +1,227 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.command.job;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.aesh.command.CommandExecutionListener;
+import org.aesh.command.CommandResult;
+
+/**
+ * The job table of a console, running the command lines ended by {@code &} in the
+ * background.
+ * <p>
+ * Jobs run on a bounded set of daemon threads: at most {@code maxConcurrentJobs} jobs
+ * run at the same time, the others are queued until a thread is free. The output
+ * of a job is kept in its {@link JobOutput}, and the
+ * {@link CommandExecutionListener} is called when a job finishes, before
+ * {@link Job#await()} returns.
+ * <p>
+ * Finished jobs stay in the table until they are removed by {@code fg}, or until more
+ * than {@link #MAX_FINISHED_JOBS} jobs are finished.
+ *
+ * @author Aesh team
+ * @since 3.17
+ */
+public class JobManager {
+
+    private static final Logger LOGGER = Logger.getLogger(JobManager.class.getName());
+
+    public static final int DEFAULT_MAX_CONCURRENT_JOBS = Math.max(4, Runtime.getRuntime().availableProcessors());
+    public static final int MAX_FINISHED_JOBS = 100;
+
+    private final ThreadPoolExecutor executor;
+    private final CommandExecutionListener listener;
+    private final Map<Integer, Job> jobs = new ConcurrentSkipListMap<>();
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    private final AtomicInteger threadCount = new AtomicInteger();
+
+    public JobManager() {
+        this(DEFAULT_MAX_CONCURRENT_JOBS, null);
+    }
+
+    /**
+     * @param maxConcurrentJobs maximum number of jobs running at the same time
+     * @param listener called when a job finishes, may be null
+     */
+    public JobManager(int maxConcurrentJobs, CommandExecutionListener listener) {
+        if (maxConcurrentJobs < 1)
+            throw new IllegalArgumentException("maxConcurrentJobs must be at least 1, was " + maxConcurrentJobs);
+        this.listener = listener;
+        executor = new ThreadPoolExecutor(maxConcurrentJobs, maxConcurrentJobs, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    Thread thread = new Thread(r, "aesh-job-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Run a command line in the background.
+     *
+     * @param commandLine the command line, shown by {@code jobs}
+     * @param output where the output of the job is written
+     * @param body runs the command line on the job thread
+     * @return the job
+     * @throws RejectedExecutionException if the manager is shut down
+     */
+    public Job submit(String commandLine, JobOutput output, Callable<CommandResult> body) {
+        if (executor.isShutdown())
+            throw new RejectedExecutionException("The job manager is shut down");
+        Job job = new Job(nextId.getAndIncrement(), commandLine, output);
+        jobs.put(job.id(), job);
+        purgeFinishedJobs();
+        job.setFuture(executor.submit(() -> run(job, body)));
+        return job;
+    }
+
+    private void run(Job job, Callable<CommandResult> body) {
+        if (!job.start())
+            return;
+        CommandResult result = null;
+        Throwable failure = null;
+        try {
+            result = body.call();
+        } catch (InterruptedException e) {
+            result = CommandResult.INTERRUPTED;
+        } catch (Throwable e) {
+            failure = e;
+        }
+        job.finish(result, failure);
+        // clear the interrupt of a killed job before the thread runs the next one
+        Thread.interrupted();
+        try {
+            // notify the listener before the threads waiting for the job see it finished
+            if (listener != null)
+                listener.onCommandComplete(job.commandLine(), reportedResult(job), job.durationMs());
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Command execution listener failed", e);
+        } finally {
+            job.release();
+        }
+    }
+
+    private static CommandResult reportedResult(Job job) {
+        switch (job.status()) {
+            case DONE:
+                return job.result() != null ? job.result() : CommandResult.SUCCESS;
+            case KILLED:
+                return CommandResult.INTERRUPTED;
+            default:
+                return CommandResult.FAILURE;
+        }
+    }
+
+    /**
+     * @param id the job number
+     * @return the job, or null if there is no such job
+     */
+    public Job get(int id) {
+        return jobs.get(id);
+    }
+
+    /**
+     * @param spec a job number, with or without a leading {@code %}
+     * @return the job, or null if there is no such job
+     */
+    public Job find(String spec) {
+        String number = spec.startsWith("%") ? spec.substring(1) : spec;
+        try {
+            return get(Integer.parseInt(number));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the last job submitted that is still in the table, or null
+     */
+    public Job current() {
+        Job current = null;
+        for (Job job : jobs.values())
+            current = job;
+        return current;
+    }
+
+    /**
+     * @return the jobs in the table, in the order they were submitted
+     */
+    public List<Job> jobs() {
+        return new ArrayList<>(jobs.values());
+    }
+
+    /**
+     * Remove a finished job from the table.
+     *
+     * @return false if the job is not finished or not in the table
+     */
+    public boolean remove(Job job) {
+        return job.isFinished() && jobs.remove(job.id(), job);
+    }
+
+    /**
+     * @return the number of jobs running or queued
+     */
+    public int activeJobs() {
+        int active = 0;
+        for (Job job : jobs.values())
+            if (!job.isFinished())
+                active++;
+        return active;
+    }
+
+    /**
+     * Stop accepting jobs, the running jobs are not stopped.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public boolean isShutdown() {
+        return executor.isShutdown();
+    }
+
+    private void purgeFinishedJobs() {
+        int finished = 0;
+        for (Job job : jobs.values())
+            if (job.isFinished())
+                finished++;
+        Iterator<Job> iterator = jobs.values().iterator();
+        while (finished > MAX_FINISHED_JOBS && iterator.hasNext()) {
+            if (iterator.next().isFinished()) {
+                iterator.remove();
+                finished--;
+            }
+        }
+    }
+}
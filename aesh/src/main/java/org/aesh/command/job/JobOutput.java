@@ -0,0 +1,179 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.command.job;
+
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The output of a background job, kept in a bounded buffer until it is read.
+ * <p>
+ * When the job writes more than the capacity, the oldest characters are discarded
+ * and counted by {@link #discardedChars()}. Reading takes the buffered characters.
+ *
+ * @author Aesh team
+ * @since 3.17
+ */
+public final class JobOutput extends Writer {
+
+    /** Default capacity in characters. */
+    public static final int DEFAULT_CAPACITY = 64 * 1024;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final char[] buffer;
+    private int start;
+    private int count;
+    private long discarded;
+    private boolean closed;
+
+    public JobOutput() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public JobOutput(int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("The job output capacity must be positive, was " + capacity);
+        this.buffer = new char[capacity];
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) {
+        lock.lock();
+        try {
+            for (int i = 0; i < len; i++)
+                put(cbuf[off + i]);
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) {
+        lock.lock();
+        try {
+            for (int i = 0; i < len; i++)
+                put(str.charAt(off + i));
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void put(char c) {
+        int end = start + count;
+        if (end >= buffer.length)
+            end -= buffer.length;
+        buffer[end] = c;
+        if (count < buffer.length)
+            count++;
+        else {
+            // full, the oldest character is overwritten
+            start = start + 1 == buffer.length ? 0 : start + 1;
+            discarded++;
+        }
+    }
+
+    /**
+     * @return the buffered output, removed from the buffer
+     */
+    public String take() {
+        lock.lock();
+        try {
+            return drain();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wait until output is buffered or the output is closed, then take it.
+     *
+     * @param timeout maximum time to wait
+     * @param unit unit of timeout
+     * @return the buffered output, empty if none was written in time
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public String take(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (count == 0 && !closed && nanos > 0)
+                nanos = changed.awaitNanos(nanos);
+            return drain();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private String drain() {
+        if (count == 0)
+            return "";
+        StringBuilder output = new StringBuilder(count);
+        int first = Math.min(count, buffer.length - start);
+        output.append(buffer, start, first);
+        output.append(buffer, 0, count - first);
+        start = 0;
+        count = 0;
+        return output.toString();
+    }
+
+    /**
+     * @return the number of characters discarded because the buffer was full
+     */
+    public long discardedChars() {
+        lock.lock();
+        try {
+            return discarded;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return true if the job will not write any more output
+     */
+    public boolean isClosed() {
+        lock.lock();
+        try {
+            return closed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.command.job;
+
+import java.util.List;
+
+import org.aesh.command.Command;
+import org.aesh.command.CommandDefinition;
+import org.aesh.command.CommandResult;
+import org.aesh.command.impl.internal.ProcessedCommand;
+import org.aesh.command.invocation.CommandInvocation;
+import org.aesh.command.metadata.CommandMetadataProvider;
+import org.aesh.command.parser.CommandLineParserException;
+
+/**
+ * Lists the jobs started with {@code &}, or the given jobs, with their status.
+ *
+ * @author Aesh team
+ * @since 3.17
+ */
+@CommandDefinition(name = "jobs", description = "list the background jobs")
+public class JobsCommand extends JobControlCommand {
+
+    /**
+     * Create the command without a job manager, it fails with a message, job control
+     * being disabled.
+     */
+    public JobsCommand() {
+        super(null);
+    }
+
+    public JobsCommand(JobManager manager) {
+        super(manager);
+    }
+
+    @Override
+    public CommandResult execute(CommandInvocation commandInvocation) {
+        if (!isEnabled(commandInvocation, "jobs"))
+            return CommandResult.FAILURE;
+        List<Job> jobs = hasArguments() ? argumentJobs(commandInvocation, "jobs") : manager().jobs();
+        if (jobs == null)
+            return CommandResult.FAILURE;
+        for (Job job : jobs)
+            commandInvocation.println(job.toString());
+        return CommandResult.SUCCESS;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public static final class Metadata implements CommandMetadataProvider<JobsCommand> {
+
+        public Class<JobsCommand> commandType() {
+            return JobsCommand.class;
+        }
+
+        public JobsCommand newInstance() {
+            return new JobsCommand();
+        }
+
+        public boolean isGroupCommand() {
+            return false;
+        }
+
+        public Class<? extends Command>[] groupCommandClasses() {
+            return new Class[0];
+        }
+
+        public String commandName() {
+            return "jobs";
+        }
+
+        public ProcessedCommand buildProcessedCommand(JobsCommand instance) throws CommandLineParserException {
+            return JobControlCommand.buildProcessedCommand(instance, "jobs", "list the background jobs");
+        }
+    }
+}
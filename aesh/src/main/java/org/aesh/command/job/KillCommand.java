@@ -0,0 +1,101 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.command.job;
+
+import java.util.List;
+
+import org.aesh.command.Command;
+import org.aesh.command.CommandDefinition;
+import org.aesh.command.CommandResult;
+import org.aesh.command.impl.internal.ProcessedCommand;
+import org.aesh.command.invocation.CommandInvocation;
+import org.aesh.command.metadata.CommandMetadataProvider;
+import org.aesh.command.parser.CommandLineParserException;
+
+/**
+ * Stops the given jobs, interrupting their threads. A queued job never starts.
+ *
+ * @author Aesh team
+ * @since 3.17
+ */
+@CommandDefinition(name = "kill", description = "stop background jobs")
+public class KillCommand extends JobControlCommand {
+
+    /**
+     * Create the command without a job manager, it fails with a message, job control
+     * being disabled.
+     */
+    public KillCommand() {
+        super(null);
+    }
+
+    public KillCommand(JobManager manager) {
+        super(manager);
+    }
+
+    @Override
+    public CommandResult execute(CommandInvocation commandInvocation) {
+        if (!isEnabled(commandInvocation, "kill"))
+            return CommandResult.FAILURE;
+        if (!hasArguments()) {
+            commandInvocation.println("kill: usage: kill %job...");
+            return CommandResult.FAILURE;
+        }
+        List<Job> jobs = argumentJobs(commandInvocation, "kill");
+        if (jobs == null)
+            return CommandResult.FAILURE;
+        boolean success = true;
+        for (Job job : jobs) {
+            if (!job.kill()) {
+                commandInvocation.println("kill: %" + job.id() + ": job has already finished");
+                success = false;
+            }
+        }
+        return success ? CommandResult.SUCCESS : CommandResult.FAILURE;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public static final class Metadata implements CommandMetadataProvider<KillCommand> {
+
+        public Class<KillCommand> commandType() {
+            return KillCommand.class;
+        }
+
+        public KillCommand newInstance() {
+            return new KillCommand();
+        }
+
+        public boolean isGroupCommand() {
+            return false;
+        }
+
+        public Class<? extends Command>[] groupCommandClasses() {
+            return new Class[0];
+        }
+
+        public String commandName() {
+            return "kill";
+        }
+
+        public ProcessedCommand buildProcessedCommand(KillCommand instance) throws CommandLineParserException {
+            return JobControlCommand.buildProcessedCommand(instance, "kill", "stop background jobs");
+        }
+    }
+}
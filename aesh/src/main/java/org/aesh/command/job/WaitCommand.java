@@ -0,0 +1,96 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.command.job;
+
+import java.util.List;
+
+import org.aesh.command.Command;
+import org.aesh.command.CommandDefinition;
+import org.aesh.command.CommandResult;
+import org.aesh.command.impl.internal.ProcessedCommand;
+import org.aesh.command.invocation.CommandInvocation;
+import org.aesh.command.metadata.CommandMetadataProvider;
+import org.aesh.command.parser.CommandLineParserException;
+
+/**
+ * Waits for the given jobs, or for all the jobs, to finish.
+ * Fails if one of them did not finish successfully.
+ *
+ * @author Aesh team
+ * @since 3.17
+ */
+@CommandDefinition(name = "wait", description = "wait for background jobs to finish")
+public class WaitCommand extends JobControlCommand {
+
+    /**
+     * Create the command without a job manager, it fails with a message, job control
+     * being disabled.
+     */
+    public WaitCommand() {
+        super(null);
+    }
+
+    public WaitCommand(JobManager manager) {
+        super(manager);
+    }
+
+    @Override
+    public CommandResult execute(CommandInvocation commandInvocation) throws InterruptedException {
+        if (!isEnabled(commandInvocation, "wait"))
+            return CommandResult.FAILURE;
+        List<Job> jobs = hasArguments() ? argumentJobs(commandInvocation, "wait") : manager().jobs();
+        if (jobs == null)
+            return CommandResult.FAILURE;
+        boolean success = true;
+        for (Job job : jobs) {
+            job.await();
+            success &= job.isSuccess();
+        }
+        return success ? CommandResult.SUCCESS : CommandResult.FAILURE;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public static final class Metadata implements CommandMetadataProvider<WaitCommand> {
+
+        public Class<WaitCommand> commandType() {
+            return WaitCommand.class;
+        }
+
+        public WaitCommand newInstance() {
+            return new WaitCommand();
+        }
+
+        public boolean isGroupCommand() {
+            return false;
+        }
+
+        public Class<? extends Command>[] groupCommandClasses() {
+            return new Class[0];
+        }
+
+        public String commandName() {
+            return "wait";
+        }
+
+        public ProcessedCommand buildProcessedCommand(WaitCommand instance) throws CommandLineParserException {
+            return JobControlCommand.buildProcessedCommand(instance, "wait", "wait for background jobs to finish");
+        }
+    }
+}
@@ -173,6 +173,47 @@ public class MapProcessedCommand<CI extends CommandInvocation> extends Processed
         return null;
     }
 
+    @Override
+    protected boolean hasDynamicOptions() {
+        return initialized;
+    }
+
+    // the option index only holds the static options, the dynamic options are scanned
+    @Override
+    public ProcessedOption startWithOptionNoActivatorCheck(String name) {
+        if (!initialized) {
+            return super.startWithOptionNoActivatorCheck(name);
+        }
+        for (ProcessedOption option : getOptions()) {
+            if (option.shortName() != null && name.startsWith(option.shortName())) {
+                return option;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public ProcessedOption startWithLongOptionNoActivatorCheck(String name) {
+        if (!initialized) {
+            return super.startWithLongOptionNoActivatorCheck(name);
+        }
+        ProcessedOption longestMatch = null;
+        int longestLen = -1;
+        for (ProcessedOption option : getOptions()) {
+            int matchLen = name.startsWith(option.name()) ? option.name().length() : -1;
+            for (String alias : option.getAliases()) {
+                if (name.startsWith(alias) && alias.length() > matchLen) {
+                    matchLen = alias.length();
+                }
+            }
+            if (matchLen > longestLen) {
+                longestMatch = option;
+                longestLen = matchLen;
+            }
+        }
+        return longestMatch;
+    }
+
     @Override
     public void clearOptions() {
         for (ProcessedOption processedOption : getCurrentOptions()) {
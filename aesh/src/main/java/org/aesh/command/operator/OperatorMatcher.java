@@ -0,0 +1,149 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.command.operator;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * A set of operators compiled into a lookup table on the first char of the
+ * operators and a trie for the remaining chars, finding the longest operator
+ * at a given index.
+ * Chars that can not start an operator are rejected with one table lookup.
+ *
+ * Instances are immutable and can be shared between threads.
+ *
+ * @author Aesh team
+ */
+public final class OperatorMatcher {
+
+    private static final int TABLE_SIZE = 128;
+
+    private final Set<OperatorType> operators;
+    private final Node[] firstChars = new Node[TABLE_SIZE];
+    private final int maxLength;
+
+    private OperatorMatcher(Set<OperatorType> operators) {
+        EnumSet<OperatorType> copy = EnumSet.noneOf(OperatorType.class);
+        int max = 0;
+        for (OperatorType operator : operators) {
+            copy.add(operator);
+            if (operator == OperatorType.NONE)
+                continue;
+            add(operator);
+            max = Math.max(max, operator.value().length());
+        }
+        this.operators = Collections.unmodifiableSet(copy);
+        this.maxLength = max;
+    }
+
+    /**
+     * @param operators operators
+     * @return a matcher for the given operators
+     */
+    public static OperatorMatcher compile(Set<OperatorType> operators) {
+        return new OperatorMatcher(operators == null ? EnumSet.noneOf(OperatorType.class) : operators);
+    }
+
+    /**
+     * @return the operators this matcher was compiled from
+     */
+    public Set<OperatorType> operators() {
+        return operators;
+    }
+
+    /**
+     * @return true if this matcher was compiled from the given operators
+     */
+    public boolean compiledFrom(Set<OperatorType> operators) {
+        return this.operators.equals(operators);
+    }
+
+    /**
+     * @return length of the longest operator
+     */
+    public int maxLength() {
+        return maxLength;
+    }
+
+    /**
+     * Find the longest operator that starts at the given index.
+     *
+     * @param text text
+     * @param index index
+     * @return operator or {@link OperatorType#NONE} if there are none
+     */
+    public OperatorType match(String text, int index) {
+        char c = text.charAt(index);
+        if (c >= TABLE_SIZE)
+            return OperatorType.NONE;
+        Node node = firstChars[c];
+        OperatorType found = OperatorType.NONE;
+        while (node != null) {
+            if (node.operator != null)
+                found = node.operator;
+            if (++index >= text.length())
+                break;
+            node = node.child(text.charAt(index));
+        }
+        return found;
+    }
+
+    private void add(OperatorType operator) {
+        String value = operator.value();
+        char first = value.charAt(0);
+        if (first >= TABLE_SIZE)
+            throw new IllegalArgumentException("Operator " + value + " must start with an ASCII char");
+        if (firstChars[first] == null)
+            firstChars[first] = new Node();
+        Node node = firstChars[first];
+        for (int i = 1; i < value.length(); i++)
+            node = node.addChild(value.charAt(i));
+        node.operator = operator;
+    }
+
+    private static final class Node {
+        private char[] chars = new char[0];
+        private Node[] children = new Node[0];
+        private OperatorType operator;
+
+        Node child(char c) {
+            for (int i = 0; i < chars.length; i++) {
+                if (chars[i] == c)
+                    return children[i];
+            }
+            return null;
+        }
+
+        Node addChild(char c) {
+            Node child = child(c);
+            if (child == null) {
+                child = new Node();
+                chars = Arrays.copyOf(chars, chars.length + 1);
+                children = Arrays.copyOf(children, children.length + 1);
+                chars[chars.length - 1] = c;
+                children[children.length - 1] = child;
+            }
+            return child;
+        }
+    }
+}
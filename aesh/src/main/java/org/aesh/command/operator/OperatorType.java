@@ -36,7 +36,7 @@ public enum OperatorType {
     APPEND_OUT(">>", true, true),
     APPEND_OUT_ERROR("2>>", true, true),
     REDIRECT_OUT_ALL("2>&1", true, true),
-    AMP("&", true, true),
+    AMP("&"),
     AND("&&"),
     OR("||"),
     NONE("");
@@ -0,0 +1,434 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.command.parallel;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.aesh.command.Command;
+import org.aesh.command.CommandDefinition;
+import org.aesh.command.CommandResult;
+import org.aesh.command.Execution;
+import org.aesh.command.impl.internal.FieldAccessor;
+import org.aesh.command.impl.internal.OptionType;
+import org.aesh.command.impl.internal.ProcessedCommand;
+import org.aesh.command.impl.internal.ProcessedCommandBuilder;
+import org.aesh.command.impl.internal.ProcessedOption;
+import org.aesh.command.impl.operator.OutputDelegate;
+import org.aesh.command.invocation.CommandInvocation;
+import org.aesh.command.invocation.CommandInvocationConfiguration;
+import org.aesh.command.metadata.CommandMetadataProvider;
+import org.aesh.command.option.Arguments;
+import org.aesh.command.option.Option;
+import org.aesh.command.parser.CommandLineParserException;
+import org.aesh.converter.CLConverterManager;
+
+/**
+ * Runs a command once for each input item, several at a time, like {@code xargs -P}
+ * or GNU parallel:
+ *
+ * <pre>
+ * parallel [-j jobs] [-k] [--fail-fast] command [arguments...] [::: item...]
+ * </pre>
+ *
+ * The items are the arguments given after {@code :::}, or the lines of the standard
+ * input, as in {@code cat ids | parallel fetch --id {}}. Each {@code {}} in the
+ * arguments of the command is replaced by the item, without {@code {}} the item is
+ * added as the last argument.
+ * <p>
+ * Each command is built with {@link CommandInvocation#buildConcurrentExecutor} and runs
+ * on an instance of its own, only a {@link org.aesh.command.CommandScope#PROTOTYPE} command
+ * can be run. The commands run on threads shared by all the runs of {@code parallel}.
+ * The output of each command is written once it finished, in the order
+ * they finish, or in the order of the items with {@code --keep-order}.
+ * <p>
+ * By default all the commands are run and the failures are reported at the end,
+ * with {@code --fail-fast} no command is started after the first failure.
+ * <p>
+ * The command is not added by default, add it to a command registry like any other command.
+ *
+ * @author Aesh team
+ * @since 3.17
+ */
+@CommandDefinition(name = "parallel", description = "run a command for each input item, several at a time", stopAtFirstPositional = true)
+public class ParallelCommand implements Command<CommandInvocation> {
+
+    public static final int DEFAULT_JOBS = Runtime.getRuntime().availableProcessors();
+    public static final String ITEMS_SEPARATOR = ":::";
+    public static final String PLACEHOLDER = "{}";
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+    // the number of commands running is bounded by each run, idle threads end after a minute
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "aesh-parallel-" + THREAD_COUNT.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Option(shortName = 'j', description = "number of commands run at the same time")
+    private int jobs;
+
+    @Option(shortName = 'k', name = "keep-order", hasValue = false, description = "write the output in the order of the items")
+    private boolean keepOrder;
+
+    @Option(name = "fail-fast", hasValue = false, description = "start no command after the first failure")
+    private boolean failFast;
+
+    @Arguments
+    private List<String> arguments;
+
+    @Override
+    public CommandResult execute(CommandInvocation commandInvocation) throws InterruptedException {
+        List<String> template = arguments == null ? Collections.emptyList() : arguments;
+        int separator = template.indexOf(ITEMS_SEPARATOR);
+        List<String> command = separator < 0 ? template : template.subList(0, separator);
+        if (command.isEmpty()) {
+            commandInvocation.println("parallel: usage: parallel [-j jobs] [-k] [--fail-fast] command [arguments...] "
+                    + "[::: item...]");
+            return CommandResult.FAILURE;
+        }
+        Iterator<String> items;
+        if (separator >= 0)
+            items = template.subList(separator + 1, template.size()).iterator();
+        else {
+            InputStream stdin = commandInvocation.getStdin();
+            if (stdin == null) {
+                commandInvocation.println("parallel: no items, give them after ::: or on the standard input");
+                return CommandResult.FAILURE;
+            }
+            items = new BufferedReader(new InputStreamReader(stdin)).lines()
+                    .filter(line -> !line.trim().isEmpty())
+                    .iterator();
+        }
+        int parallelism = jobs > 0 ? jobs : DEFAULT_JOBS;
+        return run(commandInvocation, command.get(0), command.subList(1, command.size()), items, parallelism);
+    }
+
+    private CommandResult run(CommandInvocation invocation, String name, List<String> args, Iterator<String> items,
+            int parallelism) throws InterruptedException {
+        // a permit is held by each item from its start until its output is written, which
+        // bounds both the running commands and the outputs waiting for their turn
+        Semaphore permits = new Semaphore(parallelism);
+        Results results = new Results(invocation, keepOrder, permits);
+        List<Future<?>> running = new ArrayList<>();
+        int started = 0;
+        String error = null;
+        try {
+            while (!(failFast && results.failures() > 0) && hasNext(items, invocation)) {
+                String item = items.next();
+                permits.acquire();
+                if (failFast && results.failures() > 0) {
+                    permits.release();
+                    break;
+                }
+                BufferOutputDelegate output = new BufferOutputDelegate();
+                Execution<? extends CommandInvocation> execution;
+                try {
+                    execution = buildExecution(invocation, name, arguments(args, item), output);
+                } catch (Exception e) {
+                    // the command can not be built for any item
+                    permits.release();
+                    error = "parallel: " + e.getMessage();
+                    break;
+                }
+                int index = started++;
+                running.removeIf(Future::isDone);
+                running.add(EXECUTOR.submit(() -> results.completed(index, runItem(execution, output, item))));
+            }
+            // wait for the running commands
+            permits.acquire(parallelism);
+        } catch (InterruptedException e) {
+            for (Future<?> future : running)
+                future.cancel(true);
+            throw e;
+        }
+        if (error != null) {
+            invocation.println(error);
+            return CommandResult.FAILURE;
+        }
+        if (results.failures() > 0) {
+            invocation.println("parallel: " + results.failures() + " of " + started + " commands failed");
+            return CommandResult.FAILURE;
+        }
+        return CommandResult.SUCCESS;
+    }
+
+    private static boolean hasNext(Iterator<String> items, CommandInvocation invocation) {
+        try {
+            return items.hasNext();
+        } catch (UncheckedIOException e) {
+            invocation.println("parallel: could not read the items: " + e.getCause().getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * @return the arguments of the command run for the item
+     */
+    static String[] arguments(List<String> args, String item) {
+        String[] itemArgs = new String[args.size()];
+        boolean placeholder = false;
+        for (int i = 0; i < args.size(); i++) {
+            String arg = args.get(i);
+            if (arg.contains(PLACEHOLDER)) {
+                placeholder = true;
+                arg = arg.replace(PLACEHOLDER, item);
+            }
+            itemArgs[i] = arg;
+        }
+        if (placeholder)
+            return itemArgs;
+        String[] appended = Arrays.copyOf(itemArgs, itemArgs.length + 1);
+        appended[itemArgs.length] = item;
+        return appended;
+    }
+
+    private static Execution<? extends CommandInvocation> buildExecution(CommandInvocation invocation, String name,
+            String[] args, BufferOutputDelegate output) throws Exception {
+        CommandInvocationConfiguration configuration = new CommandInvocationConfiguration(
+                invocation.getConfiguration().getAeshContext(), output);
+        return invocation.buildConcurrentExecutor(name, args, configuration).getNextExecution();
+    }
+
+    private static Result runItem(Execution<? extends CommandInvocation> execution, BufferOutputDelegate output,
+            String item) {
+        try {
+            CommandResult result = execution.execute();
+            return new Result(output.text(), result, result.isSuccess() ? null : "parallel: " + item + ": failed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Result(output.text(), CommandResult.INTERRUPTED, "parallel: " + item + ": interrupted");
+        } catch (Exception e) {
+            return new Result(output.text(), CommandResult.FAILURE, "parallel: " + item + ": " + e.getMessage());
+        }
+    }
+
+    private static final class Result {
+        private final String output;
+        private final CommandResult result;
+        private final String error;
+
+        Result(String output, CommandResult result, String error) {
+            this.output = output;
+            this.result = result;
+            this.error = error;
+        }
+    }
+
+    /**
+     * Writes the output of the commands as they finish, or in the order of the items.
+     */
+    private static final class Results {
+        private final CommandInvocation invocation;
+        private final boolean keepOrder;
+        private final Semaphore permits;
+        private final Map<Integer, Result> waiting = new HashMap<>();
+        private final AtomicInteger failures = new AtomicInteger();
+        private int next;
+
+        Results(CommandInvocation invocation, boolean keepOrder, Semaphore permits) {
+            this.invocation = invocation;
+            this.keepOrder = keepOrder;
+            this.permits = permits;
+        }
+
+        int failures() {
+            return failures.get();
+        }
+
+        void completed(int index, Result result) {
+            if (!result.result.isSuccess())
+                failures.incrementAndGet();
+            synchronized (this) {
+                if (!keepOrder) {
+                    write(result);
+                    return;
+                }
+                waiting.put(index, result);
+                Result ready;
+                while ((ready = waiting.remove(next)) != null) {
+                    write(ready);
+                    next++;
+                }
+            }
+        }
+
+        private void write(Result result) {
+            try {
+                if (!result.output.isEmpty())
+                    invocation.print(result.output);
+                if (result.error != null)
+                    invocation.println(result.error);
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * Keeps the output of a command until it finished, ANSI codes are kept since
+     * the output is written to the output of {@code parallel}.
+     */
+    private static final class BufferOutputDelegate extends OutputDelegate {
+        private final StringBuilder buffer = new StringBuilder();
+
+        @Override
+        protected BufferedWriter buildWriter() {
+            return null;
+        }
+
+        @Override
+        public void write(String msg) {
+            synchronized (buffer) {
+                buffer.append(msg);
+            }
+        }
+
+        @Override
+        public void close() {
+        }
+
+        String text() {
+            synchronized (buffer) {
+                return buffer.toString();
+            }
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public static final class Metadata implements CommandMetadataProvider<ParallelCommand> {
+        private static final FieldAccessor JOBS_ACCESSOR = new FieldAccessor() {
+            public void set(Object inst, Object val) {
+                ((ParallelCommand) inst).jobs = val != null ? (Integer) val : 0;
+            }
+
+            public Object get(Object inst) {
+                return ((ParallelCommand) inst).jobs;
+            }
+        };
+        private static final FieldAccessor KEEP_ORDER_ACCESSOR = new FieldAccessor() {
+            public void set(Object inst, Object val) {
+                ((ParallelCommand) inst).keepOrder = val != null && (Boolean) val;
+            }
+
+            public Object get(Object inst) {
+                return ((ParallelCommand) inst).keepOrder;
+            }
+        };
+        private static final FieldAccessor FAIL_FAST_ACCESSOR = new FieldAccessor() {
+            public void set(Object inst, Object val) {
+                ((ParallelCommand) inst).failFast = val != null && (Boolean) val;
+            }
+
+            public Object get(Object inst) {
+                return ((ParallelCommand) inst).failFast;
+            }
+        };
+        private static final FieldAccessor ARGS_ACCESSOR = new FieldAccessor() {
+            public void set(Object inst, Object val) {
+                ((ParallelCommand) inst).arguments = (List<String>) val;
+            }
+
+            public Object get(Object inst) {
+                return ((ParallelCommand) inst).arguments;
+            }
+        };
+
+        public Class<ParallelCommand> commandType() {
+            return ParallelCommand.class;
+        }
+
+        public ParallelCommand newInstance() {
+            return new ParallelCommand();
+        }
+
+        public boolean isGroupCommand() {
+            return false;
+        }
+
+        public Class<? extends Command>[] groupCommandClasses() {
+            return new Class[0];
+        }
+
+        public String commandName() {
+            return "parallel";
+        }
+
+        public ProcessedCommand buildProcessedCommand(ParallelCommand instance) throws CommandLineParserException {
+            ProcessedOption jobsOpt = ProcessedOption.createDirect(
+                    "j", "jobs", "number of commands run at the same time",
+                    Integer.class, "jobs", OptionType.NORMAL,
+                    CLConverterManager.getInstance().getConverter(Integer.class),
+                    JOBS_ACCESSOR);
+            jobsOpt.setFieldResetter(inst -> ((ParallelCommand) inst).jobs = 0);
+
+            ProcessedOption keepOrderOpt = ProcessedOption.createDirect(
+                    "k", "keep-order", "write the output in the order of the items",
+                    Boolean.class, "keepOrder", OptionType.BOOLEAN,
+                    CLConverterManager.getInstance().getConverter(Boolean.class),
+                    KEEP_ORDER_ACCESSOR);
+            keepOrderOpt.setFieldResetter(inst -> ((ParallelCommand) inst).keepOrder = false);
+
+            ProcessedOption failFastOpt = ProcessedOption.createDirect(
+                    null, "fail-fast", "start no command after the first failure",
+                    Boolean.class, "failFast", OptionType.BOOLEAN,
+                    CLConverterManager.getInstance().getConverter(Boolean.class),
+                    FAIL_FAST_ACCESSOR);
+            failFastOpt.setFieldResetter(inst -> ((ParallelCommand) inst).failFast = false);
+
+            ProcessedOption argsOpt = ProcessedOption.createDirect(
+                    null, "arguments", "",
+                    String.class, "arguments", OptionType.ARGUMENTS,
+                    CLConverterManager.getInstance().getConverter(String.class),
+                    ARGS_ACCESSOR);
+            argsOpt.setFieldResetter(inst -> ((ParallelCommand) inst).arguments = null);
+
+            ProcessedCommand pc = ((ProcessedCommandBuilder) ProcessedCommandBuilder.builder())
+                    .name("parallel")
+                    .description("run a command for each input item, several at a time")
+                    .command(instance)
+                    .generateHelp(false)
+                    .disableParsing(false)
+                    .stopAtFirstPositional(true)
+                    .create();
+
+            pc.addOption(jobsOpt);
+            pc.addOption(keepOrderOpt);
+            pc.addOption(failFastOpt);
+            pc.setArguments(argsOpt);
+            return pc;
+        }
+    }
+}
@@ -19,6 +19,8 @@
  */
 package org.aesh.command.registry;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
@@ -50,6 +52,20 @@ public interface CommandRegistry<CI extends CommandInvocation> {
      */
     interface CommandRegistrationListener {
         void registrationAction(String commandName, REGISTRATION_ACTION action);
+
+        /**
+         * Called once for the commands added or removed together, eg: by
+         * {@link MutableCommandRegistry#addAllCommands(List)}.
+         * Calls {@link #registrationAction(String, REGISTRATION_ACTION)} for each command by default.
+         *
+         * @param commandNames the names of the commands, in registration order
+         * @param action the action
+         * @since 3.17
+         */
+        default void registrationActions(List<String> commandNames, REGISTRATION_ACTION action) {
+            for (String commandName : commandNames)
+                registrationAction(commandName, action);
+        }
     }
 
     /**
@@ -95,6 +111,32 @@ public interface CommandRegistry<CI extends CommandInvocation> {
      */
     void completeCommandName(CompleteOperation completeOperation, ParsedLine parsedLine);
 
+    /**
+     * Find the commands whose name starts with the given prefix, used by the completion
+     * and the suggestions of command names.
+     *
+     * @param prefix the prefix, all the commands match an empty prefix
+     * @return the containers of the matching commands, sorted by name
+     * @since 3.17
+     */
+    default List<CommandContainer<CI>> findCommandsStartingWith(String prefix) {
+        List<String> names = new ArrayList<>();
+        for (String name : getAllCommandNames()) {
+            if (name.startsWith(prefix))
+                names.add(name);
+        }
+        Collections.sort(names);
+        List<CommandContainer<CI>> containers = new ArrayList<>(names.size());
+        for (String name : names) {
+            try {
+                containers.add(getCommand(name, ""));
+            } catch (CommandNotFoundException e) {
+                // removed in the meantime
+            }
+        }
+        return containers;
+    }
+
     /**
      * @return all specified command names
      */
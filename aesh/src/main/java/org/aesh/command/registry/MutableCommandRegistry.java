@@ -41,5 +41,25 @@ public interface MutableCommandRegistry<CI extends CommandInvocation> extends Co
 
     void addAllCommandContainers(List<CommandContainer<CI>> commands);
 
+    /**
+     * Register the given command classes, in list order.
+     * <p>
+     * The default implementation calls {@link #addCommand(Class)} for each class: the
+     * listeners are notified once per command, and if a command can not be created the
+     * commands before it in the list stay registered. {@code MutableCommandRegistryImpl}
+     * creates all the containers first and registers them as one change, the listeners
+     * are notified once and no command is registered if one can not be created.
+     *
+     * @param commands the command classes
+     * @throws CommandRegistryException if a command could not be created
+     * @since 3.17
+     */
+    default void addAll(List<Class<? extends Command>> commands) throws CommandRegistryException {
+        if (commands != null) {
+            for (Class<? extends Command> command : commands)
+                addCommand(command);
+        }
+    }
+
     void removeCommand(String name);
 }
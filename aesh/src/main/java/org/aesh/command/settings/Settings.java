@@ -27,8 +27,11 @@ import java.util.function.Supplier;
 
 import org.aesh.command.CommandExecutionListener;
 import org.aesh.command.CommandNotFoundHandler;
+import org.aesh.command.PipeFlushPolicy;
+import org.aesh.command.PipeStageExecutor;
 import org.aesh.command.activator.CommandActivatorProvider;
 import org.aesh.command.activator.OptionActivatorProvider;
+import org.aesh.command.completer.CompleterExecutor;
 import org.aesh.command.completer.CompleterInvocationProvider;
 import org.aesh.command.converter.ConverterInvocationProvider;
 import org.aesh.command.export.ExportChangeListener;
@@ -350,6 +353,124 @@ public interface Settings<CI extends CommandInvocation>
      */
     CommandExecutionListener commandExecutionListener();
 
+    /**
+     * Set the executor running the upstream stages of pipelines, shared by the
+     * runtime and the console. A default executor is created if none is set.
+     *
+     * @param executor the executor, or null for the default
+     * @since 3.17
+     */
+    void setPipeStageExecutor(PipeStageExecutor executor);
+
+    /**
+     * @return the pipe stage executor, or null
+     * @since 3.17
+     */
+    PipeStageExecutor pipeStageExecutor();
+
+    /**
+     * Run commands and pipe stages on virtual threads when the JVM supports them
+     * (Java 21+), on platform threads otherwise. Ignored for the pipe stages if a
+     * pipe stage executor is set.
+     *
+     * @param virtualThreads true to use virtual threads
+     * @since 3.17
+     */
+    void setVirtualThreads(boolean virtualThreads);
+
+    /**
+     * @return true if commands and pipe stages should run on virtual threads
+     * @since 3.17
+     */
+    boolean virtualThreads();
+
+    /**
+     * Set the capacity in bytes of the buffer between two pipeline stages.
+     *
+     * @param size the capacity, {@link org.aesh.command.impl.operator.PipeOperator#DEFAULT_BUFFER_SIZE} by default
+     * @since 3.17
+     */
+    void setPipeBufferSize(int size);
+
+    /**
+     * @return the capacity in bytes of the buffer between two pipeline stages
+     * @since 3.17
+     */
+    int pipeBufferSize();
+
+    /**
+     * Set when the output a command writes into a pipe is passed on to the next stage.
+     *
+     * @param policy the policy, {@link PipeFlushPolicy#EVERY_WRITE} by default
+     * @since 3.17
+     */
+    void setPipeFlushPolicy(PipeFlushPolicy policy);
+
+    /**
+     * @return the pipe flush policy
+     * @since 3.17
+     */
+    PipeFlushPolicy pipeFlushPolicy();
+
+    /**
+     * Run consecutive {@link org.aesh.command.StreamingCommand} stages of a pipeline
+     * on the thread of the stage before them, passing the lines with a callback.
+     *
+     * @param fusion true by default
+     * @since 3.17
+     */
+    void setPipeFusion(boolean fusion);
+
+    /**
+     * @return true if streaming pipe stages are fused
+     * @since 3.17
+     */
+    boolean pipeFusion();
+
+    /**
+     * Run option completers on the given executor, with a deadline for each completion
+     * request, instead of on the thread reading the input.
+     *
+     * @param executor the executor, or null to run completers on the calling thread
+     * @since 3.17
+     */
+    void setCompleterExecutor(CompleterExecutor executor);
+
+    /**
+     * @return the completer executor, or null
+     * @since 3.17
+     */
+    CompleterExecutor completerExecutor();
+
+    /**
+     * Run command lines ending with {@code &} as background jobs, and add the
+     * jobs, fg, wait and kill commands. When disabled they run in the foreground.
+     *
+     * @param enabled false by default
+     * @since 3.17
+     */
+    void setJobControlEnabled(boolean enabled);
+
+    /**
+     * @return true if background jobs are enabled
+     * @since 3.17
+     */
+    boolean jobControlEnabled();
+
+    /**
+     * Set the number of background jobs run at the same time, the others wait in a queue.
+     *
+     * @param maxJobs {@link org.aesh.command.job.JobManager#DEFAULT_MAX_CONCURRENT_JOBS} by default
+     * @since 3.17
+     */
+    void setMaxBackgroundJobs(int maxJobs);
+
+    /**
+     * @return the number of background jobs run at the same time
+     * @since 3.17
+     */
+    int maxBackgroundJobs();
+
     /**
      * Get sub-command mode settings.
      *
@@ -27,8 +27,11 @@ import java.util.function.Supplier;
 
 import org.aesh.command.CommandExecutionListener;
 import org.aesh.command.CommandNotFoundHandler;
+import org.aesh.command.PipeFlushPolicy;
+import org.aesh.command.PipeStageExecutor;
 import org.aesh.command.activator.CommandActivatorProvider;
 import org.aesh.command.activator.OptionActivatorProvider;
+import org.aesh.command.completer.CompleterExecutor;
 import org.aesh.command.completer.CompleterInvocationProvider;
 import org.aesh.command.converter.ConverterInvocationProvider;
 import org.aesh.command.export.ExportChangeListener;
@@ -332,6 +335,70 @@ public class SettingsBuilder<CI extends CommandInvocation> {
         return this;
     }
 
+    /**
+     * @since 3.17
+     */
+    public SettingsBuilder<CI> pipeStageExecutor(PipeStageExecutor executor) {
+        settings.setPipeStageExecutor(executor);
+        return this;
+    }
+
+    /**
+     * @since 3.17
+     */
+    public SettingsBuilder<CI> virtualThreads(boolean virtualThreads) {
+        settings.setVirtualThreads(virtualThreads);
+        return this;
+    }
+
+    /**
+     * @since 3.17
+     */
+    public SettingsBuilder<CI> pipeBufferSize(int size) {
+        settings.setPipeBufferSize(size);
+        return this;
+    }
+
+    /**
+     * @since 3.17
+     */
+    public SettingsBuilder<CI> pipeFlushPolicy(PipeFlushPolicy policy) {
+        settings.setPipeFlushPolicy(policy);
+        return this;
+    }
+
+    /**
+     * @since 3.17
+     */
+    public SettingsBuilder<CI> pipeFusion(boolean fusion) {
+        settings.setPipeFusion(fusion);
+        return this;
+    }
+
+    /**
+     * @since 3.17
+     */
+    public SettingsBuilder<CI> completerExecutor(CompleterExecutor executor) {
+        settings.setCompleterExecutor(executor);
+        return this;
+    }
+
+    /**
+     * @since 3.17
+     */
+    public SettingsBuilder<CI> enableJobControl(boolean enable) {
+        settings.setJobControlEnabled(enable);
+        return this;
+    }
+
+    /**
+     * @since 3.17
+     */
+    public SettingsBuilder<CI> maxBackgroundJobs(int maxJobs) {
+        settings.setMaxBackgroundJobs(maxJobs);
+        return this;
+    }
+
     public SettingsBuilder<CI> tailTipSuggestions(boolean enable) {
         settings.setTailTipSuggestions(enable);
         return this;
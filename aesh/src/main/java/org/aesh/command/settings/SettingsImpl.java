@@ -29,14 +29,19 @@ import java.util.function.Supplier;
 
 import org.aesh.command.CommandExecutionListener;
 import org.aesh.command.CommandNotFoundHandler;
+import org.aesh.command.PipeFlushPolicy;
+import org.aesh.command.PipeStageExecutor;
 import org.aesh.command.activator.CommandActivatorProvider;
 import org.aesh.command.activator.OptionActivatorProvider;
+import org.aesh.command.completer.CompleterExecutor;
 import org.aesh.command.completer.CompleterInvocationProvider;
 import org.aesh.command.converter.ConverterInvocationProvider;
 import org.aesh.command.export.ExportChangeListener;
+import org.aesh.command.impl.operator.PipeOperator;
 import org.aesh.command.invocation.CommandInvocation;
 import org.aesh.command.invocation.CommandInvocationProvider;
 import org.aesh.command.invocation.InvocationProviders;
+import org.aesh.command.job.JobManager;
 import org.aesh.command.registry.CommandRegistry;
 import org.aesh.command.validator.ValidatorInvocationProvider;
 import org.aesh.console.AeshContext;
@@ -106,6 +111,14 @@ public class SettingsImpl<CI extends CommandInvocation>
     private boolean enableSearchPaging;
     private boolean tailTipSuggestions;
     private CommandExecutionListener commandExecutionListener;
+    private PipeStageExecutor pipeStageExecutor;
+    private boolean virtualThreads;
+    private int pipeBufferSize = PipeOperator.DEFAULT_BUFFER_SIZE;
+    private PipeFlushPolicy pipeFlushPolicy = PipeFlushPolicy.EVERY_WRITE;
+    private boolean pipeFusion = true;
+    private CompleterExecutor completerExecutor;
+    private boolean jobControlEnabled;
+    private int maxBackgroundJobs = JobManager.DEFAULT_MAX_CONCURRENT_JOBS;
     private Supplier<Prompt> promptSupplier;
     private AliasManager aliasManager;
     private Consumer<Void> connectionClosedHandler;
@@ -163,6 +176,14 @@ public class SettingsImpl<CI extends CommandInvocation>
         setEnableSearchInPaging(baseSettings.enableSearchInPaging());
         setTailTipSuggestions(baseSettings.tailTipSuggestions());
         setCommandExecutionListener(baseSettings.commandExecutionListener());
+        setPipeStageExecutor(baseSettings.pipeStageExecutor());
+        setVirtualThreads(baseSettings.virtualThreads());
+        setPipeBufferSize(baseSettings.pipeBufferSize());
+        setPipeFlushPolicy(baseSettings.pipeFlushPolicy());
+        setPipeFusion(baseSettings.pipeFusion());
+        setCompleterExecutor(baseSettings.completerExecutor());
+        setJobControlEnabled(baseSettings.jobControlEnabled());
+        setMaxBackgroundJobs(baseSettings.maxBackgroundJobs());
         setPromptSupplier(baseSettings.promptSupplier());
         setAliasManager(baseSettings.aliasManager());
         setConnectionClosedHandler(baseSettings.connectionClosedHandler());
@@ -853,6 +874,86 @@ public class SettingsImpl<CI extends CommandInvocation>
         return commandExecutionListener;
     }
 
+    @Override
+    public void setPipeStageExecutor(PipeStageExecutor executor) {
+        this.pipeStageExecutor = executor;
+    }
+
+    @Override
+    public PipeStageExecutor pipeStageExecutor() {
+        return pipeStageExecutor;
+    }
+
+    @Override
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    @Override
+    public boolean virtualThreads() {
+        return virtualThreads;
+    }
+
+    @Override
+    public void setPipeBufferSize(int size) {
+        this.pipeBufferSize = size;
+    }
+
+    @Override
+    public int pipeBufferSize() {
+        return pipeBufferSize;
+    }
+
+    @Override
+    public void setPipeFlushPolicy(PipeFlushPolicy policy) {
+        this.pipeFlushPolicy = policy;
+    }
+
+    @Override
+    public PipeFlushPolicy pipeFlushPolicy() {
+        return pipeFlushPolicy;
+    }
+
+    @Override
+    public void setPipeFusion(boolean fusion) {
+        this.pipeFusion = fusion;
+    }
+
+    @Override
+    public boolean pipeFusion() {
+        return pipeFusion;
+    }
+
+    @Override
+    public void setCompleterExecutor(CompleterExecutor executor) {
+        this.completerExecutor = executor;
+    }
+
+    @Override
+    public CompleterExecutor completerExecutor() {
+        return completerExecutor;
+    }
+
+    @Override
+    public void setJobControlEnabled(boolean enabled) {
+        this.jobControlEnabled = enabled;
+    }
+
+    @Override
+    public boolean jobControlEnabled() {
+        return jobControlEnabled;
+    }
+
+    @Override
+    public void setMaxBackgroundJobs(int maxJobs) {
+        this.maxBackgroundJobs = maxJobs;
+    }
+
+    @Override
+    public int maxBackgroundJobs() {
+        return maxBackgroundJobs;
+    }
+
     @Override
     public void setPromptSupplier(Supplier<Prompt> supplier) {
         this.promptSupplier = supplier;
@@ -20,6 +20,7 @@
 package org.aesh.complete;
 
 import org.aesh.console.AeshContext;
+import org.aesh.parser.IncrementalLineParser;
 import org.aesh.readline.completion.CompleteOperationImpl;
 
 /**
@@ -28,6 +29,7 @@ import org.aesh.readline.completion.CompleteOperationImpl;
 public class AeshCompleteOperation extends CompleteOperationImpl {
 
     private AeshContext context;
+    private IncrementalLineParser lineParser;
 
     public AeshCompleteOperation(AeshContext context, String buffer, int cursor) {
         super(buffer, cursor);
@@ -43,4 +45,21 @@ public class AeshCompleteOperation extends CompleteOperationImpl {
         return context;
     }
 
+    /**
+     * @return the parser of the caller the buffer is tokenized with, keeping the lines of the
+     *         previous completion, or null if the buffer is tokenized from scratch
+     * @since 3.17
+     */
+    public IncrementalLineParser getLineParser() {
+        return lineParser;
+    }
+
+    /**
+     * @param lineParser the parser of the caller the buffer is tokenized with
+     * @since 3.17
+     */
+    public void setLineParser(IncrementalLineParser lineParser) {
+        this.lineParser = lineParser;
+    }
+
 }
@@ -0,0 +1,90 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.console;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.aesh.command.CommandResult;
+import org.aesh.command.Execution;
+import org.aesh.command.invocation.CommandInvocation;
+import org.aesh.terminal.utils.LoggerUtil;
+
+/**
+ * An upstream stage of a pipe chain run on a pooled thread by the {@link ProcessManager}.
+ * The pooled thread is only interrupted while it runs this stage.
+ *
+ * @author Aesh team
+ */
+final class PipeStage implements Runnable {
+
+    private static final Logger LOGGER = LoggerUtil.getLogger(PipeStage.class.getName());
+
+    private final Execution<? extends CommandInvocation> execution;
+    private final CountDownLatch finished = new CountDownLatch(1);
+    private Thread thread;
+    private boolean interrupted;
+
+    PipeStage(Execution<? extends CommandInvocation> execution) {
+        this.execution = execution;
+    }
+
+    @Override
+    public void run() {
+        synchronized (this) {
+            thread = Thread.currentThread();
+            if (interrupted)
+                thread.interrupt();
+        }
+        try {
+            execution.execute();
+        } catch (Exception e) {
+            execution.setResult(CommandResult.FAILURE);
+            LOGGER.log(Level.FINE, "Upstream pipe stage exception", e);
+        } finally {
+            synchronized (this) {
+                thread = null;
+                // do not leave the interrupt to the next stage run on this thread
+                Thread.interrupted();
+            }
+            finished.countDown();
+        }
+    }
+
+    /**
+     * Interrupt the stage, a stage not started yet is interrupted when it starts.
+     */
+    synchronized void interrupt() {
+        interrupted = true;
+        if (thread != null)
+            thread.interrupt();
+    }
+
+    /**
+     * Wait for the stage to finish.
+     *
+     * @param millis maximum time to wait
+     */
+    void await(long millis) throws InterruptedException {
+        finished.await(millis, TimeUnit.MILLISECONDS);
+    }
+}
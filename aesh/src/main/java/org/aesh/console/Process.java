@@ -36,8 +36,14 @@ import org.aesh.terminal.Connection;
 import org.aesh.terminal.tty.Signal;
 import org.aesh.terminal.utils.Config;
 import org.aesh.terminal.utils.LoggerUtil;
+import org.aesh.util.VirtualThreads;
 
 /**
+ * Runs one command execution. A process is started as its own platform thread, or with
+ * virtual threads enabled it is run by a virtual thread. In that case the Thread state of the
+ * process itself (isAlive, join) does not follow the command, {@link #interrupt()} is
+ * forwarded to the virtual thread.
+ *
  * @author Aesh team
  */
 public class Process extends Thread implements Consumer<Signal> {
@@ -48,7 +54,9 @@ public class Process extends Thread implements Consumer<Signal> {
     private final String commandLine;
     private final CommandExecutionListener executionListener;
     private volatile boolean running;
-    private List<Thread> upstreamPipeThreads;
+    // the virtual thread running this process, null when it runs as its own thread
+    private volatile Thread virtualThread;
+    private List<PipeStage> upstreamPipeStages;
 
     private static final Logger LOGGER = LoggerUtil.getLogger(Process.class.getName());
     private int pid;
@@ -70,7 +78,7 @@ public class Process extends Thread implements Consumer<Signal> {
                 if (running) {
                     // Ctrl-C interrupt : we use Thread interrupts to signal the command to stop
                     LOGGER.fine("got interrupted in Task");
-                    interrupt();
+                    thread().interrupt();
                 }
         }
     }
@@ -117,6 +125,40 @@ public class Process extends Thread implements Consumer<Signal> {
         }
     }
 
+    /**
+     * Run this process on a virtual thread instead of starting it as a thread.
+     * Requires a JVM supporting virtual threads.
+     */
+    void startOnVirtualThread() {
+        Thread thread = VirtualThreads.newVirtualThread(this, getName());
+        virtualThread = thread;
+        thread.start();
+    }
+
+    /**
+     * Interrupt the thread running this process.
+     */
+    @Override
+    public void interrupt() {
+        Thread thread = virtualThread;
+        if (thread != null)
+            thread.interrupt();
+        else
+            super.interrupt();
+    }
+
+    /**
+     * @return true if the thread running this process is alive
+     */
+    boolean isRunning() {
+        return thread().isAlive();
+    }
+
+    private Thread thread() {
+        Thread thread = virtualThread;
+        return thread != null ? thread : this;
+    }
+
     public Execution<? extends CommandInvocation> execution() {
         return execution;
     }
@@ -126,17 +168,17 @@ public class Process extends Thread implements Consumer<Signal> {
     }
 
     /**
-     * Set the upstream pipe threads that should be waited on when this process finishes.
+     * Set the upstream pipe stages that should be waited on when this process finishes.
      * Used by {@link ProcessManager} when running pipe chains concurrently.
      */
-    void setUpstreamPipeThreads(List<Thread> threads) {
-        this.upstreamPipeThreads = threads;
+    void setUpstreamPipeStages(List<PipeStage> stages) {
+        this.upstreamPipeStages = stages;
     }
 
     /**
-     * Get the upstream pipe threads, or null if this is not the last stage of a pipe chain.
+     * Get the upstream pipe stages, or null if this is not the last stage of a pipe chain.
      */
-    List<Thread> getUpstreamPipeThreads() {
-        return upstreamPipeThreads;
+    List<PipeStage> getUpstreamPipeStages() {
+        return upstreamPipeStages;
     }
 }
@@ -21,47 +21,73 @@ package org.aesh.console;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.aesh.command.CommandExecutionListener;
 import org.aesh.command.CommandResult;
 import org.aesh.command.Execution;
 import org.aesh.command.Executor;
+import org.aesh.command.PipeStageExecutor;
+import org.aesh.command.impl.operator.BackgroundOperator;
 import org.aesh.command.impl.operator.PipeOperator;
 import org.aesh.command.invocation.CommandInvocation;
+import org.aesh.command.job.Job;
+import org.aesh.command.job.JobManager;
 import org.aesh.terminal.Connection;
-import org.aesh.terminal.utils.LoggerUtil;
+import org.aesh.terminal.utils.Config;
+import org.aesh.util.VirtualThreads;
 
 /**
  * Manages command execution within the interactive console.
  * <p>
- * For pipe chains ({@code cmd1 | cmd2 | cmd3}), upstream stages are run in
- * background threads while the last stage runs as the main Process. This
+ * For pipe chains ({@code cmd1 | cmd2 | cmd3}), upstream stages are run on the
+ * shared {@link PipeStageExecutor} while the last stage runs as the main Process. This
  * enables streaming data flow with back-pressure via
  * {@link java.io.PipedOutputStream}/{@link java.io.PipedInputStream}.
+ * <p>
+ * A command line ending with {@code &} is submitted to the {@link JobManager}, when
+ * one is set, and the next command line is read without waiting for it.
  *
  * @author Aesh team
  */
 public class ProcessManager {
 
-    private static final Logger LOGGER = LoggerUtil.getLogger(ProcessManager.class.getName());
-
     private Connection conn;
     private final Console console;
     private Executor<? extends CommandInvocation> executor;
     private CommandExecutionListener executionListener;
     private String commandLine;
     private volatile Process activeProcess;
+    private final PipeStageExecutor pipeStageExecutor;
+    private final boolean virtualThreads;
+    private JobManager jobManager;
 
     public ProcessManager(Console console) {
+        this(console, new PipeStageExecutor(), false);
+    }
+
+    /**
+     * @param console the console
+     * @param pipeStageExecutor executor of the upstream pipe stages
+     * @param virtualThreads run the processes on virtual threads, if the JVM supports them
+     */
+    public ProcessManager(Console console, PipeStageExecutor pipeStageExecutor, boolean virtualThreads) {
         this.console = console;
+        this.pipeStageExecutor = pipeStageExecutor;
+        this.virtualThreads = virtualThreads && VirtualThreads.isSupported();
     }
 
     public void setExecutionListener(CommandExecutionListener listener) {
         this.executionListener = listener;
     }
 
+    /**
+     * @param jobManager runs the command lines ending with {@code &}, may be null
+     */
+    public void setJobManager(JobManager jobManager) {
+        this.jobManager = jobManager;
+    }
+
     /**
      * Returns true if there is a command process currently executing.
      * Used by ReadlineConsole to defer connection close on EOF until
@@ -69,7 +95,7 @@ public class ProcessManager {
      */
     public boolean hasActiveProcess() {
         Process p = activeProcess;
-        return p != null && p.isAlive();
+        return p != null && p.isRunning();
     }
 
     public void execute(Executor<? extends CommandInvocation> executor, Connection conn, String commandLine) {
@@ -85,24 +111,11 @@ public class ProcessManager {
 
     public void processFinished(Process process) {
         activeProcess = null;
+        stopUpstreamStages(process.getUpstreamPipeStages());
+        continueWithNext();
+    }
 
-        // Interrupt and wait for any upstream pipe threads to finish.
-        // Interrupting is needed because upstream stages may be blocked on
-        // PipedOutputStream.write() if the downstream consumer finished early.
-        List<Thread> upstreamThreads = process.getUpstreamPipeThreads();
-        if (upstreamThreads != null) {
-            for (Thread t : upstreamThreads) {
-                t.interrupt();
-            }
-            for (Thread t : upstreamThreads) {
-                try {
-                    t.join(2000);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
-            }
-        }
-
+    private void continueWithNext() {
         if (hasNext()) {
             executeNext();
         } else {
@@ -141,40 +154,111 @@ public class ProcessManager {
                 exec = next;
             }
 
-            // Run upstream stages in background threads
-            List<Thread> upstreamThreads = new ArrayList<>(pipeChain.size() - 1);
-            for (int i = 0; i < pipeChain.size() - 1; i++) {
-                Execution<? extends CommandInvocation> stage = pipeChain.get(i);
-                // Clear the preliminary result — the actual execution will set it
-                stage.setResult(null);
-                Thread t = new Thread(() -> {
-                    try {
-                        stage.execute();
-                    } catch (Exception e) {
-                        stage.setResult(CommandResult.FAILURE);
-                        LOGGER.log(Level.FINE, "Upstream pipe stage exception", e);
-                    }
-                }, "aesh-pipe-" + i);
-                t.setDaemon(true);
-                upstreamThreads.add(t);
+            if (isBackgroundJob(exec)) {
+                submitJob(pipeChain);
+                return;
             }
 
-            // Start all upstream threads
-            for (Thread t : upstreamThreads) {
-                t.start();
+            // Clear the preliminary results — the actual execution will set them
+            for (int i = 0; i < pipeChain.size() - 1; i++)
+                pipeChain.get(i).setResult(null);
+
+            // Run upstream stages in background threads
+            List<PipeStage> upstreamStages;
+            try {
+                upstreamStages = startUpstreamStages(pipeChain);
+            } catch (RejectedExecutionException e) {
+                conn.write(e.getMessage() + Config.getLineSeparator());
+                for (Execution<? extends CommandInvocation> stage : pipeChain)
+                    stage.setResult(CommandResult.FAILURE);
+                continueWithNext();
+                return;
             }
 
             // Run the last stage as the main Process
             Execution<? extends CommandInvocation> lastStage = pipeChain.get(pipeChain.size() - 1);
             Process mainProcess = new Process(this, conn, lastStage, commandLine, executionListener);
-            mainProcess.setUpstreamPipeThreads(upstreamThreads);
+            mainProcess.setUpstreamPipeStages(upstreamStages);
             activeProcess = mainProcess;
-            mainProcess.start();
+            start(mainProcess);
+        } else if (isBackgroundJob(exec)) {
+            List<Execution<? extends CommandInvocation>> chain = new ArrayList<>(1);
+            chain.add(exec);
+            submitJob(chain);
         } else {
             // Single command — run normally
             Process process = new Process(this, conn, exec, commandLine, executionListener);
             activeProcess = process;
-            process.start();
+            start(process);
         }
     }
+
+    private boolean isBackgroundJob(Execution<? extends CommandInvocation> exec) {
+        return jobManager != null && exec.getExecutable() instanceof BackgroundOperator;
+    }
+
+    /**
+     * Run the chain as a job and go on with the next command line without waiting for it.
+     */
+    private void submitJob(List<Execution<? extends CommandInvocation>> chain) {
+        Execution<? extends CommandInvocation> lastStage = chain.get(chain.size() - 1);
+        BackgroundOperator<?> background = (BackgroundOperator<?>) lastStage.getExecutable();
+        Job job = jobManager.submit(background.getCommandLine(), background.getOutput(), () -> {
+            List<PipeStage> upstreamStages = startUpstreamStages(chain);
+            try {
+                return lastStage.execute();
+            } finally {
+                stopUpstreamStages(upstreamStages);
+            }
+        });
+        // the executor only goes on when the previous executions have a result
+        for (Execution<? extends CommandInvocation> stage : chain)
+            stage.setResult(CommandResult.SUCCESS);
+        conn.write("[" + job.id() + "] " + job.commandLine() + Config.getLineSeparator());
+        continueWithNext();
+    }
+
+    private List<PipeStage> startUpstreamStages(List<Execution<? extends CommandInvocation>> pipeChain) {
+        List<PipeStage> upstreamStages = new ArrayList<>(pipeChain.size() - 1);
+        for (int i = 0; i < pipeChain.size() - 1; i++) {
+            Execution<? extends CommandInvocation> stage = pipeChain.get(i);
+            // fused stages are run by the next stage, on its thread
+            if (stage.isFused())
+                continue;
+            PipeStage upstream = new PipeStage(stage);
+            try {
+                pipeStageExecutor.submit(upstream);
+            } catch (RejectedExecutionException e) {
+                stopUpstreamStages(upstreamStages);
+                throw e;
+            }
+            upstreamStages.add(upstream);
+        }
+        return upstreamStages;
+    }
+
+    private static void stopUpstreamStages(List<PipeStage> upstreamStages) {
+        // Interrupt and wait for any upstream pipe stages to finish.
+        // Interrupting is needed because upstream stages may be blocked on
+        // PipedOutputStream.write() if the downstream consumer finished early.
+        if (upstreamStages != null) {
+            for (PipeStage stage : upstreamStages) {
+                stage.interrupt();
+            }
+            for (PipeStage stage : upstreamStages) {
+                try {
+                    stage.await(2000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    private void start(Process process) {
+        if (virtualThreads)
+            process.startOnVirtualThread();
+        else
+            process.start();
+    }
 }
@@ -36,6 +36,7 @@ import org.aesh.command.Command;
 import org.aesh.command.CommandNotFoundException;
 import org.aesh.command.CommandRuntime;
 import org.aesh.command.Executor;
+import org.aesh.command.PipeStageExecutor;
 import org.aesh.command.alias.AeshAliasManager;
 import org.aesh.command.alias.AliasCommand;
 import org.aesh.command.alias.UnAliasCommand;
@@ -51,6 +52,11 @@ import org.aesh.command.impl.context.CommandContext;
 import org.aesh.command.impl.invocation.AeshCommandInvocationBuilder;
 import org.aesh.command.impl.registry.MutableCommandRegistryImpl;
 import org.aesh.command.invocation.CommandInvocation;
+import org.aesh.command.job.FgCommand;
+import org.aesh.command.job.JobManager;
+import org.aesh.command.job.JobsCommand;
+import org.aesh.command.job.KillCommand;
+import org.aesh.command.job.WaitCommand;
 import org.aesh.command.operator.OperatorType;
 import org.aesh.command.parser.CommandLineParserException;
 import org.aesh.command.registry.CommandRegistry;
@@ -100,7 +106,9 @@ public class ReadlineConsole implements Console, Consumer<Connection> {
     private Readline readline;
     private CommandRuntime<? extends CommandInvocation> runtime;
     private final ProcessManager processManager;
+    private final PipeStageExecutor pipeStageExecutor;
     private ExportManager exportManager;
+    private JobManager jobManager;
     private final List<Function<String, Optional<String>>> preProcessors = new ArrayList<>();
 
     private static final Logger LOGGER = LoggerUtil.getLogger(ReadlineConsole.class.getName());
@@ -171,14 +179,36 @@ public class ReadlineConsole implements Console, Consumer<Connection> {
             }
         }
 
+        if (this.settings.jobControlEnabled()) {
+            jobManager = new JobManager(settings.maxBackgroundJobs(), settings.commandExecutionListener());
+            if (commandResolver.getRegistry() != null &&
+                    commandResolver.getRegistry() instanceof MutableCommandRegistry) {
+                MutableCommandRegistry registry = (MutableCommandRegistry) commandResolver.getRegistry();
+                try {
+                    registry.addCommand(new JobsCommand(jobManager));
+                    registry.addCommand(new FgCommand(jobManager));
+                    registry.addCommand(new WaitCommand(jobManager));
+                    registry.addCommand(new KillCommand(jobManager));
+                } catch (CommandRegistryException e) {
+                    LOGGER.log(Level.WARNING, "Failed to register job control commands", e);
+                }
+            }
+        }
+
         if (!this.settings.isRedrawPromptOnInterrupt()) {
             readlineFlags.put(ReadlineFlag.NO_PROMPT_REDRAW_ON_INTR, Integer.MAX_VALUE);
         }
 
         context = new DefaultAeshContext(exportManager);
 
-        processManager = new ProcessManager(this);
+        // the runtime and the process manager run the pipe stages on the same threads
+        if (settings.pipeStageExecutor() != null)
+            pipeStageExecutor = settings.pipeStageExecutor();
+        else
+            pipeStageExecutor = settings.virtualThreads() ? PipeStageExecutor.ofVirtualThreads() : new PipeStageExecutor();
+        processManager = new ProcessManager(this, pipeStageExecutor, settings.virtualThreads());
         processManager.setExecutionListener(settings.commandExecutionListener());
+        processManager.setJobManager(jobManager);
     }
 
     public void start() throws IOException {
@@ -208,6 +238,8 @@ public class ReadlineConsole implements Console, Consumer<Connection> {
             }
             if (aliasManager != null && settings.persistAlias())
                 aliasManager.persist();
+            if (jobManager != null)
+                jobManager.shutdown();
         }
     }
 
@@ -636,6 +668,8 @@ public class ReadlineConsole implements Console, Consumer<Connection> {
         shell = new ShellImpl(connection, settings.enableSearchInPaging());
         return AeshCommandRuntimeBuilder.builder()
                 .settings(settings)
+                .pipeStageExecutor(pipeStageExecutor)
+                .jobManager(jobManager)
                 .commandInvocationBuilder(new AeshCommandInvocationBuilder(shell, this))
                 .aeshContext(context)
                 .operators(EnumSet.allOf(OperatorType.class))
@@ -0,0 +1,148 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.impl.util;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A short lived cache of the names in directories, used by {@link FileLister} when a
+ * file name is completed several times in a row in the same directory.
+ * <p>
+ * The names are read with a {@link DirectoryStream}, without reading the attributes of
+ * the files, and kept sorted. A listing is used until the modification time of its
+ * directory changes or it is older than the time to live, which bounds how long a
+ * change missed by a coarse modification time can go unseen. Only the most recently
+ * used directories are kept.
+ *
+ * @author Aesh team
+ * @since 3.17
+ */
+public class DirectoryListingCache {
+
+    public static final long DEFAULT_TTL_MILLIS = 2000;
+    public static final int DEFAULT_MAX_DIRECTORIES = 8;
+
+    private static final DirectoryListingCache DEFAULT = new DirectoryListingCache(DEFAULT_TTL_MILLIS,
+            TimeUnit.MILLISECONDS, DEFAULT_MAX_DIRECTORIES);
+
+    private final long ttlNanos;
+    private final Map<Path, Listing> listings;
+    private long hits;
+    private long misses;
+
+    /**
+     * @param ttl time a listing is used at most
+     * @param unit unit of ttl
+     * @param maxDirectories maximum number of directories kept
+     */
+    public DirectoryListingCache(long ttl, TimeUnit unit, int maxDirectories) {
+        if (maxDirectories < 1)
+            throw new IllegalArgumentException("maxDirectories must be at least 1, was " + maxDirectories);
+        this.ttlNanos = unit.toNanos(ttl);
+        this.listings = new LinkedHashMap<Path, Listing>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path, Listing> eldest) {
+                return size() > maxDirectories;
+            }
+        };
+    }
+
+    /**
+     * @return the cache shared by the file completers
+     */
+    public static DirectoryListingCache getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * @param directory the directory
+     * @return the sorted names of the entries of the directory
+     * @throws IOException if the directory cannot be read
+     */
+    public String[] list(Path directory) throws IOException {
+        FileTime modified = Files.getLastModifiedTime(directory);
+        long now = System.nanoTime();
+        synchronized (this) {
+            Listing listing = listings.get(directory);
+            if (listing != null && listing.modified.equals(modified) && now - listing.created < ttlNanos) {
+                hits++;
+                return listing.names;
+            }
+            misses++;
+        }
+        String[] names = read(directory, "");
+        synchronized (this) {
+            listings.put(directory, new Listing(names, modified, now));
+        }
+        return names;
+    }
+
+    public synchronized void clear() {
+        listings.clear();
+    }
+
+    public synchronized long hits() {
+        return hits;
+    }
+
+    public synchronized long misses() {
+        return misses;
+    }
+
+    /**
+     * Read the names starting with the given prefix, the other entries are skipped
+     * before anything else is read about them.
+     *
+     * @return the sorted names
+     */
+    static String[] read(Path directory, String prefix) throws IOException {
+        List<String> names = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                entry -> entry.getFileName().toString().startsWith(prefix))) {
+            for (Path entry : stream)
+                names.add(entry.getFileName().toString());
+        }
+        String[] sorted = names.toArray(new String[0]);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    private static final class Listing {
+        private final String[] names;
+        private final FileTime modified;
+        private final long created;
+
+        Listing(String[] names, FileTime modified, long created) {
+            this.names = names;
+            this.modified = modified;
+            this.created = created;
+        }
+    }
+}
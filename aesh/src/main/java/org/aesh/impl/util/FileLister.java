@@ -20,6 +20,11 @@
 package org.aesh.impl.util;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.logging.Logger;
@@ -32,23 +37,48 @@ import org.aesh.terminal.utils.Parser;
 
 /**
  * Helper class to list possible files during a complete operation.
+ * <p>
+ * The names are matched before anything is read about the files, only the
+ * candidates are checked for being directories. When more than
+ * {@code maxCandidates} names match, the first ones in sorted order are kept
+ * together with the last one, so the candidates still have the common prefix of
+ * all the matching names.
  *
  * @author Aesh team
  */
 public class FileLister {
 
+    public static final int DEFAULT_MAX_CANDIDATES = 1000;
+
     private final String token;
     private final Resource cwd;
+    private final DirectoryListingCache listingCache;
+    private final int maxCandidates;
 
     private static final Logger LOGGER = LoggerUtil.getLogger(FileLister.class.getName());
 
     public FileLister(String token, Resource cwd) {
+        this(token, cwd, DirectoryListingCache.getDefault(), DEFAULT_MAX_CANDIDATES);
+    }
+
+    /**
+     * @param token the value to complete
+     * @param cwd the current working directory
+     * @param listingCache the cache of the directory listings, or null to read the directory every time
+     * @param maxCandidates the maximum number of candidates
+     * @since 3.17
+     */
+    public FileLister(String token, Resource cwd, DirectoryListingCache listingCache, int maxCandidates) {
         if (token == null)
             throw new IllegalArgumentException("Incoming directory cannot be null");
         if (cwd == null)
             throw new IllegalArgumentException("Current working directory cannot be null");
         this.token = Parser.switchEscapedSpacesToSpacesInWord(token);
         this.cwd = cwd;
+        if (maxCandidates < 2)
+            throw new IllegalArgumentException("maxCandidates must be at least 2, was " + maxCandidates);
+        this.listingCache = listingCache;
+        this.maxCandidates = maxCandidates;
     }
 
     @Override
@@ -74,37 +104,61 @@ public class FileLister {
 
         final File f = new File(translated);
         final File dir;
+        final String prefix;
         if (translated.endsWith(File.separator)) {
             dir = f;
+            prefix = "";
         } else {
             dir = f.getParentFile();
+            prefix = f.getName();
         }
 
-        final File[] entries = (dir == null) ? new File[0] : dir.listFiles();
-        return matchFiles(buffer, translated, entries, candidates);
-    }
-
-    private int matchFiles(String buffer, String translated, File[] entries, List<String> candidates) {
-        if (entries == null) {
-            return -1;
-        }
-
-        boolean isDirectory = false;
-        for (int i = 0; i < entries.length; i++) {
-            if (entries[i].getAbsolutePath().startsWith(translated)) {
-                isDirectory = entries[i].isDirectory();
-                if (isDirectory) {
-                    candidates.add(entries[i].getName() + File.separator);
+        if (dir != null) {
+            Path directory;
+            String[] names;
+            int from;
+            int to;
+            try {
+                directory = dir.toPath();
+                if (listingCache != null) {
+                    names = listingCache.list(directory);
+                    from = firstStartingWith(names, prefix);
+                    to = from;
+                    while (to < names.length && names[to].startsWith(prefix))
+                        to++;
                 } else {
-                    candidates.add(entries[i].getName());
+                    names = DirectoryListingCache.read(directory, prefix);
+                    from = 0;
+                    to = names.length;
                 }
+            } catch (IOException | InvalidPathException e) {
+                return -1;
             }
+            if (to - from > maxCandidates) {
+                addCandidates(directory, names, from, from + maxCandidates - 1, candidates);
+                addCandidates(directory, names, to - 1, to, candidates);
+            } else
+                addCandidates(directory, names, from, to, candidates);
         }
         // inline only the subpath from last File.separator or 0.
         int index = buffer.lastIndexOf(File.separatorChar) + 1;
         return index;
     }
 
+    private static int firstStartingWith(String[] sortedNames, String prefix) {
+        int index = Arrays.binarySearch(sortedNames, prefix);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private static void addCandidates(Path directory, String[] names, int from, int to, List<String> candidates) {
+        for (int i = from; i < to; i++) {
+            if (Files.isDirectory(directory.resolve(names[i])))
+                candidates.add(names[i] + File.separator);
+            else
+                candidates.add(names[i]);
+        }
+    }
+
     private static String escapeQuotes(String name) {
         StringBuilder escaped = new StringBuilder();
         for (int i = 0; i < name.length(); ++i) {
@@ -0,0 +1,61 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.parser;
+
+import java.util.List;
+import java.util.Set;
+
+import org.aesh.command.operator.OperatorMatcher;
+import org.aesh.command.operator.OperatorType;
+
+/**
+ * Parses the successive texts of one caller, such as the buffer of a console while it is
+ * edited, only the text changed since the previous parse is tokenized again.
+ * <p>
+ * The previous lines are kept by this object, not by the parser or runtime using it.
+ * It is not thread safe, each caller keeps its own.
+ *
+ * @author Aesh team
+ * @since 3.17
+ */
+public final class IncrementalLineParser {
+
+    private final LineParser lineParser = new LineParser();
+    private ParsedLine lastLine;
+    private List<ParsedLine> lastLines;
+
+    /**
+     * @see LineParser#parseLine(ParsedLine, String, int, boolean)
+     */
+    public ParsedLine parseLine(String text, int cursor, boolean parseCurlyAndSquareBrackets) {
+        lastLine = lineParser.parseLine(lastLine, text, cursor, parseCurlyAndSquareBrackets);
+        return lastLine;
+    }
+
+    /**
+     * @see LineParser#parseLine(List, String, int, boolean, Set)
+     */
+    public List<ParsedLine> parseLine(String text, int cursor, boolean parseCurlyAndSquareBrackets,
+            OperatorMatcher operatorMatcher, Set<OperatorType> operators) {
+        lastLines = lineParser.operatorMatcher(operatorMatcher)
+                .parseLine(lastLines, text, cursor, parseCurlyAndSquareBrackets, operators);
+        return lastLines;
+    }
+}
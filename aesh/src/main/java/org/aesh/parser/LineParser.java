@@ -25,9 +25,17 @@ import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
 
+import org.aesh.command.operator.OperatorMatcher;
 import org.aesh.command.operator.OperatorType;
 
 /**
+ * Split up a line into words and, if operators are given, into several lines.
+ *
+ * In zero copy mode the parser recycles its ParsedLine and ParsedWord instances
+ * and the words are views over the given input, a word is only copied when escapes
+ * or quotes changed its content. The lines and words returned are only valid until
+ * the next parse or {@link #reset()} of the same parser instance.
+ *
  * @author Aesh team
  */
 public class LineParser {
@@ -41,6 +49,9 @@ public class LineParser {
     private static final char CURLY_END = '}';
     private static final char PARENTHESIS_START = '(';
     private static final char PARENTHESIS_END = ')';
+    // the characters quote(String) does not give as they are
+    private static final String QUOTED_CHARS = " \t\\'\"{}()[]";
+    private static final String OPERATOR_CHARS = "|&;<>";
 
     private List<ParsedWord> textList = new ArrayList<>();
     private boolean haveEscape = false;
@@ -49,7 +60,7 @@ public class LineParser {
     private boolean ternaryQuote = false;
     private boolean haveCurlyBracket = false;
     private boolean haveSquareBracket = false;
-    private StringBuilder builder = new StringBuilder();
+    private final StringBuilder builder = new StringBuilder();
     private char prev = NULL_CHAR;
     private int index = 0;
     private int cursorWord = -1;
@@ -59,8 +70,20 @@ public class LineParser {
     private int cursor = -1;
     private boolean parseBrackets;
     private EnumSet<OperatorType> operators;
+    private OperatorMatcher operatorMatcher;
     private OperatorType currentOperator;
     private int startIndex;
+    private String source;
+
+    private boolean zeroCopy;
+    //recycled instances, only used in zero copy mode
+    private final List<ParsedWord> wordPool = new ArrayList<>();
+    private final List<ParsedLine> linePool = new ArrayList<>();
+    private final List<List<ParsedWord>> wordListPool = new ArrayList<>();
+    private final List<ParsedLine> parsedLines = new ArrayList<>();
+    private int usedWords;
+    private int usedLines;
+    private int usedWordLists;
 
     public LineParser input(String text) {
         this.text = text;
@@ -82,6 +105,33 @@ public class LineParser {
         return this;
     }
 
+    /**
+     * Use a matcher that is already compiled, parsing with the same operators as the
+     * matcher is compiled from will not compile them again.
+     *
+     * @param operatorMatcher compiled operators
+     * @return this parser
+     */
+    public LineParser operatorMatcher(OperatorMatcher operatorMatcher) {
+        this.operatorMatcher = operatorMatcher;
+        return this;
+    }
+
+    /**
+     * Enable zero copy mode, the returned lines and words are recycled on the next parse.
+     *
+     * @param zeroCopy true to enable
+     * @return this parser
+     */
+    public LineParser zeroCopy(boolean zeroCopy) {
+        this.zeroCopy = zeroCopy;
+        return this;
+    }
+
+    public boolean isZeroCopy() {
+        return zeroCopy;
+    }
+
     public ParsedLine parse() {
         if (text != null)
             return parseLine(text, cursor, parseBrackets);
@@ -115,12 +165,53 @@ public class LineParser {
         reset();
         if (cursor > text.length())
             cursor = text.length();
-        return doParseLine(text, cursor, parseCurlyAndSquareBrackets);
+        source = text;
+        return doParseLine(text, cursor, parseCurlyAndSquareBrackets, 0);
     }
 
-    private ParsedLine doParseLine(String text, int cursor, boolean parseCurlyAndSquareBrackets) {
+    /**
+     * Parse text that is the result of an edit of the text of a previous parse.
+     * The index of the edit is found by comparing the previous text with the new one.
+     *
+     * @see #parseLine(ParsedLine, int, String, int, boolean)
+     */
+    public ParsedLine parseLine(ParsedLine previous, String text, int cursor, boolean parseCurlyAndSquareBrackets) {
+        return parseLine(previous, previous != null ? firstDifference(previous.source(), text) : 0,
+                text, cursor, parseCurlyAndSquareBrackets);
+    }
+
+    /**
+     * Parse text that is the result of an edit of the text of a previous parse.
+     * The words of the previous parse that end before the edit and are followed by a space
+     * are reused, only the text after them is tokenized again. The result is the same as
+     * a full parse of the text.
+     * The previous line must have been parsed with the same settings, in zero copy mode
+     * a full parse is always done.
+     *
+     * @param previous the result of the previous parse
+     * @param editIndex index of the first char that differ from the previous text,
+     *        for an insert or delete at the cursor it is the cursor position before the
+     *        insert or after the delete
+     * @param text the edited text
+     * @param cursor cursor
+     * @param parseCurlyAndSquareBrackets parse curly and square brackets
+     * @return the parsed line
+     */
+    public ParsedLine parseLine(ParsedLine previous, int editIndex, String text, int cursor,
+            boolean parseCurlyAndSquareBrackets) {
+        if (previous == null || previous.source() == null || zeroCopy)
+            return parseLine(text, cursor, parseCurlyAndSquareBrackets);
+        reset();
+        if (cursor > text.length())
+            cursor = text.length();
+        source = text;
+        int from = resumeLine(previous, 0, editLimit(previous.source(), editIndex, text, cursor));
+        return doParseLine(text, cursor, parseCurlyAndSquareBrackets, from);
+    }
+
+    private ParsedLine doParseLine(String text, int cursor, boolean parseCurlyAndSquareBrackets, int from) {
         char c;
-        for (index = 0; index < text.length();) {
+        for (index = from; index < text.length();) {
             c = text.charAt(index);
             //if the previous char was a space, there is no word "connected" to cursor
             if (cursor == index && (prev != SPACE_CHAR || haveEscape)) {
@@ -153,29 +244,108 @@ public class LineParser {
             prev = c;
             index++;
         }
-        return endOfLineProcessing(text, cursor, 0, text.length());
+        return endOfLineProcessing(cursor, 0, text.length());
     }
 
     public List<ParsedLine> parseLine(String text, int cursor, boolean parseCurlyAndSquareBrackets,
             Set<OperatorType> operators) {
         if (operators == null || operators.size() == 0) {
-            List<ParsedLine> lines = new ArrayList<>();
-            lines.add(parseLine(text, cursor, parseCurlyAndSquareBrackets));
+            ParsedLine line = parseLine(text, cursor, parseCurlyAndSquareBrackets);
+            List<ParsedLine> lines = newLineList();
+            lines.add(line);
             return lines;
         } else {
             //first reset all values
             reset();
+            source = text;
             currentOperator = null;
             startIndex = 0;
-            return doParseLine(text, cursor, parseCurlyAndSquareBrackets, operators);
+            compileOperators(operators);
+            return doParseLine(text, cursor, parseCurlyAndSquareBrackets, newLineList(), 0);
+        }
+    }
+
+    /**
+     * Parse text that is the result of an edit of the text of a previous parse.
+     * The index of the edit is found by comparing the previous text with the new one.
+     *
+     * @see #parseLine(List, int, String, int, boolean, Set)
+     */
+    public List<ParsedLine> parseLine(List<ParsedLine> previous, String text, int cursor,
+            boolean parseCurlyAndSquareBrackets, Set<OperatorType> operators) {
+        return parseLine(previous,
+                previous != null && !previous.isEmpty() ? firstDifference(previous.get(0).source(), text) : 0,
+                text, cursor, parseCurlyAndSquareBrackets, operators);
+    }
+
+    /**
+     * Parse text that is the result of an edit of the text of a previous parse.
+     * Lines of the previous parse that end with an operator before the edit are reused,
+     * as are the words in the line of the edit that end before it and are followed by a space.
+     * Only the text after them is tokenized again. The result is the same as a full parse
+     * of the text.
+     * The previous lines must have been parsed with the same settings, in zero copy mode
+     * a full parse is always done.
+     *
+     * @param previous the result of the previous parse
+     * @param editIndex index of the first char that differ from the previous text,
+     *        for an insert or delete at the cursor it is the cursor position before the
+     *        insert or after the delete
+     * @param text the edited text
+     * @param cursor cursor
+     * @param parseCurlyAndSquareBrackets parse curly and square brackets
+     * @param operators operators
+     * @return the parsed lines
+     */
+    public List<ParsedLine> parseLine(List<ParsedLine> previous, int editIndex, String text, int cursor,
+            boolean parseCurlyAndSquareBrackets, Set<OperatorType> operators) {
+        if (operators == null || operators.size() == 0) {
+            ParsedLine line = parseLine(previous != null && !previous.isEmpty() ? previous.get(0) : null,
+                    editIndex, text, cursor, parseCurlyAndSquareBrackets);
+            List<ParsedLine> lines = newLineList();
+            lines.add(line);
+            return lines;
+        }
+        //an operator followed by one char and the cursor will update the line before the operator
+        if (previous == null || previous.isEmpty() || previous.get(0).source() == null ||
+                zeroCopy || cursor == text.length() - 1)
+            return parseLine(text, cursor, parseCurlyAndSquareBrackets, operators);
+
+        reset();
+        source = text;
+        currentOperator = null;
+        compileOperators(operators);
+        String previousText = previous.get(0).source();
+        int limit = editLimit(previousText, editIndex, text, cursor);
+        //the longest operator decides how far ahead of an operator the text must be unchanged
+        int lookAhead = operatorMatcher.maxLength();
+
+        List<ParsedLine> lines = newLineList();
+        int lineStart = 0;
+        int line = 0;
+        for (; line < previous.size(); line++) {
+            ParsedLine parsedLine = previous.get(line);
+            int operatorIndex = parsedLine.offset() + parsedLine.lineLength();
+            if (parsedLine.source() != previousText || parsedLine.offset() != lineStart ||
+                    parsedLine.operator() == OperatorType.NONE || operatorIndex + lookAhead >= limit ||
+                    parsedLine.cursor() != -1 || parsedLine.selectedIndex() != -1 || parsedLine.wordCursor() != -1)
+                break;
+            lines.add(parsedLine);
+            lineStart = operatorIndex + parsedLine.operator().value().length();
         }
+        startIndex = lineStart;
+        if (lineStart > 0)
+            prev = text.charAt(lineStart - 1);
+        int from = lineStart;
+        if (line < previous.size() && previous.get(line).source() == previousText)
+            from = resumeLine(previous.get(line), lineStart, limit);
+        return doParseLine(text, cursor, parseCurlyAndSquareBrackets, lines, from);
     }
 
     private List<ParsedLine> doParseLine(String text, int cursor, boolean parseCurlyAndSquareBrackets,
-            Set<OperatorType> operators) {
-        List<ParsedLine> lines = new ArrayList<>();
+            List<ParsedLine> lines, int from) {
         char c;
-        for (index = 0; index < text.length();) {
+        for (index = from; index < text.length();) {
             c = text.charAt(index);
             //if the previous char was a space, there is no word "connected" to cursor
             if (cursor == index && (prev != SPACE_CHAR || haveEscape)) {
@@ -201,7 +371,7 @@ public class LineParser {
             } else if (haveEscape) {
                 //Escaping an operator?
                 if (!isQuoted()
-                        && (currentOperator = matchesOperators(operators, text, index)) != OperatorType.NONE) {
+                        && (currentOperator = operatorMatcher.match(text, index)) != OperatorType.NONE) {
                     // Do not add the \ that was a way to escape an operator.
                 } else {
                     builder.append(BACK_SLASH);
@@ -209,13 +379,13 @@ public class LineParser {
                 builder.append(c);
                 haveEscape = false;
             } else if (!haveEscape && !isQuoted() &&
-                    (currentOperator = matchesOperators(operators, text, index)) != OperatorType.NONE) {
+                    (currentOperator = operatorMatcher.match(text, index)) != OperatorType.NONE) {
                 handleFoundOperator(lines, text, cursor);
 
                 //if we end on an operator and cursor == text.length, add another empty line
                 if (index + currentOperator.value().length() == text.length() && cursor == text.length()) {
-                    textList.add(new ParsedWord("", index));
-                    lines.add(new ParsedLine(text, textList, 0,
+                    textList.add(newWord("", 0, 0, index, ParsedWord.Status.OK));
+                    lines.add(newLine(text, 0, text.length(), textList, 0,
                             0, 0, ParserStatus.OK, "", OperatorType.NONE));
 
                     //we know we're at the end so we can return
@@ -237,11 +407,63 @@ public class LineParser {
         }
 
         if (builder.length() > 0 || !textList.isEmpty() || startIndex < index)
-            lines.add(endOfLineProcessing(text.substring(startIndex, index), cursor, startIndex, text.length()));
+            lines.add(endOfLineProcessing(cursor, startIndex, text.length()));
 
         return lines;
     }
 
+    private static int firstDifference(String previous, String text) {
+        if (previous == null)
+            return 0;
+        int length = Math.min(previous.length(), text.length());
+        for (int i = 0; i < length; i++) {
+            if (previous.charAt(i) != text.charAt(i))
+                return i;
+        }
+        return length;
+    }
+
+    /**
+     * @return the index before which both texts are equal and the cursor is not placed
+     */
+    private static int editLimit(String previous, int editIndex, String text, int cursor) {
+        int limit = Math.min(editIndex, Math.min(previous.length(), text.length()));
+        if (cursor > -1)
+            limit = Math.min(limit, cursor);
+        return limit;
+    }
+
+    /**
+     * Add the words of the previous line that end before limit and are followed by a space
+     * to the current words.
+     * A word followed by a space was ended by an unquoted and unescaped space, so the
+     * parser can continue after that space without any other state.
+     *
+     * @return index where parsing should continue
+     */
+    private int resumeLine(ParsedLine previous, int lineStart, int limit) {
+        if (previous.offset() != lineStart)
+            return lineStart;
+        String previousText = previous.source();
+        List<ParsedWord> words = previous.words();
+        int kept = 0;
+        int from = lineStart;
+        for (int i = 0; i < words.size(); i++) {
+            int end = words.get(i).lineIndex() + words.get(i).length();
+            if (end + 1 > limit)
+                break;
+            if (previousText.charAt(end) == SPACE_CHAR) {
+                kept = i + 1;
+                from = end + 1;
+            }
+        }
+        for (int i = 0; i < kept; i++)
+            textList.add(words.get(i));
+        if (kept > 0)
+            prev = SPACE_CHAR;
+        return from;
+    }
+
     private char nextChar(String text, int index) {
         if (text.length() > index + 1)
             return text.charAt(index + 1);
@@ -253,30 +475,30 @@ public class LineParser {
         return (haveDoubleQuote || haveSingleQuote || haveCurlyBracket || haveSquareBracket);
     }
 
-    private OperatorType matchesOperators(Set<OperatorType> operators, String text, int index) {
-        return OperatorType.matches(operators, text, index);
+    private void compileOperators(Set<OperatorType> operators) {
+        if (operatorMatcher == null || !operatorMatcher.compiledFrom(operators))
+            operatorMatcher = OperatorMatcher.compile(operators);
     }
 
-    private ParsedLine endOfLineProcessing(String text, int cursor,
-            int startIndex, int totalTextLength) {
+    private ParsedLine endOfLineProcessing(int cursor, int startIndex, int totalTextLength) {
         // if the escape was the last char, add it to the builder
         if (haveEscape)
             builder.append(BACK_SLASH);
 
         if (builder.length() > 0) {
             if (haveDoubleQuote || haveSingleQuote)
-                textList.add(new ParsedWord(builder.toString(), index - builder.length(), ParsedWord.Status.OPEN_QUOTE));
+                addWord(ParsedWord.Status.OPEN_QUOTE);
             else if (haveSquareBracket || haveCurlyBracket)
-                textList.add(new ParsedWord(builder.toString(), index - builder.length(), ParsedWord.Status.OPEN_BRACKET));
+                addWord(ParsedWord.Status.OPEN_BRACKET);
             else
-                textList.add(new ParsedWord(builder.toString(), index - builder.length()));
+                addWord(ParsedWord.Status.OK);
         }
 
         if (cursor == totalTextLength &&
                 (prev != SPACE_CHAR || (haveEscape || isQuoted()))) {
             cursorWord = textList.size() - 1;
             if (textList.size() > 0)
-                wordCursor = textList.get(textList.size() - 1).word().length();
+                wordCursor = textList.get(textList.size() - 1).length();
         }
 
         ParserStatus status = ParserStatus.OK;
@@ -285,7 +507,7 @@ public class LineParser {
         else if (haveSingleQuote || haveDoubleQuote || haveCurlyBracket)
             status = ParserStatus.UNCLOSED_QUOTE;
 
-        return new ParsedLine(text, textList,
+        return newLine(source, startIndex, index - startIndex, textList,
                 startIndex <= cursor && cursor <= index ? cursor - startIndex : -1,
                 cursorWord, wordCursor, status, "", OperatorType.NONE);
     }
@@ -333,8 +555,7 @@ public class LineParser {
             if (builder.length() > 0) {
                 // "" is attached to existing content (e.g., --option="")
                 // Treat as closing an empty quoted string
-                textList.add(new ParsedWord(builder.toString(), index - builder.length()));
-                builder = new StringBuilder();
+                addWord(ParsedWord.Status.OK);
                 haveDoubleQuote = false;
             } else {
                 ternaryQuote = true;
@@ -342,15 +563,13 @@ public class LineParser {
         } else if (ternaryQuote && prev == DOUBLE_QUOTE) {
             if (builder.length() > 0) {
                 builder.deleteCharAt(builder.length() - 1);
-                textList.add(new ParsedWord(builder.toString(), index - builder.length()));
-                builder = new StringBuilder();
+                addWord(ParsedWord.Status.OK);
             }
             haveDoubleQuote = false;
             ternaryQuote = false;
         } else {
             if (builder.length() > 0) {
-                textList.add(new ParsedWord(builder.toString(), index - builder.length()));
-                builder = new StringBuilder();
+                addWord(ParsedWord.Status.OK);
             }
             haveDoubleQuote = false;
         }
@@ -369,8 +588,7 @@ public class LineParser {
             haveEscape = false;
         } else if (haveSingleQuote) {
             if (builder.length() > 0) {
-                textList.add(new ParsedWord(builder.toString(), index - builder.length()));
-                builder = new StringBuilder();
+                addWord(ParsedWord.Status.OK);
             }
             haveSingleQuote = false;
         } else if (haveDoubleQuote) {
@@ -390,8 +608,7 @@ public class LineParser {
         } else if (haveSingleQuote || haveDoubleQuote || haveCurlyBracket) {
             builder.append(c);
         } else if (builder.length() > 0) {
-            textList.add(new ParsedWord(builder.toString(), index - builder.length()));
-            builder = new StringBuilder();
+            addWord(ParsedWord.Status.OK);
         }
 
         return c;
@@ -401,8 +618,7 @@ public class LineParser {
         ParserStatus parserStatus = ParserStatus.OK;
         String errorMessage = "";
         if (builder.length() > 0) {
-            textList.add(new ParsedWord(builder.toString(), index - builder.length()));
-            builder = new StringBuilder();
+            addWord(ParsedWord.Status.OK);
         }
         //if textList.size == 0, we have an empty line before the operator
         else if (textList.size() == 0) {
@@ -414,18 +630,18 @@ public class LineParser {
         if (cursor == text.length() - 1) {
             cursorWord = textList.size() - 1;
             if (textList.size() > 0)
-                wordCursor = textList.get(textList.size() - 1).word().length();
+                wordCursor = textList.get(textList.size() - 1).length();
         }
 
         lines.add(
-                new ParsedLine(text.substring(startIndex, index), textList,
+                newLine(source, startIndex, index - startIndex, textList,
                         startIndex <= cursor && cursor <= index ? cursor - startIndex : -1,
                         cursorWord, wordCursor, parserStatus, errorMessage, currentOperator));
 
         cursorWord = -1;
         wordCursor = -1;
         startIndex = index + currentOperator.value().length();
-        textList = new ArrayList<>();
+        textList = newWordList();
     }
 
     private void handleEscape(char c) {
@@ -434,15 +650,137 @@ public class LineParser {
         haveEscape = false;
     }
 
-    private void reset() {
-        textList = new ArrayList<>();
+    /**
+     * Add the content of the builder as a word ending at the current index and clear the builder.
+     * In zero copy mode the word is a view over the input if the content is unchanged.
+     */
+    private void addWord(ParsedWord.Status status) {
+        int lineIndex = index - builder.length();
+        if (!zeroCopy)
+            textList.add(new ParsedWord(builder.toString(), lineIndex, status));
+        else if (builderMatchesSource(lineIndex))
+            textList.add(newWord(source, lineIndex, builder.length(), lineIndex, status));
+        else {
+            String word = builder.toString();
+            textList.add(newWord(word, 0, word.length(), lineIndex, status));
+        }
+        builder.setLength(0);
+    }
+
+    private boolean builderMatchesSource(int start) {
+        int length = builder.length();
+        if (start < 0 || start + length > source.length())
+            return false;
+        for (int i = 0; i < length; i++) {
+            if (builder.charAt(i) != source.charAt(start + i))
+                return false;
+        }
+        return true;
+    }
+
+    private ParsedWord newWord(String word, int offset, int length, int lineIndex, ParsedWord.Status status) {
+        if (!zeroCopy)
+            return new ParsedWord(word, offset, length, lineIndex, status);
+        if (usedWords == wordPool.size())
+            wordPool.add(new ParsedWord(word, offset, length, lineIndex, status));
+        else
+            wordPool.get(usedWords).set(word, offset, length, lineIndex, status);
+        return wordPool.get(usedWords++);
+    }
+
+    private ParsedLine newLine(String text, int offset, int length, List<ParsedWord> words,
+            int cursor, int cursorWord, int wordCursor,
+            ParserStatus status, String errorMessage, OperatorType operator) {
+        if (!zeroCopy)
+            return new ParsedLine(text, offset, length, words, cursor, cursorWord, wordCursor,
+                    status, errorMessage, operator);
+        if (usedLines == linePool.size())
+            linePool.add(new ParsedLine(text, offset, length, words, cursor, cursorWord, wordCursor,
+                    status, errorMessage, operator));
+        else
+            linePool.get(usedLines).set(text, offset, length, words, cursor, cursorWord, wordCursor,
+                    status, errorMessage, operator);
+        return linePool.get(usedLines++);
+    }
+
+    private List<ParsedWord> newWordList() {
+        if (!zeroCopy)
+            return new ArrayList<>();
+        if (usedWordLists == wordListPool.size())
+            wordListPool.add(new ArrayList<>());
+        List<ParsedWord> words = wordListPool.get(usedWordLists++);
+        words.clear();
+        return words;
+    }
+
+    private List<ParsedLine> newLineList() {
+        if (!zeroCopy)
+            return new ArrayList<>();
+        parsedLines.clear();
+        return parsedLines;
+    }
+
+    /**
+     * Quote a word, parsing the returned text gives the word back as a single word and
+     * never an operator. Used to build a command line from arguments already split.
+     *
+     * @param word a non-empty word
+     * @return the word, quoted or escaped if needed
+     * @throws IllegalArgumentException if the word is empty, or has both kinds of quotes
+     *         and an operator character, which can not be expressed on a command line
+     * @since 3.17
+     */
+    public static String quote(String word) {
+        if (word.isEmpty())
+            throw new IllegalArgumentException("An empty word can not be given on a command line");
+        boolean special = false;
+        boolean operator = false;
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            if (QUOTED_CHARS.indexOf(c) >= 0)
+                special = true;
+            if (OPERATOR_CHARS.indexOf(c) >= 0)
+                operator = special = true;
+        }
+        if (!special)
+            return word;
+        // a quote is not closed after a back slash
+        if (word.indexOf(SINGLE_QUOTE) < 0 && word.charAt(word.length() - 1) != BACK_SLASH)
+            return SINGLE_QUOTE + word + SINGLE_QUOTE;
+        if (word.indexOf(DOUBLE_QUOTE) < 0 && word.indexOf(BACK_SLASH) < 0)
+            return DOUBLE_QUOTE + word + DOUBLE_QUOTE;
+        if (operator)
+            throw new IllegalArgumentException("The word can not be given on a command line: " + word);
+        StringBuilder escaped = new StringBuilder(word.length() + 8);
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            if (c == SPACE_CHAR || c == BACK_SLASH || c == SINGLE_QUOTE || c == DOUBLE_QUOTE
+                    || c == CURLY_START || c == PARENTHESIS_START)
+                escaped.append(BACK_SLASH);
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * Reset the parser state.
+     * In zero copy mode all lines and words returned earlier by this parser
+     * are recycled and must not be used after a reset.
+     */
+    public void reset() {
+        if (zeroCopy) {
+            usedWords = 0;
+            usedLines = 0;
+            usedWordLists = 0;
+        }
+        textList = newWordList();
         haveEscape = false;
         haveSingleQuote = false;
         haveDoubleQuote = false;
         ternaryQuote = false;
         haveCurlyBracket = false;
         haveSquareBracket = false;
-        builder = new StringBuilder();
+        builder.setLength(0);
         prev = NULL_CHAR;
         index = 0;
         cursorWord = -1;
@@ -37,23 +37,52 @@ import org.aesh.command.operator.OperatorType;
  * "connected" to the cursor.
  * If no cursor position is given the cursor value is -1 and cursorWord is an empty string.
  *
+ * Lines created by a zero copy {@link LineParser} are views over the parsed input,
+ * the input String of the line is only created when {@link #line()} is called.
+ * Such a line and its words are recycled by the parser: they are only valid until the
+ * next parse or reset of that parser.
+ *
  * @author Aesh team
  */
 public class ParsedLine {
 
-    private final String originalInput;
-    private final String errorMessage;
-    private final List<ParsedWord> words;
-    private final ParserStatus status;
-    private final int cursor;
-    private final int cursorWord;
-    private final int wordCursor;
-    private final OperatorType operator;
+    private String source;
+    private int offset;
+    private int length;
+    private String originalInput;
+    private String errorMessage;
+    private List<ParsedWord> words;
+    private ParserStatus status;
+    private int cursor;
+    private int cursorWord;
+    private int wordCursor;
+    private OperatorType operator;
 
     public ParsedLine(String originalInput, List<ParsedWord> words,
             int cursor, int cursorWord, int wordCursor,
             ParserStatus status, String errorMessage, OperatorType operator) {
+        this(originalInput, 0, originalInput != null ? originalInput.length() : 0, words, cursor, cursorWord, wordCursor,
+                status, errorMessage, operator);
         this.originalInput = originalInput;
+    }
+
+    ParsedLine(String source, int offset, int length, List<ParsedWord> words,
+            int cursor, int cursorWord, int wordCursor,
+            ParserStatus status, String errorMessage, OperatorType operator) {
+        set(source, offset, length, words, cursor, cursorWord, wordCursor, status, errorMessage, operator);
+    }
+
+    /**
+     * Point this line at a new region, only used by LineParser when recycling lines.
+     */
+    void set(String source, int offset, int length, List<ParsedWord> words,
+            int cursor, int cursorWord, int wordCursor,
+            ParserStatus status, String errorMessage, OperatorType operator) {
+        this.source = source;
+        this.offset = offset;
+        // a line without source is empty, lineCharAt never reads it
+        this.length = source != null ? length : 0;
+        this.originalInput = null;
         this.cursor = cursor;
         this.cursorWord = cursorWord;
         this.wordCursor = wordCursor;
@@ -61,12 +90,10 @@ public class ParsedLine {
         this.errorMessage = errorMessage;
         this.operator = operator;
 
-        if (words == null) {
+        if (words == null)
             this.words = new ArrayList<>(0);
-            return;
-        }
-
-        this.words = words;
+        else
+            this.words = words;
     }
 
     /**
@@ -119,9 +146,42 @@ public class ParsedLine {
      * @return original input
      */
     public String line() {
+        if (originalInput == null && source != null)
+            originalInput = source.substring(offset, offset + length);
         return originalInput;
     }
 
+    /**
+     * @return the text this line is a part of
+     */
+    String source() {
+        return source;
+    }
+
+    /**
+     * @return index of this line in its source
+     */
+    int offset() {
+        return offset;
+    }
+
+    /**
+     * @return length of the original input, without creating the input String
+     */
+    public int lineLength() {
+        return length;
+    }
+
+    /**
+     * @param index index in the original input
+     * @return the char at the given index of the original input, without creating the input String
+     */
+    public char lineCharAt(int index) {
+        if (index < 0 || index >= length)
+            throw new IndexOutOfBoundsException("index: " + index + ", length: " + length);
+        return source.charAt(offset + index);
+    }
+
     /**
      * @return any errors that was found during parsing
      */
@@ -174,26 +234,26 @@ public class ParsedLine {
     }
 
     public boolean cursorAtEnd() {
-        return cursor == originalInput.length();
+        return cursor == length;
     }
 
     public boolean spaceAtEnd() {
-        if (originalInput.length() > 1) {
-            return originalInput.charAt(originalInput.length() - 1) == ' ' &&
-                    originalInput.charAt(originalInput.length() - 2) != '\\';
+        if (length > 1) {
+            return lineCharAt(length - 1) == ' ' &&
+                    lineCharAt(length - 2) != '\\';
         } else
-            return (originalInput.length() > 0 &&
-                    originalInput.charAt(originalInput.length() - 1) == ' ');
+            return (length > 0 &&
+                    lineCharAt(length - 1) == ' ');
     }
 
     public boolean isCursorAtEndOfSelectedWord() {
-        return cursor() == (selectedWord().lineIndex() + selectedWord().word().length());
+        return cursor() == (selectedWord().lineIndex() + selectedWord().length());
     }
 
     @Override
     public String toString() {
         return "ParsedLine{" +
-                "originalInput='" + originalInput + '\'' +
+                "originalInput='" + line() + '\'' +
                 ", errorMessage='" + errorMessage + '\'' +
                 ", words=" + words +
                 ", status=" + status +
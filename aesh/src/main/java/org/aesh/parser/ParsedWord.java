@@ -25,24 +25,50 @@ package org.aesh.parser;
  * A word can contain spaces if they are escaped or if the word is wrapped in
  * a single or double quote.
  *
+ * A word is a view over a region of its source; the String returned by
+ * {@link #word()} is only created when it is first asked for. Words created by a
+ * zero copy {@link LineParser} point straight into the parsed input unless escapes
+ * or quotes changed their content.
+ * <p>
+ * A zero copy {@link LineParser} recycles its words: a word it returned is only valid
+ * until the next parse or reset of that parser, after which it points at another region.
+ * Keep the String of {@link #word()}, not the word, to use it later.
+ *
  * @author Aesh team
  */
-public class ParsedWord {
+public class ParsedWord implements CharSequence {
 
-    private final String word;
-    private final int lineIndex;
-    private final Status status;
+    private String source;
+    private int offset;
+    private int length;
+    private String word;
+    private int lineIndex;
+    private Status status;
 
     public ParsedWord(String word, int lineIndex) {
-        this.word = word;
-        this.lineIndex = lineIndex;
-        this.status = Status.OK;
+        this(word, lineIndex, Status.OK);
     }
 
     public ParsedWord(String word, int lineIndex, Status status) {
+        set(word, 0, word != null ? word.length() : 0, lineIndex, status);
         this.word = word;
+    }
+
+    ParsedWord(String source, int offset, int length, int lineIndex, Status status) {
+        set(source, offset, length, lineIndex, status);
+    }
+
+    /**
+     * Point this word at a new region, only used by LineParser when recycling words.
+     */
+    void set(String source, int offset, int length, int lineIndex, Status status) {
+        this.source = source;
+        this.offset = offset;
+        // a word without source is empty, the CharSequence methods never read it
+        this.length = source != null ? length : 0;
         this.lineIndex = lineIndex;
         this.status = status;
+        this.word = null;
     }
 
     /**
@@ -55,6 +81,8 @@ public class ParsedWord {
     }
 
     public String word() {
+        if (word == null && source != null)
+            word = source.substring(offset, offset + length);
         return word;
     }
 
@@ -62,6 +90,49 @@ public class ParsedWord {
         return status;
     }
 
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length)
+            throw new IndexOutOfBoundsException("index: " + index + ", length: " + length);
+        return source.charAt(offset + index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end)
+            throw new IndexOutOfBoundsException("start: " + start + ", end: " + end + ", length: " + length);
+        if (start == end)
+            return "";
+        return source.subSequence(offset + start, offset + end);
+    }
+
+    /**
+     * @param prefix prefix
+     * @return true if this word starts with the given prefix, without creating the word String
+     */
+    public boolean startsWith(CharSequence prefix) {
+        if (prefix.length() > length)
+            return false;
+        for (int i = 0; i < prefix.length(); i++) {
+            if (source.charAt(offset + i) != prefix.charAt(i))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param other char sequence
+     * @return true if this word have the same content as other, without creating the word String
+     */
+    public boolean contentEquals(CharSequence other) {
+        return other != null && other.length() == length && startsWith(other);
+    }
+
     public enum Status {
         OK,
         OPEN_BRACKET,
@@ -71,6 +142,6 @@ public class ParsedWord {
 
     @Override
     public String toString() {
-        return word;
+        return word();
     }
 }
@@ -0,0 +1,55 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.util;
+
+/**
+ * Creates virtual threads when the JVM supports them.
+ * <p>
+ * This is the Java 8 version of the class, virtual threads are not supported. The
+ * multi-release jar contains a Java 21 version in {@code META-INF/versions/21} that
+ * creates virtual threads.
+ *
+ * @author Aesh team
+ * @since 3.17
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return true if the running JVM supports virtual threads
+     */
+    public static boolean isSupported() {
+        return false;
+    }
+
+    /**
+     * Create a virtual thread, not started.
+     *
+     * @param task the task run by the thread
+     * @param name the thread name
+     * @return the thread
+     * @throws UnsupportedOperationException if virtual threads are not supported
+     */
+    public static Thread newVirtualThread(Runnable task, String name) {
+        throw new UnsupportedOperationException("Virtual threads require Java 21");
+    }
+}
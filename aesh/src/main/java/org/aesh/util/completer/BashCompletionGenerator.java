@@ -207,16 +207,37 @@ public class BashCompletionGenerator implements ShellCompletionGenerator {
 
     @Override
     public String generateDynamic(CommandLineParser<? extends CommandInvocation> parser, String programName) {
+        return generateDynamic(parser, programName, false);
+    }
+
+    @Override
+    public String generateDynamic(CommandLineParser<? extends CommandInvocation> parser, String programName,
+            boolean completionDaemon) {
+        String query = completionDaemon ? "_aesh_query_" + programName : programName + " --aesh-complete --";
+        return dynamicScript(programName, completionDaemon ? daemonClient(programName) : "", query);
+    }
+
+    @Override
+    public String generateOffline(CommandLineParser<? extends CommandInvocation> parser, String programName,
+            String databasePath, boolean completionDaemon) {
+        String query = completionDaemon ? "_aesh_query_" + programName : programName + " --aesh-complete --";
+        return dynamicScript(programName,
+                (completionDaemon ? daemonClient(programName) : "") + databaseClient(programName, databasePath, query),
+                "_aesh_db_query_" + programName);
+    }
+
+    private static String dynamicScript(String programName, String clients, String query) {
         return "#!/usr/bin/env bash" + NL +
                 NL +
                 "# Dynamic bash completion for " + programName + " — generated by Aesh." + NL +
                 "# Source this file or place it in /etc/bash_completion.d/" + NL +
                 NL +
+                clients +
                 "_complete_" + programName + "() {" + NL +
                 "    local cur=\"${COMP_WORDS[COMP_CWORD]}\"" + NL +
                 "    local IFS=$'\\n'" + NL +
                 "    local candidates" + NL +
-                "    candidates=$(" + programName + " --aesh-complete -- \"${COMP_WORDS[@]:1}\")" + NL +
+                "    candidates=$(" + query + " \"${COMP_WORDS[@]:1}\")" + NL +
                 "    # Check for file/dir sentinels from aesh" + NL +
                 "    if echo \"$candidates\" | grep -q '^__aesh_file__$'; then" + NL +
                 "        candidates=$(echo \"$candidates\" | grep -v '^__aesh_file__$')" + NL +
@@ -234,6 +255,72 @@ public class BashCompletionGenerator implements ShellCompletionGenerator {
                 "complete -o nosort -F _complete_" + programName + " " + programName + NL;
     }
 
+    /**
+     * The client of the completion daemon, a request over /dev/tcp. When the daemon does
+     * not answer it is started in the background and --aesh-complete answers. Each read
+     * waits at most {@link CompletionDaemon#CLIENT_READ_TIMEOUT_SECONDS} seconds, the reply
+     * is printed once it is complete so that a daemon that stops answering falls back to
+     * --aesh-complete.
+     */
+    private static String daemonClient(String programName) {
+        return "_aesh_query_" + programName + "() {" + NL +
+                "    local state=\"$HOME/.aesh/completion/" + programName + ".daemon\" port token status" + NL +
+                "    if [[ -r $state ]] && { read -r port && read -r token; } < \"$state\" &&" + NL +
+                "            exec 9<>\"/dev/tcp/127.0.0.1/$port\" 2>/dev/null; then" + NL +
+                "        printf '%s\\n' \"$token\" \"$PWD\" \"$#\" \"$@\" >&9" + NL +
+                "        if IFS= read -r -t " + CompletionDaemon.CLIENT_READ_TIMEOUT_SECONDS
+                + " status <&9 && [[ $status == ok ]]; then" + NL +
+                "            local answer= line rc" + NL +
+                "            # read fails with 1 at the end of the answer, above 128 on timeout" + NL +
+                "            while IFS= read -r -t " + CompletionDaemon.CLIENT_READ_TIMEOUT_SECONDS
+                + " line <&9; rc=$?; (( rc == 0 )); do" + NL +
+                "                answer+=$line$'\\n'" + NL +
+                "            done" + NL +
+                "            exec 9>&-" + NL +
+                "            if (( rc == 1 )); then" + NL +
+                "                printf '%s' \"$answer$line\"" + NL +
+                "                return" + NL +
+                "            fi" + NL +
+                "        else" + NL +
+                "            exec 9>&-" + NL +
+                "        fi" + NL +
+                "    fi" + NL +
+                "    ( " + programName + " --aesh-complete-daemon </dev/null >/dev/null 2>&1 & )" + NL +
+                "    " + programName + " --aesh-complete -- \"$@\"" + NL +
+                "}" + NL +
+                NL;
+    }
+
+    /**
+     * The query of the completion database, with awk. The program answers the words the
+     * database cannot, and writes the database when it is missing or older than the program.
+     */
+    private static String databaseClient(String programName, String databasePath, String query) {
+        StringBuilder out = new StringBuilder();
+        out.append("_aesh_db_query_").append(programName).append("() {").append(NL);
+        if (databasePath == null) {
+            out.append("    local db=\"$HOME/.aesh/completion/").append(programName).append(".db\" program candidates")
+                    .append(NL);
+            out.append("    program=$(type -P ").append(programName).append(")").append(NL);
+            out.append("    if [[ ! -s $db || ( -n $program && $program -nt $db ) ]]; then").append(NL);
+            out.append("        mkdir -p \"${db%/*}\" && ").append(programName)
+                    .append(" --aesh-completion-db >\"$db.$$\" 2>/dev/null &&").append(NL);
+            out.append("            mv -f \"$db.$$\" \"$db\" || rm -f \"$db.$$\"").append(NL);
+            out.append("    fi").append(NL);
+        } else {
+            out.append("    local db='").append(databasePath.replace("'", "'\\''")).append("' candidates").append(NL);
+        }
+        out.append("    if [[ -r $db ]] && candidates=$(LC_ALL=C awk '").append(CompletionDatabase.AWK_PROGRAM)
+                .append("' \"$db\" \"$@\") &&").append(NL);
+        out.append("            [[ $candidates != *").append(CompletionDatabase.JVM).append("* ]]; then").append(NL);
+        out.append("        [[ -n $candidates ]] && printf '%s\\n' \"$candidates\"").append(NL);
+        out.append("        return").append(NL);
+        out.append("    fi").append(NL);
+        out.append("    ").append(query).append(" \"$@\"").append(NL);
+        out.append("}").append(NL).append(NL);
+        return out.toString();
+    }
+
     static boolean isBooleanType(ProcessedOption option) {
         return option.type() == Boolean.class || option.type() == boolean.class;
     }
@@ -0,0 +1,356 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.util.completer;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.aesh.terminal.utils.LoggerUtil;
+
+/**
+ * Answers the dynamic completion requests of the shell completion scripts from a long
+ * running process, so that a TAB does not start a JVM and build the command registry.
+ * <p>
+ * The daemon listens on a loopback port. The port and a random token, required by every
+ * request, are written to the state file {@code ~/.aesh/completion/<program>.daemon},
+ * readable by its owner only. One daemon runs per user and program, the others exit
+ * when they fail to lock {@code <program>.lock}.
+ * <p>
+ * The daemon exits after being idle for the idle timeout, or on the first request after
+ * the watched file, the jar of the program, is modified or removed. That request is not
+ * answered: the script completes without the daemon and starts a new one.
+ * <p>
+ * Requests are UTF-8 lines: the token, the working directory, the number of words, then
+ * the words. The answer is {@code ok} followed by the lines printed by
+ * {@code --aesh-complete}. Any other answer, or none, means the client has to complete
+ * without the daemon, as does a client that waits more than two seconds for a line.
+ * Requests are answered one at a time.
+ *
+ * @author Aesh team
+ * @since 3.17
+ */
+public class CompletionDaemon {
+
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(15);
+    public static final String OK = "ok";
+
+    private static final Logger LOGGER = LoggerUtil.getLogger(CompletionDaemon.class.getName());
+    private static final int REQUEST_TIMEOUT_MILLIS = 5000;
+    private static final int MAX_WORDS = 4096;
+    // seconds the clients of the completion scripts wait for each line of the answer
+    static final int CLIENT_READ_TIMEOUT_SECONDS = 2;
+
+    /**
+     * Writes the completion of the words, the way {@code --aesh-complete} prints it.
+     */
+    @FunctionalInterface
+    public interface CompletionHandler {
+        void complete(String[] words, String workingDirectory, PrintStream out) throws Exception;
+    }
+
+    private final String programName;
+    private final CompletionHandler handler;
+    private final Path stateDirectory;
+    private final long idleTimeoutMillis;
+    private final Path watchedFile;
+    private final FileTime watchedFileTime;
+    private final String token;
+    private volatile ServerSocket serverSocket;
+    private volatile boolean stopped;
+
+    /**
+     * Create a daemon keeping its state in {@link #defaultStateDirectory()}, exiting
+     * after {@link #DEFAULT_IDLE_TIMEOUT_MILLIS}.
+     *
+     * @param programName the program name, as used by the completion scripts
+     * @param handler the completion handler
+     * @param watchedFile the daemon exits when this file is modified, null to not watch any file
+     */
+    public CompletionDaemon(String programName, CompletionHandler handler, Path watchedFile) {
+        this(programName, handler, defaultStateDirectory(), DEFAULT_IDLE_TIMEOUT_MILLIS, watchedFile);
+    }
+
+    /**
+     * @param programName the program name, as used by the completion scripts
+     * @param handler the completion handler
+     * @param stateDirectory directory of the state and lock files
+     * @param idleTimeoutMillis the daemon exits when no request came for this time
+     * @param watchedFile the daemon exits when this file is modified, null to not watch any file
+     */
+    public CompletionDaemon(String programName, CompletionHandler handler, Path stateDirectory,
+            long idleTimeoutMillis, Path watchedFile) {
+        if (idleTimeoutMillis < 1)
+            throw new IllegalArgumentException("idleTimeoutMillis must be positive, was " + idleTimeoutMillis);
+        this.programName = programName;
+        this.handler = handler;
+        this.stateDirectory = stateDirectory;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.watchedFile = watchedFile;
+        this.watchedFileTime = watchedFile != null ? lastModified(watchedFile) : null;
+        this.token = newToken();
+    }
+
+    /**
+     * @return {@code ~/.aesh/completion}, the directory the completion scripts look into
+     */
+    public static Path defaultStateDirectory() {
+        return Paths.get(System.getProperty("user.home"), ".aesh", "completion");
+    }
+
+    /**
+     * @param stateDirectory directory of the state files
+     * @param programName the program name
+     * @return the file holding the port and token of the daemon of the program
+     */
+    public static Path stateFile(Path stateDirectory, String programName) {
+        return stateDirectory.resolve(programName + ".daemon");
+    }
+
+    /**
+     * Serve the completion requests until the idle timeout, the watched file is modified
+     * or {@link #stop()} is called.
+     *
+     * @return false if the daemon of the program was already running
+     * @throws IOException if the state files cannot be written or the port not opened
+     */
+    public boolean run() throws IOException {
+        Files.createDirectories(stateDirectory);
+        restrictToOwner(stateDirectory, "rwx------");
+        try (FileChannel lockChannel = FileChannel.open(stateDirectory.resolve(programName + ".lock"),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            FileLock lock;
+            try {
+                lock = lockChannel.tryLock();
+            } catch (OverlappingFileLockException e) {
+                lock = null;
+            }
+            if (lock == null)
+                return false;
+            Path stateFile = stateFile(stateDirectory, programName);
+            try (ServerSocket server = new ServerSocket()) {
+                server.bind(new InetSocketAddress(InetAddress.getByAddress(new byte[] { 127, 0, 0, 1 }), 0));
+                server.setSoTimeout((int) Math.min(idleTimeoutMillis, Integer.MAX_VALUE));
+                serverSocket = server;
+                if (stopped)
+                    return true;
+                writeStateFile(stateFile, server.getLocalPort());
+                serve(server);
+            } finally {
+                Files.deleteIfExists(stateFile);
+                lock.release();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stop serving, {@link #run()} returns after the request being answered.
+     */
+    public void stop() {
+        stopped = true;
+        ServerSocket server = serverSocket;
+        if (server != null) {
+            try {
+                server.close();
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, "Closing the completion daemon socket failed", e);
+            }
+        }
+    }
+
+    private void serve(ServerSocket server) throws IOException {
+        while (!stopped) {
+            Socket socket;
+            try {
+                socket = server.accept();
+            } catch (SocketTimeoutException e) {
+                LOGGER.info("Completion daemon of " + programName + " idle, exiting");
+                return;
+            } catch (SocketException e) {
+                if (stopped)
+                    return;
+                throw e;
+            }
+            try (Socket client = socket) {
+                if (isStale()) {
+                    LOGGER.info(watchedFile + " was modified, the completion daemon of " + programName + " exits");
+                    return;
+                }
+                answer(client);
+            } catch (IOException | RuntimeException e) {
+                LOGGER.log(Level.FINE, "Completion request failed", e);
+            }
+        }
+    }
+
+    private void answer(Socket client) throws IOException {
+        client.setSoTimeout(REQUEST_TIMEOUT_MILLIS);
+        BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+        String requestToken = in.readLine();
+        if (requestToken == null || !MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8),
+                requestToken.getBytes(StandardCharsets.UTF_8)))
+            return;
+        String workingDirectory = in.readLine();
+        String count = in.readLine();
+        if (workingDirectory == null || count == null)
+            return;
+        int wordCount = Integer.parseInt(count.trim());
+        if (wordCount < 0 || wordCount > MAX_WORDS)
+            return;
+        String[] words = new String[wordCount];
+        for (int i = 0; i < wordCount; i++) {
+            words[i] = in.readLine();
+            if (words[i] == null)
+                return;
+        }
+
+        // the answer is only sent when the completion succeeded
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (PrintStream out = new PrintStream(buffer, false, "UTF-8")) {
+            handler.complete(words, workingDirectory, out);
+        } catch (Exception e) {
+            LOGGER.log(Level.FINE, "Completion of " + String.join(" ", words) + " failed", e);
+            return;
+        }
+        OutputStream out = client.getOutputStream();
+        out.write((OK + "\n").getBytes(StandardCharsets.UTF_8));
+        buffer.writeTo(out);
+        out.flush();
+    }
+
+    private boolean isStale() {
+        return watchedFile != null && !lastModified(watchedFile).equals(watchedFileTime);
+    }
+
+    private void writeStateFile(Path stateFile, int port) throws IOException {
+        Path temp = Files.createTempFile(stateDirectory, programName, ".tmp");
+        try {
+            restrictToOwner(temp, "rw-------");
+            try (Writer writer = new OutputStreamWriter(Files.newOutputStream(temp), StandardCharsets.UTF_8)) {
+                writer.write(port + "\n" + token + "\n");
+            }
+            Files.move(temp, stateFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Ask the daemon of a program for the completion of the words, like the completion
+     * scripts do.
+     *
+     * @param stateDirectory directory of the state files
+     * @param programName the program name
+     * @param workingDirectory the working directory of the completion
+     * @param words the words after the program name, the last one being completed
+     * @return the lines printed by the completion, or null if the daemon did not answer
+     */
+    public static List<String> request(Path stateDirectory, String programName, String workingDirectory,
+            String... words) {
+        Path stateFile = stateFile(stateDirectory, programName);
+        if (!Files.isReadable(stateFile))
+            return null;
+        try {
+            List<String> state = Files.readAllLines(stateFile, StandardCharsets.UTF_8);
+            if (state.size() < 2)
+                return null;
+            try (Socket socket = new Socket(InetAddress.getByAddress(new byte[] { 127, 0, 0, 1 }),
+                    Integer.parseInt(state.get(0).trim()))) {
+                socket.setSoTimeout(REQUEST_TIMEOUT_MILLIS);
+                StringBuilder request = new StringBuilder()
+                        .append(state.get(1)).append('\n')
+                        .append(workingDirectory).append('\n')
+                        .append(words.length).append('\n');
+                for (String word : words)
+                    request.append(word).append('\n');
+                OutputStream out = socket.getOutputStream();
+                out.write(request.toString().getBytes(StandardCharsets.UTF_8));
+                out.flush();
+
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                if (!OK.equals(in.readLine()))
+                    return null;
+                List<String> lines = new ArrayList<>();
+                String line;
+                while ((line = in.readLine()) != null)
+                    lines.add(line);
+                return lines;
+            }
+        } catch (IOException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static void restrictToOwner(Path path, String permissions) throws IOException {
+        try {
+            Files.setPosixFilePermissions(path, PosixFilePermissions.fromString(permissions));
+        } catch (UnsupportedOperationException e) {
+            // not a POSIX file system, the user directory is private
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static String newToken() {
+        byte[] bytes = new byte[16];
+        new SecureRandom().nextBytes(bytes);
+        StringBuilder token = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes)
+            token.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        return token.toString();
+    }
+}
@@ -0,0 +1,376 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.util.completer;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.aesh.command.completer.OptionCompleter;
+import org.aesh.command.impl.completer.BooleanOptionCompleter;
+import org.aesh.command.impl.completer.DefaultValueOptionCompleter;
+import org.aesh.command.impl.completer.FileOptionCompleter;
+import org.aesh.command.impl.completer.NullOptionCompleter;
+import org.aesh.command.impl.internal.ProcessedCommand;
+import org.aesh.command.impl.internal.ProcessedOption;
+import org.aesh.command.impl.parser.CommandLineParser;
+import org.aesh.command.option.CompletionFallback;
+
+/**
+ * The static part of the completions of a command: its subcommands, option names,
+ * allowed option and argument values, and descriptions. Completion scripts generated by
+ * {@link ShellCompletionGenerator#generateOffline} answer from the database with awk
+ * instead of starting the program on every TAB.
+ * <p>
+ * Printed by {@code --aesh-completion-db}, or written at build time by the annotation
+ * processor to the resource {@link #resourceName(String)} when the
+ * {@code aeshCompletionDatabase} processor option is set.
+ * <p>
+ * The database is a UTF-8 file starting with {@link #HEADER}, followed by one record
+ * per line with five tab separated fields: the subcommand path, the kind of the record,
+ * the word, the canonical option name, and the description. The path of the root
+ * command is empty, the path of a subcommand is the names of the subcommands separated
+ * by spaces. The kinds are:
+ * <ul>
+ * <li>{@code c} — a subcommand</li>
+ * <li>{@code o} — a name of an option without value, {@code v} — with a value</li>
+ * <li>{@code =} — a value of the option of the canonical name</li>
+ * <li>{@code a} — a value of the arguments</li>
+ * <li>{@code s} — the file or directory sentinel printed for the arguments</li>
+ * </ul>
+ * Values computed by a custom {@link OptionCompleter} are recorded as {@link #JVM}: the
+ * query then prints {@link #JVM} and the script asks the program with
+ * {@code --aesh-complete}. The records are sorted by path and word, so that the query
+ * prints the candidates in the order of {@code --aesh-complete}.
+ *
+ * @author Aesh team
+ * @since 3.17
+ */
+public class CompletionDatabase {
+
+    public static final String HEADER = "#aesh-completion-db 1";
+    public static final String RESOURCE_DIRECTORY = "META-INF/aesh/completion/";
+
+    public static final String FILE = "__aesh_file__";
+    public static final String DIRECTORY = "__aesh_dir__";
+    public static final String JVM = "__aesh_jvm__";
+
+    public static final char COMMAND = 'c';
+    public static final char OPTION = 'o';
+    public static final char VALUE_OPTION = 'v';
+    public static final char OPTION_VALUE = '=';
+    public static final char ARGUMENT_VALUE = 'a';
+    public static final char SENTINEL = 's';
+
+    /**
+     * The query of the database, a POSIX awk program run as
+     * {@code LC_ALL=C awk "$program" <database> <words...>}, the words being the
+     * words after the program name. It prints the lines {@code --aesh-complete} would
+     * print for the words, or {@link #JVM} when the program has to answer.
+     * The program contains no single quote, the scripts write it in single quotes.
+     */
+    public static final String AWK_PROGRAM = "function out(word, desc) {\n" +
+            "    if (desc == \"\") print word; else print word \"\\t\" desc\n" +
+            "}\n" +
+            "function jvm() {\n" +
+            "    print \"" + JVM + "\"\n" +
+            "    done = 1\n" +
+            "    exit\n" +
+            "}\n" +
+            "BEGIN {\n" +
+            "    FS = \"\\t\"\n" +
+            "    n = ARGC - 2\n" +
+            "    for (i = 0; i < n; i++) {\n" +
+            "        w[i] = ARGV[i + 2]\n" +
+            "        ARGV[i + 2] = \"\"\n" +
+            "    }\n" +
+            "    ARGC = 2\n" +
+            "}\n" +
+            "NR == 1 {\n" +
+            "    if ($0 != \"" + HEADER + "\") jvm()\n" +
+            "    next\n" +
+            "}\n" +
+            "{\n" +
+            "    r++; p[r] = $1; k[r] = $2; x[r] = $3; o[r] = $4; d[r] = $5\n" +
+            "    if ($2 == \"c\") { cmd[$1 SUBSEP $3] = 1; group[$1] = 1 }\n" +
+            "    else if ($2 == \"o\" || $2 == \"v\") { kind[$1 SUBSEP $3] = $2; canon[$1 SUBSEP $3] = $4 }\n" +
+            "    else if ($2 == \"s\") sentinel[$1] = $3\n" +
+            "}\n" +
+            "END {\n" +
+            "    if (done || NR == 0) exit\n" +
+            "    path = \"\"; pending = \"\"\n" +
+            "    for (i = 0; i < n - 1; i++) {\n" +
+            "        a = w[i]\n" +
+            "        if (pending != \"\") { pending = \"\"; continue }\n" +
+            "        if (substr(a, 1, 1) == \"-\") {\n" +
+            "            name = a; sub(/=.*/, \"\", name); key = path SUBSEP name\n" +
+            "            if (key in kind) {\n" +
+            "                used[canon[key]] = 1\n" +
+            "                if (kind[key] == \"v\" && index(a, \"=\") == 0) pending = canon[key]\n" +
+            "            }\n" +
+            "        } else if ((path SUBSEP a) in cmd) {\n" +
+            "            path = (path == \"\") ? a : (path \" \" a)\n" +
+            "            split(\"\", used)\n" +
+            "        }\n" +
+            "    }\n" +
+            "    cur = (n > 0) ? w[n - 1] : \"\"\n" +
+            "    inline = 0\n" +
+            "    if (pending == \"\" && cur ~ /^-[^=]*=/) {\n" +
+            "        name = cur; sub(/=.*/, \"\", name); key = path SUBSEP name\n" +
+            "        if (kind[key] == \"v\") { pending = canon[key]; cur = substr(cur, index(cur, \"=\") + 1); inline = 1 }\n"
+            +
+            "    }\n" +
+            "    if (pending != \"\") {\n" +
+            "        for (j = 1; j <= r; j++) {\n" +
+            "            if (k[j] != \"=\" || p[j] != path || o[j] != pending) continue\n" +
+            "            if (x[j] == \"" + JVM + "\") jvm()\n" +
+            "            if (substr(x[j], 1, 7) == \"__aesh_\") { print x[j]; marker = x[j] }\n" +
+            "            else if (index(x[j], cur) == 1) print x[j]\n" +
+            "        }\n" +
+            "        if (!inline && (path in sentinel) && sentinel[path] != marker) print sentinel[path]\n" +
+            "        exit\n" +
+            "    }\n" +
+            "    if (substr(cur, 1, 1) == \"-\") {\n" +
+            "        for (j = 1; j <= r; j++)\n" +
+            "            if ((k[j] == \"o\" || k[j] == \"v\") && p[j] == path && substr(x[j], 1, 2) == \"--\" &&\n" +
+            "                    !(o[j] in used) && index(x[j], cur) == 1) out(x[j], d[j])\n" +
+            "        exit\n" +
+            "    }\n" +
+            "    if (path in group) {\n" +
+            "        for (j = 1; j <= r; j++)\n" +
+            "            if (k[j] == \"c\" && p[j] == path && index(x[j], cur) == 1) out(x[j], d[j])\n" +
+            "    } else {\n" +
+            "        for (j = 1; j <= r; j++)\n" +
+            "            if (k[j] == \"a\" && p[j] == path && x[j] == \"" + JVM + "\") jvm()\n" +
+            "        for (j = 1; j <= r; j++) {\n" +
+            "            if (p[j] != path) continue\n" +
+            "            if (cur == \"\" && (k[j] == \"o\" || k[j] == \"v\") && substr(x[j], 1, 2) == \"--\" && !(o[j] in used))\n"
+            +
+            "                out(x[j], d[j])\n" +
+            "            else if (k[j] == \"a\" && index(x[j], cur) == 1) print x[j]\n" +
+            "        }\n" +
+            "    }\n" +
+            "    if (path in sentinel) print sentinel[path]\n" +
+            "}\n";
+
+    private static final Comparator<String[]> RECORD_ORDER = Comparator.<String[], String> comparing(r -> r[0])
+            .thenComparing(r -> r[2], String.CASE_INSENSITIVE_ORDER)
+            .thenComparing(r -> r[1])
+            .thenComparing(r -> r[3]);
+
+    private final List<String[]> records = new ArrayList<>();
+
+    /**
+     * Add a subcommand.
+     *
+     * @param path the path of the group command
+     * @param name the name of the subcommand
+     * @param description the description, may be null
+     */
+    public void addCommand(String path, String name, String description) {
+        add(path, COMMAND, name, "", description);
+    }
+
+    /**
+     * Add a name of an option, given with its dashes: {@code --name}, {@code -n}, an
+     * alias or the negated name.
+     *
+     * @param path the path of the command
+     * @param word the name with its dashes
+     * @param canonicalName the name of the option, the same for all its names
+     * @param hasValue true if the option takes a value
+     * @param description the description, may be null
+     */
+    public void addOption(String path, String word, String canonicalName, boolean hasValue, String description) {
+        add(path, hasValue ? VALUE_OPTION : OPTION, word, canonicalName, description);
+    }
+
+    /**
+     * Add a value of an option, or one of {@link #FILE}, {@link #DIRECTORY} and {@link #JVM}.
+     */
+    public void addOptionValue(String path, String canonicalName, String value) {
+        add(path, OPTION_VALUE, value, canonicalName, null);
+    }
+
+    /**
+     * Add a value of the arguments, or {@link #JVM}.
+     */
+    public void addArgumentValue(String path, String value) {
+        add(path, ARGUMENT_VALUE, value, "", null);
+    }
+
+    /**
+     * Set the sentinel printed for the arguments of the command, nothing is printed
+     * unless the fallback is {@link CompletionFallback#FILES} or
+     * {@link CompletionFallback#DIRECTORIES}.
+     */
+    public void setFallback(String path, CompletionFallback fallback) {
+        if (fallback == CompletionFallback.FILES)
+            add(path, SENTINEL, FILE, "", null);
+        else if (fallback == CompletionFallback.DIRECTORIES)
+            add(path, SENTINEL, DIRECTORY, "", null);
+    }
+
+    private void add(String path, char kind, String word, String canonicalName, String description) {
+        records.add(new String[] { clean(path), String.valueOf(kind), clean(word), clean(canonicalName),
+                clean(description) });
+    }
+
+    /**
+     * Write the database, the records sorted.
+     */
+    public void write(Writer writer) throws IOException {
+        List<String[]> sorted = new ArrayList<>(records);
+        sorted.sort(RECORD_ORDER);
+        writer.write(HEADER);
+        writer.write('\n');
+        for (String[] record : sorted) {
+            writer.write(String.join("\t", record));
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    @Override
+    public String toString() {
+        StringWriter writer = new StringWriter();
+        try {
+            write(writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * @param commandName the name of the root command
+     * @return the name of the resource written by the annotation processor
+     */
+    public static String resourceName(String commandName) {
+        return RESOURCE_DIRECTORY + commandName + ".db";
+    }
+
+    /**
+     * @return the path of a subcommand
+     */
+    public static String path(String parentPath, String name) {
+        return parentPath.isEmpty() ? name : parentPath + " " + name;
+    }
+
+    /**
+     * Create the database of a command and its subcommands.
+     *
+     * @param parser the parser of the root command
+     * @return the database
+     */
+    public static CompletionDatabase of(CommandLineParser<?> parser) {
+        CompletionDatabase database = new CompletionDatabase();
+        String programName = parser.getProcessedCommand().name();
+        database.addCommand(parser, "", null, programName, new ArrayList<>());
+        return database;
+    }
+
+    private void addCommand(CommandLineParser<?> parser, String path, String parentName, String programName,
+            List<ProcessedOption> inheritedOptions) {
+        ProcessedCommand<?, ?> command = parser.getProcessedCommand();
+        List<ProcessedOption> options = new ArrayList<>(command.getOptions());
+        Set<String> names = new HashSet<>();
+        for (ProcessedOption option : options)
+            names.add(option.name());
+        for (ProcessedOption option : inheritedOptions)
+            if (names.add(option.name()))
+                options.add(option);
+
+        for (ProcessedOption option : options) {
+            if (option.isProperty() || option.name() == null || option.name().isEmpty())
+                continue;
+            String description = ProcessedCommand.resolveOptionDesc(command, option, programName, parentName);
+            String canonicalName = option.name();
+            addOption(path, "--" + canonicalName, canonicalName, option.hasValue(), description);
+            for (String alias : option.getAliases())
+                addOption(path, "--" + alias, canonicalName, option.hasValue(), description);
+            if (option.shortName() != null && !option.shortName().isEmpty())
+                addOption(path, "-" + option.shortName(), canonicalName, option.hasValue(), description);
+            if (option.isNegatable() && option.getNegatedName() != null)
+                addOption(path, "--" + option.getNegatedName(), canonicalName, false, description);
+            if (option.hasValue()) {
+                for (String value : values(option))
+                    addOptionValue(path, canonicalName, value);
+            }
+        }
+
+        ProcessedOption argument = command.getArgument() != null ? command.getArgument() : command.getArguments();
+        if (argument != null) {
+            for (String value : values(argument))
+                if (!FILE.equals(value))
+                    addArgumentValue(path, value);
+            setFallback(path, argument.getCompleteFallback());
+        } else {
+            setFallback(path, CompletionFallback.FILES);
+        }
+
+        if (parser.isGroupCommand()) {
+            List<ProcessedOption> childInherited = new ArrayList<>(inheritedOptions);
+            for (ProcessedOption option : command.getOptions())
+                if (option.isInherited())
+                    childInherited.add(option);
+            for (CommandLineParser<?> child : parser.getAllChildParsers()) {
+                ProcessedCommand<?, ?> childCommand = child.getProcessedCommand();
+                addCommand(path, childCommand.name(), ProcessedCommand.resolveDescription(childCommand,
+                        childCommand.description(), programName, command.name()));
+                addCommand(child, path(path, childCommand.name()), command.name(), programName, childInherited);
+            }
+        }
+    }
+
+    /**
+     * The values completed by the completer of the option, as {@link OptionCompleter}
+     * implementations are not known the values of a custom completer are {@link #JVM}.
+     */
+    private static List<String> values(ProcessedOption option) {
+        List<String> values = new ArrayList<>();
+        OptionCompleter<?> completer = option.completer();
+        if (completer != null && !(completer instanceof NullOptionCompleter)
+                && !(completer instanceof DefaultValueOptionCompleter) && !(completer instanceof BooleanOptionCompleter)
+                && !(completer instanceof FileOptionCompleter)) {
+            values.add(JVM);
+        } else if (option.hasAllowedValues()) {
+            values.addAll(option.getAllowedValues());
+        } else if (completer instanceof BooleanOptionCompleter) {
+            values.add("true");
+            values.add("false");
+        } else if (completer instanceof FileOptionCompleter) {
+            values.add(FILE);
+        }
+        return values;
+    }
+
+    private static String clean(String value) {
+        if (value == null)
+            return "";
+        return value.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+}
@@ -189,9 +189,21 @@ public class FishCompletionGenerator implements ShellCompletionGenerator {
 
     @Override
     public String generateDynamic(CommandLineParser<? extends CommandInvocation> parser, String programName) {
+        return dynamicScript(programName, "", programName + " --aesh-complete --");
+    }
+
+    @Override
+    public String generateOffline(CommandLineParser<? extends CommandInvocation> parser, String programName,
+            String databasePath, boolean completionDaemon) {
+        return dynamicScript(programName, databaseClient(programName, databasePath),
+                "__" + programName + "_db_query");
+    }
+
+    private static String dynamicScript(String programName, String clients, String query) {
         return "# Dynamic fish completion for " + programName + " — generated by Aesh." + NL +
                 "# Place this file in ~/.config/fish/completions/" + programName + ".fish" + NL +
                 NL +
+                clients +
                 "function __" + programName + "_complete" + NL +
                 "    set -l tokens (commandline -opc)" + NL +
                 "    set -l current (commandline -ct)" + NL +
@@ -205,7 +217,7 @@ public class FishCompletionGenerator implements ShellCompletionGenerator {
                 "    if string match -qr '\\s$' -- (commandline -cp)" + NL +
                 "        set tokens $tokens ''" + NL +
                 "    end" + NL +
-                "    set -l results (" + programName + " --aesh-complete -- $tokens[2..])" + NL +
+                "    set -l results (" + query + " $tokens[2..])" + NL +
                 "    # Check for file/dir sentinels from aesh and provide appropriate completion" + NL +
                 "    if contains -- __aesh_file__ $results" + NL +
                 "        set results (string match -v -- '__aesh_file__' $results)" + NL +
@@ -230,6 +242,39 @@ public class FishCompletionGenerator implements ShellCompletionGenerator {
                 "complete -c " + programName + " -f -k -a '(__" + programName + "_complete)'" + NL;
     }
 
+    /**
+     * The query of the completion database, with awk. The program answers the words the
+     * database cannot, and writes the database when it is missing or older than the program.
+     */
+    private static String databaseClient(String programName, String databasePath) {
+        StringBuilder out = new StringBuilder();
+        out.append("function __").append(programName).append("_db_query").append(NL);
+        if (databasePath == null) {
+            out.append("    set -l db $HOME/.aesh/completion/").append(programName).append(".db").append(NL);
+            out.append("    set -l program (command -s ").append(programName).append(")").append(NL);
+            out.append("    if not test -s $db; or begin; test -n \"$program\"; and command test $program -nt $db; end")
+                    .append(NL);
+            out.append("        mkdir -p (dirname $db); and ").append(programName)
+                    .append(" --aesh-completion-db >$db.$fish_pid 2>/dev/null; and mv -f $db.$fish_pid $db;")
+                    .append(" or rm -f $db.$fish_pid").append(NL);
+            out.append("    end").append(NL);
+        } else {
+            out.append("    set -l db '").append(escapeFish(databasePath)).append("'").append(NL);
+        }
+        out.append("    if test -r $db").append(NL);
+        out.append("        set -l candidates (env LC_ALL=C awk '").append(CompletionDatabase.AWK_PROGRAM)
+                .append("' $db $argv)").append(NL);
+        out.append("        if test $status -eq 0; and not contains -- ").append(CompletionDatabase.JVM)
+                .append(" $candidates").append(NL);
+        out.append("            string join \\n -- $candidates").append(NL);
+        out.append("            return").append(NL);
+        out.append("        end").append(NL);
+        out.append("    end").append(NL);
+        out.append("    ").append(programName).append(" --aesh-complete -- $argv").append(NL);
+        out.append("end").append(NL).append(NL);
+        return out.toString();
+    }
+
     private static String escapeFish(String s) {
         if (s == null || s.isEmpty())
             return "";
@@ -204,10 +204,20 @@ class PowerShellCompletionGenerator implements ShellCompletionGenerator {
 
     @Override
     public String generateDynamic(CommandLineParser<? extends CommandInvocation> parser, String programName) {
+        return generateDynamic(parser, programName, false);
+    }
+
+    @Override
+    public String generateDynamic(CommandLineParser<? extends CommandInvocation> parser, String programName,
+            boolean completionDaemon) {
         String escaped = escapePwsh(programName);
+        String query = completionDaemon
+                ? "__aesh_query_" + programName + " $cmdArgs"
+                : "& '" + escaped + "' --aesh-complete -- @cmdArgs 2>$null";
         return "# Dynamic PowerShell completion for " + programName + " \u2014 generated by Aesh." + NL +
                 "# Add this to your $PROFILE or source it: . " + programName + "_complete.ps1" + NL +
                 NL +
+                (completionDaemon ? daemonClient(programName) : "") +
                 "Register-ArgumentCompleter -Native -CommandName '" + escaped + "' -ScriptBlock {" + NL +
                 "    param($wordToComplete, $commandAst, $cursorPosition)" + NL +
                 NL +
@@ -224,7 +234,7 @@ class PowerShellCompletionGenerator implements ShellCompletionGenerator {
                 "        $cmdArgs += ''" + NL +
                 "    }" + NL +
                 NL +
-                "    & '" + escaped + "' --aesh-complete -- @cmdArgs 2>$null | ForEach-Object {" + NL +
+                "    " + query + " | ForEach-Object {" + NL +
                 "        $parts = $_ -split \"`t\", 2" + NL +
                 "        $text = $parts[0].Trim()" + NL +
                 "        if ($text -eq '__aesh_file__') {" + NL +
@@ -248,6 +258,57 @@ class PowerShellCompletionGenerator implements ShellCompletionGenerator {
                 "}" + NL;
     }
 
+    /**
+     * The client of the completion daemon, a request with a TcpClient. When the daemon
+     * does not answer it is started in the background and --aesh-complete answers. Each
+     * read waits at most {@link CompletionDaemon#CLIENT_READ_TIMEOUT_SECONDS} seconds, the
+     * reply is returned once it is complete so that a daemon that stops answering falls
+     * back to --aesh-complete.
+     */
+    private static String daemonClient(String programName) {
+        String escaped = escapePwsh(programName);
+        return "function __aesh_query_" + programName + "([string[]]$words) {" + NL +
+                "    $state = Join-Path $HOME '.aesh/completion/" + escaped + ".daemon'" + NL +
+                "    if (Test-Path $state) {" + NL +
+                "        try {" + NL +
+                "            $daemon = @(Get-Content $state)" + NL +
+                "            $client = [System.Net.Sockets.TcpClient]::new('127.0.0.1', [int]$daemon[0])" + NL +
+                "            try {" + NL +
+                "                $client.ReceiveTimeout = " + CompletionDaemon.CLIENT_READ_TIMEOUT_SECONDS * 1000 + NL +
+                "                $stream = $client.GetStream()" + NL +
+                "                $writer = [System.IO.StreamWriter]::new($stream, [System.Text.UTF8Encoding]::new($false))" + NL
+                +
+                "                $writer.NewLine = \"`n\"" + NL +
+                "                $writer.WriteLine($daemon[1])" + NL +
+                "                $writer.WriteLine((Get-Location).ProviderPath)" + NL +
+                "                $writer.WriteLine($words.Count)" + NL +
+                "                foreach ($word in $words) { $writer.WriteLine($word) }" + NL +
+                "                $writer.Flush()" + NL +
+                "                $reader = [System.IO.StreamReader]::new($stream, [System.Text.Encoding]::UTF8)" + NL +
+                "                if ($reader.ReadLine() -eq 'ok') {" + NL +
+                "                    $reply = [System.Collections.Generic.List[string]]::new()" + NL +
+                "                    while ($null -ne ($line = $reader.ReadLine())) { $reply.Add($line) }" + NL +
+                "                    return $reply" + NL +
+                "                }" + NL +
+                "            } finally {" + NL +
+                "                $client.Dispose()" + NL +
+                "            }" + NL +
+                "        } catch {" + NL +
+                "        }" + NL +
+                "    }" + NL +
+                "    try {" + NL +
+                "        $start = [System.Diagnostics.ProcessStartInfo]::new('" + escaped + "', '--aesh-complete-daemon')" + NL
+                +
+                "        $start.UseShellExecute = $false" + NL +
+                "        $start.CreateNoWindow = $true" + NL +
+                "        [void][System.Diagnostics.Process]::Start($start)" + NL +
+                "    } catch {" + NL +
+                "    }" + NL +
+                "    & '" + escaped + "' --aesh-complete -- @words 2>$null" + NL +
+                "}" + NL +
+                NL;
+    }
+
     private static String escapePwsh(String s) {
         if (s == null || s.isEmpty())
             return "";
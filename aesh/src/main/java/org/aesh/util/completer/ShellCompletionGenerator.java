@@ -53,6 +53,52 @@ public interface ShellCompletionGenerator {
      */
     String generateDynamic(CommandLineParser<? extends CommandInvocation> parser, String programName);
 
+    /**
+     * Generate a dynamic callback completion script. With {@code completionDaemon} the
+     * script asks the {@link CompletionDaemon} of the program first, starting it with
+     * {@code --aesh-complete-daemon} when it does not answer, and calls
+     * {@code --aesh-complete} meanwhile.
+     * <p>
+     * Shells without a client for the daemon return the script of
+     * {@link #generateDynamic(CommandLineParser, String)}.
+     *
+     * @param parser the command parser
+     * @param programName the name of the program
+     * @param completionDaemon true to use the completion daemon
+     * @return the dynamic completion script content
+     * @since 3.17
+     */
+    default String generateDynamic(CommandLineParser<? extends CommandInvocation> parser, String programName,
+            boolean completionDaemon) {
+        return generateDynamic(parser, programName);
+    }
+
+    /**
+     * Generate a completion script answering from the {@link CompletionDatabase} of the
+     * program with awk, without starting the program. The program is called with
+     * {@code --aesh-complete}, or the completion daemon is asked with
+     * {@code completionDaemon}, only for the values of custom completers.
+     * <p>
+     * With a null {@code databasePath} the script keeps the database in
+     * {@code ~/.aesh/completion/<program>.db}, written with {@code --aesh-completion-db}
+     * when it is missing or older than the program. Otherwise the script reads the
+     * database at the path, installed with the program.
+     * <p>
+     * Shells without a database query return the script of
+     * {@link #generateDynamic(CommandLineParser, String, boolean)}.
+     *
+     * @param parser the command parser
+     * @param programName the name of the program
+     * @param databasePath the path of the database, or null
+     * @param completionDaemon true to use the completion daemon for the custom completers
+     * @return the completion script content
+     * @since 3.17
+     */
+    default String generateOffline(CommandLineParser<? extends CommandInvocation> parser, String programName,
+            String databasePath, boolean completionDaemon) {
+        return generateDynamic(parser, programName, completionDaemon);
+    }
+
     /**
      * Supported shell types.
      */
@@ -233,11 +233,32 @@ public class ZshCompletionGenerator implements ShellCompletionGenerator {
 
     @Override
     public String generateDynamic(CommandLineParser<? extends CommandInvocation> parser, String programName) {
+        return generateDynamic(parser, programName, false);
+    }
+
+    @Override
+    public String generateDynamic(CommandLineParser<? extends CommandInvocation> parser, String programName,
+            boolean completionDaemon) {
+        String query = completionDaemon ? "_" + programName + "_query" : programName + " --aesh-complete --";
+        return dynamicScript(programName, completionDaemon ? daemonClient(programName) : "", query);
+    }
+
+    @Override
+    public String generateOffline(CommandLineParser<? extends CommandInvocation> parser, String programName,
+            String databasePath, boolean completionDaemon) {
+        String query = completionDaemon ? "_" + programName + "_query" : programName + " --aesh-complete --";
+        return dynamicScript(programName,
+                (completionDaemon ? daemonClient(programName) : "") + databaseClient(programName, databasePath, query),
+                "_" + programName + "_db_query");
+    }
+
+    private static String dynamicScript(String programName, String clients, String query) {
         return "#compdef " + programName + NL +
                 NL +
                 "# Dynamic zsh completion for " + programName + " — generated by Aesh." + NL +
                 "# Place this file in a directory listed in $fpath (e.g., ~/.zsh/completions/)" + NL +
                 NL +
+                clients +
                 "_" + programName + "() {" + NL +
                 "    local -a completions descriptions" + NL +
                 "    local line has_file_sentinel=0 has_dir_sentinel=0" + NL +
@@ -252,7 +273,7 @@ public class ZshCompletionGenerator implements ShellCompletionGenerator {
                 "                descriptions+=(\"$val:$desc\")" + NL +
                 "            fi" + NL +
                 "        fi" + NL +
-                "    done < <(" + programName + " --aesh-complete -- \"${words[@]:1}\")" + NL +
+                "    done < <(" + query + " \"${words[@]:1}\")" + NL +
                 "    if (( ${#descriptions} > 0 )); then" + NL +
                 "        _describe '' descriptions" + NL +
                 "    elif (( ${#completions} > 0 )); then" + NL +
@@ -268,6 +289,78 @@ public class ZshCompletionGenerator implements ShellCompletionGenerator {
                 "_" + programName + " \"$@\"" + NL;
     }
 
+    /**
+     * The client of the completion daemon, a request with the zsh/net/tcp module. When the
+     * daemon does not answer it is started in the background and --aesh-complete answers.
+     * Each read waits at most {@link CompletionDaemon#CLIENT_READ_TIMEOUT_SECONDS} seconds
+     * with zselect, the reply is printed once it is complete so that a daemon that stops
+     * answering falls back to --aesh-complete.
+     */
+    private static String daemonClient(String programName) {
+        return "_" + programName + "_query() {" + NL +
+                "    local state=\"$HOME/.aesh/completion/" + programName + ".daemon\" port token reply_status fd" + NL +
+                "    if [[ -r $state ]] && { read -r port && read -r token } < \"$state\" &&" + NL +
+                "            zmodload zsh/net/tcp zsh/zselect 2>/dev/null && ztcp 127.0.0.1 \"$port\" 2>/dev/null; then" + NL +
+                "        fd=$REPLY" + NL +
+                "        print -rl -- \"$token\" \"$PWD\" \"$#\" \"$@\" >&$fd" + NL +
+                "        if zselect -t " + CompletionDaemon.CLIENT_READ_TIMEOUT_SECONDS * 100
+                + " -r $fd && IFS= read -r reply_status <&$fd &&" + NL +
+                "                [[ $reply_status == ok ]]; then" + NL +
+                "            local answer= line complete=0" + NL +
+                "            # the socket is readable at the end of the answer, where read fails" + NL +
+                "            while zselect -t " + CompletionDaemon.CLIENT_READ_TIMEOUT_SECONDS * 100 + " -r $fd; do" + NL +
+                "                if ! IFS= read -r line <&$fd; then" + NL +
+                "                    answer+=$line" + NL +
+                "                    complete=1" + NL +
+                "                    break" + NL +
+                "                fi" + NL +
+                "                answer+=$line$'\\n'" + NL +
+                "            done" + NL +
+                "            ztcp -c $fd" + NL +
+                "            if (( complete )); then" + NL +
+                "                print -rn -- \"$answer\"" + NL +
+                "                return" + NL +
+                "            fi" + NL +
+                "        else" + NL +
+                "            ztcp -c $fd" + NL +
+                "        fi" + NL +
+                "    fi" + NL +
+                "    " + programName + " --aesh-complete-daemon </dev/null >/dev/null 2>&1 &!" + NL +
+                "    " + programName + " --aesh-complete -- \"$@\"" + NL +
+                "}" + NL +
+                NL;
+    }
+
+    /**
+     * The query of the completion database, with awk. The program answers the words the
+     * database cannot, and writes the database when it is missing or older than the program.
+     */
+    private static String databaseClient(String programName, String databasePath, String query) {
+        StringBuilder out = new StringBuilder();
+        out.append("_").append(programName).append("_db_query() {").append(NL);
+        if (databasePath == null) {
+            out.append("    local db=\"$HOME/.aesh/completion/").append(programName).append(".db\" program candidates")
+                    .append(NL);
+            out.append("    program=${commands[").append(programName).append("]}").append(NL);
+            out.append("    if [[ ! -s $db || ( -n $program && $program -nt $db ) ]]; then").append(NL);
+            out.append("        mkdir -p \"${db%/*}\" && ").append(programName)
+                    .append(" --aesh-completion-db >\"$db.$$\" 2>/dev/null &&").append(NL);
+            out.append("            mv -f \"$db.$$\" \"$db\" || rm -f \"$db.$$\"").append(NL);
+            out.append("    fi").append(NL);
+        } else {
+            out.append("    local db='").append(databasePath.replace("'", "'\\''")).append("' candidates").append(NL);
+        }
+        out.append("    if [[ -r $db ]] && candidates=$(LC_ALL=C awk '").append(CompletionDatabase.AWK_PROGRAM)
+                .append("' \"$db\" \"$@\") &&").append(NL);
+        out.append("            [[ $candidates != *").append(CompletionDatabase.JVM).append("* ]]; then").append(NL);
+        out.append("        [[ -n $candidates ]] && print -r -- \"$candidates\"").append(NL);
+        out.append("        return").append(NL);
+        out.append("    fi").append(NL);
+        out.append("    ").append(query).append(" \"$@\"").append(NL);
+        out.append("}").append(NL).append(NL);
+        return out.toString();
+    }
+
     private static String escapeZsh(String s) {
         if (s == null)
             return "";
@@ -42,6 +42,7 @@ import org.aesh.command.option.Argument;
 import org.aesh.command.option.Arguments;
 import org.aesh.command.option.CompletionFallback;
 import org.aesh.command.option.Option;
+import org.aesh.util.completer.CompletionDatabase;
 import org.aesh.util.completer.ShellCompletionGenerator.ShellType;
 import org.junit.Test;
 
@@ -309,6 +310,47 @@ public class AeshRuntimeRunnerTest {
         assertTrue("Should contain complete command", output.contains("complete"));
     }
 
+    @Test
+    public void testAeshCompletionFlagDaemon() {
+        String output = captureStdout(() -> AeshRuntimeRunner.builder()
+                .command(CaptureCommand.class)
+                .args("--aesh-completion", "bash", "--daemon")
+                .execute());
+        assertTrue("Should start the completion daemon", output.contains("capture --aesh-complete-daemon"));
+
+        output = captureStdout(() -> AeshRuntimeRunner.builder()
+                .command(CaptureCommand.class)
+                .completionDaemon(true)
+                .generateDynamicCompletion(ShellType.BASH)
+                .execute());
+        assertTrue("Should start the completion daemon", output.contains("capture --aesh-complete-daemon"));
+    }
+
+    @Test
+    public void testAeshCompletionFlagOffline() {
+        String output = captureStdout(() -> AeshRuntimeRunner.builder()
+                .command(CaptureCommand.class)
+                .args("--aesh-completion", "bash", "--offline")
+                .execute());
+        assertTrue("Should query the completion database", output.contains("capture --aesh-completion-db"));
+
+        output = captureStdout(() -> AeshRuntimeRunner.builder()
+                .command(CaptureCommand.class)
+                .offlineCompletion(true)
+                .generateDynamicCompletion(ShellType.BASH)
+                .execute());
+        assertTrue("Should query the completion database", output.contains("capture --aesh-completion-db"));
+    }
+
+    @Test
+    public void testAeshCompletionDatabase() {
+        String output = captureStdout(() -> AeshRuntimeRunner.builder()
+                .command(CaptureCommand.class)
+                .args("--aesh-completion-db")
+                .execute());
+        assertTrue(output, output.startsWith(CompletionDatabase.HEADER + "\n"));
+    }
+
     @Test
     public void testAeshCompletionFlagStaticBash() {
         String output = captureStdout(() -> AeshRuntimeRunner.builder()
@@ -0,0 +1,192 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.command;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.aesh.command.impl.internal.ProcessedCommand;
+import org.aesh.command.impl.internal.ProcessedCommandBuilder;
+import org.aesh.command.impl.internal.ProcessedOptionBuilder;
+import org.aesh.command.impl.registry.AeshCommandRegistryBuilder;
+import org.aesh.command.invocation.CommandInvocation;
+import org.aesh.command.option.Option;
+import org.aesh.command.registry.CommandRegistry;
+import org.junit.Test;
+
+/**
+ * @author Aesh team
+ */
+public class CommandScopeTest {
+
+    private static final Set<Object> instances = Collections.synchronizedSet(
+            Collections.newSetFromMap(new IdentityHashMap<>()));
+
+    @Test
+    public void testPrototypeInstancesAreReused() throws Exception {
+        instances.clear();
+        CommandRegistry<CommandInvocation> registry = AeshCommandRegistryBuilder.builder()
+                .command(PrototypeCommand.class).create();
+        CommandRuntime<CommandInvocation> runtime = AeshCommandRuntimeBuilder.builder()
+                .commandRegistry(registry).build();
+
+        for (int i = 0; i < 5; i++)
+            assertEquals(CommandResult.SUCCESS, runtime.executeCommand("proto --value " + i));
+
+        // one instance taken from the pool each time, not the registered one
+        assertEquals(1, instances.size());
+        Object registered = registry.getCommand("proto", "").getParser().getProcessedCommand().getCommand();
+        assertNotSame(registered, instances.iterator().next());
+    }
+
+    @Test
+    public void testConcurrentExecutions() throws Exception {
+        CommandRegistry<CommandInvocation> registry = AeshCommandRegistryBuilder.builder()
+                .command(PrototypeCommand.class).create();
+        CommandRuntime<CommandInvocation> runtime = AeshCommandRuntimeBuilder.builder()
+                .commandRegistry(registry).build();
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<CommandResult>> results = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String line = "proto --value " + i;
+            results.add(pool.submit((Callable<CommandResult>) () -> runtime.executeCommand(line)));
+        }
+        for (Future<CommandResult> result : results)
+            assertEquals(CommandResult.SUCCESS, result.get(10, TimeUnit.SECONDS));
+        pool.shutdown();
+    }
+
+    @Test
+    public void testSameCommandInPipeline() throws Exception {
+        CommandRegistry<CommandInvocation> registry = AeshCommandRegistryBuilder.builder()
+                .command(PrototypeCommand.class).create();
+        CommandRuntime<CommandInvocation> runtime = AeshCommandRuntimeBuilder.builder()
+                .commandRegistry(registry)
+                .operators(AeshCommandRuntimeBuilder.ALL_OPERATORS)
+                .build();
+
+        Executor<CommandInvocation> executor = runtime.buildExecutor("proto --value 1 | proto --value 2");
+        List<Execution<CommandInvocation>> executions = executor.getExecutions();
+        assertEquals(2, executions.size());
+        executions.get(0).populateCommand();
+        executions.get(1).populateCommand();
+        assertNotSame(executions.get(0).getCommand(), executions.get(1).getCommand());
+        assertEquals(1, ((PrototypeCommand) executions.get(0).getCommand()).value);
+        assertEquals(2, ((PrototypeCommand) executions.get(1).getCommand()).value);
+    }
+
+    @Test
+    public void testSingletonUsesRegisteredInstance() throws Exception {
+        CommandRegistry<CommandInvocation> registry = AeshCommandRegistryBuilder.builder()
+                .command(SingletonCommand.class).create();
+        CommandRuntime<CommandInvocation> runtime = AeshCommandRuntimeBuilder.builder()
+                .commandRegistry(registry).build();
+
+        Executor<CommandInvocation> executor = runtime.buildExecutor("single");
+        Object registered = registry.getCommand("single", "").getParser().getProcessedCommand().getCommand();
+        assertSame(registered, executor.getExecutions().get(0).getCommand());
+    }
+
+    @Test
+    public void testBuilderPrototype() throws Exception {
+        instances.clear();
+        BuiltCommand registered = new BuiltCommand("registered");
+        ProcessedCommand<Command<CommandInvocation>, CommandInvocation> command = ProcessedCommandBuilder.builder()
+                .name("built")
+                .command(registered)
+                .commandFactory(() -> new BuiltCommand("new"))
+                .scope(CommandScope.PROTOTYPE)
+                .addOption(ProcessedOptionBuilder.builder()
+                        .name("value")
+                        .type(int.class)
+                        .fieldName("value")
+                        .addDefaultValue("0")
+                        .build())
+                .create();
+        CommandRegistry<CommandInvocation> registry = AeshCommandRegistryBuilder.builder()
+                .command(command).create();
+        CommandRuntime<CommandInvocation> runtime = AeshCommandRuntimeBuilder.builder()
+                .commandRegistry(registry).build();
+
+        assertEquals(CommandResult.SUCCESS, runtime.executeCommand("built --value 3"));
+        assertEquals(CommandResult.SUCCESS, runtime.executeCommand("built"));
+
+        // the registered instance is never populated, the new one is reused from the pool
+        assertEquals(0, registered.value);
+        assertEquals(1, instances.size());
+        BuiltCommand executed = (BuiltCommand) instances.iterator().next();
+        assertEquals("new", executed.name);
+        assertEquals(Arrays.asList(3, 0), executed.values);
+    }
+
+    @CommandDefinition(name = "proto", description = "", scope = CommandScope.PROTOTYPE)
+    public static class PrototypeCommand implements Command<CommandInvocation> {
+        @Option(defaultValue = "0")
+        private int value;
+
+        @Override
+        public CommandResult execute(CommandInvocation invocation) throws InterruptedException {
+            instances.add(this);
+            int populated = value;
+            // another execution populating this instance would change the value
+            Thread.sleep(1);
+            return populated == value ? CommandResult.SUCCESS : CommandResult.FAILURE;
+        }
+    }
+
+    public static class BuiltCommand implements Command<CommandInvocation> {
+        private final String name;
+        private final List<Integer> values = new ArrayList<>();
+        private int value;
+
+        BuiltCommand(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public CommandResult execute(CommandInvocation invocation) {
+            instances.add(this);
+            values.add(value);
+            return CommandResult.SUCCESS;
+        }
+    }
+
+    @CommandDefinition(name = "single", description = "")
+    public static class SingletonCommand implements Command<CommandInvocation> {
+        @Override
+        public CommandResult execute(CommandInvocation invocation) {
+            return CommandResult.SUCCESS;
+        }
+    }
+}
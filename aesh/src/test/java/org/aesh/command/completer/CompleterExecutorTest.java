@@ -0,0 +1,274 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.command.completer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import org.aesh.command.AeshCommandRuntimeBuilder;
+import org.aesh.command.Command;
+import org.aesh.command.CommandDefinition;
+import org.aesh.command.CommandResult;
+import org.aesh.command.CommandRuntime;
+import org.aesh.command.impl.completer.CompleterData;
+import org.aesh.command.impl.registry.AeshCommandRegistryBuilder;
+import org.aesh.command.invocation.CommandInvocation;
+import org.aesh.command.option.Option;
+import org.aesh.complete.AeshCompleteOperation;
+import org.aesh.console.AeshContext;
+import org.aesh.console.DefaultAeshContext;
+import org.aesh.terminal.formatting.TerminalString;
+import org.junit.Test;
+
+/**
+ * @author Aesh team
+ */
+public class CompleterExecutorTest {
+
+    private static final AeshContext CONTEXT = DefaultAeshContext.getDefault();
+
+    @Test
+    public void testFastCompleter() {
+        CompleterExecutor executor = new CompleterExecutor(5, TimeUnit.SECONDS);
+        CompleterInvocation invocation = new CompleterData(CONTEXT, "f", null);
+        AtomicBoolean pooled = new AtomicBoolean();
+        assertEquals(CompleterExecutor.Result.COMPLETE, executor.complete(i -> {
+            pooled.set(Thread.currentThread().getName().startsWith("aesh-completer-"));
+            i.addCompleterValue("foo");
+        }, invocation));
+        assertTrue(pooled.get());
+        assertEquals(1, invocation.getCompleterValues().size());
+        assertEquals(1, executor.generation());
+        assertEquals(0, executor.timedOutCompletions());
+        executor.shutdown();
+    }
+
+    @Test
+    public void testSlowCompleterIsCancelled() throws InterruptedException {
+        CompleterExecutor executor = new CompleterExecutor(100, TimeUnit.MILLISECONDS);
+        CompleterInvocation invocation = new CompleterData(CONTEXT, "", null);
+        CountDownLatch cancelled = new CountDownLatch(1);
+        long start = System.nanoTime();
+        assertEquals(CompleterExecutor.Result.DROPPED, executor.complete(i -> {
+            i.addCompleterValue("partial");
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                if (i.isCancelled())
+                    cancelled.countDown();
+            }
+        }, invocation));
+        assertTrue("The request should not wait for the completer",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5_000);
+        assertTrue(cancelled.await(5, TimeUnit.SECONDS));
+        assertEquals(1, executor.timedOutCompletions());
+        assertEquals(0, executor.partialCompletions());
+        waitForStaleCompletions(executor, 1);
+        executor.shutdown();
+    }
+
+    @Test
+    public void testPartialResults() {
+        CompleterExecutor executor = new CompleterExecutor(100, TimeUnit.MILLISECONDS);
+        CompleterInvocation invocation = new CompleterData(CONTEXT, "", null);
+        assertEquals(CompleterExecutor.Result.PARTIAL, executor.complete(new IndexCompleter(), invocation));
+        assertFalse(invocation.getCompleterValues().isEmpty());
+        assertEquals(1, executor.timedOutCompletions());
+        assertEquals(1, executor.partialCompletions());
+        assertEquals(0, executor.staleCompletions());
+        executor.shutdown();
+    }
+
+    @Test
+    public void testNewRequestCancelsPrevious() throws Exception {
+        CompleterExecutor executor = new CompleterExecutor(5, TimeUnit.SECONDS);
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicReference<CompleterExecutor.Result> firstResult = new AtomicReference<>();
+        Thread first = new Thread(() -> firstResult.set(executor.complete(i -> {
+            started.countDown();
+            while (!i.isCancelled())
+                Thread.yield();
+            i.addCompleterValue("stale");
+        }, new CompleterData(CONTEXT, "", null))));
+        first.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        CompleterInvocation invocation = new CompleterData(CONTEXT, "", null);
+        assertEquals(CompleterExecutor.Result.COMPLETE, executor.complete(i -> i.addCompleterValue("fresh"), invocation));
+        assertEquals("fresh", invocation.getCompleterValues().get(0).getCharacters());
+        first.join(5_000);
+        assertEquals("The values of a superseded request are dropped", CompleterExecutor.Result.DROPPED,
+                firstResult.get());
+        assertEquals(1, executor.staleCompletions());
+        assertEquals(2, executor.generation());
+        executor.shutdown();
+    }
+
+    @Test
+    public void testNotQueuedBehindRunningCompleter() throws Exception {
+        CompleterExecutor executor = new CompleterExecutor("aesh-completer", 1, 100, TimeUnit.MILLISECONDS);
+        CountDownLatch release = new CountDownLatch(1);
+        // ignores the cancellation and keeps the only pooled thread busy
+        assertEquals(CompleterExecutor.Result.DROPPED, executor.complete(i -> {
+            while (release.getCount() > 0) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    // keep running
+                }
+            }
+        }, new CompleterData(CONTEXT, "", null)));
+
+        CompleterInvocation invocation = new CompleterData(CONTEXT, "", null);
+        assertEquals(CompleterExecutor.Result.COMPLETE, executor.complete(i -> i.addCompleterValue("fresh"), invocation));
+        assertEquals("fresh", invocation.getCompleterValues().get(0).getCharacters());
+        assertEquals(1, executor.overflowCompletions());
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testCompleterFailure() {
+        CompleterExecutor executor = new CompleterExecutor();
+        try {
+            executor.complete(i -> {
+                throw new IllegalStateException("failed");
+            }, new CompleterData(CONTEXT, "", null));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testRunsOnCallingThreadAfterShutdown() {
+        CompleterExecutor executor = new CompleterExecutor();
+        executor.shutdown();
+        CompleterInvocation invocation = new CompleterData(CONTEXT, "", null);
+        Thread caller = Thread.currentThread();
+        assertEquals(CompleterExecutor.Result.COMPLETE, executor.complete(i -> {
+            if (Thread.currentThread() == caller)
+                i.addCompleterValue("inline");
+        }, invocation));
+        assertEquals(1, invocation.getCompleterValues().size());
+    }
+
+    @Test
+    public void testNotCancelledWithoutExecutor() {
+        CompleterInvocation invocation = new CompleterData(CONTEXT, "", null);
+        assertFalse(invocation.isCancelled());
+    }
+
+    @Test
+    public void testRuntimeCompletion() throws Exception {
+        CompleterExecutor executor = new CompleterExecutor(100, TimeUnit.MILLISECONDS);
+        CommandRuntime<CommandInvocation> runtime = AeshCommandRuntimeBuilder.builder()
+                .commandRegistry(AeshCommandRegistryBuilder.builder().command(LookupCommand.class).create())
+                .completerExecutor(executor)
+                .build();
+
+        assertEquals("[fast1, fast2]", complete(runtime, "lookup --fast fa").toString());
+        long start = System.nanoTime();
+        assertTrue(complete(runtime, "lookup --slow ").isEmpty());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5_000);
+        assertFalse(complete(runtime, "lookup --index ").isEmpty());
+        assertEquals(2, executor.timedOutCompletions());
+        executor.shutdown();
+    }
+
+    private static List<String> complete(CommandRuntime<CommandInvocation> runtime, String buffer) {
+        AeshCompleteOperation operation = new AeshCompleteOperation(CONTEXT, buffer, buffer.length());
+        runtime.complete(operation);
+        return operation.getCompletionCandidates().stream().map(TerminalString::getCharacters).sorted()
+                .collect(Collectors.toList());
+    }
+
+    private static void waitForStaleCompletions(CompleterExecutor executor, long completions)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (executor.staleCompletions() < completions && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+        assertEquals(completions, executor.staleCompletions());
+    }
+
+    /**
+     * Adds values until it is cancelled, like a completer walking a large index.
+     */
+    public static class IndexCompleter implements OptionCompleter<CompleterInvocation> {
+        @Override
+        public void complete(CompleterInvocation completerInvocation) {
+            for (int i = 0; !completerInvocation.isCancelled(); i++) {
+                completerInvocation.addCompleterValue("entry" + i);
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean supportsPartialResults() {
+            return true;
+        }
+    }
+
+    public static class FastCompleter implements OptionCompleter<CompleterInvocation> {
+        @Override
+        public void complete(CompleterInvocation completerInvocation) {
+            completerInvocation.addCompleterValue("fast1");
+            completerInvocation.addCompleterValue("fast2");
+        }
+    }
+
+    public static class SlowCompleter implements OptionCompleter<CompleterInvocation> {
+        @Override
+        public void complete(CompleterInvocation completerInvocation) {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                return;
+            }
+            completerInvocation.addCompleterValue("slow");
+        }
+    }
+
+    @CommandDefinition(name = "lookup", description = "")
+    public static class LookupCommand implements Command<CommandInvocation> {
+        @Option(completer = FastCompleter.class)
+        private String fast;
+        @Option(completer = SlowCompleter.class)
+        private String slow;
+        @Option(completer = IndexCompleter.class)
+        private String index;
+
+        @Override
+        public CommandResult execute(CommandInvocation commandInvocation) {
+            return CommandResult.SUCCESS;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.command.completer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.aesh.command.AeshCommandRuntimeBuilder;
+import org.aesh.command.Command;
+import org.aesh.command.CommandDefinition;
+import org.aesh.command.CommandResult;
+import org.aesh.command.CommandRuntime;
+import org.aesh.command.impl.completer.CompleterData;
+import org.aesh.command.impl.internal.ProcessedOption;
+import org.aesh.command.impl.internal.ProcessedOptionBuilder;
+import org.aesh.command.impl.registry.AeshCommandRegistryBuilder;
+import org.aesh.command.invocation.CommandInvocation;
+import org.aesh.command.option.Option;
+import org.aesh.command.parser.OptionParserException;
+import org.aesh.complete.AeshCompleteOperation;
+import org.aesh.console.AeshContext;
+import org.aesh.console.DefaultAeshContext;
+import org.aesh.terminal.formatting.TerminalString;
+import org.junit.Test;
+
+/**
+ * @author Aesh team
+ */
+public class CompletionCacheTest {
+
+    private static final AeshContext CONTEXT = DefaultAeshContext.getDefault();
+    private static final AtomicInteger RUNS = new AtomicInteger();
+
+    @Test
+    public void testExactHit() {
+        CompletionCache cache = new CompletionCache(1, TimeUnit.MINUTES, 8);
+        assertFalse(cache.get("key", "a", invocation("a")));
+        cache.put("key", "a", invocation("a", "alpha", "apple"));
+
+        CompleterInvocation invocation = invocation("a");
+        assertTrue(cache.get("key", "a", invocation));
+        assertEquals(Arrays.asList("alpha", "apple"), values(invocation));
+        assertFalse(cache.get("other", "a", invocation("a")));
+        assertEquals(1, cache.hits());
+        assertEquals(2, cache.misses());
+    }
+
+    @Test
+    public void testNarrowing() {
+        CompletionCache cache = new CompletionCache(1, TimeUnit.MINUTES, 8);
+        cache.put("key", "", invocation("", "alpha", "apple", "beta"));
+
+        CompleterInvocation invocation = invocation("ap");
+        assertTrue(cache.get("key", "ap", invocation));
+        assertEquals(Arrays.asList("apple"), values(invocation));
+        invocation = invocation("b");
+        assertTrue(cache.get("key", "b", invocation));
+        assertEquals(Arrays.asList("beta"), values(invocation));
+        invocation = invocation("c");
+        assertTrue(cache.get("key", "c", invocation));
+        assertTrue(invocation.getCompleterValues().isEmpty());
+        assertEquals(3, cache.narrowedHits());
+        assertEquals(0, cache.misses());
+    }
+
+    @Test
+    public void testNoNarrowingWithOffset() {
+        CompletionCache cache = new CompletionCache(1, TimeUnit.MINUTES, 8);
+        CompleterInvocation completed = invocation("dir/", "dir/a", "dir/b");
+        completed.setOffset(0);
+        cache.put("key", "dir/", completed);
+
+        assertFalse(cache.get("key", "dir/a", invocation("dir/a")));
+        CompleterInvocation invocation = invocation("dir/");
+        assertTrue(cache.get("key", "dir/", invocation));
+        assertEquals(0, invocation.getOffset());
+    }
+
+    @Test
+    public void testExpiry() throws InterruptedException {
+        CompletionCache cache = new CompletionCache(50, TimeUnit.MILLISECONDS, 8);
+        cache.put("key", "", invocation("", "alpha"));
+        assertTrue(cache.get("key", "", invocation("")));
+        Thread.sleep(100);
+        assertFalse(cache.get("key", "", invocation("")));
+        assertFalse(cache.get("key", "a", invocation("a")));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction() {
+        CompletionCache cache = new CompletionCache(1, TimeUnit.MINUTES, 2);
+        cache.put("one", "", invocation("", "1"));
+        cache.put("two", "", invocation("", "2"));
+        assertTrue(cache.get("one", "", invocation("")));
+        cache.put("three", "", invocation("", "3"));
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.evictions());
+        assertTrue(cache.get("one", "", invocation("")));
+        assertFalse(cache.get("two", "", invocation("")));
+    }
+
+    @Test
+    public void testCachedValuesAreCopies() {
+        CompletionCache cache = new CompletionCache(1, TimeUnit.MINUTES, 8);
+        CompleterInvocation completed = invocation("", "a b");
+        cache.put("key", "", completed);
+        completed.getCompleterValues().get(0).switchSpacesToEscapedSpaces();
+
+        CompleterInvocation invocation = invocation("");
+        assertTrue(cache.get("key", "", invocation));
+        invocation.getCompleterValues().get(0).switchSpacesToEscapedSpaces();
+        invocation = invocation("");
+        assertTrue(cache.get("key", "", invocation));
+        assertEquals(Arrays.asList("a b"), values(invocation));
+    }
+
+    @Test
+    public void testRuntimeCompletion() throws Exception {
+        CommandRuntime<CommandInvocation> runtime = AeshCommandRuntimeBuilder.builder()
+                .commandRegistry(AeshCommandRegistryBuilder.builder().command(ResourceCommand.class).create())
+                .build();
+        RUNS.set(0);
+
+        assertEquals(1000, complete(runtime, "resource --name ").size());
+        assertEquals(111, complete(runtime, "resource --name r1").size());
+        assertEquals(Arrays.asList("r12", "r120", "r121", "r122", "r123", "r124", "r125", "r126", "r127", "r128",
+                "r129"), complete(runtime, "resource --name r12"));
+        assertEquals("The values are filtered without running the completer", 1, RUNS.get());
+
+        // the values depend on the other options
+        assertEquals(1000, complete(runtime, "resource --kind pod --name ").size());
+        assertEquals(2, RUNS.get());
+        complete(runtime, "resource --kind pod --name r5");
+        assertEquals(2, RUNS.get());
+    }
+
+    @Test
+    public void testAnnotationCreatesCache() throws OptionParserException {
+        ProcessedOption option = ProcessedOptionBuilder.builder().name("name").type(String.class)
+                .completer(ResourceCompleter.class).build();
+        assertNotNull(option.completionCache());
+
+        CompletionCache cache = new CompletionCache(5, TimeUnit.SECONDS, 4);
+        option = ProcessedOptionBuilder.builder().name("name").type(String.class)
+                .completer(new FastCompleter()).completionCache(cache).build();
+        assertEquals(cache, option.completionCache());
+
+        option = ProcessedOptionBuilder.builder().name("name").type(String.class)
+                .completer(new FastCompleter()).build();
+        assertNull(option.completionCache());
+    }
+
+    private static CompleterInvocation invocation(String value, String... values) {
+        CompleterInvocation invocation = new CompleterData(CONTEXT, value, null);
+        invocation.addAllCompleterValues(Arrays.asList(values));
+        return invocation;
+    }
+
+    private static List<String> values(CompleterInvocation invocation) {
+        return invocation.getCompleterValues().stream().map(TerminalString::getCharacters).collect(Collectors.toList());
+    }
+
+    private static List<String> complete(CommandRuntime<CommandInvocation> runtime, String buffer) {
+        AeshCompleteOperation operation = new AeshCompleteOperation(CONTEXT, buffer, buffer.length());
+        runtime.complete(operation);
+        return operation.getCompletionCandidates().stream().map(TerminalString::getCharacters).sorted()
+                .collect(Collectors.toList());
+    }
+
+    @CachedCompletions(ttl = 1, unit = TimeUnit.MINUTES)
+    public static class ResourceCompleter implements OptionCompleter<CompleterInvocation> {
+        @Override
+        public void complete(CompleterInvocation completerInvocation) {
+            RUNS.incrementAndGet();
+            for (int i = 0; i < 1000; i++) {
+                String name = "r" + i;
+                if (name.startsWith(completerInvocation.getGivenCompleteValue()))
+                    completerInvocation.addCompleterValue(name);
+            }
+        }
+    }
+
+    public static class FastCompleter implements OptionCompleter<CompleterInvocation> {
+        @Override
+        public void complete(CompleterInvocation completerInvocation) {
+            completerInvocation.addCompleterValue("fast");
+        }
+    }
+
+    @CommandDefinition(name = "resource", description = "")
+    public static class ResourceCommand implements Command<CommandInvocation> {
+        @Option
+        private String kind;
+        @Option(completer = ResourceCompleter.class)
+        private String name;
+
+        @Override
+        public CommandResult execute(CommandInvocation commandInvocation) {
+            return CommandResult.SUCCESS;
+        }
+    }
+}
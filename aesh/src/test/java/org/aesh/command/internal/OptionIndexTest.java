@@ -0,0 +1,218 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.command.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.aesh.command.Command;
+import org.aesh.command.impl.internal.ProcessedCommand;
+import org.aesh.command.impl.internal.ProcessedCommandBuilder;
+import org.aesh.command.impl.internal.ProcessedOption;
+import org.aesh.command.impl.internal.ProcessedOptionBuilder;
+import org.aesh.command.impl.result.NullResultHandler;
+import org.aesh.command.impl.validator.NullCommandValidator;
+import org.aesh.command.invocation.CommandInvocation;
+import org.aesh.command.parser.CommandLineParserException;
+import org.aesh.terminal.formatting.TerminalString;
+import org.junit.Test;
+
+/**
+ * Tests for the option name indexes used by the ProcessedCommand lookups and completion.
+ *
+ * @author Aesh team
+ */
+public class OptionIndexTest {
+
+    @Test
+    public void testShortNames() throws CommandLineParserException {
+        ProcessedCommand<Command<CommandInvocation>, CommandInvocation> command = createCommand();
+        assertEquals("bar", command.findOptionNoActivatorCheck("b").name());
+        assertEquals("unicode", command.findOptionNoActivatorCheck("ø").name());
+        assertNull(command.findOptionNoActivatorCheck("x"));
+        assertNull(command.findOptionNoActivatorCheck("bb"));
+        assertNull(command.findOptionNoActivatorCheck(""));
+
+        assertEquals("D", command.startWithOptionNoActivatorCheck("Dkey=value").shortName());
+        assertEquals("unicode", command.startWithOption("øvalue").name());
+        assertNull(command.startWithOptionNoActivatorCheck("xvalue"));
+        assertNull(command.startWithOptionNoActivatorCheck(""));
+    }
+
+    @Test
+    public void testLongNames() throws CommandLineParserException {
+        ProcessedCommand<Command<CommandInvocation>, CommandInvocation> command = createCommand();
+        assertEquals("bar", command.findLongOptionNoActivatorCheck("bar").name());
+        assertEquals("bar", command.findLongOptionNoActivatorCheck("b-alias").name());
+        assertEquals("barbaz", command.findLongOption("barbaz").name());
+        assertNull(command.findLongOptionNoActivatorCheck("ba"));
+        assertNull(command.findLongOptionNoActivatorCheck("barb"));
+        assertNull(command.findLongOptionNoActivatorCheck(""));
+
+        assertEquals("verbose", command.lookupNegatedOption("no-verbose").name());
+        assertNull(command.lookupNegatedOption("no-bar"));
+        assertNull(command.lookupNegatedOption("verbose"));
+
+        assertEquals("bare", command.findBareLongOption("bare").name());
+        assertNull(command.findBareLongOption("bar"));
+    }
+
+    @Test
+    public void testLongestPrefix() throws CommandLineParserException {
+        ProcessedCommand<Command<CommandInvocation>, CommandInvocation> command = createCommand();
+        assertEquals("bar", command.startWithLongOptionNoActivatorCheck("bar=1").name());
+        assertEquals("barbaz", command.startWithLongOptionNoActivatorCheck("barbaz=1").name());
+        assertEquals("barbaz", command.startWithLongOptionNoActivatorCheck("barbazz=1").name());
+        assertEquals("bar", command.startWithLongOptionNoActivatorCheck("b-alias=1").name());
+        // the group option without a long name matches any word
+        assertEquals("", command.startWithLongOptionNoActivatorCheck("xyz=1").name());
+        assertEquals("", command.startWithLongOptionNoActivatorCheck("ba=1").name());
+    }
+
+    @Test
+    public void testLongestPrefixOnAmbiguousName() throws CommandLineParserException {
+        ProcessedCommand<Command<CommandInvocation>, CommandInvocation> command = ProcessedCommandBuilder.builder()
+                .name("ambiguous")
+                .validator(NullCommandValidator.class)
+                .resultHandler(NullResultHandler.class)
+                .addOption(ProcessedOptionBuilder.builder().name("foo").type(String.class).build())
+                .addOption(ProcessedOptionBuilder.builder().name("foo-bar").type(String.class).build())
+                .addOption(ProcessedOptionBuilder.builder().name("foo-bar-baz").type(String.class)
+                        .activator(parsedCommand -> false).build())
+                .create();
+        // the longest name wins over the first declared one
+        assertEquals("foo-bar", command.startWithLongOptionNoActivatorCheck("foo-bar=1").name());
+        assertEquals("foo", command.startWithLongOptionNoActivatorCheck("foo-ba=1").name());
+        assertEquals("foo-bar-baz", command.startWithLongOptionNoActivatorCheck("foo-bar-baz=1").name());
+        // options that are not activated are skipped for the next longest name
+        assertEquals("foo-bar", command.startWithLongOption("foo-bar-baz=1").name());
+        assertEquals("foo-bar", command.startWithLongOption("foo-bar=1").name());
+        assertNull(command.startWithLongOption("fo=1"));
+    }
+
+    @Test
+    public void testAddOptionRebuildsIndex() throws CommandLineParserException {
+        ProcessedCommand<Command<CommandInvocation>, CommandInvocation> command = createCommand();
+        assertNull(command.findLongOptionNoActivatorCheck("late"));
+        ProcessedOption late = ProcessedOptionBuilder.builder().name("late").shortName('l').type(String.class).build();
+        command.addOption(late);
+        assertSame(late, command.findLongOptionNoActivatorCheck("late"));
+        assertSame(late, command.findOptionNoActivatorCheck("l"));
+        assertSame(late, command.startWithLongOptionNoActivatorCheck("late=1"));
+    }
+
+    @Test
+    public void testManyOptions() throws CommandLineParserException {
+        ProcessedCommand<Command<CommandInvocation>, CommandInvocation> command = ProcessedCommandBuilder.builder()
+                .name("many")
+                .validator(NullCommandValidator.class)
+                .resultHandler(NullResultHandler.class)
+                .create();
+        for (int i = 0; i < 500; i++)
+            command.addOption(ProcessedOptionBuilder.builder().name("option" + i).aliases("alias" + i)
+                    .type(String.class).build());
+        for (int i = 0; i < 500; i++) {
+            assertEquals("option" + i, command.findLongOptionNoActivatorCheck("option" + i).name());
+            assertEquals("option" + i, command.findLongOptionNoActivatorCheck("alias" + i).name());
+            // "option1=x" must not match "option10"
+            assertEquals("option" + i, command.startWithLongOptionNoActivatorCheck("option" + i + "=x").name());
+        }
+        assertNull(command.findLongOptionNoActivatorCheck("option500"));
+        assertNull(command.startWithLongOptionNoActivatorCheck("opt=x"));
+    }
+
+    @Test
+    public void testCompletionNames() throws CommandLineParserException {
+        ProcessedCommand<Command<CommandInvocation>, CommandInvocation> command = createCommand();
+        // display order, with the aliases and negated name after the name of each option
+        assertEquals(Arrays.asList("bar", "b-alias", "barbaz", "bare"), command.findPossibleLongNames("b"));
+        assertEquals(Arrays.asList("--bar", "--b-alias", "--barbaz", "--bare"),
+                candidates(command.findPossibleLongNamesWithDash("b")));
+        assertEquals(Arrays.asList("verbose"), command.findPossibleLongNames("--v"));
+        assertEquals(Arrays.asList("no-verbose"), command.findPossibleLongNames("no"));
+        assertEquals(Arrays.asList(), command.findPossibleLongNames("x"));
+        // the short name of an option given with its short name finds its long name
+        assertEquals(Arrays.asList(), command.findPossibleLongNames("ø"));
+        command.findOptionNoActivatorCheck("ø").setLongNameUsed(false);
+        assertEquals(Arrays.asList("unicode"), command.findPossibleLongNames("ø"));
+
+        assertEquals(Arrays.asList("bare"), candidates(command.findPossibleBareLongNames("ba")));
+        assertEquals(Arrays.asList("--bare"), candidates(command.findPossibleBareLongNamesWithDash("ba")));
+        assertEquals(Arrays.asList("--bar", "--b-alias", "--barbaz", "--verbose", "--no-verbose", "bare",
+                "--unicode", "--"), candidates(command.getOptionLongNamesWithDash()));
+    }
+
+    @Test
+    public void testCompletionSkipsOptionsWithValue() throws CommandLineParserException {
+        ProcessedCommand<Command<CommandInvocation>, CommandInvocation> command = createCommand();
+        command.findLongOptionNoActivatorCheck("bar").addValue("1");
+        assertEquals(Arrays.asList("barbaz", "bare"), command.findPossibleLongNames("b"));
+        command.addOption(ProcessedOptionBuilder.builder().name("barn").type(String.class).build());
+        assertEquals(Arrays.asList("barbaz", "bare", "barn"), command.findPossibleLongNames("b"));
+    }
+
+    @Test
+    public void testCompletionManyOptions() throws CommandLineParserException {
+        ProcessedCommand<Command<CommandInvocation>, CommandInvocation> command = ProcessedCommandBuilder.builder()
+                .name("many")
+                .validator(NullCommandValidator.class)
+                .resultHandler(NullResultHandler.class)
+                .create();
+        for (int i = 0; i < 2000; i++)
+            command.addOption(ProcessedOptionBuilder.builder().name("option" + i).type(String.class).build());
+        assertEquals(Arrays.asList("option1999"), command.findPossibleLongNames("option1999"));
+        assertEquals(1111, command.findPossibleLongNames("option1").size());
+        assertEquals("option1", command.findPossibleLongNames("option1").get(0));
+        assertEquals("option10", command.findPossibleLongNames("option1").get(1));
+        assertEquals(2000, command.getOptionLongNamesWithDash().size());
+    }
+
+    private static List<String> candidates(List<TerminalString> candidates) {
+        List<String> names = new ArrayList<>(candidates.size());
+        for (TerminalString candidate : candidates)
+            names.add(candidate.getCharacters());
+        return names;
+    }
+
+    private static ProcessedCommand<Command<CommandInvocation>, CommandInvocation> createCommand()
+            throws CommandLineParserException {
+        return ProcessedCommandBuilder.builder()
+                .name("index")
+                .validator(NullCommandValidator.class)
+                .resultHandler(NullResultHandler.class)
+                .addOption(ProcessedOptionBuilder.builder().name("bar").shortName('b').aliases("b-alias")
+                        .type(String.class).build())
+                .addOption(ProcessedOptionBuilder.builder().name("barbaz").type(String.class).build())
+                .addOption(ProcessedOptionBuilder.builder().name("verbose").negatable(true)
+                        .type(Boolean.class).hasValue(false).build())
+                .addOption(ProcessedOptionBuilder.builder().name("bare").acceptNameWithoutDashes(true)
+                        .type(Boolean.class).hasValue(false).build())
+                .addOption(ProcessedOptionBuilder.builder().name("unicode").shortName('ø')
+                        .type(String.class).build())
+                .addOption(ProcessedOptionBuilder.builder().shortName('D').fieldName("define")
+                        .isProperty(true).type(String.class).build())
+                .create();
+    }
+}
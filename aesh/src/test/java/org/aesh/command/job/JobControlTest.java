@@ -0,0 +1,335 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.command.job;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.aesh.command.AeshCommandRuntimeBuilder;
+import org.aesh.command.Command;
+import org.aesh.command.CommandDefinition;
+import org.aesh.command.CommandException;
+import org.aesh.command.CommandResult;
+import org.aesh.command.CommandRuntime;
+import org.aesh.command.impl.registry.AeshCommandRegistryBuilder;
+import org.aesh.command.invocation.CommandInvocation;
+import org.aesh.command.option.Option;
+import org.aesh.command.registry.CommandRegistry;
+import org.aesh.command.registry.CommandRegistryException;
+import org.aesh.command.settings.Settings;
+import org.aesh.command.settings.SettingsBuilder;
+import org.aesh.console.ReadlineConsole;
+import org.aesh.terminal.utils.Config;
+import org.aesh.tty.TestConnection;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the background jobs started by the {@code &} operator.
+ *
+ * @author Aesh team
+ */
+public class JobControlTest {
+
+    private static final AtomicInteger MARKS = new AtomicInteger();
+    private static volatile CountDownLatch release;
+
+    @Before
+    public void reset() {
+        MARKS.set(0);
+        release = new CountDownLatch(1);
+    }
+
+    @Test
+    public void testJobRunsInBackground() throws Exception {
+        JobManager manager = new JobManager();
+        CommandRuntime<CommandInvocation> runtime = createRuntime(manager);
+
+        assertEquals(CommandResult.SUCCESS, runtime.executeCommand("block &"));
+        Job job = manager.current();
+        assertNotNull(job);
+        assertEquals("block", job.commandLine());
+        assertFalse(job.isFinished());
+
+        release.countDown();
+        assertTrue(job.await(5, TimeUnit.SECONDS));
+        assertEquals(Job.Status.DONE, job.status());
+        assertTrue(job.isSuccess());
+        assertEquals("released" + Config.getLineSeparator(), job.output().take());
+        manager.shutdown();
+    }
+
+    @Test
+    public void testNextCommandDoesNotWait() throws Exception {
+        JobManager manager = new JobManager();
+        CommandRuntime<CommandInvocation> runtime = createRuntime(manager);
+
+        runtime.executeCommand("block & mark");
+        assertEquals(1, MARKS.get());
+        assertFalse(manager.current().isFinished());
+        release.countDown();
+        assertTrue(manager.current().await(5, TimeUnit.SECONDS));
+        manager.shutdown();
+    }
+
+    @Test
+    public void testPipelineJob() throws Exception {
+        JobManager manager = new JobManager();
+        CommandRuntime<CommandInvocation> runtime = createRuntime(manager);
+
+        runtime.executeCommand("emit --lines 3 | count &");
+        Job job = manager.current();
+        assertEquals("emit --lines 3 | count", job.commandLine());
+        assertTrue(job.await(5, TimeUnit.SECONDS));
+        assertEquals("3" + Config.getLineSeparator(), job.output().take());
+        manager.shutdown();
+    }
+
+    @Test
+    public void testRedirectedJob() throws Exception {
+        JobManager manager = new JobManager();
+        CommandRuntime<CommandInvocation> runtime = createRuntime(manager);
+        Path file = Files.createTempFile("aesh-job", ".txt");
+        try {
+            runtime.executeCommand("emit --lines 2 > " + file + " &");
+            Job job = manager.current();
+            assertEquals("emit --lines 2 > " + file, job.commandLine());
+            assertTrue(job.await(5, TimeUnit.SECONDS));
+            assertEquals("", job.output().take());
+            assertEquals(2, Files.readAllLines(file, StandardCharsets.UTF_8).size());
+        } finally {
+            Files.delete(file);
+            manager.shutdown();
+        }
+    }
+
+    @Test
+    public void testWithoutJobManager() throws Exception {
+        CommandRuntime<CommandInvocation> runtime = createRuntime(null);
+        // run in the foreground
+        assertEquals(CommandResult.SUCCESS, runtime.executeCommand("mark &"));
+        assertEquals(1, MARKS.get());
+    }
+
+    @Test
+    public void testCommandsWithoutJobManager() throws Exception {
+        CommandRegistry registry = AeshCommandRegistryBuilder.builder()
+                .command(JobsCommand.class)
+                .command(FgCommand.class)
+                .command(KillCommand.class)
+                .command(WaitCommand.class)
+                .create();
+        CommandRuntime<CommandInvocation> runtime = AeshCommandRuntimeBuilder.builder()
+                .commandRegistry(registry)
+                .build();
+        assertEquals(CommandResult.FAILURE, runtime.executeCommand("jobs"));
+        assertEquals(CommandResult.FAILURE, runtime.executeCommand("fg %1"));
+        assertEquals(CommandResult.FAILURE, runtime.executeCommand("kill %1"));
+        assertEquals(CommandResult.FAILURE, runtime.executeCommand("wait"));
+    }
+
+    @Test
+    public void testKill() throws Exception {
+        JobManager manager = new JobManager(1, null);
+        CommandRuntime<CommandInvocation> runtime = createRuntime(manager);
+
+        runtime.executeCommand("block &");
+        runtime.executeCommand("mark &");
+        Job running = manager.get(1);
+        Job queued = manager.get(2);
+        // the second job waits for the first one
+        assertEquals(Job.Status.QUEUED, queued.status());
+
+        assertTrue(queued.kill());
+        assertTrue(queued.isFinished());
+        assertEquals(Job.Status.KILLED, queued.status());
+
+        waitForStatus(running, Job.Status.RUNNING);
+        assertTrue(running.kill());
+        // a killed job is finished only once its thread has stopped
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        assertEquals(Job.Status.KILLED, running.status());
+        assertFalse(running.kill());
+        assertEquals(0, MARKS.get());
+        assertEquals(0, manager.activeJobs());
+        manager.shutdown();
+    }
+
+    @Test
+    public void testListener() throws Exception {
+        List<String> completed = Collections.synchronizedList(new ArrayList<>());
+        JobManager manager = new JobManager(2,
+                (commandLine, result, durationMs) -> completed.add(commandLine + ":" + result.getResultValue()));
+        CommandRuntime<CommandInvocation> runtime = createRuntime(manager);
+
+        runtime.executeCommand("mark &");
+        assertTrue(manager.current().await(5, TimeUnit.SECONDS));
+        assertEquals(Collections.singletonList("mark:0"), completed);
+        manager.shutdown();
+    }
+
+    @Test
+    public void testOutputIsBounded() throws IOException {
+        JobOutput output = new JobOutput(16);
+        output.write("0123456789");
+        output.write("abcdefghij");
+        // the oldest characters are dropped
+        assertEquals(4, output.discardedChars());
+        assertEquals("456789abcdefghij", output.take());
+        assertEquals("", output.take());
+        output.write("xyz");
+        assertEquals("xyz", output.take());
+    }
+
+    @Test
+    public void testConsole() throws IOException, InterruptedException, CommandRegistryException {
+        TestConnection connection = new TestConnection();
+        CommandRegistry registry = AeshCommandRegistryBuilder.builder()
+                .command(BlockCommand.class)
+                .command(EmitCommand.class)
+                .create();
+        Settings<CommandInvocation> settings = SettingsBuilder.builder()
+                .connection(connection)
+                .enableOperatorParser(true)
+                .enableJobControl(true)
+                .commandRegistry(registry)
+                .logging(true)
+                .build();
+
+        ReadlineConsole console = new ReadlineConsole(settings);
+        console.start();
+
+        connection.read("emit --lines 2 &" + Config.getLineSeparator());
+        String output = connection.waitForOutputContaining("[1] emit --lines 2", 5000);
+        assertTrue(output, output.contains("[1] emit --lines 2" + Config.getLineSeparator()));
+        connection.clearOutputBuffer();
+
+        connection.read("wait" + Config.getLineSeparator());
+        connection.read("jobs" + Config.getLineSeparator());
+        output = connection.waitForOutputContaining("Done", 5000);
+        assertTrue(output, output.contains("[1]  Done      emit --lines 2"));
+        connection.clearOutputBuffer();
+
+        connection.read("fg %1" + Config.getLineSeparator());
+        output = connection.waitForOutputContaining("line 1", 5000);
+        assertTrue(output, output.contains("line 0" + Config.getLineSeparator() + "line 1"));
+        connection.clearOutputBuffer();
+
+        connection.read("block &" + Config.getLineSeparator());
+        connection.read("kill %2" + Config.getLineSeparator());
+        connection.read("jobs" + Config.getLineSeparator());
+        output = connection.waitForOutputContaining("Killed", 5000);
+        assertTrue(output, output.contains("[2]  Killed    block"));
+        // fg removed the first job
+        assertFalse(output, output.contains("[1]"));
+        connection.clearOutputBuffer();
+
+        connection.read("fg %5" + Config.getLineSeparator());
+        output = connection.waitForOutputContaining("no such job", 5000);
+        assertTrue(output, output.contains("fg: %5: no such job"));
+
+        console.stop();
+    }
+
+    private static void waitForStatus(Job job, Job.Status status) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (job.status() != status && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+        assertEquals(status, job.status());
+    }
+
+    private static CommandRuntime<CommandInvocation> createRuntime(JobManager manager)
+            throws CommandRegistryException {
+        CommandRegistry registry = AeshCommandRegistryBuilder.builder()
+                .command(BlockCommand.class)
+                .command(MarkCommand.class)
+                .command(EmitCommand.class)
+                .command(CountCommand.class)
+                .create();
+        return AeshCommandRuntimeBuilder.builder()
+                .commandRegistry(registry)
+                .operators(AeshCommandRuntimeBuilder.ALL_OPERATORS)
+                .jobManager(manager)
+                .build();
+    }
+
+    @CommandDefinition(name = "block", description = "")
+    public static class BlockCommand implements Command<CommandInvocation> {
+        @Override
+        public CommandResult execute(CommandInvocation commandInvocation) throws InterruptedException {
+            release.await();
+            commandInvocation.println("released");
+            return CommandResult.SUCCESS;
+        }
+    }
+
+    @CommandDefinition(name = "mark", description = "")
+    public static class MarkCommand implements Command<CommandInvocation> {
+        @Override
+        public CommandResult execute(CommandInvocation commandInvocation) {
+            MARKS.incrementAndGet();
+            return CommandResult.SUCCESS;
+        }
+    }
+
+    @CommandDefinition(name = "emit", description = "")
+    public static class EmitCommand implements Command<CommandInvocation> {
+        @Option(defaultValue = "1")
+        private int lines;
+
+        @Override
+        public CommandResult execute(CommandInvocation commandInvocation) {
+            for (int i = 0; i < lines; i++)
+                commandInvocation.println("line " + i);
+            return CommandResult.SUCCESS;
+        }
+    }
+
+    @CommandDefinition(name = "count", description = "")
+    public static class CountCommand implements Command<CommandInvocation> {
+        @Override
+        public CommandResult execute(CommandInvocation commandInvocation) throws CommandException {
+            int count = 0;
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(commandInvocation.getStdin()))) {
+                while (reader.readLine() != null)
+                    count++;
+            } catch (IOException e) {
+                throw new CommandException(e);
+            }
+            commandInvocation.println(String.valueOf(count));
+            return CommandResult.SUCCESS;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.command.operator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import org.aesh.command.AeshCommandRuntimeBuilder;
+import org.aesh.command.Command;
+import org.aesh.command.CommandDefinition;
+import org.aesh.command.CommandResult;
+import org.aesh.command.CommandRuntime;
+import org.aesh.command.ObjectConsumer;
+import org.aesh.command.ObjectProducer;
+import org.aesh.command.impl.operator.ObjectPipe;
+import org.aesh.command.impl.registry.AeshCommandRegistryBuilder;
+import org.aesh.command.invocation.CommandInvocation;
+import org.aesh.command.option.Option;
+import org.junit.Test;
+
+/**
+ * Tests for the object pipe between an ObjectProducer and an ObjectConsumer.
+ *
+ * @author Aesh team
+ */
+public class ObjectPipeTest {
+
+    @Test
+    public void testReadWrite() throws Exception {
+        ObjectPipe pipe = new ObjectPipe(2);
+        List<Object> read = new ArrayList<>();
+        Thread reader = new Thread(() -> {
+            Object object;
+            while ((object = pipe.read()) != null)
+                read.add(object);
+        });
+        reader.start();
+        for (int i = 0; i < 100; i++)
+            assertTrue(pipe.write(i));
+        pipe.closeWriter();
+        reader.join(5000);
+        assertEquals(100, read.size());
+        assertEquals(99, read.get(99));
+    }
+
+    @Test
+    public void testClosedReaderReleasesWriter() throws Exception {
+        ObjectPipe pipe = new ObjectPipe(1);
+        assertTrue(pipe.write("first"));
+        AtomicBoolean written = new AtomicBoolean(true);
+        Thread writer = new Thread(() -> written.set(pipe.write("second")));
+        writer.start();
+        Thread.sleep(50);
+        pipe.closeReader();
+        writer.join(5000);
+        assertFalse(written.get());
+        assertNull(pipe.read());
+    }
+
+    @Test
+    public void testObjectsPassedByReference() throws Exception {
+        CommandRuntime<CommandInvocation> runtime = createRuntime();
+        runtime.executeCommand("produce | consume");
+        assertEquals(ProduceCommand.ITEMS.size(), ConsumeCommand.read.size());
+        for (int i = 0; i < ProduceCommand.ITEMS.size(); i++)
+            assertSame(ProduceCommand.ITEMS.get(i), ConsumeCommand.read.get(i));
+        assertTrue(ConsumeCommand.objectInput);
+    }
+
+    @Test
+    public void testTextFallback() throws Exception {
+        CommandRuntime<CommandInvocation> runtime = createRuntime();
+        // the consumer does not accept objects, they are printed
+        runtime.executeCommand("produce | lines");
+        assertEquals("[a] [b] [c]", LinesCommand.lines);
+
+        // the producer does not write objects, its lines are read as strings
+        runtime.executeCommand("text | consume");
+        assertFalse(ConsumeCommand.objectInput);
+        assertEquals(Arrays.asList("x", "y"), ConsumeCommand.read);
+    }
+
+    @Test
+    public void testConsumerStopsEarly() throws Exception {
+        CommandRuntime<CommandInvocation> runtime = createRuntime();
+        // the producer writes more objects than the pipe holds, it must not block forever
+        runtime.executeCommand("produce --count 10000 | first");
+        assertEquals(ProduceCommand.ITEMS.get(0), FirstCommand.first);
+    }
+
+    private static CommandRuntime<CommandInvocation> createRuntime() throws Exception {
+        return AeshCommandRuntimeBuilder.builder()
+                .commandRegistry(AeshCommandRegistryBuilder.builder()
+                        .command(ProduceCommand.class)
+                        .command(ConsumeCommand.class)
+                        .command(LinesCommand.class)
+                        .command(TextCommand.class)
+                        .command(FirstCommand.class)
+                        .create())
+                .operators(EnumSet.allOf(OperatorType.class))
+                .build();
+    }
+
+    public static class Item {
+        private final String name;
+
+        Item(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String toString() {
+            return "[" + name + "]";
+        }
+    }
+
+    @CommandDefinition(name = "produce", description = "")
+    public static class ProduceCommand implements Command<CommandInvocation>, ObjectProducer {
+        static final List<Item> ITEMS = Arrays.asList(new Item("a"), new Item("b"), new Item("c"));
+
+        @Option(defaultValue = "1")
+        private int count;
+
+        @Override
+        public CommandResult execute(CommandInvocation invocation) {
+            for (int i = 0; i < count; i++) {
+                for (Item item : ITEMS) {
+                    if (!invocation.writeObject(item))
+                        return CommandResult.SUCCESS;
+                }
+            }
+            return CommandResult.SUCCESS;
+        }
+    }
+
+    @CommandDefinition(name = "consume", description = "")
+    public static class ConsumeCommand implements Command<CommandInvocation>, ObjectConsumer {
+        static volatile List<Object> read;
+        static volatile boolean objectInput;
+
+        @Override
+        public CommandResult execute(CommandInvocation invocation) {
+            objectInput = invocation.hasObjectInput();
+            read = invocation.readObjects().collect(Collectors.toList());
+            return CommandResult.SUCCESS;
+        }
+    }
+
+    @CommandDefinition(name = "first", description = "")
+    public static class FirstCommand implements Command<CommandInvocation>, ObjectConsumer {
+        static volatile Object first;
+
+        @Override
+        public CommandResult execute(CommandInvocation invocation) {
+            first = invocation.readObjects().findFirst().orElse(null);
+            return CommandResult.SUCCESS;
+        }
+    }
+
+    @CommandDefinition(name = "lines", description = "")
+    public static class LinesCommand implements Command<CommandInvocation> {
+        static volatile String lines;
+
+        @Override
+        public CommandResult execute(CommandInvocation invocation) {
+            lines = invocation.readObjects().map(String::valueOf).collect(Collectors.joining(" "));
+            return CommandResult.SUCCESS;
+        }
+    }
+
+    @CommandDefinition(name = "text", description = "")
+    public static class TextCommand implements Command<CommandInvocation> {
+        @Override
+        public CommandResult execute(CommandInvocation invocation) {
+            invocation.println("x");
+            invocation.println("y");
+            return CommandResult.SUCCESS;
+        }
+    }
+}
@@ -20,6 +20,8 @@
 package org.aesh.command.operator;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.util.EnumSet;
 import java.util.Set;
@@ -56,4 +58,39 @@ public class OperatorTypeTest {
         text = "foo &&";
         assertEquals(OperatorType.AND, OperatorType.matches(operators, text, 4));
     }
+
+    @Test
+    public void testMatcher() {
+        OperatorMatcher matcher = OperatorMatcher.compile(EnumSet.allOf(OperatorType.class));
+        assertEquals(4, matcher.maxLength());
+        assertEquals(OperatorType.APPEND_OUT_ERROR, matcher.match("foo 2>> bar", 4));
+        assertEquals(OperatorType.REDIRECT_OUT_ALL, matcher.match("foo 2>&1", 4));
+        assertEquals(OperatorType.REDIRECT_OUT_ERROR, matcher.match("foo 2>&", 4));
+        assertEquals(OperatorType.NONE, matcher.match("foo 2bar", 4));
+        assertEquals(OperatorType.NONE, matcher.match("foo \u00e6", 4));
+        assertEquals(OperatorType.OR, matcher.match("||", 0));
+
+        matcher = OperatorMatcher.compile(EnumSet.of(OperatorType.PIPE, OperatorType.END));
+        assertEquals(OperatorType.PIPE, matcher.match("a || b", 2));
+        assertEquals(OperatorType.NONE, matcher.match("a && b", 2));
+        assertTrue(matcher.compiledFrom(EnumSet.of(OperatorType.END, OperatorType.PIPE)));
+        assertFalse(matcher.compiledFrom(EnumSet.of(OperatorType.END)));
+    }
+
+    @Test
+    public void testMatcherSameAsMatches() {
+        String text = "a|b|&c>d2>e<f;g>>h2>>i2>&1j&k&&l||m 2 >&1 2>&";
+        OperatorType[] types = OperatorType.values();
+        //every subset of operators
+        for (int mask = 0; mask < (1 << types.length); mask += 7) {
+            Set<OperatorType> operators = EnumSet.noneOf(OperatorType.class);
+            for (int i = 0; i < types.length; i++) {
+                if ((mask & (1 << i)) != 0)
+                    operators.add(types[i]);
+            }
+            OperatorMatcher matcher = OperatorMatcher.compile(operators);
+            for (int i = 0; i < text.length(); i++)
+                assertEquals(operators + " at " + i, OperatorType.matches(operators, text, i), matcher.match(text, i));
+        }
+    }
 }
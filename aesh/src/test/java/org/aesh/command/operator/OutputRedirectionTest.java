@@ -0,0 +1,124 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.command.operator;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.aesh.command.impl.operator.OutputDelegate;
+import org.aesh.command.impl.operator.OutputRedirectionOperator;
+import org.aesh.command.settings.SettingsBuilder;
+import org.aesh.console.AeshContext;
+import org.aesh.terminal.utils.Parser;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for the ANSI stripping and the file output of {@code >} and {@code >>}.
+ *
+ * @author Aesh team
+ */
+public class OutputRedirectionTest {
+
+    private static final AeshContext CONTEXT = SettingsBuilder.builder().build().aeshContext();
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    @Test
+    public void testStripsAnsiCodes() throws IOException {
+        String[] texts = {
+                "plain text",
+                "\u001B[1mbold\u001B[0m and \u001B[31;42mcolors\u001B[m",
+                "\u001B[?25lhidden cursor\u001B[?25h",
+                "\u001B]0;title\u0007after title",
+                "\u001B]8;;http://aesh.org\u001B\\link\u001B]8;;\u001B\\",
+                "\u001B7saved\u001B8 \u001B=keypad",
+                "\u001B[12 no final letter",
+                "lone \u001B! escape",
+                "\u001B\u001B[1mdouble escape",
+                "ends with escape \u001B"
+        };
+        for (String text : texts)
+            assertEquals(text, Parser.stripAwayAnsiCodes(text), redirect(text));
+    }
+
+    @Test
+    public void testSequencesSplitAcrossWrites() throws IOException {
+        String text = "a\u001B[1;31mb\u001B]0;title\u001B\\c\u001B[0md\u001B=e";
+        // every split of the text into two writes
+        for (int i = 0; i <= text.length(); i++)
+            assertEquals("split at " + i, "abcde", redirect(text.substring(0, i), text.substring(i)));
+        // one character per write
+        assertEquals("abcde", redirect(text.split("")));
+    }
+
+    @Test
+    public void testLargeOutput() throws IOException {
+        // more than the direct buffer, with multi-byte characters crossing its boundaries
+        StringBuilder expected = new StringBuilder();
+        File file = tempDir.newFile();
+        OutputDelegate output = delegate(file, false);
+        for (int i = 0; i < 50_000; i++) {
+            String line = "line " + i + " æøå 😀\n";
+            output.write("\u001B[32m" + line + "\u001B[0m");
+            expected.append(line);
+        }
+        output.close();
+        assertEquals(expected.toString(), new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testAppend() throws IOException {
+        File file = tempDir.newFile();
+        OutputDelegate output = delegate(file, false);
+        output.write("first\n");
+        output.close();
+        output = delegate(file, true);
+        output.write("second\n");
+        output.close();
+        assertEquals("first\nsecond\n", new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+
+        output = delegate(file, false);
+        output.write("truncated\n");
+        output.close();
+        assertEquals("truncated\n", new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+    }
+
+    private String redirect(String... writes) throws IOException {
+        File file = tempDir.newFile();
+        OutputDelegate output = delegate(file, false);
+        for (String write : writes)
+            output.write(write);
+        output.close();
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+
+    private static OutputDelegate delegate(File file, boolean append) throws IOException {
+        OutputRedirectionOperator operator = new OutputRedirectionOperator(CONTEXT, append);
+        operator.setArgument(file.getAbsolutePath());
+        return operator.getConfiguration().getOutputRedirection();
+    }
+}
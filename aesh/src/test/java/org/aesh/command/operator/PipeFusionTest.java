@@ -0,0 +1,332 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.command.operator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aesh.command.AeshCommandRuntimeBuilder;
+import org.aesh.command.Command;
+import org.aesh.command.CommandDefinition;
+import org.aesh.command.CommandException;
+import org.aesh.command.CommandResult;
+import org.aesh.command.CommandRuntime;
+import org.aesh.command.StreamingCommand;
+import org.aesh.command.impl.registry.AeshCommandRegistryBuilder;
+import org.aesh.command.invocation.CommandInvocation;
+import org.aesh.command.option.Option;
+import org.aesh.command.registry.CommandRegistry;
+import org.aesh.command.registry.CommandRegistryException;
+import org.aesh.command.settings.Settings;
+import org.aesh.command.settings.SettingsBuilder;
+import org.aesh.console.ReadlineConsole;
+import org.aesh.terminal.utils.Config;
+import org.aesh.tty.TestConnection;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the fusion of streaming pipe stages.
+ *
+ * @author Aesh team
+ */
+public class PipeFusionTest {
+
+    private static final Set<Thread> THREADS = ConcurrentHashMap.newKeySet();
+
+    @Before
+    public void clear() {
+        THREADS.clear();
+        CollectCommand.lines = null;
+        ProduceCommand.written = 0;
+    }
+
+    @Test
+    public void testFusedStagesRunOnOneThread() throws Exception {
+        CommandRuntime<CommandInvocation> runtime = createRuntime(true);
+        runtime.executeCommand("produce --lines 3 | upper | grep --match 1 | collect");
+        assertEquals(Collections.singletonList("LINE 1"), CollectCommand.lines);
+        // the producer and the three streaming stages
+        assertEquals(1, THREADS.size());
+        assertTrue(THREADS.contains(Thread.currentThread()));
+    }
+
+    @Test
+    public void testFusionDisabled() throws Exception {
+        CommandRuntime<CommandInvocation> runtime = createRuntime(false);
+        runtime.executeCommand("produce --lines 3 | upper | grep --match 1 | collect");
+        assertEquals(Collections.singletonList("LINE 1"), CollectCommand.lines);
+        // a pooled thread may run several stages one after the other
+        assertTrue(THREADS.size() > 1);
+    }
+
+    @Test
+    public void testOnlyStreamingStagesAreFused() throws Exception {
+        CommandRuntime<CommandInvocation> runtime = createRuntime(true);
+        // relay reads its stdin on a thread of its own, upper is fused with it
+        runtime.executeCommand("produce --lines 2 | relay | upper | collect");
+        assertEquals(Arrays.asList("LINE 0", "LINE 1"), CollectCommand.lines);
+        assertEquals(2, THREADS.size());
+    }
+
+    @Test
+    public void testCompleteWritesOutput() throws Exception {
+        CommandRuntime<CommandInvocation> runtime = createRuntime(true);
+        runtime.executeCommand("produce --lines 1000 | count | collect");
+        assertEquals(Collections.singletonList("1000"), CollectCommand.lines);
+    }
+
+    @Test
+    public void testPartialLastLine() throws Exception {
+        CommandRuntime<CommandInvocation> runtime = createRuntime(true);
+        runtime.executeCommand("partial | collect");
+        assertEquals(Arrays.asList("first", "second", "third"), CollectCommand.lines);
+    }
+
+    @Test
+    public void testFailingUpstreamStage() throws Exception {
+        CommandRuntime<CommandInvocation> runtime = createRuntime(true);
+        // the pipeline result comes from the last stage, the lines passed before the failure are kept
+        assertEquals(CommandResult.SUCCESS, runtime.executeCommand("produce --lines 5 | fail | collect"));
+        assertEquals(Arrays.asList("line 0", "line 1"), CollectCommand.lines);
+        // the producer is stopped by its next write after the failure
+        assertEquals(3, ProduceCommand.written);
+    }
+
+    @Test
+    public void testEarlyTermination() throws Exception {
+        CommandRuntime<CommandInvocation> runtime = createRuntime(true);
+        assertEquals(CommandResult.SUCCESS,
+                runtime.executeCommand("produce --lines 1000000 | upper | head --lines 2 | collect"));
+        assertEquals(Arrays.asList("LINE 0", "LINE 1"), CollectCommand.lines);
+        // each stage is stopped by its next write once the stage after it is done
+        assertEquals(3, ProduceCommand.written);
+    }
+
+    @Test
+    public void testEarlyTerminationWithoutFusion() throws Exception {
+        CommandRuntime<CommandInvocation> runtime = createRuntime(false);
+        assertEquals(CommandResult.SUCCESS, runtime.executeCommand("produce --lines 10 | head --lines 2 | collect"));
+        assertEquals(Arrays.asList("line 0", "line 1"), CollectCommand.lines);
+    }
+
+    @Test(expected = CommandException.class)
+    public void testFailingLastStage() throws Exception {
+        CommandRuntime<CommandInvocation> runtime = createRuntime(true);
+        runtime.executeCommand("produce --lines 5 | fail");
+    }
+
+    @Test
+    public void testConsoleFusedPipeline() throws IOException, InterruptedException, CommandRegistryException {
+        TestConnection connection = new TestConnection();
+        Settings<CommandInvocation> settings = SettingsBuilder.builder()
+                .connection(connection)
+                .enableOperatorParser(true)
+                .commandRegistry(createRegistry())
+                .logging(true)
+                .build();
+
+        ReadlineConsole console = new ReadlineConsole(settings);
+        console.start();
+
+        connection.read("produce --lines 2 | upper | grep --match 1" + Config.getLineSeparator());
+        String output = connection.waitForOutputContaining("LINE 1", 5000);
+        assertTrue(output, output.contains("LINE 1"));
+        assertTrue(output, !output.contains("LINE 0"));
+        assertEquals(1, THREADS.size());
+        assertNotEquals(Thread.currentThread(), THREADS.iterator().next());
+
+        console.stop();
+    }
+
+    private static CommandRuntime<CommandInvocation> createRuntime(boolean fusion) throws Exception {
+        return AeshCommandRuntimeBuilder.builder()
+                .commandRegistry(createRegistry())
+                .operators(EnumSet.allOf(OperatorType.class))
+                .pipeFusion(fusion)
+                .build();
+    }
+
+    private static CommandRegistry<CommandInvocation> createRegistry() throws CommandRegistryException {
+        return AeshCommandRegistryBuilder.builder()
+                .command(ProduceCommand.class)
+                .command(PartialCommand.class)
+                .command(RelayCommand.class)
+                .command(UpperCommand.class)
+                .command(GrepCommand.class)
+                .command(CountCommand.class)
+                .command(FailCommand.class)
+                .command(HeadCommand.class)
+                .command(CollectCommand.class)
+                .create();
+    }
+
+    @CommandDefinition(name = "produce", description = "")
+    public static class ProduceCommand implements Command<CommandInvocation> {
+        static volatile int written;
+
+        @Option(defaultValue = "1")
+        private int lines;
+
+        @Override
+        public CommandResult execute(CommandInvocation invocation) {
+            THREADS.add(Thread.currentThread());
+            for (int i = 0; i < lines; i++) {
+                invocation.println("line " + i);
+                written++;
+            }
+            return CommandResult.SUCCESS;
+        }
+    }
+
+    @CommandDefinition(name = "partial", description = "")
+    public static class PartialCommand implements Command<CommandInvocation> {
+        @Override
+        public CommandResult execute(CommandInvocation invocation) {
+            invocation.print("fir");
+            invocation.print("st\r\nsec");
+            invocation.println("ond");
+            invocation.print("third");
+            return CommandResult.SUCCESS;
+        }
+    }
+
+    @CommandDefinition(name = "relay", description = "")
+    public static class RelayCommand implements Command<CommandInvocation> {
+        @Override
+        public CommandResult execute(CommandInvocation invocation) throws CommandException {
+            THREADS.add(Thread.currentThread());
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(invocation.getStdin()))) {
+                String line;
+                while ((line = reader.readLine()) != null)
+                    invocation.println(line);
+            } catch (IOException e) {
+                throw new CommandException(e);
+            }
+            return CommandResult.SUCCESS;
+        }
+    }
+
+    @CommandDefinition(name = "upper", description = "")
+    public static class UpperCommand implements StreamingCommand<CommandInvocation> {
+        @Override
+        public void processLine(String line, CommandInvocation invocation) {
+            THREADS.add(Thread.currentThread());
+            invocation.println(line.toUpperCase());
+        }
+    }
+
+    @CommandDefinition(name = "grep", description = "")
+    public static class GrepCommand implements StreamingCommand<CommandInvocation> {
+        @Option
+        private String match;
+
+        @Override
+        public void processLine(String line, CommandInvocation invocation) {
+            THREADS.add(Thread.currentThread());
+            if (line.contains(match))
+                invocation.println(line);
+        }
+    }
+
+    @CommandDefinition(name = "count", description = "")
+    public static class CountCommand implements StreamingCommand<CommandInvocation> {
+        private int count;
+
+        @Override
+        public void processLine(String line, CommandInvocation invocation) {
+            count++;
+        }
+
+        @Override
+        public void complete(CommandInvocation invocation) {
+            invocation.println(String.valueOf(count));
+            count = 0;
+        }
+    }
+
+    @CommandDefinition(name = "fail", description = "")
+    public static class FailCommand implements StreamingCommand<CommandInvocation> {
+        private int count;
+
+        @Override
+        public void processLine(String line, CommandInvocation invocation) throws CommandException {
+            if (++count > 2) {
+                count = 0;
+                throw new CommandException("too many lines");
+            }
+            invocation.println(line);
+        }
+    }
+
+    @CommandDefinition(name = "head", description = "")
+    public static class HeadCommand implements StreamingCommand<CommandInvocation> {
+        @Option(defaultValue = "10")
+        private int lines;
+        private int count;
+
+        @Override
+        public void processLine(String line, CommandInvocation invocation) {
+            count++;
+            invocation.println(line);
+        }
+
+        @Override
+        public boolean isInputDone() {
+            return count >= lines;
+        }
+
+        @Override
+        public void complete(CommandInvocation invocation) {
+            count = 0;
+        }
+    }
+
+    @CommandDefinition(name = "collect", description = "")
+    public static class CollectCommand implements StreamingCommand<CommandInvocation> {
+        static volatile List<String> lines;
+        private final List<String> collected = new ArrayList<>();
+
+        @Override
+        public void processLine(String line, CommandInvocation invocation) {
+            THREADS.add(Thread.currentThread());
+            collected.add(line);
+        }
+
+        @Override
+        public void complete(CommandInvocation invocation) {
+            lines = new ArrayList<>(collected);
+            collected.clear();
+        }
+    }
+}
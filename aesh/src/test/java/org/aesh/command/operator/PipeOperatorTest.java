@@ -0,0 +1,217 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.command.operator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.EnumSet;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.aesh.command.AeshCommandRuntimeBuilder;
+import org.aesh.command.Command;
+import org.aesh.command.CommandDefinition;
+import org.aesh.command.CommandException;
+import org.aesh.command.CommandResult;
+import org.aesh.command.CommandRuntime;
+import org.aesh.command.PipeFlushPolicy;
+import org.aesh.command.impl.operator.OutputDelegate;
+import org.aesh.command.impl.operator.PipeOperator;
+import org.aesh.command.impl.registry.AeshCommandRegistryBuilder;
+import org.aesh.command.invocation.CommandInvocation;
+import org.aesh.command.settings.SettingsBuilder;
+import org.aesh.console.AeshContext;
+import org.junit.Test;
+
+/**
+ * Tests for the ring buffer between two pipeline stages.
+ *
+ * @author Aesh team
+ */
+public class PipeOperatorTest {
+
+    private static final AeshContext CONTEXT = SettingsBuilder.builder().build().aeshContext();
+
+    @Test
+    public void testTransferThroughSmallBuffer() throws Exception {
+        PipeOperator pipe = new PipeOperator(CONTEXT, 16, PipeFlushPolicy.EVERY_WRITE);
+        OutputDelegate out = pipe.getConfiguration().getOutputRedirection();
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        Thread writer = new Thread(() -> {
+            try {
+                for (int i = 0; i < 10_000; i++)
+                    out.write("line " + i + "\n");
+                out.close();
+            } catch (IOException e) {
+                failure.set(e);
+            }
+        });
+        writer.start();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(pipe.getData()));
+        int lines = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            assertEquals("line " + lines, line);
+            lines++;
+        }
+        writer.join(5000);
+        assertEquals(10_000, lines);
+        assertEquals(null, failure.get());
+    }
+
+    @Test
+    public void testSingleByteReads() throws Exception {
+        PipeOperator pipe = new PipeOperator(CONTEXT, 4, PipeFlushPolicy.EVERY_WRITE);
+        OutputDelegate out = pipe.getConfiguration().getOutputRedirection();
+        Thread writer = new Thread(() -> {
+            out.write("abcdefgh");
+            try {
+                out.close();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        writer.start();
+        InputStream in = pipe.getData();
+        StringBuilder read = new StringBuilder();
+        int c;
+        while ((c = in.read()) != -1)
+            read.append((char) c);
+        writer.join(5000);
+        assertEquals("abcdefgh", read.toString());
+    }
+
+    @Test
+    public void testReaderCloseUnblocksWriter() throws Exception {
+        PipeOperator pipe = new PipeOperator(CONTEXT, 8, PipeFlushPolicy.EVERY_WRITE);
+        OutputDelegate out = pipe.getConfiguration().getOutputRedirection();
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        Thread writer = new Thread(() -> {
+            try {
+                for (int i = 0; i < 1000; i++)
+                    out.write("more than eight bytes\n");
+                // the pipe broken error is not reported, like SIGPIPE
+                out.close();
+            } catch (IOException e) {
+                failure.set(e);
+            }
+        });
+        writer.start();
+
+        InputStream in = pipe.getData();
+        assertTrue(in.read() != -1);
+        in.close();
+        writer.join(5000);
+        assertFalse(writer.isAlive());
+        assertEquals(null, failure.get());
+    }
+
+    @Test
+    public void testEmptyOutputSendsEof() throws Exception {
+        PipeOperator pipe = new PipeOperator(CONTEXT);
+        pipe.getConfiguration().getOutputRedirection().close();
+        assertEquals(-1, pipe.getData().read());
+    }
+
+    @Test
+    public void testLineFlushPolicy() throws Exception {
+        PipeOperator pipe = new PipeOperator(CONTEXT, 1024, PipeFlushPolicy.LINE);
+        OutputDelegate out = pipe.getConfiguration().getOutputRedirection();
+        InputStream in = pipe.getData();
+        out.write("partial");
+        assertEquals(0, in.available());
+        out.write(" line\n");
+        assertEquals("partial line\n".length(), in.available());
+    }
+
+    @Test
+    public void testBufferFullFlushPolicy() throws Exception {
+        PipeOperator pipe = new PipeOperator(CONTEXT, 1024, PipeFlushPolicy.BUFFER_FULL);
+        OutputDelegate out = pipe.getConfiguration().getOutputRedirection();
+        InputStream in = pipe.getData();
+        out.write("first\n");
+        out.write("second\n");
+        assertEquals(0, in.available());
+        out.close();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in));
+        assertEquals("first", reader.readLine());
+        assertEquals("second", reader.readLine());
+        assertEquals(null, reader.readLine());
+    }
+
+    @Test
+    public void testRuntimePipeline() throws Exception {
+        CommandRuntime<CommandInvocation> runtime = AeshCommandRuntimeBuilder.builder()
+                .commandRegistry(AeshCommandRegistryBuilder.builder()
+                        .command(AeshCommandPipelineTest.PipeCommand.class)
+                        .command(AeshCommandPipelineTest.UpperCommand.class)
+                        .command(CollectCommand.class)
+                        .create())
+                .operators(EnumSet.allOf(OperatorType.class))
+                .pipeBufferSize(8)
+                .build();
+        runtime.executeCommand("pipe | upper | collect");
+        assertEquals("HELLO AESH", CollectCommand.collected);
+    }
+
+    @Test
+    public void testInterruptedReader() throws Exception {
+        PipeOperator pipe = new PipeOperator(CONTEXT);
+        InputStream in = pipe.getData();
+        AtomicReference<Integer> result = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            try {
+                result.set(in.read());
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        reader.start();
+        Thread.sleep(50);
+        reader.interrupt();
+        reader.join(5000);
+        assertEquals(Integer.valueOf(-1), result.get());
+    }
+
+    @CommandDefinition(name = "collect", description = "")
+    public static class CollectCommand implements Command<CommandInvocation> {
+        static volatile String collected;
+
+        @Override
+        public CommandResult execute(CommandInvocation commandInvocation) throws CommandException {
+            StringBuilder lines = new StringBuilder();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(commandInvocation.getStdin()))) {
+                String line;
+                while ((line = reader.readLine()) != null)
+                    lines.append(lines.length() > 0 ? " " : "").append(line);
+            } catch (IOException e) {
+                throw new CommandException(e);
+            }
+            collected = lines.toString();
+            return CommandResult.SUCCESS;
+        }
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.command.operator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.aesh.command.PipeStageExecutor;
+import org.aesh.command.impl.registry.AeshCommandRegistryBuilder;
+import org.aesh.command.invocation.CommandInvocation;
+import org.aesh.command.registry.CommandRegistry;
+import org.aesh.command.registry.CommandRegistryException;
+import org.aesh.command.settings.Settings;
+import org.aesh.command.settings.SettingsBuilder;
+import org.aesh.console.ReadlineConsole;
+import org.aesh.terminal.utils.Config;
+import org.aesh.tty.TestConnection;
+import org.aesh.util.VirtualThreads;
+import org.junit.Test;
+
+/**
+ * @author Aesh team
+ */
+public class PipeStageExecutorTest {
+
+    @Test
+    public void testStagesRunConcurrentlyBeyondMaxThreads() throws Exception {
+        PipeStageExecutor executor = new PipeStageExecutor("test-pipe", 2, 60, TimeUnit.SECONDS);
+        // each stage waits for all the others, like the stages of a pipeline
+        CountDownLatch allStarted = new CountDownLatch(5);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            futures.add(executor.submit(() -> {
+                allStarted.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+        assertTrue(allStarted.await(5, TimeUnit.SECONDS));
+        assertEquals(5, executor.activeStages());
+        assertEquals(2, executor.poolSize());
+        assertEquals(3, executor.overflowStages());
+        assertEquals(3, executor.overflowThreads());
+
+        release.countDown();
+        for (Future<?> future : futures)
+            future.get(5, TimeUnit.SECONDS);
+        waitForCompletedStages(executor, 5);
+        assertEquals(0, executor.activeStages());
+        executor.shutdown();
+    }
+
+    @Test
+    public void testOverflowThreadsAreCapped() throws Exception {
+        PipeStageExecutor executor = new PipeStageExecutor("test-pipe", 1, 1, 60, TimeUnit.SECONDS);
+        CountDownLatch allStarted = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        Runnable stage = () -> {
+            allStarted.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        Future<?> pooled = executor.submit(stage);
+        Future<?> overflow = executor.submit(stage);
+        assertTrue(allStarted.await(5, TimeUnit.SECONDS));
+        try {
+            executor.submit(stage);
+            fail("the third stage should be rejected");
+        } catch (RejectedExecutionException e) {
+            assertEquals(1, executor.overflowThreads());
+        }
+
+        release.countDown();
+        pooled.get(5, TimeUnit.SECONDS);
+        overflow.get(5, TimeUnit.SECONDS);
+        waitForCompletedStages(executor, 2);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (executor.overflowThreads() > 0 && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+        assertEquals(0, executor.overflowThreads());
+        executor.shutdown();
+    }
+
+    @Test
+    public void testThreadsAreReused() throws Exception {
+        PipeStageExecutor executor = new PipeStageExecutor("test-pipe", 4, 60, TimeUnit.SECONDS);
+        AtomicReference<String> first = new AtomicReference<>();
+        AtomicReference<String> second = new AtomicReference<>();
+        executor.submit(() -> first.set(Thread.currentThread().getName())).get(5, TimeUnit.SECONDS);
+        waitForCompletedStages(executor, 1);
+        // let the thread go back to waiting for the next stage
+        Thread.sleep(100);
+        executor.submit(() -> second.set(Thread.currentThread().getName())).get(5, TimeUnit.SECONDS);
+
+        assertTrue(first.get().startsWith("test-pipe-"));
+        assertEquals(first.get(), second.get());
+        assertEquals(1, executor.poolSize());
+        assertEquals(0, executor.overflowStages());
+        executor.shutdown();
+    }
+
+    @Test
+    public void testCancelInterruptsStage() throws Exception {
+        PipeStageExecutor executor = new PipeStageExecutor();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        Future<?> future = executor.submit(() -> {
+            started.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        future.cancel(true);
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void testSubmitAfterShutdown() {
+        PipeStageExecutor executor = new PipeStageExecutor();
+        executor.shutdown();
+        executor.submit(() -> {
+        });
+    }
+
+    @Test
+    public void testConsoleSharesExecutor() throws IOException, InterruptedException, CommandRegistryException {
+        TestConnection connection = new TestConnection();
+        PipeStageExecutor executor = new PipeStageExecutor("console-pipe", 1, 60, TimeUnit.SECONDS);
+
+        CommandRegistry registry = AeshCommandRegistryBuilder.builder()
+                .command(AeshCommandPipelineTest.PipeCommand.class)
+                .command(AeshCommandPipelineTest.UpperCommand.class)
+                .command(AeshCommandPipelineTest.StdinReaderCommand.class)
+                .create();
+
+        Settings<CommandInvocation> settings = SettingsBuilder.builder()
+                .connection(connection)
+                .enableOperatorParser(true)
+                .commandRegistry(registry)
+                .pipeStageExecutor(executor)
+                .logging(true)
+                .build();
+
+        ReadlineConsole console = new ReadlineConsole(settings);
+        console.start();
+
+        // three stages with a single pooled thread, the second upstream stage overflows
+        connection.read("pipe | upper | stdin-reader" + Config.getLineSeparator());
+        String output = connection.waitForOutputContaining("HELLO AESH", 5000);
+        assertTrue(output, output.contains("HELLO AESH"));
+        waitForCompletedStages(executor, 2);
+        connection.clearOutputBuffer();
+
+        connection.read("pipe | upper | stdin-reader" + Config.getLineSeparator());
+        output = connection.waitForOutputContaining("HELLO AESH", 5000);
+        assertTrue(output, output.contains("HELLO AESH"));
+        waitForCompletedStages(executor, 4);
+        assertEquals(1, executor.maxThreads());
+        assertTrue(executor.poolSize() <= 1);
+
+        console.stop();
+        executor.shutdown();
+    }
+
+    @Test
+    public void testVirtualThreads() throws Exception {
+        PipeStageExecutor executor = PipeStageExecutor.ofVirtualThreads();
+        // platform threads are used when the JVM does not support virtual threads
+        assertEquals(VirtualThreads.isSupported(), executor.usesVirtualThreads());
+        AtomicReference<String> name = new AtomicReference<>();
+        executor.submit(() -> name.set(Thread.currentThread().getName())).get(5, TimeUnit.SECONDS);
+        assertTrue(name.get().startsWith("aesh-pipe-"));
+        waitForCompletedStages(executor, 1);
+    }
+
+    @Test
+    public void testConsoleWithVirtualThreads() throws IOException, InterruptedException, CommandRegistryException {
+        TestConnection connection = new TestConnection();
+
+        CommandRegistry registry = AeshCommandRegistryBuilder.builder()
+                .command(AeshCommandPipelineTest.PipeCommand.class)
+                .command(AeshCommandPipelineTest.UpperCommand.class)
+                .command(AeshCommandPipelineTest.StdinReaderCommand.class)
+                .create();
+
+        Settings<CommandInvocation> settings = SettingsBuilder.builder()
+                .connection(connection)
+                .enableOperatorParser(true)
+                .commandRegistry(registry)
+                .virtualThreads(true)
+                .logging(true)
+                .build();
+
+        ReadlineConsole console = new ReadlineConsole(settings);
+        console.start();
+
+        connection.read("pipe | upper | stdin-reader" + Config.getLineSeparator());
+        String output = connection.waitForOutputContaining("HELLO AESH", 5000);
+        assertTrue(output, output.contains("HELLO AESH"));
+
+        console.stop();
+    }
+
+    private static void waitForCompletedStages(PipeStageExecutor executor, long stages) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (executor.completedStages() < stages && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+        assertEquals(stages, executor.completedStages());
+    }
+}
@@ -244,8 +244,8 @@ public class StreamingPipeTest {
         @Override
         public CommandResult execute(CommandInvocation ci) throws CommandException {
             producerStarted.set(true);
-            // Write enough data to fill the pipe buffer, forcing back-pressure
-            for (int i = 0; i < 1000; i++) {
+            // Write several times the 64KB pipe buffer, forcing back-pressure
+            for (int i = 0; i < 50_000; i++) {
                 ci.println("data-" + i);
             }
             producerFinished.set(true);
@@ -265,7 +265,7 @@ public class StreamingPipeTest {
                     BufferedReader reader = new BufferedReader(new InputStreamReader(stdin));
                     while (reader.readLine() != null) {
                         // Check overlap while actively reading: back-pressure from the
-                        // 16-element blocking queue guarantees the producer is still
+                        // full pipe buffer guarantees the producer is still
                         // running while the consumer drains data.
                         if (!consumerStartedBeforeProducerFinished.get()
                                 && ConcurrencyProducerCommand.producerStarted.get()
@@ -0,0 +1,261 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.command.parallel;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.aesh.command.AeshCommandRuntimeBuilder;
+import org.aesh.command.Command;
+import org.aesh.command.CommandDefinition;
+import org.aesh.command.CommandException;
+import org.aesh.command.CommandResult;
+import org.aesh.command.CommandRuntime;
+import org.aesh.command.CommandScope;
+import org.aesh.command.impl.registry.AeshCommandRegistryBuilder;
+import org.aesh.command.invocation.CommandInvocation;
+import org.aesh.command.option.Argument;
+import org.aesh.command.option.Option;
+import org.aesh.command.registry.CommandRegistry;
+import org.aesh.command.registry.CommandRegistryException;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author Aesh team
+ */
+public class ParallelCommandTest {
+
+    private static final AtomicInteger RUNNING = new AtomicInteger();
+    private static final AtomicInteger MAX_RUNNING = new AtomicInteger();
+    private static final AtomicInteger RUNS = new AtomicInteger();
+    private static volatile List<String> collected;
+
+    private CommandRegistry<CommandInvocation> registry;
+    private CommandRuntime<CommandInvocation> runtime;
+
+    @Before
+    public void setup() throws CommandRegistryException {
+        RUNNING.set(0);
+        MAX_RUNNING.set(0);
+        RUNS.set(0);
+        collected = null;
+        registry = AeshCommandRegistryBuilder.builder()
+                .command(ParallelCommand.class)
+                .command(GreetCommand.class)
+                .command(CheckCommand.class)
+                .command(EmitCommand.class)
+                .command(CollectCommand.class)
+                .command(new PrefixCommand("hi"))
+                .create();
+        runtime = AeshCommandRuntimeBuilder.builder()
+                .commandRegistry(registry)
+                .operators(AeshCommandRuntimeBuilder.ALL_OPERATORS)
+                .build();
+    }
+
+    @Test
+    public void testItemsAfterSeparator() throws Exception {
+        assertEquals(CommandResult.SUCCESS,
+                runtime.executeCommand("parallel -j 4 greet --name {} --sleep 0 ::: a b c d e | collect"));
+        List<String> lines = new ArrayList<>(collected);
+        Collections.sort(lines);
+        assertEquals(Arrays.asList("hello a", "hello b", "hello c", "hello d", "hello e"), lines);
+    }
+
+    @Test
+    public void testKeepOrder() throws Exception {
+        // the first items take the longest
+        runtime.executeCommand("parallel -k -j 4 greet --sleep 40 ::: a b c d | collect");
+        assertEquals(Arrays.asList("hello a", "hello b", "hello c", "hello d"), collected);
+    }
+
+    @Test
+    public void testItemsFromStdin() throws Exception {
+        runtime.executeCommand("emit --count 20 | parallel --keep-order greet --name item-{} | collect");
+        assertEquals(20, collected.size());
+        for (int i = 0; i < 20; i++)
+            assertEquals("hello item-" + i, collected.get(i));
+    }
+
+    @Test
+    public void testBoundedParallelism() throws Exception {
+        runtime.executeCommand("parallel -j 2 greet --sleep 20 ::: a b c d e f | collect");
+        assertEquals(6, RUNS.get());
+        assertEquals(6, collected.size());
+        assertTrue(String.valueOf(MAX_RUNNING.get()), MAX_RUNNING.get() <= 2);
+    }
+
+    @Test
+    public void testEachExecutionHasItsOwnInstance() throws Exception {
+        // with a shared instance the name of one execution would be overwritten by the others
+        runtime.executeCommand("emit --count 32 | parallel -k -j 16 greet --sleep 5 --name {} | collect");
+        for (int i = 0; i < 32; i++)
+            assertEquals("hello " + i, collected.get(i));
+        GreetCommand registered = (GreetCommand) registry.getCommand("greet", "").getParser().getCommand();
+        assertNull(registered.name);
+    }
+
+    @Test
+    public void testSingletonRejected() throws Exception {
+        // the executions would share the registered instance
+        runtime.executeCommand("parallel prefix --name {} ::: a b c | collect");
+        assertEquals(0, RUNS.get());
+        assertEquals(Collections.singletonList(
+                "parallel: The command prefix can not run concurrently, declare it with scope = CommandScope.PROTOTYPE"),
+                collected);
+    }
+
+    @Test
+    public void testCollectErrors() throws Exception {
+        // the result of a pipeline is the result of its last command
+        runtime.executeCommand("parallel -k -j 1 check ::: a bad c | collect");
+        assertEquals(3, RUNS.get());
+        assertEquals(Arrays.asList("checked a", "parallel: bad: failed", "checked c",
+                "parallel: 1 of 3 commands failed"), collected);
+    }
+
+    @Test
+    public void testFailFast() throws Exception {
+        assertEquals(CommandResult.FAILURE, runtime.executeCommand("parallel --fail-fast -j 1 check ::: bad a b"));
+        assertEquals(1, RUNS.get());
+        assertEquals(CommandResult.FAILURE, runtime.executeCommand("parallel check ::: a bad"));
+        assertEquals(3, RUNS.get());
+        assertEquals(CommandResult.SUCCESS, runtime.executeCommand("parallel check ::: a b"));
+    }
+
+    @Test
+    public void testArguments() {
+        assertArrayEquals(new String[] { "--id", "7" }, ParallelCommand.arguments(Arrays.asList("--id"), "7"));
+        assertArrayEquals(new String[] { "--id=7", "x7x" },
+                ParallelCommand.arguments(Arrays.asList("--id={}", "x{}x"), "7"));
+    }
+
+    @CommandDefinition(name = "greet", description = "", scope = CommandScope.PROTOTYPE)
+    public static class GreetCommand implements Command<CommandInvocation> {
+        @Option
+        private String name;
+
+        @Option(defaultValue = "0")
+        private int sleep;
+
+        @Argument
+        private String argument;
+
+        @Override
+        public CommandResult execute(CommandInvocation commandInvocation) throws InterruptedException {
+            RUNS.incrementAndGet();
+            MAX_RUNNING.accumulateAndGet(RUNNING.incrementAndGet(), Math::max);
+            try {
+                String who = name != null ? name : argument;
+                // earlier items sleep longer, to finish out of order
+                Thread.sleep(argument != null ? sleep * Math.max(0, 'e' - argument.charAt(0)) : sleep);
+                commandInvocation.println("hello " + who);
+            } finally {
+                RUNNING.decrementAndGet();
+            }
+            return CommandResult.SUCCESS;
+        }
+    }
+
+    @CommandDefinition(name = "prefix", description = "")
+    public static class PrefixCommand implements Command<CommandInvocation> {
+        private final String prefix;
+
+        @Option
+        private String name;
+
+        @Option(defaultValue = "0")
+        private int sleep;
+
+        PrefixCommand(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public CommandResult execute(CommandInvocation commandInvocation) throws InterruptedException {
+            RUNS.incrementAndGet();
+            MAX_RUNNING.accumulateAndGet(RUNNING.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(sleep);
+                commandInvocation.println(prefix + " " + name);
+            } finally {
+                RUNNING.decrementAndGet();
+            }
+            return CommandResult.SUCCESS;
+        }
+    }
+
+    @CommandDefinition(name = "check", description = "", scope = CommandScope.PROTOTYPE)
+    public static class CheckCommand implements Command<CommandInvocation> {
+        @Argument
+        private String item;
+
+        @Override
+        public CommandResult execute(CommandInvocation commandInvocation) {
+            RUNS.incrementAndGet();
+            if ("bad".equals(item))
+                return CommandResult.FAILURE;
+            commandInvocation.println("checked " + item);
+            return CommandResult.SUCCESS;
+        }
+    }
+
+    @CommandDefinition(name = "emit", description = "")
+    public static class EmitCommand implements Command<CommandInvocation> {
+        @Option(defaultValue = "1")
+        private int count;
+
+        @Override
+        public CommandResult execute(CommandInvocation commandInvocation) {
+            for (int i = 0; i < count; i++)
+                commandInvocation.println(String.valueOf(i));
+            return CommandResult.SUCCESS;
+        }
+    }
+
+    @CommandDefinition(name = "collect", description = "")
+    public static class CollectCommand implements Command<CommandInvocation> {
+        @Override
+        public CommandResult execute(CommandInvocation commandInvocation) throws CommandException {
+            List<String> lines = new ArrayList<>();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(commandInvocation.getStdin()))) {
+                String line;
+                while ((line = reader.readLine()) != null)
+                    lines.add(line);
+            } catch (IOException e) {
+                throw new CommandException(e);
+            }
+            collected = lines;
+            return CommandResult.SUCCESS;
+        }
+    }
+}
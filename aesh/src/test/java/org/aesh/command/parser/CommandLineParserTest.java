@@ -26,6 +26,8 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -35,8 +37,10 @@ import org.aesh.command.CommandException;
 import org.aesh.command.CommandResult;
 import org.aesh.command.DefaultValueProvider;
 import org.aesh.command.impl.container.AeshCommandContainerBuilder;
+import org.aesh.command.impl.internal.ProcessedCommandBuilder;
 import org.aesh.command.impl.internal.ProcessedOption;
 import org.aesh.command.impl.invocation.AeshInvocationProviders;
+import org.aesh.command.impl.parser.AeshCommandLineParser;
 import org.aesh.command.impl.parser.CommandLineParser;
 import org.aesh.command.invocation.CommandInvocation;
 import org.aesh.command.invocation.InvocationProviders;
@@ -368,6 +372,53 @@ public class CommandLineParserTest {
         assertEquals("FOO", c2.bar);
     }
 
+    @Test
+    public void testGroupChildLookup() throws Exception {
+        AeshCommandLineParser<CommandInvocation> parser = new AeshCommandLineParser<>(
+                ProcessedCommandBuilder.<Command<CommandInvocation>, CommandInvocation> builder()
+                        .name("group").command(new TestingCommand<>()).create());
+        for (int i = 0; i < 300; i++) {
+            parser.addChildParser(new AeshCommandLineParser<>(
+                    ProcessedCommandBuilder.<Command<CommandInvocation>, CommandInvocation> builder()
+                            .name("child" + i).aliases(Collections.singletonList("c" + i))
+                            .command(new TestingCommand<>()).create()));
+        }
+        assertEquals("child42", parser.getChildParser("child42").getProcessedCommand().name());
+        assertEquals("child42", parser.getChildParser("c42").getProcessedCommand().name());
+        assertNull(parser.getChildParser("child300"));
+
+        parser.parse("group child299", CommandLineParser.Mode.STRICT);
+        assertEquals("child299", parser.parsedCommand().getProcessedCommand().name());
+
+        parser.parse("group unknown foo", CommandLineParser.Mode.STRICT);
+        SubcommandNotFoundException exception = (SubcommandNotFoundException) parser.getProcessedCommand()
+                .parserExceptions().get(0);
+        List<String> names = new ArrayList<>(exception.getAvailableSubcommands());
+        assertEquals(300, names.size());
+        assertEquals("child0", names.get(0));
+        assertEquals("child1", names.get(1));
+        assertEquals("child10", names.get(2));
+    }
+
+    @Test
+    public void testPopulateOnlyParsedGroupChild() throws Exception {
+        AeshContext aeshContext = SettingsBuilder.builder().build().aeshContext();
+        CommandLineParser<CommandInvocation> parser = new AeshCommandContainerBuilder<>().create(new GroupCommandTest<>())
+                .getParser();
+        ChildTest1 c1 = (ChildTest1) parser.getChildParser("child1").getCommand();
+        ChildTest2 c2 = (ChildTest2) parser.getChildParser("child2").getCommand();
+
+        c2.foo = "untouched";
+        parser.populateObject("group child1 --foo BAR", invocationProviders, aeshContext, CommandLineParser.Mode.VALIDATE);
+        assertEquals("BAR", c1.foo);
+        assertEquals("untouched", c2.foo);
+
+        // the previously populated child is reset
+        parser.populateObject("group --help", invocationProviders, aeshContext, CommandLineParser.Mode.VALIDATE);
+        assertNull(c1.foo);
+        assertEquals("untouched", c2.foo);
+    }
+
     @Test
     public void testParseCommandLine4() throws Exception {
         AeshContext aeshContext = SettingsBuilder.builder().build().aeshContext();
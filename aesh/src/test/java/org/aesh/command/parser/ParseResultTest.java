@@ -0,0 +1,406 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.command.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.aesh.command.Command;
+import org.aesh.command.CommandDefinition;
+import org.aesh.command.CommandResult;
+import org.aesh.command.activator.OptionActivator;
+import org.aesh.command.impl.container.AeshCommandContainerBuilder;
+import org.aesh.command.impl.internal.ParsedCommand;
+import org.aesh.command.impl.internal.ProcessedOption;
+import org.aesh.command.impl.invocation.AeshInvocationProviders;
+import org.aesh.command.impl.parser.CommandLineParser;
+import org.aesh.command.impl.parser.ParseResult;
+import org.aesh.command.invocation.CommandInvocation;
+import org.aesh.command.invocation.InvocationProviders;
+import org.aesh.command.option.Argument;
+import org.aesh.command.option.Arguments;
+import org.aesh.command.option.Option;
+import org.aesh.command.option.OptionGroup;
+import org.aesh.command.option.OptionList;
+import org.aesh.command.settings.SettingsBuilder;
+import org.aesh.console.AeshContext;
+import org.junit.Test;
+
+/**
+ * @author Aesh team
+ */
+public class ParseResultTest {
+
+    private static final String[] LINES = {
+            "test -e bar",
+            "test -f -e bar -Df=g /tmp/file.txt",
+            "test -c10 -f -e=bar -Df=g a b",
+            "test -fX -e bar",
+            "test -fq -e bar",
+            "test --equal \"bar bar2\" -DXms=\"128g \" -DXmm=",
+            "test -e x --list a,b,c",
+            "test -e x --list=a,b, foo",
+            "test -e x -la,b",
+            "test --no-verbose -e x",
+            "test --verbose --no-verbose -e x",
+            "test -e x --level",
+            "test -e x --level=9 arg",
+            "test -e x --json --xml",
+            "test -e x --out o",
+            "test -e x --output=o",
+            "test -e x staging",
+            "test",
+            "test -e",
+            "test -e x --unknown",
+            "test -e x -- -f --foo",
+            "toto -e x -q",
+            "test -e x -c",
+            "test -e x -D",
+            "test -e x -Dfoo",
+            "test -e x \"unterminated",
+            "other -e x",
+            "",
+            "cli one --name n arg",
+            "cli -c 3 one --name n",
+            "cli --verbose one",
+            "cli one --verbose",
+            "cli three",
+            "cli",
+            "cli -c",
+            "cli two a b c",
+            "cli one a b",
+            "cli one",
+            "cli --bogus one",
+            "cli -c 3 two --verbose x"
+    };
+
+    private final InvocationProviders invocationProviders = new AeshInvocationProviders();
+
+    @Test
+    public void testValues() throws Exception {
+        CommandLineParser<CommandInvocation> parser = parser(new ResultCommand());
+
+        ParseResult result = parser.parseResult("test -f -c10 -e=bar -Df=g -Dh=i --list a,b --no-verbose file1 file2");
+        assertEquals(Collections.singletonList("test"), result.commandPath());
+        assertTrue(result.hasOption("foo"));
+        assertTrue(result.hasOption("f"));
+        assertFalse(result.hasOption("X"));
+        assertEquals("10", result.value("c"));
+        assertEquals("bar", result.value("equal"));
+        assertEquals("g", result.properties("D").get("f"));
+        assertEquals("i", result.properties("D").get("h"));
+        assertEquals(Arrays.asList("a", "b"), result.values("list"));
+        assertTrue(result.isNegated("verbose"));
+        assertEquals(Arrays.asList("file1", "file2"), result.positionals());
+        assertFalse(result.hasDiagnostics());
+        assertNull(result.subcommand());
+
+        result = parser.parseResult("test -c10");
+        assertTrue(result.hasDiagnostics());
+        assertTrue(result.diagnostics().get(0) instanceof RequiredOptionException);
+
+        //nothing is stored in the options
+        for (ProcessedOption option : parser.getProcessedCommand().getOptions()) {
+            assertTrue(option.getValues().isEmpty());
+            assertTrue(option.getProperties().isEmpty());
+        }
+    }
+
+    @Test
+    public void testSubcommands() throws Exception {
+        CommandLineParser<CommandInvocation> parser = parser(new ResultGroupCommand());
+
+        ParseResult result = parser.parseResult("cli -c 3 --verbose one --name n arg");
+        assertEquals(Arrays.asList("cli", "one"), result.commandPath());
+        assertEquals("3", result.value("c"));
+        assertEquals("true", result.value("verbose"));
+        ParseResult one = result.selectedCommand();
+        assertEquals("one", one.name());
+        assertEquals("n", one.value("name"));
+        assertEquals(Collections.singletonList("arg"), one.positionals());
+
+        result = parser.parseResult("cli three -c 3");
+        assertEquals(Collections.singletonList("cli"), result.commandPath());
+        assertTrue(result.diagnostics().get(0) instanceof SubcommandNotFoundException);
+    }
+
+    @Test
+    public void testSameAsParse() throws Exception {
+        List<CommandLineParser<CommandInvocation>> parsers = Arrays.asList(
+                parser(new ResultCommand()), parser(new ResultGroupCommand()));
+        for (CommandLineParser.Mode mode : Arrays.asList(CommandLineParser.Mode.STRICT, CommandLineParser.Mode.VALIDATE,
+                CommandLineParser.Mode.NONE)) {
+            for (CommandLineParser<CommandInvocation> parser : parsers) {
+                for (String line : LINES)
+                    assertSameAsParse(parser, line, mode);
+            }
+        }
+    }
+
+    @Test
+    public void testPopulate() throws Exception {
+        AeshContext aeshContext = SettingsBuilder.builder().build().aeshContext();
+        CommandLineParser<CommandInvocation> parser = parser(new ResultCommand());
+        ResultCommand command = (ResultCommand) parser.getCommand();
+
+        ParseResult first = parser.parseResult("test -f -e bar -Dx=y --list a,b in");
+        ParseResult second = parser.parseResult("test -e baz --level");
+        parser.populate(first, invocationProviders, aeshContext, CommandLineParser.Mode.VALIDATE);
+        assertTrue(command.foo);
+        assertEquals("bar", command.equal);
+        assertEquals("y", command.define.get("x"));
+        assertEquals(Arrays.asList("a", "b"), command.list);
+        assertEquals(Collections.singletonList("in"), command.arguments);
+
+        parser.populate(second, invocationProviders, aeshContext, CommandLineParser.Mode.VALIDATE);
+        assertNull(command.foo);
+        assertEquals("baz", command.equal);
+        assertEquals("4", command.level);
+        assertNull(command.arguments);
+
+        try {
+            parser.populate(parser.parseResult("test -f"), invocationProviders, aeshContext,
+                    CommandLineParser.Mode.VALIDATE);
+            throw new AssertionError("expected a RequiredOptionException");
+        } catch (RequiredOptionException e) {
+            //expected
+        }
+
+        CommandLineParser<CommandInvocation> groupParser = parser(new ResultGroupCommand());
+        groupParser.populate(groupParser.parseResult("cli --verbose one --name n arg"), invocationProviders,
+                aeshContext, CommandLineParser.Mode.VALIDATE);
+        assertEquals("one", groupParser.parsedCommand().getProcessedCommand().name());
+        ChildOne one = (ChildOne) groupParser.parsedCommand().getCommand();
+        assertEquals("n", one.name);
+        assertEquals("arg", one.arg);
+        assertTrue(one.verbose);
+    }
+
+    @Test
+    public void testConcurrentParse() throws Exception {
+        CommandLineParser<CommandInvocation> parser = parser(new ResultGroupCommand());
+        assertConcurrentParse(parser);
+        assertTrue(parser.getProcessedCommand().findLongOptionNoActivatorCheck("c").getValues().isEmpty());
+    }
+
+    @Test
+    public void testActivatorNotSupported() throws Exception {
+        CommandLineParser<CommandInvocation> parser = parser(new ActivatorGroupCommand());
+        assertTrue(parser(new ResultGroupCommand()).supportsParseResult());
+        assertFalse(parser.supportsParseResult());
+        try {
+            parser.parseResult("cli -c 1 two a");
+            fail("parseResult must not store the values of a command with an activator");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        parser.parse("cli -c 1 two a");
+        assertEquals("1", parser.getProcessedCommand().findLongOptionNoActivatorCheck("c").getValue());
+    }
+
+    private void assertConcurrentParse(CommandLineParser<CommandInvocation> parser) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 2000; i++) {
+                        String value = thread + "-" + i;
+                        ParseResult result = parser.parseResult("cli -c " + value + " two " + value + " " + i);
+                        assertFalse(result.hasDiagnostics());
+                        assertEquals(value, result.value("c"));
+                        assertEquals(Arrays.asList(value, String.valueOf(i)), result.selectedCommand().positionals());
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures)
+                future.get();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void assertSameAsParse(CommandLineParser<CommandInvocation> parser, String line,
+            CommandLineParser.Mode mode) {
+        ParseResult result = parser.parseResult(line, mode);
+        parser.parse(line, mode);
+        String message = mode + ": " + line;
+
+        CommandLineParser<CommandInvocation> current = parser;
+        for (ParseResult r = result; r != null; r = r.subcommand()) {
+            assertEquals(message, current.getProcessedCommand().name(), r.name());
+            assertEquals(message, messages(current.getProcessedCommand().parserExceptions()), messages(r.diagnostics()));
+            for (ProcessedOption option : current.getProcessedCommand().getOptions()) {
+                String name = option.name() != null && !option.name().isEmpty() ? option.name() : option.shortName();
+                assertEquals(message + " " + name, option.getValues(), r.values(name));
+                assertEquals(message + " " + name, option.getProperties(), r.properties(name));
+                assertEquals(message + " " + name, option.isNegatedByUser(), r.isNegated(name));
+            }
+            List<String> positionals = new ArrayList<>();
+            for (ProcessedOption positional : current.getProcessedCommand().getPositionalOptionsInDisplayOrder())
+                positionals.addAll(positional.getValues());
+            assertEquals(message, positionals, r.positionals());
+            if (r.subcommand() != null)
+                current = current.getChildParser(r.subcommand().name());
+        }
+        CommandLineParser<CommandInvocation> parsed = parser.parsedCommand();
+        if (parsed != null)
+            assertEquals(message, parsed.getProcessedCommand().name(), result.selectedCommand().name());
+        parser.clear();
+    }
+
+    private static List<String> messages(List<CommandLineParserException> exceptions) {
+        List<String> messages = new ArrayList<>(exceptions.size());
+        for (CommandLineParserException exception : exceptions)
+            messages.add(exception.getClass().getSimpleName() + ": " + exception.getMessage());
+        return messages;
+    }
+
+    private static CommandLineParser<CommandInvocation> parser(Command<CommandInvocation> command)
+            throws CommandLineParserException {
+        return new AeshCommandContainerBuilder<CommandInvocation>().create(command).getParser();
+    }
+
+    @CommandDefinition(name = "test", description = "", aliases = { "toto" })
+    public static class ResultCommand implements Command<CommandInvocation> {
+
+        @Option(shortName = 'X', name = "X", hasValue = false)
+        private Boolean enableX;
+
+        @Option(shortName = 'f', name = "foo", hasValue = false)
+        private Boolean foo;
+
+        @Option(shortName = 'e', name = "equal", required = true)
+        private String equal;
+
+        @Option(shortName = 'c')
+        private int connection;
+
+        @OptionGroup(shortName = 'D')
+        private Map<String, String> define;
+
+        @OptionList(shortName = 'l', name = "list")
+        private List<String> list;
+
+        @Option(hasValue = false, negatable = true)
+        private boolean verbose;
+
+        @Option(optionalValue = true, defaultValue = "4")
+        private String level;
+
+        @Option(hasValue = false, exclusiveWith = { "xml" })
+        private boolean json;
+
+        @Option(hasValue = false)
+        private boolean xml;
+
+        @Option(aliases = { "out" })
+        private String output;
+
+        @Option(hasValue = false, acceptNameWithoutDashes = true)
+        private boolean staging;
+
+        @Arguments
+        private List<String> arguments;
+
+        @Override
+        public CommandResult execute(CommandInvocation commandInvocation) {
+            return CommandResult.SUCCESS;
+        }
+    }
+
+    @CommandDefinition(name = "cli", description = "", groupCommands = { ChildOne.class, ChildTwo.class })
+    public static class ResultGroupCommand implements Command<CommandInvocation> {
+
+        @Option(shortName = 'c')
+        private String c;
+
+        @Option(hasValue = false, inherited = true)
+        private boolean verbose;
+
+        @Override
+        public CommandResult execute(CommandInvocation commandInvocation) {
+            return CommandResult.SUCCESS;
+        }
+    }
+
+    @CommandDefinition(name = "one", description = "")
+    public static class ChildOne implements Command<CommandInvocation> {
+
+        @Option
+        private String name;
+
+        @Option(hasValue = false)
+        private boolean verbose;
+
+        @Argument
+        private String arg;
+
+        @Override
+        public CommandResult execute(CommandInvocation commandInvocation) {
+            return CommandResult.SUCCESS;
+        }
+    }
+
+    @CommandDefinition(name = "two", description = "")
+    public static class ChildTwo implements Command<CommandInvocation> {
+
+        @Arguments
+        private List<String> arguments;
+
+        @Override
+        public CommandResult execute(CommandInvocation commandInvocation) {
+            return CommandResult.SUCCESS;
+        }
+    }
+
+    @CommandDefinition(name = "cli", description = "", groupCommands = { ChildTwo.class })
+    public static class ActivatorGroupCommand implements Command<CommandInvocation> {
+
+        @Option(shortName = 'c', activator = AlwaysActivator.class)
+        private String c;
+
+        @Override
+        public CommandResult execute(CommandInvocation commandInvocation) {
+            return CommandResult.SUCCESS;
+        }
+    }
+
+    public static class AlwaysActivator implements OptionActivator {
+        @Override
+        public boolean isActivated(ParsedCommand parsedCommand) {
+            return true;
+        }
+    }
+}
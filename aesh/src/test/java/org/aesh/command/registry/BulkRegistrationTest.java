@@ -0,0 +1,174 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.command.registry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.aesh.command.AeshCommandRuntimeBuilder;
+import org.aesh.command.Command;
+import org.aesh.command.CommandDefinition;
+import org.aesh.command.CommandResult;
+import org.aesh.command.CommandRuntime;
+import org.aesh.command.DefaultValueProvider;
+import org.aesh.command.impl.internal.ProcessedOption;
+import org.aesh.command.impl.registry.AeshCommandRegistryBuilder;
+import org.aesh.command.impl.registry.MutableCommandRegistryImpl;
+import org.aesh.command.invocation.CommandInvocation;
+import org.aesh.command.option.Option;
+import org.junit.Test;
+
+/**
+ * @author Aesh team
+ */
+public class BulkRegistrationTest {
+
+    private static final List<Class<? extends Command>> COMMANDS = Arrays.asList(
+            AlphaCommand.class, BetaCommand.class, GammaCommand.class, DeltaCommand.class);
+
+    @Test
+    public void testAddAllNotifiesOnce() throws Exception {
+        MutableCommandRegistryImpl<CommandInvocation> registry = new MutableCommandRegistryImpl<>();
+        List<List<String>> batches = new ArrayList<>();
+        registry.addRegistrationListener(new CommandRegistry.CommandRegistrationListener() {
+            @Override
+            public void registrationAction(String commandName, CommandRegistry.REGISTRATION_ACTION action) {
+                fail("expected a single batch");
+            }
+
+            @Override
+            public void registrationActions(List<String> commandNames, CommandRegistry.REGISTRATION_ACTION action) {
+                batches.add(commandNames);
+            }
+        });
+
+        // long enough to create the containers in parallel, the first of each name is registered
+        registry.addAll(commands(200));
+
+        assertEquals(1, batches.size());
+        assertEquals(Arrays.asList("delta", "beta", "gamma", "alpha"), batches.get(0));
+        assertEquals(4, registry.getAllCommandNames().size());
+    }
+
+    @Test
+    public void testAddAllFailureRegistersNothing() throws Exception {
+        MutableCommandRegistryImpl<CommandInvocation> registry = new MutableCommandRegistryImpl<>();
+        List<Class<? extends Command>> commands = commands(200);
+        commands.set(150, NotAnnotatedCommand.class);
+        try {
+            registry.addAll(commands);
+            fail("expected a CommandRegistryException");
+        } catch (CommandRegistryException e) {
+            assertTrue(registry.getAllCommandNames().isEmpty());
+        }
+    }
+
+    @Test
+    public void testBuilderAppliesDefaultValueProviderOnce() throws Exception {
+        DefaultValueProvider provider = option -> null;
+        CommandRegistry<CommandInvocation> registry = AeshCommandRegistryBuilder.builder()
+                .commands(commands(100))
+                .defaultValueProvider(provider)
+                .create();
+        for (String name : registry.getAllCommandNames())
+            assertSame(provider, registry.getCommand(name, "").getParser().getProcessedCommand()
+                    .getDefaultValueProvider());
+    }
+
+    @Test
+    public void testAddAllToRunningRuntime() throws Exception {
+        MutableCommandRegistryImpl<CommandInvocation> registry = new MutableCommandRegistryImpl<>();
+        registry.setDefaultValueProvider(new CountDefaultValueProvider());
+        CommandRuntime<CommandInvocation> runtime = AeshCommandRuntimeBuilder.builder()
+                .commandRegistry(registry).build();
+
+        registry.addAll(commands(100));
+
+        AlphaCommand.executedCount = 0;
+        assertEquals(CommandResult.SUCCESS, runtime.executeCommand("alpha"));
+        assertEquals(42, AlphaCommand.executedCount);
+    }
+
+    private static List<Class<? extends Command>> commands(int size) {
+        List<Class<? extends Command>> commands = new ArrayList<>(size);
+        commands.add(DeltaCommand.class);
+        for (int i = 1; i < size; i++)
+            commands.add(COMMANDS.get(i % COMMANDS.size()));
+        return commands;
+    }
+
+    public static class CountDefaultValueProvider implements DefaultValueProvider {
+        @Override
+        public String defaultValue(ProcessedOption option) {
+            return "count".equals(option.name()) ? "42" : null;
+        }
+    }
+
+    @CommandDefinition(name = "alpha", description = "")
+    public static class AlphaCommand implements Command<CommandInvocation> {
+        static int executedCount;
+
+        @Option
+        private int count;
+
+        @Override
+        public CommandResult execute(CommandInvocation commandInvocation) {
+            executedCount = count;
+            return CommandResult.SUCCESS;
+        }
+    }
+
+    @CommandDefinition(name = "beta", description = "")
+    public static class BetaCommand implements Command<CommandInvocation> {
+        @Override
+        public CommandResult execute(CommandInvocation commandInvocation) {
+            return CommandResult.SUCCESS;
+        }
+    }
+
+    @CommandDefinition(name = "gamma", description = "")
+    public static class GammaCommand implements Command<CommandInvocation> {
+        @Override
+        public CommandResult execute(CommandInvocation commandInvocation) {
+            return CommandResult.SUCCESS;
+        }
+    }
+
+    @CommandDefinition(name = "delta", description = "")
+    public static class DeltaCommand implements Command<CommandInvocation> {
+        @Override
+        public CommandResult execute(CommandInvocation commandInvocation) {
+            return CommandResult.SUCCESS;
+        }
+    }
+
+    public static class NotAnnotatedCommand implements Command<CommandInvocation> {
+        @Override
+        public CommandResult execute(CommandInvocation commandInvocation) {
+            return CommandResult.SUCCESS;
+        }
+    }
+}
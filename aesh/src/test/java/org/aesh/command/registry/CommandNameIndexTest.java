@@ -0,0 +1,119 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.command.registry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.aesh.command.Command;
+import org.aesh.command.CommandResult;
+import org.aesh.command.activator.CommandActivator;
+import org.aesh.command.container.CommandContainer;
+import org.aesh.command.impl.container.AeshCommandContainer;
+import org.aesh.command.impl.internal.ProcessedCommandBuilder;
+import org.aesh.command.impl.registry.MutableCommandRegistryImpl;
+import org.aesh.command.invocation.CommandInvocation;
+import org.aesh.command.parser.CommandLineParserException;
+import org.aesh.complete.AeshCompleteOperation;
+import org.aesh.parser.LineParser;
+import org.aesh.terminal.formatting.TerminalString;
+import org.junit.Test;
+
+/**
+ * @author Aesh team
+ */
+public class CommandNameIndexTest {
+
+    @Test
+    public void testManyCommands() throws CommandLineParserException {
+        MutableCommandRegistryImpl<CommandInvocation> registry = new MutableCommandRegistryImpl<>();
+        List<CommandContainer<CommandInvocation>> containers = new ArrayList<>();
+        for (int i = 999; i >= 0; i--)
+            containers.add(container("cmd" + i, null));
+        registry.addAllCommandContainers(containers);
+
+        List<String> names = names(registry.findCommandsStartingWith("cmd1"));
+        assertEquals(111, names.size());
+        assertEquals(Arrays.asList("cmd1", "cmd10", "cmd100", "cmd101"), names.subList(0, 4));
+        assertEquals("cmd199", names.get(110));
+        assertEquals(Arrays.asList("cmd999"), names(registry.findCommandsStartingWith("cmd999")));
+        assertEquals(1000, registry.findCommandsStartingWith("").size());
+        assertTrue(registry.findCommandsStartingWith("cmd9999").isEmpty());
+        assertTrue(registry.findCommandsStartingWith("x").isEmpty());
+
+        registry.removeCommand("cmd10");
+        registry.addCommand(container("cmd1a", null));
+        names = names(registry.findCommandsStartingWith("cmd1"));
+        assertEquals(111, names.size());
+        assertEquals(Arrays.asList("cmd1", "cmd100"), names.subList(0, 2));
+        assertEquals("cmd1a", names.get(110));
+    }
+
+    @Test
+    public void testCompletionSkipsInactiveCommands() throws CommandLineParserException {
+        AtomicInteger checks = new AtomicInteger();
+        MutableCommandRegistryImpl<CommandInvocation> registry = new MutableCommandRegistryImpl<>();
+        registry.addCommand(container("start", null));
+        registry.addCommand(container("stop", command -> {
+            checks.incrementAndGet();
+            return false;
+        }));
+        registry.addCommand(container("status", null));
+        registry.addCommand(container("other", null));
+
+        AeshCompleteOperation co = new AeshCompleteOperation("st", 2);
+        registry.completeCommandName(co, new LineParser().parseLine("st", 2));
+        List<String> candidates = new ArrayList<>();
+        for (TerminalString candidate : co.getCompletionCandidates())
+            candidates.add(candidate.getCharacters());
+        assertEquals(Arrays.asList("start", "status"), candidates);
+        assertEquals(1, checks.get());
+    }
+
+    private static List<String> names(List<CommandContainer<CommandInvocation>> containers) {
+        List<String> names = new ArrayList<>(containers.size());
+        for (CommandContainer<CommandInvocation> container : containers)
+            names.add(container.getParser().getProcessedCommand().name());
+        return names;
+    }
+
+    private static CommandContainer<CommandInvocation> container(String name, CommandActivator activator)
+            throws CommandLineParserException {
+        ProcessedCommandBuilder<Command<CommandInvocation>, CommandInvocation> builder = ProcessedCommandBuilder
+                .<Command<CommandInvocation>, CommandInvocation> builder()
+                .name(name)
+                .command(new NoopCommand());
+        if (activator != null)
+            builder.activator(activator);
+        return new AeshCommandContainer<>(builder.create());
+    }
+
+    private static class NoopCommand implements Command<CommandInvocation> {
+        @Override
+        public CommandResult execute(CommandInvocation commandInvocation) {
+            return CommandResult.SUCCESS;
+        }
+    }
+}
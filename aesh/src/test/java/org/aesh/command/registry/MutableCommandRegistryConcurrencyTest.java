@@ -0,0 +1,182 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.command.registry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.aesh.command.Command;
+import org.aesh.command.CommandResult;
+import org.aesh.command.container.CommandContainer;
+import org.aesh.command.impl.container.AeshCommandContainer;
+import org.aesh.command.impl.internal.ProcessedCommandBuilder;
+import org.aesh.command.impl.registry.MutableCommandRegistryImpl;
+import org.aesh.command.invocation.CommandInvocation;
+import org.aesh.command.parser.CommandLineParserException;
+import org.aesh.complete.AeshCompleteOperation;
+import org.aesh.parser.LineParser;
+import org.aesh.parser.ParsedLine;
+import org.junit.Test;
+
+/**
+ * @author Aesh team
+ */
+public class MutableCommandRegistryConcurrencyTest {
+
+    private static final int WRITERS = 2;
+    private static final int READERS = 4;
+    private static final int COMMANDS_PER_WRITER = 20;
+
+    @Test
+    public void testAddAndRemoveWhileReading() throws Exception {
+        MutableCommandRegistryImpl<CommandInvocation> registry = new MutableCommandRegistryImpl<>();
+        CommandContainer<CommandInvocation> stable = container("stable", "st");
+        registry.addCommand(stable);
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        CountDownLatch done = new CountDownLatch(WRITERS + READERS);
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            List<CommandContainer<CommandInvocation>> containers = new ArrayList<>();
+            for (int i = 0; i < COMMANDS_PER_WRITER; i++)
+                containers.add(container("cmd" + w + "-" + i, "alias" + w + "-" + i));
+            threads.add(new Thread(() -> {
+                try {
+                    while (running.get()) {
+                        registry.addAllCommandContainers(containers);
+                        for (CommandContainer<CommandInvocation> container : containers)
+                            registry.removeCommand(container.getParser().getProcessedCommand().name());
+                        for (CommandContainer<CommandInvocation> container : containers)
+                            registry.addCommand(container);
+                        for (CommandContainer<CommandInvocation> container : containers)
+                            registry.removeCommand(container.getParser().getProcessedCommand().name());
+                    }
+                } catch (Throwable t) {
+                    failures.add(t);
+                } finally {
+                    done.countDown();
+                }
+            }));
+        }
+        for (int r = 0; r < READERS; r++) {
+            threads.add(new Thread(() -> {
+                try {
+                    ParsedLine line = new LineParser().parseLine("cm", 2);
+                    while (running.get()) {
+                        Set<String> names = registry.getAllCommandNames();
+                        int size = names.size();
+                        int count = 0;
+                        for (String name : names) {
+                            assertTrue(name, name.equals("stable") || name.startsWith("cmd"));
+                            count++;
+                        }
+                        assertEquals(size, count);
+                        assertSame(stable, registry.getCommand("stable", ""));
+                        assertSame(stable, registry.getCommandByAlias("st"));
+                        assertTrue(registry.contains("stable"));
+                        registry.completeCommandName(new AeshCompleteOperation("cm", 2), line);
+                    }
+                } catch (Throwable t) {
+                    failures.add(t);
+                } finally {
+                    done.countDown();
+                }
+            }));
+        }
+        for (Thread thread : threads)
+            thread.start();
+        Thread.sleep(1000);
+        running.set(false);
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertTrue(failures.toString(), failures.isEmpty());
+        assertEquals(new HashSet<>(Arrays.asList("stable")), registry.getAllCommandNames());
+    }
+
+    @Test
+    public void testCommandNamesAreSnapshots() throws Exception {
+        MutableCommandRegistryImpl<CommandInvocation> registry = new MutableCommandRegistryImpl<>();
+        registry.addCommand(container("one", "1"));
+        Set<String> names = registry.getAllCommandNames();
+        registry.addCommand(container("two", "2"));
+        registry.removeCommand("one");
+
+        assertEquals(new HashSet<>(Arrays.asList("one")), names);
+        assertEquals(new HashSet<>(Arrays.asList("two")), registry.getAllCommandNames());
+        assertFalse(registry.contains("1"));
+        assertTrue(registry.contains("2"));
+    }
+
+    @Test
+    public void testListenersAreNotifiedInBatches() throws Exception {
+        MutableCommandRegistryImpl<CommandInvocation> registry = new MutableCommandRegistryImpl<>();
+        List<String> batches = new ArrayList<>();
+        List<String> single = new ArrayList<>();
+        registry.addRegistrationListener(new CommandRegistry.CommandRegistrationListener() {
+            @Override
+            public void registrationAction(String commandName, CommandRegistry.REGISTRATION_ACTION action) {
+            }
+
+            @Override
+            public void registrationActions(List<String> commandNames, CommandRegistry.REGISTRATION_ACTION action) {
+                batches.add(action + " " + commandNames);
+            }
+        });
+        // listeners implementing only registrationAction get every command
+        registry.addRegistrationListener((name, action) -> single.add(action + " " + name));
+
+        registry.addAllCommandContainers(Arrays.asList(container("a", "a1"), container("b", "b1"),
+                container("a", "a2")));
+        registry.removeCommand("a");
+        registry.addAllCommandContainers(Arrays.asList(container("b", "b2")));
+
+        assertEquals(Arrays.asList("ADDED [a, b]", "REMOVED [a]"), batches);
+        assertEquals(Arrays.asList("ADDED a", "ADDED b", "REMOVED a"), single);
+    }
+
+    private static CommandContainer<CommandInvocation> container(String name, String alias)
+            throws CommandLineParserException {
+        return new AeshCommandContainer<>(ProcessedCommandBuilder.<Command<CommandInvocation>, CommandInvocation> builder()
+                .name(name)
+                .aliases(Arrays.asList(alias))
+                .command(new NoopCommand())
+                .create());
+    }
+
+    private static class NoopCommand implements Command<CommandInvocation> {
+        @Override
+        public CommandResult execute(CommandInvocation commandInvocation) {
+            return CommandResult.SUCCESS;
+        }
+    }
+}
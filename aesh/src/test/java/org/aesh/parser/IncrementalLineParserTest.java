@@ -0,0 +1,121 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aesh.parser;
+
+import static org.aesh.parser.ZeroCopyLineParserTest.assertLinesEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+
+import org.aesh.command.operator.OperatorType;
+import org.junit.Test;
+
+/**
+ * @author Aesh team
+ */
+public class IncrementalLineParserTest {
+
+    private static final String[] LINES = {
+            "git commit -m 'fix it' && git push origin main",
+            "cat foo.txt | grep bar > out.txt; echo done",
+            "foo \"bar baz\" qu\\ x --opt={a b} (c d) 2>&1 tail",
+            "mvn --option=\"\" clean \"\"\"a \"b\" c\"\"\" x|y",
+            "ls -la   foo\\  bar || echo a&b",
+    };
+
+    private static final String EDIT_CHARS = " \\\"'{}()|&;<>2-=abc";
+
+    @Test
+    public void testTypingReusesWords() {
+        LineParser parser = new LineParser();
+        String text = "git commit -m fix";
+        ParsedLine previous = parser.parseLine(text, text.length(), true);
+        ParsedLine line = parser.parseLine(previous, text.length(), text + "e", text.length() + 1, true);
+        assertEquals("fixe", line.selectedWord().word());
+        assertEquals(4, line.size());
+        for (int i = 0; i < 3; i++)
+            assertSame(previous.words().get(i), line.words().get(i));
+
+        EnumSet<OperatorType> operators = EnumSet.allOf(OperatorType.class);
+        text = "ls foo | grep bar | wc -";
+        List<ParsedLine> previousLines = parser.parseLine(text, text.length(), true, operators);
+        List<ParsedLine> lines = parser.parseLine(previousLines, text + "l", text.length() + 1, true, operators);
+        assertEquals(3, lines.size());
+        assertSame(previousLines.get(0), lines.get(0));
+        assertSame(previousLines.get(1), lines.get(1));
+        assertSame(previousLines.get(2).words().get(0), lines.get(2).words().get(0));
+        assertEquals("-l", lines.get(2).selectedWord().word());
+    }
+
+    @Test
+    public void testSameResultAsFullParse() {
+        Random random = new Random(42);
+        EnumSet<OperatorType> operators = EnumSet.allOf(OperatorType.class);
+        LineParser full = new LineParser();
+        LineParser incremental = new LineParser();
+        for (String line : LINES) {
+            for (int i = 0; i < 400; i++) {
+                int edit = random.nextInt(line.length() + 1);
+                String text;
+                if (random.nextBoolean() || edit == line.length())
+                    text = line.substring(0, edit) + EDIT_CHARS.charAt(random.nextInt(EDIT_CHARS.length()))
+                            + line.substring(edit);
+                else
+                    text = line.substring(0, edit) + line.substring(edit + 1);
+                int cursor = random.nextInt(5) == 0 ? -1 : random.nextInt(text.length() + 1);
+                int previousCursor = random.nextInt(line.length() + 1);
+
+                ParsedLine previous = full.parseLine(line, previousCursor, true);
+                assertLinesEquals(full.parseLine(text, cursor, true),
+                        incremental.parseLine(previous, edit, text, cursor, true));
+
+                List<ParsedLine> previousLines = full.parseLine(line, previousCursor, true, operators);
+                List<ParsedLine> expected = full.parseLine(text, cursor, true, operators);
+                List<ParsedLine> actual = incremental.parseLine(previousLines, text, cursor, true, operators);
+                assertEquals(text, expected.size(), actual.size());
+                for (int j = 0; j < expected.size(); j++)
+                    assertLinesEquals(expected.get(j), actual.get(j));
+            }
+        }
+    }
+
+    @Test
+    public void testTyping() {
+        EnumSet<OperatorType> operators = EnumSet.allOf(OperatorType.class);
+        LineParser full = new LineParser();
+        for (String line : LINES) {
+            IncrementalLineParser incremental = new IncrementalLineParser();
+            IncrementalLineParser incrementalOperators = new IncrementalLineParser();
+            for (int end = 0; end <= line.length(); end++) {
+                String text = line.substring(0, end);
+                assertLinesEquals(full.parseLine(text, end, true), incremental.parseLine(text, end, true));
+                List<ParsedLine> expected = full.parseLine(text, end, true, operators);
+                List<ParsedLine> actual = incrementalOperators.parseLine(text, end, true, null, operators);
+                assertEquals(text, expected.size(), actual.size());
+                for (int j = 0; j < expected.size(); j++)
+                    assertLinesEquals(expected.get(j), actual.get(j));
+            }
+        }
+    }
+}
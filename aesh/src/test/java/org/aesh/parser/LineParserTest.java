@@ -566,4 +566,18 @@ public class LineParserTest {
         return lineParser.parseLine(line, -1, false, operators).get(0).words();
     }
 
+    @Test
+    public void testQuote() {
+        assertEquals("foo", LineParser.quote("foo"));
+        String[] words = { "foo bar", "a|b", "x > y", "a && b; c", "it's", "say \"hi\"", "back\\slash",
+                "end\\", "it's a \\", "{x}", "(a b)", "'\"", "--name=a b" };
+        EnumSet<OperatorType> operators = EnumSet.allOf(OperatorType.class);
+        for (String word : words) {
+            List<ParsedLine> lines = new LineParser().parseLine("cmd " + LineParser.quote(word), -1, true, operators);
+            assertEquals(word, 1, lines.size());
+            assertEquals(word, 2, lines.get(0).words().size());
+            assertEquals(word, word, lines.get(0).words().get(1).word());
+        }
+    }
+
 }
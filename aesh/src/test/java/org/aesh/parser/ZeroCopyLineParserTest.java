@@ -0,0 +1,178 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aesh.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.aesh.command.operator.OperatorType;
+import org.junit.Assume;
+import org.junit.Test;
+
+/**
+ * @author Aesh team
+ */
+public class ZeroCopyLineParserTest {
+
+    private static final String[] LINES = {
+            "",
+            " ",
+            "foo bar",
+            "ls  foo bar ",
+            "foo\\ bar baz",
+            "foo \"bar baz\" 'a b' c",
+            "foo \"\"\"a \"b\" c\"\"\" bar",
+            "mvn --option=\"\" clean",
+            "git commit -m 'fix it' && git push",
+            "cat foo.txt | grep bar > out.txt; echo done",
+            "echo a\\|b | wc",
+            "ls \"unclosed quote",
+            "foo {bar baz} (a b)",
+            "ls foo\\",
+            "a||b&c",
+    };
+
+    @Test
+    public void testSameResultAsCopyingParser() {
+        LineParser copying = new LineParser();
+        LineParser zeroCopy = new LineParser().zeroCopy(true);
+        for (String line : LINES) {
+            for (int cursor = -1; cursor <= line.length(); cursor++) {
+                assertLinesEquals(copying.parseLine(line, cursor, true),
+                        zeroCopy.parseLine(line, cursor, true));
+                List<ParsedLine> expected = copying.parseLine(line, cursor, true, EnumSet.allOf(OperatorType.class));
+                List<ParsedLine> actual = zeroCopy.parseLine(line, cursor, true, EnumSet.allOf(OperatorType.class));
+                assertEquals(line, expected.size(), actual.size());
+                for (int i = 0; i < expected.size(); i++)
+                    assertLinesEquals(expected.get(i), actual.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void testWordsAreViews() {
+        LineParser parser = new LineParser().zeroCopy(true);
+        String input = "foo \"bar baz\" qu\\ x";
+        ParsedLine line = parser.parseLine(input);
+        assertEquals(3, line.size());
+        assertEquals("foo", line.words().get(0).toString());
+        assertTrue(line.words().get(0).contentEquals("foo"));
+        assertTrue(line.words().get(1).startsWith("bar "));
+        assertEquals('z', line.words().get(1).charAt(6));
+        assertEquals("qu x", line.words().get(2).word());
+        assertEquals(input.length(), line.lineLength());
+        assertSame(input, line.line());
+    }
+
+    @Test
+    public void testInstancesAreRecycled() {
+        LineParser parser = new LineParser().zeroCopy(true);
+        ParsedLine first = parser.parseLine("foo bar");
+        ParsedWord firstWord = first.firstWord();
+        ParsedLine second = parser.parseLine("abc def");
+        assertSame(first, second);
+        assertSame(firstWord, second.firstWord());
+        assertEquals("abc", second.firstWord().word());
+
+        parser.reset();
+        ParsedLine third = parser.parseLine("x y z");
+        assertSame(first, third);
+        assertEquals(3, third.size());
+
+        LineParser copying = new LineParser();
+        assertNotSame(copying.parseLine("foo bar"), copying.parseLine("foo bar"));
+    }
+
+    @Test
+    public void testZeroCopyDoesNotAllocate() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+
+        EnumSet<OperatorType> operators = EnumSet.allOf(OperatorType.class);
+        String[] lines = {
+                "foo --bar=baz -x \"quoted word\" qux",
+                "cat foo.txt | grep bar > out.txt; echo done",
+                "git commit -m 'fix it' && git push origin main"
+        };
+        LineParser parser = new LineParser().zeroCopy(true);
+        //warm up so the pools have reached their size and the code is compiled
+        for (int i = 0; i < 20_000; i++) {
+            parser.parseLine(lines[i % lines.length], -1, false, operators);
+        }
+
+        long threadId = Thread.currentThread().getId();
+        int iterations = 10_000;
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < iterations; i++) {
+            parser.parseLine(lines[i % lines.length], -1, false, operators);
+        }
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+        //a copying parser allocates several hundred bytes per line, allow a little
+        //slack for the measurement itself
+        assertTrue("zero copy parser allocated " + allocated + " bytes for " + iterations + " lines",
+                allocated < iterations);
+    }
+
+    @Test
+    public void testWordWithoutSource() {
+        ParsedWord word = new ParsedWord(null, 0, 3, 0, ParsedWord.Status.OK);
+        assertEquals(0, word.length());
+        assertTrue(word.startsWith(""));
+        assertFalse(word.startsWith("a"));
+        assertFalse(word.contentEquals("abc"));
+        assertEquals("", word.subSequence(0, 0));
+        try {
+            word.charAt(0);
+            fail("a word without source is empty");
+        } catch (IndexOutOfBoundsException expected) {
+        }
+    }
+
+    static void assertLinesEquals(ParsedLine expected, ParsedLine actual) {
+        String message = expected.toString();
+        assertEquals(message, expected.line(), actual.line());
+        assertEquals(message, expected.cursor(), actual.cursor());
+        assertEquals(message, expected.selectedIndex(), actual.selectedIndex());
+        assertEquals(message, expected.wordCursor(), actual.wordCursor());
+        assertEquals(message, expected.status(), actual.status());
+        assertEquals(message, expected.errorMessage(), actual.errorMessage());
+        assertEquals(message, expected.operator(), actual.operator());
+        assertEquals(message, expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            ParsedWord word = expected.words().get(i);
+            assertEquals(message, word.word(), actual.words().get(i).word());
+            assertEquals(message, word.lineIndex(), actual.words().get(i).lineIndex());
+            assertEquals(message, word.status(), actual.words().get(i).status());
+        }
+    }
+}
@@ -26,11 +26,14 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import org.aesh.comparators.PosixFileNameComparator;
 import org.aesh.console.AeshContext;
 import org.aesh.console.DefaultAeshContext;
+import org.aesh.impl.util.DirectoryListingCache;
 import org.aesh.impl.util.FileLister;
 import org.aesh.io.FileResource;
 import org.aesh.io.Resource;
@@ -194,6 +197,60 @@ public class FileListerTest {
         delete(new FileResource(workingDirFile), false);
     }
 
+    @Test
+    public void testMaxCandidates() throws IOException {
+        for (int i = 0; i < 20; i++)
+            Files.createFile(new File(workingDir.getAbsolutePath(), "log" + (100 + i)).toPath());
+        Files.createFile(new File(workingDir.getAbsolutePath(), "other").toPath());
+
+        List<String> candidates = new ArrayList<>();
+        new FileLister("log", workingDir, null, 5).findMatchingDirectories(candidates);
+        assertEquals(5, candidates.size());
+        assertEquals("log100", candidates.get(0));
+        // the last name keeps the common prefix of all the names
+        assertEquals("log119", candidates.get(4));
+
+        candidates.clear();
+        new FileLister("log11", workingDir, new DirectoryListingCache(1, TimeUnit.MINUTES, 2), 5)
+                .findMatchingDirectories(candidates);
+        assertEquals(5, candidates.size());
+        assertEquals("log110", candidates.get(0));
+        assertEquals("log119", candidates.get(4));
+    }
+
+    @Test
+    public void testListingCache() throws IOException {
+        DirectoryListingCache cache = new DirectoryListingCache(1, TimeUnit.MINUTES, 2);
+        new File(workingDir.getAbsolutePath(), "alpha").mkdir();
+        Files.createFile(new File(workingDir.getAbsolutePath(), "beta").toPath());
+
+        List<String> candidates = new ArrayList<>();
+        new FileLister("", workingDir, cache, 100).findMatchingDirectories(candidates);
+        assertEquals(Arrays.asList("alpha" + PATH_SEPARATOR, "beta"), candidates);
+        candidates.clear();
+        new FileLister("b", workingDir, cache, 100).findMatchingDirectories(candidates);
+        assertEquals(Arrays.asList("beta"), candidates);
+        assertEquals(1, cache.misses());
+        assertEquals(1, cache.hits());
+
+        // a new file changes the modification time of the directory
+        File directory = new File(workingDir.getAbsolutePath());
+        long modified = directory.lastModified();
+        Files.createFile(new File(directory, "bravo").toPath());
+        directory.setLastModified(modified + 2000);
+        candidates.clear();
+        new FileLister("b", workingDir, cache, 100).findMatchingDirectories(candidates);
+        assertEquals(Arrays.asList("beta", "bravo"), candidates);
+        assertEquals(2, cache.misses());
+    }
+
+    @Test
+    public void testMissingDirectory() {
+        List<String> candidates = new ArrayList<>();
+        assertEquals(-1, new FileLister("missing" + PATH_SEPARATOR + "a", workingDir).findMatchingDirectories(candidates));
+        assertTrue(candidates.isEmpty());
+    }
+
     public static boolean delete(Resource file, final boolean recursive) {
         boolean result = false;
         if (recursive) {
@@ -0,0 +1,176 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.util.completer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author Aesh team
+ */
+public class CompletionDaemonTest {
+
+    private Path stateDirectory;
+
+    @Before
+    public void setUp() throws Exception {
+        stateDirectory = Files.createTempDirectory("aesh-daemon");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        try (java.util.stream.Stream<Path> files = Files.list(stateDirectory)) {
+            files.forEach(file -> file.toFile().delete());
+        }
+        Files.deleteIfExists(stateDirectory);
+    }
+
+    @Test
+    public void testRequest() throws Exception {
+        CompletionDaemon daemon = new CompletionDaemon("prog", (words, workingDirectory, out) -> {
+            out.println(workingDirectory);
+            out.println(words.length);
+            for (String word : words)
+                out.println("[" + word + "]");
+        }, stateDirectory, TimeUnit.MINUTES.toMillis(1), null);
+        CompletableFuture<Boolean> running = start(daemon);
+
+        assertEquals(Arrays.asList("/work", "3", "[run]", "[--de bug]", "[]"),
+                CompletionDaemon.request(stateDirectory, "prog", "/work", "run", "--de bug", ""));
+        assertEquals(Arrays.asList("/", "0"), CompletionDaemon.request(stateDirectory, "prog", "/"));
+        assertNull(CompletionDaemon.request(stateDirectory, "other", "/"));
+
+        daemon.stop();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertFalse(Files.exists(CompletionDaemon.stateFile(stateDirectory, "prog")));
+        assertNull(CompletionDaemon.request(stateDirectory, "prog", "/"));
+    }
+
+    @Test
+    public void testRequestWithWrongToken() throws Exception {
+        CompletionDaemon daemon = new CompletionDaemon("prog", (words, workingDirectory, out) -> out.println("secret"),
+                stateDirectory, TimeUnit.MINUTES.toMillis(1), null);
+        CompletableFuture<Boolean> running = start(daemon);
+
+        List<String> state = Files.readAllLines(CompletionDaemon.stateFile(stateDirectory, "prog"));
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), Integer.parseInt(state.get(0)))) {
+            OutputStream out = socket.getOutputStream();
+            out.write("0123\n/\n0\n".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                    StandardCharsets.UTF_8));
+            assertNull(in.readLine());
+        }
+        // still answering with the right token
+        assertEquals(Arrays.asList("secret"), CompletionDaemon.request(stateDirectory, "prog", "/"));
+        daemon.stop();
+        running.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testSingleDaemonPerProgram() throws Exception {
+        CompletionDaemon daemon = new CompletionDaemon("prog", (words, workingDirectory, out) -> out.println("first"),
+                stateDirectory, TimeUnit.MINUTES.toMillis(1), null);
+        CompletableFuture<Boolean> running = start(daemon);
+
+        CompletionDaemon second = new CompletionDaemon("prog", (words, workingDirectory, out) -> out.println("second"),
+                stateDirectory, TimeUnit.MINUTES.toMillis(1), null);
+        assertFalse(second.run());
+        assertEquals(Arrays.asList("first"), CompletionDaemon.request(stateDirectory, "prog", "/"));
+
+        daemon.stop();
+        running.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testFailedCompletionIsNotAnswered() throws Exception {
+        CompletionDaemon daemon = new CompletionDaemon("prog", (words, workingDirectory, out) -> {
+            out.println("partial");
+            throw new IllegalStateException("failed");
+        }, stateDirectory, TimeUnit.MINUTES.toMillis(1), null);
+        CompletableFuture<Boolean> running = start(daemon);
+
+        assertNull(CompletionDaemon.request(stateDirectory, "prog", "/", "x"));
+        daemon.stop();
+        running.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testExitsWhenWatchedFileChanges() throws Exception {
+        Path jar = Files.createTempFile(stateDirectory, "program", ".jar");
+        Files.setLastModifiedTime(jar, FileTime.fromMillis(1_000_000));
+        CompletionDaemon daemon = new CompletionDaemon("prog", (words, workingDirectory, out) -> out.println("ok"),
+                stateDirectory, TimeUnit.MINUTES.toMillis(1), jar);
+        CompletableFuture<Boolean> running = start(daemon);
+
+        assertEquals(Arrays.asList("ok"), CompletionDaemon.request(stateDirectory, "prog", "/"));
+        Files.setLastModifiedTime(jar, FileTime.fromMillis(2_000_000));
+        assertNull(CompletionDaemon.request(stateDirectory, "prog", "/"));
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertFalse(Files.exists(CompletionDaemon.stateFile(stateDirectory, "prog")));
+    }
+
+    @Test
+    public void testExitsWhenIdle() throws Exception {
+        CompletionDaemon daemon = new CompletionDaemon("prog", (words, workingDirectory, out) -> out.println("ok"),
+                stateDirectory, 200, null);
+        CompletableFuture<Boolean> running = start(daemon);
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertFalse(Files.exists(CompletionDaemon.stateFile(stateDirectory, "prog")));
+    }
+
+    private CompletableFuture<Boolean> start(CompletionDaemon daemon) throws Exception {
+        CompletableFuture<Boolean> running = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            try {
+                running.complete(daemon.run());
+            } catch (Throwable e) {
+                running.completeExceptionally(e);
+            }
+        }, "completion-daemon");
+        thread.setDaemon(true);
+        thread.start();
+        Path stateFile = CompletionDaemon.stateFile(stateDirectory, "prog");
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!Files.exists(stateFile) && !running.isDone() && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+        return running;
+    }
+}
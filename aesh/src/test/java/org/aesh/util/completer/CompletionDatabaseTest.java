@@ -0,0 +1,227 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @authors tag
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.aesh.util.completer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.aesh.AeshRuntimeRunner;
+import org.aesh.command.Command;
+import org.aesh.command.CommandDefinition;
+import org.aesh.command.CommandResult;
+import org.aesh.command.completer.CompleterInvocation;
+import org.aesh.command.completer.OptionCompleter;
+import org.aesh.command.container.CommandContainer;
+import org.aesh.command.impl.container.AeshCommandContainerBuilder;
+import org.aesh.command.invocation.CommandInvocation;
+import org.aesh.command.option.Arguments;
+import org.aesh.command.option.CompletionFallback;
+import org.aesh.command.option.Option;
+import org.junit.Assume;
+import org.junit.Test;
+
+/**
+ * @author Aesh team
+ */
+public class CompletionDatabaseTest {
+
+    @Test
+    public void testDatabase() throws Exception {
+        String database = database();
+        assertTrue(database.startsWith(CompletionDatabase.HEADER + "\n"));
+        assertTrue(database.contains("\tc\tbuild\t\tBuild it\n"));
+        assertTrue(database.contains("\tc\trun\t\tRun it\n"));
+        assertTrue(database.contains("\ts\t__aesh_file__\t\t\n"));
+        assertTrue(database.contains("build\tv\t--target\ttarget\tTarget\n"));
+        assertTrue(database.contains("build\t=\tdebug\ttarget\t\n"));
+        assertTrue(database.contains("build\t=\trelease\ttarget\t\n"));
+        assertTrue(database.contains("build\to\t--no-cache\tcache\tUse the cache\n"));
+        assertTrue(database.contains("build\tv\t-o\toutput\tOutput\n"));
+        assertTrue(database.contains("build\t=\t__aesh_file__\toutput\t\n"));
+        // inherited option
+        assertTrue(database.contains("run\to\t--verbose\tverbose\tBe verbose\n"));
+        assertTrue(database.contains("run\tv\t--host\thost\tThe host to connect to\n"));
+        assertTrue(database.contains("run\t=\t__aesh_jvm__\thost\t\n"));
+        assertTrue(database.contains("run\ts\t__aesh_dir__\t\t\n"));
+        // sorted by path and name
+        assertTrue(database.indexOf("build\to\t--cache") < database.indexOf("build\tv\t--output"));
+    }
+
+    @Test
+    public void testRecordsOnOneLine() {
+        CompletionDatabase database = new CompletionDatabase();
+        database.addOption("", "--name", "name", true, "The\tname\r\nof it");
+        assertEquals(CompletionDatabase.HEADER + "\n\tv\t--name\tname\tThe name  of it\n", database.toString());
+    }
+
+    @Test
+    public void testQuery() throws Exception {
+        Path file = Files.createTempFile("aesh-completion", ".db");
+        try {
+            Files.write(file, database().getBytes(StandardCharsets.UTF_8));
+            Assume.assumeTrue("awk is required", query(file, "") != null);
+
+            // the same lines as --aesh-complete
+            for (String[] words : Arrays.asList(
+                    new String[] { "" },
+                    new String[] { "b" },
+                    new String[] { "build", "" },
+                    new String[] { "build", "--t" },
+                    new String[] { "build", "--target", "" },
+                    new String[] { "build", "--target", "r" },
+                    new String[] { "build", "--target=r" },
+                    new String[] { "build", "--target", "debug", "" },
+                    new String[] { "build", "--cache", "" },
+                    new String[] { "build", "--no-c" },
+                    new String[] { "run", "" },
+                    new String[] { "run", "--port", "" },
+                    new String[] { "run", "x", "" }))
+                assertEquals(Arrays.toString(words), complete(words), query(file, words));
+
+            assertEquals(CompletionDatabase.JVM + "\n", query(file, "run", "--host", ""));
+            assertEquals("__aesh_file__\n", query(file, "build", "--output", ""));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testUnknownVersion() throws Exception {
+        Path file = Files.createTempFile("aesh-completion", ".db");
+        try {
+            Files.write(file, "#aesh-completion-db 2\n".getBytes(StandardCharsets.UTF_8));
+            String output = query(file, "");
+            Assume.assumeTrue("awk is required", output != null);
+            assertEquals(CompletionDatabase.JVM + "\n", output);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static String database() throws Exception {
+        CommandContainer<CommandInvocation> container = new AeshCommandContainerBuilder<>().create((Class) ToolCommand.class);
+        return CompletionDatabase.of(container.getParser()).toString();
+    }
+
+    /**
+     * @return the output of the awk query, or null if awk cannot be run
+     */
+    private static String query(Path database, String... words) throws InterruptedException {
+        List<String> command = new ArrayList<>(Arrays.asList("awk", CompletionDatabase.AWK_PROGRAM,
+                database.toString()));
+        command.addAll(Arrays.asList(words));
+        ProcessBuilder builder = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT);
+        builder.environment().put("LC_ALL", "C");
+        try {
+            Process process = builder.start();
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            try (InputStream in = process.getInputStream()) {
+                byte[] buffer = new byte[4096];
+                int read;
+                while ((read = in.read(buffer)) != -1)
+                    output.write(buffer, 0, read);
+            }
+            return process.waitFor() == 0 ? new String(output.toByteArray(), StandardCharsets.UTF_8) : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static String complete(String... words) {
+        List<String> args = new ArrayList<>(Arrays.asList("--aesh-complete", "--"));
+        args.addAll(Arrays.asList(words));
+        PrintStream original = System.out;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(output, true));
+        try {
+            AeshRuntimeRunner.builder().command(ToolCommand.class).args(args.toArray(new String[0])).execute();
+        } finally {
+            System.setOut(original);
+        }
+        return new String(output.toByteArray(), StandardCharsets.UTF_8).replace(System.lineSeparator(), "\n");
+    }
+
+    public enum Target {
+        DEBUG,
+        RELEASE
+    }
+
+    public static class HostCompleter implements OptionCompleter<CompleterInvocation> {
+        @Override
+        public void complete(CompleterInvocation completerInvocation) {
+            completerInvocation.addCompleterValue("localhost");
+        }
+    }
+
+    @CommandDefinition(name = "tool", description = "A tool", groupCommands = { BuildCommand.class,
+            RunCommand.class }, generateHelp = true)
+    public static class ToolCommand implements Command<CommandInvocation> {
+        @Option(hasValue = false, inherited = true, description = "Be verbose")
+        private boolean verbose;
+
+        @Override
+        public CommandResult execute(CommandInvocation commandInvocation) {
+            return CommandResult.SUCCESS;
+        }
+    }
+
+    @CommandDefinition(name = "build", description = "Build it")
+    public static class BuildCommand implements Command<CommandInvocation> {
+        @Option(description = "Target")
+        private Target target;
+        @Option(shortName = 'o', description = "Output")
+        private File output;
+        @Option(hasValue = false, negatable = true, description = "Use the cache")
+        private boolean cache;
+
+        @Override
+        public CommandResult execute(CommandInvocation commandInvocation) {
+            return CommandResult.SUCCESS;
+        }
+    }
+
+    @CommandDefinition(name = "run", description = "Run it")
+    public static class RunCommand implements Command<CommandInvocation> {
+        @Option(completer = HostCompleter.class, description = "The host to connect to")
+        private String host;
+        @Option(description = "Port")
+        private int port;
+        @Arguments(completeFallback = CompletionFallback.DIRECTORIES)
+        private List<String> directories;
+
+        @Override
+        public CommandResult execute(CommandInvocation commandInvocation) {
+            return CommandResult.SUCCESS;
+        }
+    }
+}
@@ -322,6 +322,100 @@ public class ShellCompletionGeneratorTest {
         assertTrue(out.contains("--aesh-complete"));
     }
 
+    // -- Completion daemon --
+
+    @Test
+    public void testBashDaemonCompletion() {
+        String out = generateDynamic(ShellType.BASH, SimpleCmd.class, "mycli", true);
+
+        assertTrue(out.contains("_aesh_query_mycli() {"));
+        assertTrue("Should read the daemon state file", out.contains("$HOME/.aesh/completion/mycli.daemon"));
+        assertTrue("Should connect with /dev/tcp", out.contains("/dev/tcp/127.0.0.1/$port"));
+        assertTrue("Should time out the reads", out.contains("IFS= read -r -t 2 line <&9"));
+        assertTrue("Should start the daemon", out.contains("mycli --aesh-complete-daemon"));
+        assertTrue("Should fall back to --aesh-complete", out.contains("mycli --aesh-complete -- \"$@\""));
+        assertTrue(out.contains("candidates=$(_aesh_query_mycli \"${COMP_WORDS[@]:1}\")"));
+        assertFalse(generateDynamic(ShellType.BASH, SimpleCmd.class, "mycli").contains("--aesh-complete-daemon"));
+    }
+
+    @Test
+    public void testZshDaemonCompletion() {
+        String out = generateDynamic(ShellType.ZSH, SimpleCmd.class, "mycli", true);
+
+        assertTrue(out.contains("_mycli_query() {"));
+        assertTrue("Should connect with ztcp", out.contains("ztcp 127.0.0.1"));
+        assertTrue("Should time out the reads", out.contains("while zselect -t 200 -r $fd; do"));
+        assertTrue("Should start the daemon", out.contains("mycli --aesh-complete-daemon"));
+        assertTrue(out.contains("done < <(_mycli_query \"${words[@]:1}\")"));
+    }
+
+    @Test
+    public void testPwshDaemonCompletion() {
+        String out = generateDynamic(ShellType.PWSH, SimpleCmd.class, "mycli", true);
+
+        assertTrue(out.contains("function __aesh_query_mycli([string[]]$words) {"));
+        assertTrue("Should connect with a TcpClient", out.contains("[System.Net.Sockets.TcpClient]::new('127.0.0.1'"));
+        assertTrue("Should start the daemon", out.contains("'mycli', '--aesh-complete-daemon'"));
+        assertTrue(out.contains("__aesh_query_mycli $cmdArgs | ForEach-Object {"));
+    }
+
+    @Test
+    public void testFishDaemonCompletionUsesCallback() {
+        assertEquals(generateDynamic(ShellType.FISH, SimpleCmd.class, "mycli"),
+                generateDynamic(ShellType.FISH, SimpleCmd.class, "mycli", true));
+    }
+
+    // -- Offline completion --
+
+    @Test
+    public void testBashOfflineCompletion() {
+        String out = generateOffline(ShellType.BASH, GroupCmd.class, "mygit", null);
+
+        assertTrue(out.contains("_aesh_db_query_mygit() {"));
+        assertTrue("Should use the default database", out.contains("$HOME/.aesh/completion/mygit.db"));
+        assertTrue("Should regenerate the database", out.contains("mygit --aesh-completion-db"));
+        assertTrue("Should query with awk", out.contains(CompletionDatabase.AWK_PROGRAM));
+        assertTrue("Should fall back to --aesh-complete", out.contains("mygit --aesh-complete -- \"$@\""));
+        assertTrue(out.contains("candidates=$(_aesh_db_query_mygit \"${COMP_WORDS[@]:1}\")"));
+
+        out = generateOffline(ShellType.BASH, GroupCmd.class, "mygit", "/usr/share/mygit/it's.db");
+        assertTrue(out.contains("local db='/usr/share/mygit/it'\\''s.db'"));
+        assertFalse("A given database is not regenerated", out.contains("--aesh-completion-db"));
+    }
+
+    @Test
+    public void testZshOfflineCompletion() {
+        String out = generateOffline(ShellType.ZSH, GroupCmd.class, "mygit", null);
+
+        assertTrue(out.contains("_mygit_db_query() {"));
+        assertTrue(out.contains("mygit --aesh-completion-db"));
+        assertTrue(out.contains(CompletionDatabase.AWK_PROGRAM));
+    }
+
+    @Test
+    public void testFishOfflineCompletion() {
+        String out = generateOffline(ShellType.FISH, GroupCmd.class, "mygit", null);
+
+        assertTrue(out.contains("function __mygit_db_query"));
+        assertTrue(out.contains("mygit --aesh-completion-db"));
+        assertTrue(out.contains(CompletionDatabase.AWK_PROGRAM));
+    }
+
+    @Test
+    public void testBashOfflineCompletionWithDaemon() {
+        String out = ShellCompletionGenerator.forShell(ShellType.BASH).generateOffline(getParser(GroupCmd.class),
+                "mygit", null, true);
+
+        assertTrue(out.contains("_aesh_db_query_mygit() {"));
+        assertTrue("Should fall back to the daemon", out.contains("mygit --aesh-complete-daemon"));
+    }
+
+    @Test
+    public void testPwshOfflineCompletionUsesCallback() {
+        assertEquals(generateDynamic(ShellType.PWSH, GroupCmd.class, "mygit"),
+                generateOffline(ShellType.PWSH, GroupCmd.class, "mygit", null));
+    }
+
     // -- One-shot API test --
 
     @Test
@@ -343,7 +437,19 @@ public class ShellCompletionGeneratorTest {
         return ShellCompletionGenerator.forShell(type).generateDynamic(parser, programName);
     }
 
+    private String generateDynamic(ShellType type, Class<? extends Command> clazz, String programName,
+            boolean completionDaemon) {
+        CommandLineParser<CommandInvocation> parser = getParser(clazz);
+        return ShellCompletionGenerator.forShell(type).generateDynamic(parser, programName, completionDaemon);
+    }
+
     @SuppressWarnings("unchecked")
+    private String generateOffline(ShellType type, Class<? extends Command> clazz, String programName,
+            String databasePath) {
+        return ShellCompletionGenerator.forShell(type).generateOffline(getParser(clazz), programName, databasePath,
+                false);
+    }
+
     private CommandLineParser<CommandInvocation> getParser(Class<? extends Command> clazz) {
         CommandContainerBuilder<CommandInvocation> builder = new AeshCommandContainerBuilder<>();
         try {
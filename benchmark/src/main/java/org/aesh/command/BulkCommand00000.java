@@ -0,0 +1,30 @@
+package org.aesh.command;
+
+import org.aesh.command.invocation.CommandInvocation;
+import org.aesh.command.option.Argument;
+import org.aesh.command.option.Option;
+
+/**
+ * Template of the command classes registered by the bulk registration benchmark of
+ * {@link StartupBenchmark}. The benchmark defines copies of this class with the number
+ * in the class and command names replaced, the copies have no generated metadata and
+ * are created by reflection. Both names must keep their length.
+ *
+ * @author Aesh team
+ */
+@CommandDefinition(name = "bulk-00000", description = "Bulk registered command")
+public class BulkCommand00000 implements Command<CommandInvocation> {
+    @Option(shortName = 'o', defaultValue = "/tmp/out", description = "Output path")
+    private String output;
+    @Option(shortName = 'v', hasValue = false, description = "Verbose")
+    private boolean verbose;
+    @Option(description = "Retries", defaultValue = "3")
+    private int retries;
+    @Argument(description = "Target")
+    private String target;
+
+    @Override
+    public CommandResult execute(CommandInvocation ci) {
+        return CommandResult.SUCCESS;
+    }
+}
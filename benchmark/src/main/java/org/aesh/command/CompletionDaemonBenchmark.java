@@ -0,0 +1,181 @@
+package org.aesh.command;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.aesh.AeshRuntimeRunner;
+import org.aesh.command.invocation.CommandInvocation;
+import org.aesh.command.option.Option;
+import org.aesh.util.completer.CompletionDaemon;
+
+/**
+ * Benchmark measuring the latency of a TAB with the dynamic completion scripts, with
+ * and without the completion daemon.
+ * <p>
+ * Without the daemon every TAB starts a JVM running {@code --aesh-complete}. With the
+ * daemon, started once with {@code --aesh-complete-daemon}, a TAB is a request over a
+ * loopback connection, made here from Java like the shell clients make it. The benchmark
+ * runs this class as the program, the daemon keeps its state in a temporary home
+ * directory.
+ * <p>
+ * Run with:
+ * {@code mvn -Pbenchmark exec:java -pl benchmark -Dbenchmark.mainClass=org.aesh.command.CompletionDaemonBenchmark}
+ *
+ * @author Aesh team
+ */
+public class CompletionDaemonBenchmark {
+
+    private static final int COLD_RUNS = 10;
+    private static final int WARMUP_REQUESTS = 200;
+    private static final int MEASURED_REQUESTS = 1000;
+    private static final String PROGRAM = "app";
+    private static final String[][] LINES = { { "" }, { "bu" }, { "build", "--t" }, { "build", "--target", "" } };
+
+    @CommandDefinition(name = PROGRAM, description = "Application", generateHelp = true, groupCommands = {
+            RunCommand.class, BuildCommand.class })
+    public static class AppCommand implements Command<CommandInvocation> {
+        @Option(hasValue = false, description = "Verbose output")
+        boolean verbose;
+
+        @Override
+        public CommandResult execute(CommandInvocation invocation) {
+            return CommandResult.SUCCESS;
+        }
+    }
+
+    @CommandDefinition(name = "run", description = "Run the application", generateHelp = true)
+    public static class RunCommand implements Command<CommandInvocation> {
+        @Option(hasValue = false, description = "Debug mode")
+        boolean debug;
+
+        @Option(description = "Port to listen on")
+        int port;
+
+        @Override
+        public CommandResult execute(CommandInvocation invocation) {
+            return CommandResult.SUCCESS;
+        }
+    }
+
+    @CommandDefinition(name = "build", description = "Build the application", generateHelp = true)
+    public static class BuildCommand implements Command<CommandInvocation> {
+        @Option(description = "Build target", allowedValues = { "debug", "release" })
+        String target;
+
+        @Option(description = "Output directory")
+        String output;
+
+        @Override
+        public CommandResult execute(CommandInvocation invocation) {
+            return CommandResult.SUCCESS;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0) {
+            // run as the program by the benchmark
+            CommandResult result = AeshRuntimeRunner.builder()
+                    .command(AppCommand.class)
+                    .args(args)
+                    .execute();
+            System.exit(result.getResultValue());
+        }
+
+        System.out.println("=== Completion Daemon Benchmark ===");
+        System.out.println("Without daemon: " + COLD_RUNS + " runs, with daemon: " + WARMUP_REQUESTS + " warmup, "
+                + MEASURED_REQUESTS + " measured requests");
+        System.out.println();
+
+        Path home = Files.createTempDirectory("aesh-completion-benchmark");
+        Path stateDirectory = home.resolve(".aesh").resolve("completion");
+        Process daemon = program(home, "--aesh-complete-daemon").start();
+        try {
+            waitForDaemon(stateDirectory);
+            System.out.printf("%-30s | %18s | %18s%n", "Line", "No daemon (ms)", "Daemon (ms)");
+            System.out.println("-".repeat(30) + "-|-" + "-".repeat(18) + "-|-" + "-".repeat(18));
+            for (String[] words : LINES) {
+                List<String> expected = CompletionDaemon.request(stateDirectory, PROGRAM, ".", words);
+                double cold = coldMillis(home, words, expected);
+                for (int i = 0; i < WARMUP_REQUESTS; i++)
+                    CompletionDaemon.request(stateDirectory, PROGRAM, ".", words);
+                long start = System.nanoTime();
+                for (int i = 0; i < MEASURED_REQUESTS; i++)
+                    CompletionDaemon.request(stateDirectory, PROGRAM, ".", words);
+                double warm = (System.nanoTime() - start) / 1e6 / MEASURED_REQUESTS;
+                System.out.printf("%-30s | %18.2f | %18.3f%n", PROGRAM + " " + String.join(" ", words) + "<TAB>", cold,
+                        warm);
+            }
+        } finally {
+            daemon.destroy();
+            daemon.waitFor(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private static double coldMillis(Path home, String[] words, List<String> expected) throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add("--aesh-complete");
+        command.add("--");
+        for (String word : words)
+            command.add(word);
+        long start = System.nanoTime();
+        for (int i = 0; i < COLD_RUNS; i++) {
+            Process process = program(home, command.toArray(new String[0])).start();
+            List<String> lines = new ArrayList<>();
+            try (java.io.BufferedReader reader = new java.io.BufferedReader(
+                    new java.io.InputStreamReader(process.getInputStream()))) {
+                String line;
+                while ((line = reader.readLine()) != null)
+                    lines.add(line);
+            }
+            process.waitFor();
+            if (!lines.equals(expected))
+                throw new IllegalStateException("The daemon answered " + expected + ", the program " + lines);
+        }
+        return (System.nanoTime() - start) / 1e6 / COLD_RUNS;
+    }
+
+    private static ProcessBuilder program(Path home, String... args) {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-Duser.home=" + home);
+        command.add("-cp");
+        command.add(classPath());
+        command.add(CompletionDaemonBenchmark.class.getName());
+        for (String arg : args)
+            command.add(arg);
+        return new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT);
+    }
+
+    private static String classPath() {
+        // exec:java runs the benchmark in a class loader of its own
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        if (loader instanceof URLClassLoader) {
+            List<String> entries = new ArrayList<>();
+            for (URL url : ((URLClassLoader) loader).getURLs()) {
+                try {
+                    entries.add(Paths.get(url.toURI()).toString());
+                } catch (Exception e) {
+                    throw new IllegalStateException("Unsupported class path entry " + url, e);
+                }
+            }
+            return String.join(File.pathSeparator, entries);
+        }
+        return System.getProperty("java.class.path");
+    }
+
+    private static void waitForDaemon(Path stateDirectory) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (CompletionDaemon.request(stateDirectory, PROGRAM, ".", "") == null) {
+            if (System.currentTimeMillis() > deadline)
+                throw new IllegalStateException("The completion daemon did not start");
+            Thread.sleep(50);
+        }
+    }
+}
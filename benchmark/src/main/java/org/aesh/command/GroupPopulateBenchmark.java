@@ -0,0 +1,125 @@
+package org.aesh.command;
+
+import org.aesh.command.impl.internal.ProcessedCommand;
+import org.aesh.command.impl.internal.ProcessedCommandBuilder;
+import org.aesh.command.impl.internal.ProcessedOptionBuilder;
+import org.aesh.command.impl.invocation.AeshInvocationProviders;
+import org.aesh.command.impl.parser.AeshCommandLineParser;
+import org.aesh.command.impl.parser.CommandLineParser;
+import org.aesh.command.invocation.CommandInvocation;
+import org.aesh.command.invocation.InvocationProviders;
+import org.aesh.command.settings.SettingsBuilder;
+import org.aesh.console.AeshContext;
+
+/**
+ * Benchmark measuring the cost of parsing and populating one invocation of a group
+ * command as the number of subcommands in the group grows.
+ * <p>
+ * Three measurements are made for each group width:
+ * <ul>
+ * <li><b>Parse</b> — parsing the line alone</li>
+ * <li><b>Parse + populate</b> — {@link CommandLineParser#populateObject}, populating the
+ * group and the selected subcommand</li>
+ * <li><b>Populate all</b> — the same, then populating every subcommand of the group,
+ * which is what population used to do</li>
+ * </ul>
+ * <p>
+ * Run with:
+ * {@code mvn -Pbenchmark exec:java -pl benchmark -Dbenchmark.mainClass=org.aesh.command.GroupPopulateBenchmark}
+ *
+ * @author Aesh team
+ */
+@SuppressWarnings({ "unchecked", "rawtypes" })
+public class GroupPopulateBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 20_000;
+    private static final int MEASURED_ITERATIONS = 50_000;
+    private static final int[] GROUP_WIDTHS = { 1, 10, 50, 150, 500 };
+    private static final int OPTIONS_PER_COMMAND = 8;
+
+    public static class GroupCommand implements Command<CommandInvocation> {
+        private String verbose;
+
+        @Override
+        public CommandResult execute(CommandInvocation commandInvocation) {
+            return CommandResult.SUCCESS;
+        }
+    }
+
+    public static class ChildCommand implements Command<CommandInvocation> {
+        private String option0;
+        private String option1;
+        private String option2;
+        private String option3;
+        private String option4;
+        private String option5;
+        private String option6;
+        private String option7;
+
+        @Override
+        public CommandResult execute(CommandInvocation commandInvocation) {
+            return CommandResult.SUCCESS;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== Group Populate Benchmark ===");
+        System.out.println("Warmup: " + WARMUP_ITERATIONS + ", Measured: " + MEASURED_ITERATIONS + " iterations");
+        System.out.println();
+
+        InvocationProviders invocationProviders = new AeshInvocationProviders();
+        AeshContext aeshContext = SettingsBuilder.builder().build().aeshContext();
+
+        System.out.printf("%-8s | %12s | %18s | %18s%n", "Width", "Parse (us)", "Parse+populate (us)",
+                "Populate all (us)");
+        System.out.println("-".repeat(8) + "-|-" + "-".repeat(12) + "-|-" + "-".repeat(19) + "-|-" + "-".repeat(18));
+        for (int width : GROUP_WIDTHS) {
+            AeshCommandLineParser<CommandInvocation> parser = createGroup(width);
+            String line = "group child" + (width / 2) + " --option0 foo --option3 bar";
+
+            double parse = microsPerInvocation(() -> parser.parse(line, CommandLineParser.Mode.VALIDATE));
+            double populate = microsPerInvocation(() -> parser.populateObject(line, invocationProviders, aeshContext,
+                    CommandLineParser.Mode.VALIDATE));
+            double populateAll = microsPerInvocation(() -> {
+                parser.populateObject(line, invocationProviders, aeshContext, CommandLineParser.Mode.VALIDATE);
+                for (CommandLineParser<CommandInvocation> child : parser.getChildParsers())
+                    child.doPopulate(child.getProcessedCommand(), invocationProviders, aeshContext,
+                            CommandLineParser.Mode.VALIDATE);
+            });
+            System.out.printf("%-8d | %12.2f | %19.2f | %18.2f%n", width, parse, populate, populateAll);
+        }
+    }
+
+    private static AeshCommandLineParser<CommandInvocation> createGroup(int width) throws Exception {
+        ProcessedCommand group = ProcessedCommandBuilder.builder()
+                .name("group")
+                .command(new GroupCommand())
+                .addOption(ProcessedOptionBuilder.builder().name("verbose").type(String.class).build())
+                .create();
+        AeshCommandLineParser<CommandInvocation> parser = new AeshCommandLineParser<>(group);
+        for (int i = 0; i < width; i++) {
+            ProcessedCommandBuilder builder = ProcessedCommandBuilder.builder()
+                    .name("child" + i)
+                    .command(new ChildCommand());
+            for (int o = 0; o < OPTIONS_PER_COMMAND; o++)
+                builder.addOption(ProcessedOptionBuilder.builder().name("option" + o).type(String.class)
+                        .addDefaultValue("default" + o).build());
+            parser.addChildParser(new AeshCommandLineParser<>(builder.create()));
+        }
+        return parser;
+    }
+
+    private interface Invocation {
+        void run() throws Exception;
+    }
+
+    private static double microsPerInvocation(Invocation invocation) throws Exception {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++)
+            invocation.run();
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++)
+            invocation.run();
+        long elapsed = System.nanoTime() - start;
+        return elapsed / 1000.0 / MEASURED_ITERATIONS;
+    }
+}
@@ -0,0 +1,101 @@
+package org.aesh.command;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import org.aesh.command.operator.OperatorMatcher;
+import org.aesh.command.operator.OperatorType;
+import org.aesh.parser.LineParser;
+
+/**
+ * Benchmark measuring the throughput of {@link LineParser} on lines with and
+ * without operators.
+ * <p>
+ * Three measurements are made for each kind of line:
+ * <ul>
+ * <li><b>Operator scan</b> — operator detection alone, testing every char of the line with
+ * {@link OperatorType#matches(Set, String, int)} (scanning the whole operator set) and
+ * with a precompiled {@link OperatorMatcher} (first char table and trie)</li>
+ * <li><b>LineParser</b> — tokenizing the line with operators enabled</li>
+ * <li><b>LineParser (zero copy)</b> — the same, reusing the parsed lines and words</li>
+ * </ul>
+ * <p>
+ * Run with:
+ * {@code mvn -Pbenchmark exec:java -pl benchmark -Dbenchmark.mainClass=org.aesh.command.LineParserBenchmark}
+ *
+ * @author Aesh team
+ */
+public class LineParserBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 200_000;
+    private static final int MEASURED_ITERATIONS = 1_000_000;
+
+    private static final String OPERATOR_FREE = "deploy-app --environment production --replicas 3 "
+            + "--image registry.example.com/team/app:1.2.3 --timeout 30 --verbose target-cluster";
+    private static final String OPERATOR_HEAVY = "cat a.txt | grep foo | sort > b.txt; ls -la 2>&1 | wc -l && "
+            + "echo ok || echo fail; tail c.log >> d.log & head < e.txt | tr a b 2>> f.err";
+
+    private static final Set<OperatorType> OPERATORS = EnumSet.allOf(OperatorType.class);
+
+    // prevents the JIT from removing the measured work
+    private static long sink;
+
+    public static void main(String[] args) {
+        System.out.println("=== LineParser Benchmark ===");
+        System.out.println("Warmup: " + WARMUP_ITERATIONS + ", Measured: " + MEASURED_ITERATIONS + " iterations");
+        System.out.println();
+
+        String[] labels = { "Operator free", "Operator heavy" };
+        String[] lines = { OPERATOR_FREE, OPERATOR_HEAVY };
+        OperatorMatcher matcher = OperatorMatcher.compile(OPERATORS);
+
+        System.out.printf("%-15s | %16s | %16s | %8s%n", "Operator scan", "Set scan (Mc/s)", "Compiled (Mc/s)",
+                "Speedup");
+        System.out.println("-".repeat(15) + "-|-" + "-".repeat(16) + "-|-" + "-".repeat(16) + "-|---------");
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i];
+            double scan = charsPerSecond(line, () -> scanWithSet(line)) / 1_000_000;
+            double compiled = charsPerSecond(line, () -> scanWithMatcher(matcher, line)) / 1_000_000;
+            System.out.printf("%-15s | %16.1f | %16.1f | %7.2fx%n", labels[i], scan, compiled, compiled / scan);
+        }
+        System.out.println();
+
+        LineParser parser = new LineParser().operatorMatcher(matcher);
+        LineParser zeroCopyParser = new LineParser().operatorMatcher(matcher).zeroCopy(true);
+        System.out.printf("%-15s | %16s | %16s%n", "LineParser", "Copying (kl/s)", "Zero copy (kl/s)");
+        System.out.println("-".repeat(15) + "-|-" + "-".repeat(16) + "-|-" + "-".repeat(16));
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i];
+            double copying = linesPerSecond(() -> sink += parser.parseLine(line, -1, false, OPERATORS).size()) / 1000;
+            double zeroCopy = linesPerSecond(
+                    () -> sink += zeroCopyParser.parseLine(line, -1, false, OPERATORS).size()) / 1000;
+            System.out.printf("%-15s | %16.1f | %16.1f%n", labels[i], copying, zeroCopy);
+        }
+        if (sink == 42)
+            System.out.println();
+    }
+
+    private static void scanWithSet(String line) {
+        for (int i = 0; i < line.length(); i++)
+            sink += OperatorType.matches(OPERATORS, line, i).ordinal();
+    }
+
+    private static void scanWithMatcher(OperatorMatcher matcher, String line) {
+        for (int i = 0; i < line.length(); i++)
+            sink += matcher.match(line, i).ordinal();
+    }
+
+    private static double charsPerSecond(String line, Runnable task) {
+        return linesPerSecond(task) * line.length();
+    }
+
+    private static double linesPerSecond(Runnable task) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++)
+            task.run();
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++)
+            task.run();
+        long elapsed = System.nanoTime() - start;
+        return MEASURED_ITERATIONS / (elapsed / 1_000_000_000.0);
+    }
+}
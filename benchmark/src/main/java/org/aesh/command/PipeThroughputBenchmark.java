@@ -0,0 +1,130 @@
+package org.aesh.command;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+
+import org.aesh.command.impl.registry.AeshCommandRegistryBuilder;
+import org.aesh.command.invocation.CommandInvocation;
+import org.aesh.command.option.Option;
+import org.aesh.command.registry.CommandRegistry;
+
+/**
+ * Benchmark measuring the throughput of pipelines of 2, 4 and 8 stages.
+ * <p>
+ * The first stage prints fixed-size lines, the stages in the middle copy their
+ * input to their output line by line, and the last stage counts the lines and bytes
+ * it reads. The throughput is given in MB/s and lines/s for each
+ * {@link PipeFlushPolicy}.
+ * <p>
+ * Run with:
+ * {@code mvn -Pbenchmark exec:java -pl benchmark -Dbenchmark.mainClass=org.aesh.command.PipeThroughputBenchmark}
+ *
+ * @author Aesh team
+ */
+@SuppressWarnings({ "unchecked", "rawtypes" })
+public class PipeThroughputBenchmark {
+
+    private static final int WARMUP_RUNS = 3;
+    private static final int MEASURED_RUNS = 5;
+    private static final int LINES = 200_000;
+    private static final int[] STAGES = { 2, 4, 8 };
+    // 63 chars and a line separator
+    private static final String LINE = "x".repeat(63);
+
+    private static volatile long linesRead;
+    private static volatile long bytesRead;
+
+    @CommandDefinition(name = "produce", description = "")
+    public static class ProduceCommand implements Command<CommandInvocation> {
+        @Option(defaultValue = "1000")
+        int lines;
+
+        @Override
+        public CommandResult execute(CommandInvocation invocation) {
+            for (int i = 0; i < lines; i++)
+                invocation.println(LINE);
+            return CommandResult.SUCCESS;
+        }
+    }
+
+    @CommandDefinition(name = "relay", description = "")
+    public static class RelayCommand implements Command<CommandInvocation> {
+        @Override
+        public CommandResult execute(CommandInvocation invocation) throws CommandException {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(invocation.getStdin()))) {
+                String line;
+                while ((line = reader.readLine()) != null)
+                    invocation.println(line);
+            } catch (IOException e) {
+                throw new CommandException(e);
+            }
+            return CommandResult.SUCCESS;
+        }
+    }
+
+    @CommandDefinition(name = "sink", description = "")
+    public static class SinkCommand implements Command<CommandInvocation> {
+        @Override
+        public CommandResult execute(CommandInvocation invocation) throws CommandException {
+            long lines = 0;
+            long bytes = 0;
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(invocation.getStdin()))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lines++;
+                    bytes += line.length() + 1;
+                }
+            } catch (IOException e) {
+                throw new CommandException(e);
+            }
+            linesRead = lines;
+            bytesRead = bytes;
+            return CommandResult.SUCCESS;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== Pipe Throughput Benchmark ===");
+        System.out.println("Lines: " + LINES + " of " + (LINE.length() + 1) + " bytes, Warmup: " + WARMUP_RUNS
+                + ", Measured: " + MEASURED_RUNS + " runs");
+        System.out.println();
+
+        CommandRegistry registry = AeshCommandRegistryBuilder.builder()
+                .command(ProduceCommand.class)
+                .command(RelayCommand.class)
+                .command(SinkCommand.class)
+                .create();
+
+        System.out.printf("%-12s | %-8s | %10s | %14s%n", "Flush", "Stages", "MB/s", "Lines/s");
+        System.out.println("-".repeat(12) + "-|-" + "-".repeat(8) + "-|-" + "-".repeat(10) + "-|-" + "-".repeat(14));
+        for (PipeFlushPolicy policy : PipeFlushPolicy.values()) {
+            CommandRuntime runtime = AeshCommandRuntimeBuilder.builder()
+                    .commandRegistry(registry)
+                    .operators(AeshCommandRuntimeBuilder.ALL_OPERATORS)
+                    .pipeFlushPolicy(policy)
+                    .build();
+            for (int stages : STAGES) {
+                String line = pipeline(stages);
+                for (int i = 0; i < WARMUP_RUNS; i++)
+                    runtime.executeCommand(line);
+                long start = System.nanoTime();
+                for (int i = 0; i < MEASURED_RUNS; i++)
+                    runtime.executeCommand(line);
+                double seconds = (System.nanoTime() - start) / 1e9;
+                if (linesRead != LINES)
+                    throw new IllegalStateException("Expected " + LINES + " lines, read " + linesRead);
+                double mb = (double) bytesRead * MEASURED_RUNS / (1024 * 1024);
+                System.out.printf("%-12s | %-8d | %10.1f | %14.0f%n", policy, stages, mb / seconds,
+                        (double) linesRead * MEASURED_RUNS / seconds);
+            }
+        }
+    }
+
+    private static String pipeline(int stages) {
+        StringBuilder line = new StringBuilder("produce --lines ").append(LINES);
+        for (int i = 0; i < stages - 2; i++)
+            line.append(" | relay");
+        return line.append(" | sink").toString();
+    }
+}
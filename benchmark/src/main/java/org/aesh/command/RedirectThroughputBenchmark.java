@@ -0,0 +1,123 @@
+package org.aesh.command;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.aesh.command.impl.operator.OutputDelegate;
+import org.aesh.command.impl.operator.OutputRedirectionOperator;
+import org.aesh.command.settings.SettingsBuilder;
+import org.aesh.console.AeshContext;
+import org.aesh.terminal.utils.Parser;
+
+/**
+ * Benchmark measuring the throughput of output redirection to a file ({@code >}).
+ * <p>
+ * Two implementations write the same lines, plain and colored:
+ * <ul>
+ * <li><b>Regex + writer</b> — the previous implementation, stripping the ANSI codes of
+ * each write with {@link Parser#stripAwayAnsiCodes(String)} and writing through
+ * {@link Files#newBufferedWriter}</li>
+ * <li><b>Stripper + channel</b> — the output delegate of {@link OutputRedirectionOperator},
+ * stripping the codes with a state machine and writing through a {@code FileChannel}</li>
+ * </ul>
+ * The throughput is given in MB/s of text written.
+ * <p>
+ * Run with:
+ * {@code mvn -Pbenchmark exec:java -pl benchmark -Dbenchmark.mainClass=org.aesh.command.RedirectThroughputBenchmark}
+ *
+ * @author Aesh team
+ */
+public class RedirectThroughputBenchmark {
+
+    private static final int WARMUP_RUNS = 3;
+    private static final int MEASURED_RUNS = 5;
+    private static final int LINES = 1_000_000;
+    private static final String PLAIN = "2024-01-01 12:00:00 INFO  [main] org.aesh.Example - processing item %d\n";
+    private static final String COLORED = "\u001B[2m2024-01-01 12:00:00\u001B[0m \u001B[32mINFO \u001B[0m "
+            + "[\u001B[1mmain\u001B[0m] \u001B[36morg.aesh.Example\u001B[0m - processing item %d\n";
+
+    private interface Output {
+        void write(String text) throws IOException;
+
+        void close() throws IOException;
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== Redirect Throughput Benchmark ===");
+        System.out.println("Lines: " + LINES + ", Warmup: " + WARMUP_RUNS + ", Measured: " + MEASURED_RUNS + " runs");
+        System.out.println();
+
+        AeshContext context = SettingsBuilder.builder().build().aeshContext();
+        Path file = Files.createTempFile("aesh-redirect", ".txt");
+        try {
+            System.out.printf("%-8s | %-20s | %10s%n", "Lines", "Implementation", "MB/s");
+            System.out.println("-".repeat(8) + "-|-" + "-".repeat(20) + "-|-" + "-".repeat(10));
+            for (String format : new String[] { PLAIN, COLORED }) {
+                String[] lines = new String[LINES];
+                for (int i = 0; i < LINES; i++)
+                    lines[i] = String.format(format, i);
+                String kind = format == PLAIN ? "plain" : "colored";
+
+                double before = megabytesPerSecond(lines, file, () -> {
+                    BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+                    return new Output() {
+                        @Override
+                        public void write(String text) throws IOException {
+                            writer.append(Parser.stripAwayAnsiCodes(text));
+                        }
+
+                        @Override
+                        public void close() throws IOException {
+                            writer.close();
+                        }
+                    };
+                });
+                double after = megabytesPerSecond(lines, file, () -> {
+                    OutputRedirectionOperator operator = new OutputRedirectionOperator(context);
+                    operator.setArgument(file.toString());
+                    OutputDelegate delegate = operator.getConfiguration().getOutputRedirection();
+                    return new Output() {
+                        @Override
+                        public void write(String text) {
+                            delegate.write(text);
+                        }
+
+                        @Override
+                        public void close() throws IOException {
+                            delegate.close();
+                        }
+                    };
+                });
+                System.out.printf("%-8s | %-20s | %10.1f%n", kind, "Regex + writer", before);
+                System.out.printf("%-8s | %-20s | %10.1f%n", kind, "Stripper + channel", after);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private interface OutputFactory {
+        Output open() throws IOException;
+    }
+
+    private static double megabytesPerSecond(String[] lines, Path file, OutputFactory factory) throws IOException {
+        for (int i = 0; i < WARMUP_RUNS; i++)
+            writeAll(lines, factory);
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_RUNS; i++)
+            writeAll(lines, factory);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double mb = (double) Files.size(file) * MEASURED_RUNS / (1024 * 1024);
+        return mb / seconds;
+    }
+
+    private static void writeAll(String[] lines, OutputFactory factory) throws IOException {
+        Output output = factory.open();
+        for (String line : lines)
+            output.write(line);
+        output.close();
+    }
+}
@@ -1,6 +1,10 @@
 package org.aesh.command;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -53,6 +57,9 @@ public class StartupBenchmark {
     private static final int WARMUP_ITERATIONS = 1000;
     private static final int MEASURED_ITERATIONS = 3000;
     private static final int[] COMMAND_COUNTS = { 1, 5, 10, 25, 50, 100 };
+    private static final int BULK_WARMUP_RUNS = 3;
+    private static final int BULK_MEASURED_RUNS = 5;
+    private static final int[] BULK_COMMAND_COUNTS = { 1_000, 10_000 };
 
     /**
      * Reflective access to the private reflection-based command parser.
@@ -1446,6 +1453,10 @@ public class StartupBenchmark {
             benchmark.runFlatBenchmark();
             System.out.println();
         }
+        if (all || filter.contains("bulk")) {
+            benchmark.runBulkRegistrationBenchmark();
+            System.out.println();
+        }
         if (all || filter.contains("mixin")) {
             benchmark.runMixinBenchmark();
             System.out.println();
@@ -1541,6 +1552,113 @@ public class StartupBenchmark {
         }
     }
 
+    /**
+     * Registering thousands of commands into the registry of a running runtime, one by one
+     * or in one batch, and creating the containers from the command classes sequentially
+     * or with {@link MutableCommandRegistryImpl#addAll(List)}, which creates them in parallel.
+     * The classes are distinct copies of {@link BulkCommand00000} without generated metadata,
+     * their containers are created by reflection.
+     */
+    public void runBulkRegistrationBenchmark() throws Exception {
+        System.out.println("=== Bulk Registration Benchmark ===");
+        System.out.println("Warmup: " + BULK_WARMUP_RUNS + ", Measured: " + BULK_MEASURED_RUNS + " runs, "
+                + Runtime.getRuntime().availableProcessors() + " cores");
+        System.out.println();
+
+        System.out.printf("Commands | %16s | %16s | %16s | %16s%n",
+                "One by one (ms)", "Batched (ms)", "Classes seq (ms)", "Classes par (ms)");
+        System.out.println("---------|-" + "-".repeat(16) + "-|-" + "-".repeat(16) + "-|-"
+                + "-".repeat(16) + "-|-" + "-".repeat(16));
+        for (int count : BULK_COMMAND_COUNTS) {
+            List<CommandContainer<CommandInvocation>> containers = new ArrayList<>(count);
+            for (int i = 0; i < count; i++)
+                containers.add(createGeneratedContainer("cmd-" + i, i));
+            List<Class<? extends Command>> classes = bulkCommandClasses(count);
+
+            double oneByOne = millisPerRun(() -> {
+                MutableCommandRegistryImpl<CommandInvocation> registry = runningRegistry();
+                for (CommandContainer<CommandInvocation> container : containers)
+                    registry.addCommand(container);
+            });
+            double batched = millisPerRun(() -> runningRegistry().addAllCommandContainers(containers));
+            double classesSequential = millisPerRun(() -> {
+                MutableCommandRegistryImpl<CommandInvocation> registry = runningRegistry();
+                for (Class<? extends Command> clazz : classes)
+                    registry.addCommand(clazz);
+            });
+            double classesParallel = millisPerRun(() -> runningRegistry().addAll(classes));
+            System.out.printf("%8d | %16.1f | %16.1f | %16.1f | %16.1f%n",
+                    count, oneByOne, batched, classesSequential, classesParallel);
+        }
+    }
+
+    /**
+     * An empty registry with a runtime listening to it and a registry-level DefaultValueProvider.
+     */
+    private static MutableCommandRegistryImpl<CommandInvocation> runningRegistry() {
+        MutableCommandRegistryImpl<CommandInvocation> registry = new MutableCommandRegistryImpl<>();
+        registry.setDefaultValueProvider(new BenchmarkDefaultValueProvider());
+        AeshCommandRuntimeBuilder.builder().commandRegistry(registry).build();
+        return registry;
+    }
+
+    /**
+     * Define {@code count} distinct command classes by copying the bytecode of
+     * {@link BulkCommand00000} with the number in its class and command names replaced.
+     * The names keep their length so the constant pool stays valid. The copies are
+     * defined by a new class loader, a generated metadata provider only exists for the template.
+     */
+    private static List<Class<? extends Command>> bulkCommandClasses(int count) throws IOException {
+        if (count > 100_000)
+            throw new IllegalArgumentException("At most 100000 bulk commands, was " + count);
+        byte[] template;
+        try (InputStream in = BulkCommand00000.class.getResourceAsStream("BulkCommand00000.class")) {
+            template = in.readAllBytes();
+        }
+        BulkCommandLoader loader = new BulkCommandLoader(BulkCommand00000.class.getClassLoader());
+        List<Class<? extends Command>> classes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String number = String.format("%05d", i + 1);
+            byte[] bytes = template.clone();
+            replaceAll(bytes, "BulkCommand00000", "BulkCommand" + number);
+            replaceAll(bytes, "bulk-00000", "bulk-" + number);
+            classes.add((Class<? extends Command>) loader.define(
+                    BulkCommand00000.class.getPackage().getName() + ".BulkCommand" + number, bytes));
+        }
+        return classes;
+    }
+
+    private static void replaceAll(byte[] bytes, String target, String replacement) {
+        byte[] from = target.getBytes(StandardCharsets.US_ASCII);
+        byte[] to = replacement.getBytes(StandardCharsets.US_ASCII);
+        for (int i = 0; i <= bytes.length - from.length; i++) {
+            int j = 0;
+            while (j < from.length && bytes[i + j] == from[j])
+                j++;
+            if (j == from.length)
+                System.arraycopy(to, 0, bytes, i, to.length);
+        }
+    }
+
+    private static final class BulkCommandLoader extends ClassLoader {
+        BulkCommandLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+
+    private static double millisPerRun(ThrowingRunnable run) throws Exception {
+        for (int i = 0; i < BULK_WARMUP_RUNS; i++)
+            run.run();
+        long start = System.nanoTime();
+        for (int i = 0; i < BULK_MEASURED_RUNS; i++)
+            run.run();
+        return (System.nanoTime() - start) / 1e6 / BULK_MEASURED_RUNS;
+    }
+
     public void runMixinBenchmark() throws Exception {
         System.out.println("=== Mixin Command Benchmark ===");
         System.out.println("Each command uses a shared @Mixin with 2 options + 2 own options + argument");
@@ -1803,7 +1921,6 @@ public class StartupBenchmark {
         AeshCommandRuntimeBuilder.builder().commandRegistry(registry).build();
     }
 
-    @SuppressWarnings("unused")
     private CommandContainer<CommandInvocation> createGeneratedContainer(String name, int index) throws Exception {
         Command<CommandInvocation> cmd = AESH_COMMANDS[index % AESH_COMMANDS.length]
                 .getDeclaredConstructor().newInstance();